@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.benchmark;
+
+import com.heimuheimu.util.pinyin.PinyinUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行拼音转换基准测试，批量转换每次操作转换 100000 个标题，长文本转换每次操作转换一个约 1M 字符的文本，用于比较不同并行度下的耗时。
+ *
+ * @author heimuheimu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BatchConvertBenchmark {
+
+    private static final int TEXT_COUNT = 100000;
+
+    /**
+     * 并行度，1 为单线程
+     */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private List<String> texts;
+
+    /**
+     * 由 {@link Corpus#ARTICLE} 重复组成的长度约为 1M 字符的长文本
+     */
+    private String document;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        String[] titles = Corpus.TITLES.getTexts();
+        texts = new ArrayList<>(TEXT_COUNT);
+        for (int i = 0; i < TEXT_COUNT; i++) {
+            texts.add(titles[i % titles.length]);
+        }
+        StringBuilder documentBuilder = new StringBuilder(1024 * 1024 + 4096);
+        while (documentBuilder.length() < 1024 * 1024) {
+            documentBuilder.append(Corpus.ARTICLE.getTexts()[0]).append('\n');
+        }
+        document = documentBuilder.toString();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<String> toPinyinWithToneNumber() {
+        return PinyinUtil.toPinyinWithToneNumber(texts, pool);
+    }
+
+    @Benchmark
+    public String toPinyinWithToneNumberLargeDocument() {
+        return PinyinUtil.toPinyinWithToneNumber(document, pool);
+    }
+
+    @Benchmark
+    public List<String> toPinyinWithToneNumberSequential() {
+        List<String> results = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            results.add(PinyinUtil.toPinyinWithToneNumber(text));
+        }
+        return results;
+    }
+}
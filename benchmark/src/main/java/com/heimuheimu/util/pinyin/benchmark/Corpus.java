@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的语料。
+ *
+ * @author heimuheimu
+ */
+public enum Corpus {
+
+    /**
+     * 人名，长度 2 - 4 个汉字，包含复姓和姓氏多音字
+     */
+    NAMES("names.txt", false),
+
+    /**
+     * 商品、文章标题，长度 10 - 20 个汉字
+     */
+    TITLES("titles.txt", false),
+
+    /**
+     * 多音字密集的长文章，整个文件作为一个文本
+     */
+    ARTICLE("article.txt", true),
+
+    /**
+     * 中英文、数字、符号混合的文本
+     */
+    MIXED("mixed.txt", false);
+
+    private final String[] texts;
+
+    Corpus(String fileName, boolean singleDocument) {
+        List<String> lines = readLines(fileName);
+        this.texts = singleDocument ? new String[]{String.join("\n", lines)} : lines.toArray(new String[0]);
+    }
+
+    /**
+     * 获得语料文本数组，调用方不应对其进行修改。
+     *
+     * @return 语料文本数组
+     */
+    public String[] getTexts() {
+        return texts;
+    }
+
+    private static List<String> readLines(String fileName) {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = Corpus.class.getResourceAsStream(fileName);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Read corpus file failed: `" + fileName + "`.", e);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.benchmark;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinBinaryHelper;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryLoader;
+import com.heimuheimu.util.pinyin.multi.ChineseWordAutomaton;
+import com.heimuheimu.util.pinyin.multi.PinyinSelectorLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字典加载基准测试，分别测试从文本文件和二进制文件加载汉字拼音字典及多音字词组自动机的耗时，文件内容在测试前预先读入内存，不包含 IO 耗时。
+ *
+ * @author heimuheimu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DictionaryLoadBenchmark {
+
+    private static final String RESOURCE_DIRECTORY = "/com/heimuheimu/util/pinyin/dictionary/";
+
+    private byte[] dictionaryText;
+
+    private byte[] dictionaryBinary;
+
+    private byte[] automatonText;
+
+    private byte[] automatonBinary;
+
+    private PinyinDictionary dictionary;
+
+    @Setup
+    public void setup() throws IOException {
+        dictionaryText = readResource("pinyin_mapping.txt");
+        dictionaryBinary = readResource("pinyin_mapping.bin");
+        automatonText = readResource("multi_pinyin_mapping.txt");
+        automatonBinary = readResource("multi_pinyin_mapping.bin");
+        dictionary = PinyinDictionaryLoader.loadBinary(new ByteArrayInputStream(dictionaryBinary));
+    }
+
+    @Benchmark
+    public PinyinDictionary loadDictionaryText() throws IOException {
+        return PinyinDictionaryLoader.loadText(new ByteArrayInputStream(dictionaryText));
+    }
+
+    @Benchmark
+    public PinyinDictionary loadDictionaryBinary() throws IOException {
+        return PinyinDictionaryLoader.loadBinary(new ByteArrayInputStream(dictionaryBinary));
+    }
+
+    @Benchmark
+    public ChineseWordAutomaton loadAutomatonText() throws IOException {
+        return PinyinSelectorLoader.loadText(new ByteArrayInputStream(automatonText), dictionary);
+    }
+
+    @Benchmark
+    public ChineseWordAutomaton loadAutomatonBinary() throws IOException {
+        return PinyinSelectorLoader.loadBinary(new ByteArrayInputStream(automatonBinary), dictionary);
+    }
+
+    private static byte[] readResource(String fileName) throws IOException {
+        try (InputStream in = DictionaryLoadBenchmark.class.getResourceAsStream(RESOURCE_DIRECTORY + fileName)) {
+            if (in == null) {
+                throw new IOException("Resource is not found: `" + RESOURCE_DIRECTORY + fileName + "`.");
+            }
+            ByteBuffer buffer = PinyinBinaryHelper.readFully(in);
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.benchmark;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.multi.PinyinSelector;
+import com.heimuheimu.util.pinyin.multi.PinyinSelectorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个汉字拼音查询基准测试，覆盖 {@link PinyinDictionary#getPinyinWithToneNumber(int)}、
+ * {@link PinyinDictionary#toPinyinWithToneMark(String)} 和 {@link PinyinSelector#getPinyin(char[], int)} 方法，
+ * 查询目标取自 {@link Corpus#ARTICLE} 语料。
+ *
+ * @author heimuheimu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PinyinDictionaryBenchmark {
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    private char[] characters;
+
+    private String[] pinyinWithToneNumbers;
+
+    private char[] article;
+
+    private int[] polyphoneIndexes;
+
+    private PinyinSelector[] polyphoneSelectors;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        article = Corpus.ARTICLE.getTexts()[0].toCharArray();
+        StringBuilder chineseCharacters = new StringBuilder();
+        List<String> pinyinList = new ArrayList<>();
+        List<Integer> polyphoneIndexList = new ArrayList<>();
+        for (int i = 0; i < article.length; i++) {
+            String[] pinyinArray = DICTIONARY.getPinyinWithToneNumber(article[i]);
+            if (pinyinArray != null) {
+                chineseCharacters.append(article[i]);
+                pinyinList.add(pinyinArray[0]);
+                if (PinyinSelectorFactory.getSelector(article[i]) != null) {
+                    polyphoneIndexList.add(i);
+                }
+            }
+        }
+        characters = chineseCharacters.toString().toCharArray();
+        pinyinWithToneNumbers = pinyinList.toArray(new String[0]);
+        polyphoneIndexes = new int[polyphoneIndexList.size()];
+        polyphoneSelectors = new PinyinSelector[polyphoneIndexList.size()];
+        for (int i = 0; i < polyphoneIndexes.length; i++) {
+            polyphoneIndexes[i] = polyphoneIndexList.get(i);
+            polyphoneSelectors[i] = PinyinSelectorFactory.getSelector(article[polyphoneIndexes[i]]);
+        }
+        index = 0;
+    }
+
+    @Benchmark
+    public String[] getPinyinWithToneNumber() {
+        index = (index + 1) % characters.length;
+        return DICTIONARY.getPinyinWithToneNumber(characters[index]);
+    }
+
+    @Benchmark
+    public String toPinyinWithToneMark() {
+        index = (index + 1) % pinyinWithToneNumbers.length;
+        return DICTIONARY.toPinyinWithToneMark(pinyinWithToneNumbers[index]);
+    }
+
+    @Benchmark
+    public String selectPolyphonePinyin() {
+        index = (index + 1) % polyphoneIndexes.length;
+        return polyphoneSelectors[index].getPinyin(article, polyphoneIndexes[index]);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.benchmark;
+
+import com.heimuheimu.util.pinyin.PinyinUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PinyinUtil} 文本拼音转换基准测试，每次操作转换语料中的一个文本，语料中的文本依次轮换使用。
+ *
+ * @author heimuheimu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PinyinUtilBenchmark {
+
+    @Param({"NAMES", "TITLES", "ARTICLE", "MIXED"})
+    public Corpus corpus;
+
+    private String[] texts;
+
+    private int index;
+
+    private StringBuilder output;
+
+    private char[] initials;
+
+    @Setup
+    public void setup() {
+        texts = corpus.getTexts();
+        index = 0;
+        output = new StringBuilder(4096);
+        int maxLength = 0;
+        for (String text : texts) {
+            maxLength = Math.max(maxLength, text.length());
+        }
+        initials = new char[maxLength];
+    }
+
+    @Benchmark
+    public String toPinyinWithToneNumber() {
+        return PinyinUtil.toPinyinWithToneNumber(nextText());
+    }
+
+    @Benchmark
+    public String toPinyinWithToneMark() {
+        return PinyinUtil.toPinyinWithToneMark(nextText());
+    }
+
+    @Benchmark
+    public String toPinyinWithoutTone() {
+        return PinyinUtil.toPinyinWithoutTone(nextText());
+    }
+
+    /**
+     * 将转换结果追加到复用的 {@code StringBuilder} 中，不创建结果字符串。
+     */
+    @Benchmark
+    public StringBuilder toPinyinWithToneNumberIntoBuilder() {
+        String text = nextText();
+        output.setLength(0);
+        PinyinUtil.toPinyinWithToneNumber(text, 0, text.length(), output);
+        return output;
+    }
+
+    /**
+     * 将拼音首字母写入复用的 {@code char[]} 中，不创建任何对象。
+     */
+    @Benchmark
+    public int toPinyinInitials() {
+        String text = nextText();
+        return PinyinUtil.toPinyinInitials(text, 0, text.length(), initials, 0);
+    }
+
+    private String nextText() {
+        String text = texts[index];
+        index = (index + 1) % texts.length;
+        return text;
+    }
+}
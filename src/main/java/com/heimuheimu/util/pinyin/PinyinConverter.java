@@ -0,0 +1,1543 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+import com.heimuheimu.util.pinyin.metrics.PinyinConversionType;
+import com.heimuheimu.util.pinyin.metrics.PinyinMetrics;
+import com.heimuheimu.util.pinyin.multi.ChineseWordAutomaton;
+import com.heimuheimu.util.pinyin.multi.PinyinPhraseDictionary;
+import com.heimuheimu.util.pinyin.multi.PinyinSelectorFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 拼音转换器，将文本中的中文转换为拼音，支持常用多音字转换，并可在内置多音字词库之上叠加一个或多个用户词组拼音词典。
+ *
+ * <p>拼音转换器通过 {@link Builder} 构建，构建完成后不可修改。所有转换器实例共享同一份汉字拼音字典和内置多音字词组自动机，
+ * 用户词组拼音词典在内置多音字拼音选择完成后依次生效，后添加的词典优先级更高，未被用户词组命中的字符的拼音选择结果与
+ * {@link PinyinUtil} 完全一致。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinConverter} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinConverter {
+
+    /**
+     * 每次进行多音字拼音选择的文本分段长度
+     */
+    private static final int SEGMENT_LENGTH = 1024;
+
+    /**
+     * 多音字拼音选择结果缓存，每个线程复用同一个数组，数组长度不小于分段长度加上两侧的上下文长度，上下文长度由转换器决定
+     */
+    private static final ThreadLocal<int[]> SYLLABLE_ID_BUFFER = new ThreadLocal<>();
+
+    /**
+     * 多音字词组命中标记缓存，在启用统计或获取拼音分词结果时使用，每个线程复用同一个数组
+     */
+    private static final ThreadLocal<long[]> MATCHED_BIT_BUFFER = new ThreadLocal<>();
+
+    /**
+     * 拼音首字母替换时每个线程复用的输出缓冲区，长度为分段长度
+     */
+    private static final ThreadLocal<char[]> INITIAL_BUFFER = ThreadLocal.withInitial(() -> new char[SEGMENT_LENGTH]);
+
+    /**
+     * UTF-8 字节转换时当前线程复用的解码字符数组
+     */
+    private static final ThreadLocal<char[]> UTF8_CHARACTER_BUFFER = new ThreadLocal<>();
+
+    /**
+     * UTF-8 字节转换时当前线程复用的字符起始字节位置数组，与 {@link #UTF8_CHARACTER_BUFFER} 对应
+     */
+    private static final ThreadLocal<int[]> UTF8_BYTE_OFFSET_BUFFER = new ThreadLocal<>();
+
+    /**
+     * 批量替换时每个线程复用的输出缓冲区
+     */
+    private static final ThreadLocal<StringBuilder> OUTPUT_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * 批量替换输出缓冲区的最大保留容量，替换超长文本后缓冲区容量超过该值时将被丢弃，避免长期占用内存
+     */
+    private static final int MAX_OUTPUT_BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * 长文本并行替换时每个区间的最小长度，长度不超过该值的文本将直接在调用线程中替换
+     */
+    private static final int MIN_PARALLEL_RANGE_LENGTH = 16 * 1024;
+
+    /**
+     * 汉字拼音字典
+     */
+    private final PinyinDictionary dictionary;
+
+    /**
+     * 内置多音字词组自动机
+     */
+    private final ChineseWordAutomaton automaton;
+
+    /**
+     * 用户词组拼音词典数组，按添加顺序排列
+     */
+    private final PinyinPhraseDictionary[] phraseDictionaries;
+
+    /**
+     * 分段两侧需要保留的上下文长度，至少为 1，保证分段时能够判断字符是否为文本中的最后一个字符
+     */
+    private final int contextLength;
+
+    /**
+     * 拼音转换统计信息，未启用统计时为 {@code null}
+     */
+    private final PinyinMetrics metrics;
+
+    /**
+     * 拼音转换结果缓存，未启用缓存时为 {@code null}
+     */
+    private final PinyinResultCache resultCache;
+
+    /**
+     * 拼音输出格式，{@link #toPinyin(String)} 等方法使用该格式输出拼音
+     */
+    private final PinyinFormat format;
+
+    /**
+     * 根据 {@link #format} 预先计算的拼音渲染表，每个拼音转换器独立创建
+     */
+    private final PinyinRenderer renderer;
+
+    /**
+     * 带有数字声调拼音的渲染表，由使用同一个汉字拼音字典的拼音转换器共享
+     */
+    private final PinyinRenderer toneNumberRenderer;
+
+    /**
+     * 带有符号声调拼音的渲染表，由使用同一个汉字拼音字典的拼音转换器共享
+     */
+    private final PinyinRenderer toneMarkRenderer;
+
+    /**
+     * 不带声调拼音的渲染表，由使用同一个汉字拼音字典的拼音转换器共享
+     */
+    private final PinyinRenderer withoutToneRenderer;
+
+    /**
+     * 所有拼音渲染表中，每个 UTF-8 编码的输入字节对应的最大输出字节数
+     */
+    private final int maxBytesPerInputByte;
+
+    private PinyinConverter(PinyinDictionary dictionary, ChineseWordAutomaton automaton, PinyinPhraseDictionary[] phraseDictionaries,
+                            PinyinMetrics metrics, PinyinResultCache resultCache, PinyinFormat format) {
+        this.dictionary = dictionary;
+        this.automaton = automaton;
+        this.phraseDictionaries = phraseDictionaries;
+        this.metrics = metrics;
+        this.resultCache = resultCache;
+        this.format = format;
+        this.renderer = new PinyinRenderer(dictionary, format, PinyinConversionType.FORMATTED);
+        this.toneNumberRenderer = PinyinRenderer.getSharedRenderer(dictionary, PinyinConversionType.TONE_NUMBER);
+        this.toneMarkRenderer = PinyinRenderer.getSharedRenderer(dictionary, PinyinConversionType.TONE_MARK);
+        this.withoutToneRenderer = PinyinRenderer.getSharedRenderer(dictionary, PinyinConversionType.WITHOUT_TONE);
+        this.maxBytesPerInputByte = Math.max(Math.max(renderer.getMaxBytesPerInputByte(), toneNumberRenderer.getMaxBytesPerInputByte()),
+                Math.max(toneMarkRenderer.getMaxBytesPerInputByte(), withoutToneRenderer.getMaxBytesPerInputByte()));
+        int maxWordLength = automaton.getMaxWordLength();
+        for (PinyinPhraseDictionary phraseDictionary : phraseDictionaries) {
+            maxWordLength = Math.max(maxWordLength, phraseDictionary.getMaxPhraseLength());
+        }
+        this.contextLength = Math.max(maxWordLength - 1, 1);
+    }
+
+    /**
+     * 将文本中的中文替换为带有数字声调的拼音后返回，例如 "他屏气凝神躲在屏风后面。" 替换后的内容为：
+     * "ta1 bing3 qi4 ning2 shen2 duo3 zai4 ping2 feng1 hou4 mian4 。"
+     *
+     * @param text 需要进行拼音替换的文本
+     * @return 替换后的文本
+     */
+    public String toPinyinWithToneNumber(String text) {
+        return toPinyin(text, toneNumberRenderer);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有数字声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public void toPinyinWithToneNumber(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        toPinyin(text, offset, length, toneNumberRenderer, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有数字声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public void toPinyinWithToneNumber(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        appendPinyin(text, offset, length, toneNumberRenderer, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为带有数字声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithToneNumber(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public List<String> toPinyinWithToneNumber(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return toPinyin(texts, toneNumberRenderer, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为带有数字声调的拼音后返回，返回结果与 {@link #toPinyinWithToneNumber(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public String toPinyinWithToneNumber(CharSequence text, ForkJoinPool pool) {
+        return toPinyin(text, toneNumberRenderer, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为带有数字声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public void toPinyinWithToneNumber(Reader reader, Writer writer) throws IOException {
+        appendPinyin(reader, toneNumberRenderer, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为带有数字声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * <p>字节按固定长度分段解码到当前线程复用的字符数组中进行多音字拼音选择，不会创建中间字符串，拼音直接写入预先编码的字节，
+     * 没有拼音的字符直接复制原始字节，不合法的 UTF-8 字节序列按没有拼音的字符处理，原样输出时保持原始字节不变。
+     * 支持堆内和堆外缓冲区，{@code byte[]} 可通过 {@link ByteBuffer#wrap(byte[], int, int)} 方法传入，不会复制数据。</p>
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public int toPinyinWithToneNumber(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return appendPinyin(input, toneNumberRenderer, output);
+    }
+
+    /**
+     * 将文本中的中文替换为带有符号声调的拼音后返回，例如 "他屏气凝神躲在屏风后面。" 替换后的内容为：
+     * "tā bǐng qì níng shén duǒ zài píng fēng hòu miàn 。"
+     *
+     * @param text 需要进行拼音替换的文本
+     * @return 替换后的文本
+     */
+    public String toPinyinWithToneMark(String text) {
+        return toPinyin(text, toneMarkRenderer);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有符号声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public void toPinyinWithToneMark(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        toPinyin(text, offset, length, toneMarkRenderer, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有符号声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public void toPinyinWithToneMark(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        appendPinyin(text, offset, length, toneMarkRenderer, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为带有符号声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithToneMark(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public List<String> toPinyinWithToneMark(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return toPinyin(texts, toneMarkRenderer, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为带有符号声调的拼音后返回，返回结果与 {@link #toPinyinWithToneMark(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public String toPinyinWithToneMark(CharSequence text, ForkJoinPool pool) {
+        return toPinyin(text, toneMarkRenderer, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为带有符号声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public void toPinyinWithToneMark(Reader reader, Writer writer) throws IOException {
+        appendPinyin(reader, toneMarkRenderer, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为带有符号声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public int toPinyinWithToneMark(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return appendPinyin(input, toneMarkRenderer, output);
+    }
+
+    /**
+     * 将文本中的中文替换为不带声调的拼音后返回，例如 "他屏气凝神躲在屏风后面。" 替换后的内容为：
+     * "ta bing qi ning shen duo zai ping feng hou mian 。"
+     *
+     * @param text 需要进行拼音替换的文本
+     * @return 替换后的文本
+     */
+    public String toPinyinWithoutTone(String text) {
+        return toPinyin(text, withoutToneRenderer);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为不带声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public void toPinyinWithoutTone(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        toPinyin(text, offset, length, withoutToneRenderer, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为不带声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public void toPinyinWithoutTone(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        appendPinyin(text, offset, length, withoutToneRenderer, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为不带声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithoutTone(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public List<String> toPinyinWithoutTone(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return toPinyin(texts, withoutToneRenderer, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为不带声调的拼音后返回，返回结果与 {@link #toPinyinWithoutTone(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public String toPinyinWithoutTone(CharSequence text, ForkJoinPool pool) {
+        return toPinyin(text, withoutToneRenderer, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为不带声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public void toPinyinWithoutTone(Reader reader, Writer writer) throws IOException {
+        appendPinyin(reader, withoutToneRenderer, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为不带声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public int toPinyinWithoutTone(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return appendPinyin(input, withoutToneRenderer, output);
+    }
+
+    /**
+     * 将文本中的中文按拼音转换器的输出格式替换为拼音后返回，输出格式通过 {@link Builder#setFormat(PinyinFormat)} 方法设置，
+     * 未设置时与 {@link #toPinyinWithToneNumber(String)} 的转换结果一致。输出格式在构建时已预先计算为渲染表，
+     * 转换过程中不会对每个字符判断输出格式选项。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @return 替换后的文本
+     */
+    public String toPinyin(String text) {
+        return toPinyin(text, renderer);
+    }
+
+    /**
+     * 将文本指定区间中的中文按拼音转换器的输出格式替换为拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyin(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public void toPinyin(CharSequence text, int offset, int length, StringBuilder output) throws IndexOutOfBoundsException {
+        toPinyin(text, offset, length, renderer, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文按拼音转换器的输出格式替换为拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyin(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public void toPinyin(CharSequence text, int offset, int length, Appendable output) throws IndexOutOfBoundsException, IOException {
+        appendPinyin(text, offset, length, renderer, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文按拼音转换器的输出格式替换为拼音，替换规则与 {@link #toPinyin(String)} 一致，
+     * 并行规则与 {@link #toPinyinWithToneNumber(List, ForkJoinPool)} 一致。
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public List<String> toPinyin(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return toPinyin(texts, renderer, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文按拼音转换器的输出格式替换为拼音后返回，返回结果与 {@link #toPinyin(String)} 完全一致，
+     * 并行规则与 {@link #toPinyinWithToneNumber(CharSequence, ForkJoinPool)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}
+     * @return 替换后的文本
+     */
+    public String toPinyin(CharSequence text, ForkJoinPool pool) {
+        return toPinyin(text, renderer, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文按拼音转换器的输出格式替换为拼音后写入 {@code writer}，替换规则与 {@link #toPinyin(String)} 一致，
+     * 读写规则与 {@link #toPinyinWithToneNumber(Reader, Writer)} 一致。
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public void toPinyin(Reader reader, Writer writer) throws IOException {
+        appendPinyin(reader, renderer, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文按拼音转换器的输出格式替换为拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyin(String)} 一致。
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public int toPinyin(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return appendPinyin(input, renderer, output);
+    }
+
+    /**
+     * 获得 {@code byteLength} 个字节的 UTF-8 编码文本替换为拼音后的最大字节数，可用于为 {@link #toPinyin(ByteBuffer, ByteBuffer)}
+     * 等 UTF-8 字节转换方法分配输出缓冲区，返回值适用于所有拼音格式。
+     *
+     * @param byteLength UTF-8 编码的文本字节数
+     * @return 替换后的最大字节数
+     * @throws IllegalArgumentException 如果 {@code byteLength} 小于 0，或计算结果超出 {@code int} 的范围，将抛出此异常
+     */
+    public int getMaxPinyinByteLength(int byteLength) throws IllegalArgumentException {
+        if (byteLength < 0) {
+            throw new IllegalArgumentException("Invalid byte length: `" + byteLength + "`.");
+        }
+        long maxLength = (long) byteLength * maxBytesPerInputByte;
+        if (maxLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Byte length is too large: `" + byteLength + "`.");
+        }
+        return (int) maxLength;
+    }
+
+    /**
+     * 将文本中的中文替换为拼音首字母后返回，多音字的首字母与 {@link #toPinyinWithToneNumber(String)} 选择的拼音一致，
+     * 其它字符保持不变，且不会插入空格，例如 "中国人" 替换后的内容为 "zgr"，"重庆" 替换后的内容为 "cq"。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @return 替换后的文本
+     */
+    public String toPinyinInitials(String text) {
+        if (text != null && !text.isEmpty()) {
+            String result = resultCache != null ? resultCache.get(this, PinyinConversionType.INITIALS, text) : null;
+            if (result == null) {
+                char[] output = new char[text.length()];
+                int initialCount = toPinyinInitials(text, 0, text.length(), output, 0);
+                result = new String(output, 0, initialCount);
+                if (resultCache != null) {
+                    resultCache.put(this, PinyinConversionType.INITIALS, text, result);
+                }
+            }
+            return result;
+        } else {
+            return text;
+        }
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为拼音首字母后追加到 {@code output} 中，替换规则与 {@link #toPinyinInitials(String)} 一致，
+     * 替换过程中不会创建任何中间字符串。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public void toPinyinInitials(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        checkRange(text, offset, length);
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        char[] initials = INITIAL_BUFFER.get();
+        int end = offset + length;
+        for (int rangeStart = offset; rangeStart < end; rangeStart += SEGMENT_LENGTH) {
+            int rangeEnd = Math.min(rangeStart + SEGMENT_LENGTH, end);
+            int initialCount = writeInitials(text, rangeStart, rangeEnd, offset, end, initials, 0);
+            output.append(initials, 0, initialCount);
+        }
+        if (metrics != null) {
+            metrics.recordConversion(PinyinConversionType.INITIALS, length, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为拼音首字母后写入 {@code output} 数组，替换规则与 {@link #toPinyinInitials(String)} 一致，
+     * 除增补平面汉字的代理对仅对应一个首字母外，每个字符对应一个输出字符，因此写入的字符数量不会超过 {@code length}，
+     * 替换过程中不会创建任何对象。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出数组
+     * @param outputOffset 输出数组的起始写入位置
+     * @return 写入的字符数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，或输出数组剩余空间不足，将抛出此异常
+     */
+    public int toPinyinInitials(CharSequence text, int offset, int length, char[] output, int outputOffset)
+            throws IndexOutOfBoundsException {
+        checkRange(text, offset, length);
+        if (outputOffset < 0 || output.length - outputOffset < length) {
+            throw new IndexOutOfBoundsException("Output array is too small. Output offset: `" + outputOffset
+                    + "`. Output length: `" + output.length + "`. Required length: `" + length + "`.");
+        }
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        int initialCount = writeInitials(text, offset, offset + length, offset, offset + length, output, outputOffset);
+        if (metrics != null) {
+            metrics.recordConversion(PinyinConversionType.INITIALS, length, System.nanoTime() - startNanos);
+        }
+        return initialCount;
+    }
+
+    /**
+     * 获得文本指定区间中每个字符对应的拼音音节 ID，并写入 {@code output} 数组，多音字的音节 ID 与 {@link #toPinyinWithToneNumber(String)}
+     * 选择的拼音一致，没有拼音的字符对应的音节 ID 为 -1。音节 ID 可通过 {@link PinyinDictionary#getSyllable(int)} 等方法获得对应的拼音，
+     * 写入的音节 ID 数量始终等于 {@code length}，该方法不会创建任何对象。
+     *
+     * @param text 目标文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 音节 ID 输出数组
+     * @param outputOffset 输出数组的起始写入位置
+     * @return 写入的音节 ID 数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，或输出数组剩余空间不足，将抛出此异常
+     */
+    public int getSyllableIds(CharSequence text, int offset, int length, int[] output, int outputOffset)
+            throws IndexOutOfBoundsException {
+        checkRange(text, offset, length);
+        if (outputOffset < 0 || output.length - outputOffset < length) {
+            throw new IndexOutOfBoundsException("Output array is too small. Output offset: `" + outputOffset
+                    + "`. Output length: `" + output.length + "`. Required length: `" + length + "`.");
+        }
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        int end = offset + length;
+        int position = outputOffset;
+        for (int segmentStart = offset; segmentStart < end; segmentStart += SEGMENT_LENGTH) {
+            int segmentEnd = Math.min(segmentStart + SEGMENT_LENGTH, end);
+            int contextStart = Math.max(segmentStart - contextLength, offset);
+            int contextEnd = Math.min(segmentEnd + contextLength, end);
+            select(text, contextStart, contextEnd, selectedSyllableIds, segmentStart, segmentEnd);
+            for (int i = segmentStart; i < segmentEnd; i++) {
+                int syllableId = selectedSyllableIds[i - contextStart];
+                if (syllableId < 0) {
+                    char targetCharacter = text.charAt(i);
+                    syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                    if (syllableId < 0 && Character.isHighSurrogate(targetCharacter)) {
+                        syllableId = getSupplementarySyllableId(text, i, end);
+                    }
+                }
+                output[position++] = syllableId;
+            }
+        }
+        if (metrics != null) {
+            metrics.recordConversion(PinyinConversionType.SYLLABLE_IDS, length, System.nanoTime() - startNanos);
+        }
+        return length;
+    }
+
+    /**
+     * 获得文本指定区间中每个有拼音的汉字对应的拼音分词结果，并以列存储的形式写入 {@code buffer}，写入前将清空 {@code buffer}。
+     * 每个分词包括汉字在 {@code text} 中的索引位置、占用的字符数（增补平面汉字为 2）、音节 ID 以及拼音是否由多音字词组或用户词组确定，
+     * 音节 ID 与 {@link #getSyllableIds(CharSequence, int, int, int[], int)} 方法的结果一致，没有拼音的字符不会产生分词。
+     *
+     * <p>{@code buffer} 的容量不足时将自动扩容，重复使用同一个 {@code buffer} 时，该方法不会创建任何对象。</p>
+     *
+     * @param text 目标文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param buffer 拼音分词结果输出目标
+     * @return 写入的分词数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public int getTokens(CharSequence text, int offset, int length, PinyinTokenBuffer buffer) throws IndexOutOfBoundsException {
+        checkRange(text, offset, length);
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        buffer.clear();
+        buffer.ensureCapacity(length);
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        long[] matchedBits = getMatchedBitBuffer();
+        int end = offset + length;
+        for (int segmentStart = offset; segmentStart < end; segmentStart += SEGMENT_LENGTH) {
+            int segmentEnd = Math.min(segmentStart + SEGMENT_LENGTH, end);
+            int contextStart = Math.max(segmentStart - contextLength, offset);
+            int contextEnd = Math.min(segmentEnd + contextLength, end);
+            int comparisonCount = select(text, contextStart, contextEnd, selectedSyllableIds, matchedBits);
+            if (metrics != null) {
+                recordSelection(text, contextStart, contextEnd, selectedSyllableIds, matchedBits, segmentStart, segmentEnd, comparisonCount);
+            }
+            // 增补平面汉字的分词位于高代理项，低代理项没有拼音，不会产生分词
+            for (int i = segmentStart; i < segmentEnd; i++) {
+                int index = i - contextStart;
+                int syllableId = selectedSyllableIds[index];
+                int characterCount = 1;
+                if (syllableId < 0) {
+                    char targetCharacter = text.charAt(i);
+                    syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                    if (syllableId < 0 && Character.isHighSurrogate(targetCharacter)) {
+                        syllableId = getSupplementarySyllableId(text, i, end);
+                        characterCount = 2;
+                    }
+                }
+                if (syllableId >= 0) {
+                    boolean selected = (matchedBits[index >>> 6] & (1L << index)) != 0;
+                    buffer.add(i, characterCount, syllableId, selected);
+                }
+            }
+        }
+        if (metrics != null) {
+            metrics.recordConversion(PinyinConversionType.TOKENS, length, System.nanoTime() - startNanos);
+        }
+        return buffer.size();
+    }
+
+    /**
+     * 将文本 [textStart, textEnd) 区间中 [rangeStart, rangeEnd) 部分的字符替换为拼音首字母后写入 {@code output} 数组，并返回写入的字符数量。
+     */
+    private int writeInitials(CharSequence text, int rangeStart, int rangeEnd, int textStart, int textEnd,
+                              char[] output, int outputOffset) {
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        int position = outputOffset;
+        for (int segmentStart = rangeStart; segmentStart < rangeEnd; segmentStart += SEGMENT_LENGTH) {
+            int segmentEnd = Math.min(segmentStart + SEGMENT_LENGTH, rangeEnd);
+            int contextStart = Math.max(segmentStart - contextLength, textStart);
+            int contextEnd = Math.min(segmentEnd + contextLength, textEnd);
+            select(text, contextStart, contextEnd, selectedSyllableIds, segmentStart, segmentEnd);
+            for (int i = segmentStart; i < segmentEnd; i++) {
+                char targetCharacter = text.charAt(i);
+                int syllableId = selectedSyllableIds[i - contextStart];
+                if (syllableId < 0) {
+                    syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                    if (syllableId < 0 && Character.isSurrogate(targetCharacter)) {
+                        if (isConvertedLowSurrogate(text, i, textStart)) {
+                            continue;
+                        }
+                        syllableId = getSupplementarySyllableId(text, i, textEnd);
+                    }
+                }
+                output[position++] = syllableId >= 0 ? dictionary.getSyllableInitial(syllableId) : targetCharacter;
+            }
+        }
+        return position - outputOffset;
+    }
+
+    /**
+     * 对目标文本 [start, end) 区间内的所有汉字进行拼音选择，先使用内置多音字词组自动机，再按添加顺序依次使用用户词组拼音词典覆盖选择结果，
+     * [segmentStart, segmentEnd) 为本次需要输出的分段，启用统计时仅统计该分段内的字符，两侧的上下文不会被重复统计。
+     */
+    private void select(CharSequence text, int start, int end, int[] syllableIds, int segmentStart, int segmentEnd) {
+        if (metrics == null) {
+            automaton.select(text, start, end, syllableIds);
+            for (PinyinPhraseDictionary phraseDictionary : phraseDictionaries) {
+                phraseDictionary.select(text, start, end, syllableIds);
+            }
+        } else {
+            long[] matchedBits = getMatchedBitBuffer();
+            int comparisonCount = select(text, start, end, syllableIds, matchedBits);
+            recordSelection(text, start, end, syllableIds, matchedBits, segmentStart, segmentEnd, comparisonCount);
+        }
+    }
+
+    /**
+     * 对目标文本 [start, end) 区间内的所有汉字进行拼音选择，并在 {@code matchedBits} 中标记由多音字词组或用户词组确定拼音的字符。
+     *
+     * @return 内置多音字词组自动机比较的词组数量
+     */
+    private int select(CharSequence text, int start, int end, int[] syllableIds, long[] matchedBits) {
+        int comparisonCount = automaton.select(text, start, end, syllableIds, matchedBits);
+        for (PinyinPhraseDictionary phraseDictionary : phraseDictionaries) {
+            phraseDictionary.select(text, start, end, syllableIds, matchedBits);
+        }
+        return comparisonCount;
+    }
+
+    /**
+     * 对目标文本 [start, end) 区间内的所有汉字进行拼音选择，在 {@code matchedBits} 中标记由内置多音字词组确定拼音的字符，
+     * 在 {@code userMatchedBits} 中标记由用户词组拼音词典确定拼音的字符，标记规则与 {@link ChineseWordAutomaton#select(CharSequence, int, int, int[], long[])} 一致。
+     */
+    void select(CharSequence text, int start, int end, int[] syllableIds, long[] matchedBits, long[] userMatchedBits) {
+        automaton.select(text, start, end, syllableIds, matchedBits);
+        Arrays.fill(userMatchedBits, 0, (end - start + 63) >>> 6, 0L);
+        for (PinyinPhraseDictionary phraseDictionary : phraseDictionaries) {
+            phraseDictionary.select(text, start, end, syllableIds, userMatchedBits);
+        }
+    }
+
+    /**
+     * 获得多音字拼音选择时分段两侧需要保留的上下文长度。
+     */
+    int getContextLength() {
+        return contextLength;
+    }
+
+    /**
+     * 统计分段 [segmentStart, segmentEnd) 内的多音字拼音选择结果和字典未命中次数。
+     */
+    private void recordSelection(CharSequence text, int start, int end, int[] syllableIds, long[] matchedBits,
+                                 int segmentStart, int segmentEnd, int comparisonCount) {
+        int polyphoneMatchedCount = 0;
+        int polyphoneDefaultCount = 0;
+        int dictionaryMissCount = 0;
+        for (int i = segmentStart; i < segmentEnd; i++) {
+            char c = text.charAt(i);
+            int index = i - start;
+            if (automaton.getDefaultSyllableId(c) >= 0) {
+                boolean matched = (matchedBits[index >>> 6] & (1L << index)) != 0;
+                if (matched) {
+                    polyphoneMatchedCount++;
+                } else {
+                    polyphoneDefaultCount++;
+                }
+                metrics.recordPolyphone(c, matched);
+            } else if (syllableIds[index] < 0 && dictionary.getDefaultSyllableId(c) < 0) {
+                if (PinyinDictionaryHelper.isCjkIdeograph(c)) {
+                    dictionaryMissCount++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+                    if (PinyinDictionaryHelper.isCjkIdeograph(codePoint) && dictionary.getDefaultSyllableId(codePoint) < 0) {
+                        dictionaryMissCount++;
+                    }
+                }
+            }
+        }
+        metrics.recordSelection(polyphoneMatchedCount, polyphoneDefaultCount, dictionaryMissCount, comparisonCount);
+    }
+
+    /**
+     * 获得当前线程复用的词组命中标记数组。
+     */
+    private long[] getMatchedBitBuffer() {
+        long[] buffer = MATCHED_BIT_BUFFER.get();
+        int requiredLength = (SEGMENT_LENGTH + 2 * contextLength + 63) >>> 6;
+        if (buffer == null || buffer.length < requiredLength) {
+            buffer = new long[requiredLength];
+            MATCHED_BIT_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * 获得当前线程复用的多音字拼音选择结果数组，数组长度不足时将重新创建。
+     */
+    private int[] getSyllableIdBuffer() {
+        int[] buffer = SYLLABLE_ID_BUFFER.get();
+        int requiredLength = SEGMENT_LENGTH + 2 * contextLength;
+        if (buffer == null || buffer.length < requiredLength) {
+            buffer = new int[requiredLength];
+            SYLLABLE_ID_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static void checkRange(CharSequence text, int offset, int length) throws IndexOutOfBoundsException {
+        int end = offset + length;
+        if (offset < 0 || length < 0 || end > text.length()) {
+            throw new IndexOutOfBoundsException("Invalid range: `[" + offset + ", " + end + ")`. Text length: `"
+                    + text.length() + "`.");
+        }
+    }
+
+    private String toPinyin(String text, PinyinRenderer renderer) {
+        if (text != null && !text.isEmpty()) {
+            String result = resultCache != null ? resultCache.get(this, renderer.getConversionType(), text) : null;
+            if (result == null) {
+                StringBuilder buffer = new StringBuilder(text.length() * 4);
+                toPinyin(text, 0, text.length(), renderer, buffer);
+                result = buffer.toString();
+                if (resultCache != null) {
+                    resultCache.put(this, renderer.getConversionType(), text, result);
+                }
+            }
+            return result;
+        } else {
+            return text;
+        }
+    }
+
+    private List<String> toPinyin(List<? extends CharSequence> texts, PinyinRenderer renderer, ForkJoinPool pool) {
+        String[] results = new String[texts.size()];
+        if (results.length > 0) {
+            // 每个工作线程约处理 4 个区间，在文本长度差异较大时仍能保持负载均衡
+            int chunkSize = Math.max(results.length / (pool.getParallelism() * 4), 1);
+            pool.invoke(new BatchConvertTask(texts, results, 0, results.length, chunkSize, renderer));
+        }
+        return Arrays.asList(results);
+    }
+
+    private String toPinyin(CharSequence text, PinyinRenderer renderer, ForkJoinPool pool) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        int rangeLength = Math.max(length / (pool.getParallelism() * 4), MIN_PARALLEL_RANGE_LENGTH);
+        int rangeCount = (length + rangeLength - 1) / rangeLength;
+        if (rangeCount <= 1) {
+            return toPinyin(text.toString(), renderer);
+        }
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        StringBuilder[] outputs = new StringBuilder[rangeCount];
+        pool.invoke(new RangeConvertTask(text, outputs, 0, rangeCount, rangeLength, renderer));
+        int outputLength = 0;
+        for (StringBuilder output : outputs) {
+            outputLength += output.length();
+        }
+        StringBuilder buffer = new StringBuilder(outputLength);
+        for (StringBuilder output : outputs) {
+            buffer.append(output);
+        }
+        if (metrics != null) {
+            metrics.recordConversion(renderer.getConversionType(), length, System.nanoTime() - startNanos);
+        }
+        return buffer.toString();
+    }
+
+    private void toPinyin(CharSequence text, int offset, int length, PinyinRenderer renderer, StringBuilder output) {
+        try {
+            appendPinyin(text, offset, length, renderer, output);
+        } catch (IOException e) { // should not happen
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为拼音后追加到 {@code output} 中，文本按 {@link #SEGMENT_LENGTH} 分段进行多音字拼音选择，
+     * 每个分段两侧额外保留 {@code maxWordLength - 1} 个字符的上下文，选择结果与对整个区间进行选择时一致。
+     */
+    private void appendPinyin(CharSequence text, int offset, int length, PinyinRenderer renderer, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        checkRange(text, offset, length);
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        int end = offset + length;
+        appendRange(text, offset, end, offset, end, renderer, output);
+        if (metrics != null) {
+            metrics.recordConversion(renderer.getConversionType(), length, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 将文本 [textStart, textEnd) 区间中 [rangeStart, rangeEnd) 部分的中文替换为拼音后追加到 {@code output} 中，
+     * 输出内容与对整个 [textStart, textEnd) 区间进行替换时对应的部分完全一致。
+     *
+     * <p>多音字拼音选择时在 [rangeStart, rangeEnd) 两侧额外保留 {@code maxWordLength - 1} 个字符的上下文，
+     * 第一个拼音前是否需要插入空格仅由 {@code rangeStart} 前一个字符决定，因此可以从任意位置开始替换。</p>
+     */
+    private void appendRange(CharSequence text, int rangeStart, int rangeEnd, int textStart, int textEnd, PinyinRenderer renderer,
+                             Appendable output) throws IOException {
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        int state = getInitialState(text, rangeStart, textStart, textEnd, renderer);
+        for (int segmentStart = rangeStart; segmentStart < rangeEnd; segmentStart += SEGMENT_LENGTH) {
+            int segmentEnd = Math.min(segmentStart + SEGMENT_LENGTH, rangeEnd);
+            int contextStart = Math.max(segmentStart - contextLength, textStart);
+            int contextEnd = Math.min(segmentEnd + contextLength, textEnd);
+            select(text, contextStart, contextEnd, selectedSyllableIds, segmentStart, segmentEnd);
+            state = appendSegment(text, segmentStart, segmentEnd, textEnd, selectedSyllableIds, contextStart,
+                    renderer, state, output);
+        }
+    }
+
+    /**
+     * 获得从 {@code rangeStart} 开始替换时的输出状态，与从 {@code textStart} 开始替换到 {@code rangeStart} 时的输出状态一致。
+     * 向前查找最近一个输出状态与之前的字符无关的字符（拼音或原样输出的字符），再依次处理其后被忽略或合并的字符。
+     */
+    private int getInitialState(CharSequence text, int rangeStart, int textStart, int textEnd, PinyinRenderer renderer) {
+        int anchor = rangeStart - 1;
+        while (anchor >= textStart && !hasPinyin(text, anchor, textStart, textEnd) && !renderer.isStateIndependent(text, anchor, textStart)) {
+            anchor--;
+        }
+        int state = PinyinRenderer.STATE_NONE;
+        if (anchor >= textStart) {
+            state = hasPinyin(text, anchor, textStart, textEnd) ? PinyinRenderer.STATE_AFTER_PINYIN
+                    : renderer.getNextState(text, anchor, textStart, state);
+        }
+        for (int i = anchor + 1; i < rangeStart; i++) {
+            state = renderer.getNextState(text, i, textStart, state);
+        }
+        return state;
+    }
+
+    /**
+     * 判断 {@code index} 位置的字符是否会被替换为拼音，增补平面汉字的高代理项和低代理项均视为会被替换为拼音。
+     */
+    private boolean hasPinyin(CharSequence text, int index, int textStart, int textEnd) {
+        char character = text.charAt(index);
+        if (dictionary.getDefaultSyllableId(character) >= 0) {
+            return true;
+        }
+        return Character.isSurrogate(character) && (isConvertedLowSurrogate(text, index, textStart)
+                || getSupplementarySyllableId(text, index, textEnd) >= 0);
+    }
+
+    /**
+     * 如果 {@code index} 位置为高代理项，且与其后的低代理项（位于 {@code limit} 之前）组成的增补平面汉字在字典中存在拼音，
+     * 返回该汉字默认拼音对应的音节 ID，否则返回 -1。
+     */
+    private int getSupplementarySyllableId(CharSequence text, int index, int limit) {
+        char high = text.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < limit) {
+            char low = text.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return dictionary.getDefaultSyllableId(Character.toCodePoint(high, low));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 判断 {@code index} 位置是否为已随前一个高代理项一起转换为拼音的低代理项，{@code start} 为允许向前查看的最小位置。
+     */
+    private boolean isConvertedLowSurrogate(CharSequence text, int index, int start) {
+        return Character.isLowSurrogate(text.charAt(index)) && index - 1 >= start
+                && getSupplementarySyllableId(text, index - 1, index + 1) >= 0;
+    }
+
+    /**
+     * 从 {@code reader} 中分块读取文本，将文本中的中文替换为拼音后写入 {@code output}。读取缓冲区由前置上下文、分段和后置上下文三部分组成，
+     * 只有后置上下文完整读取后，分段中的字符才会被输出，输出完成后，分段末尾的字符将作为下一次读取的前置上下文保留在缓冲区中。
+     */
+    private void appendPinyin(Reader reader, PinyinRenderer renderer, Appendable output) throws IOException {
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        int characterCount = 0;
+        char[] buffer = new char[SEGMENT_LENGTH + 2 * contextLength];
+        CharBuffer text = CharBuffer.wrap(buffer);
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        int filledLength = 0;
+        int pendingStart = 0;
+        boolean endOfStream = false;
+        int state = PinyinRenderer.STATE_NONE;
+        while (true) {
+            while (!endOfStream && filledLength < buffer.length) {
+                int readLength = reader.read(buffer, filledLength, buffer.length - filledLength);
+                if (readLength < 0) {
+                    endOfStream = true;
+                } else {
+                    filledLength += readLength;
+                    characterCount += readLength;
+                }
+            }
+            int segmentEnd = endOfStream ? filledLength : filledLength - contextLength;
+            if (segmentEnd > pendingStart) {
+                int contextStart = Math.max(pendingStart - contextLength, 0);
+                select(text, contextStart, filledLength, selectedSyllableIds, pendingStart, segmentEnd);
+                state = appendSegment(text, pendingStart, segmentEnd, endOfStream ? filledLength : -1,
+                        selectedSyllableIds, contextStart, renderer, state, output);
+                pendingStart = segmentEnd;
+            }
+            if (endOfStream) {
+                break;
+            }
+            int retainedStart = Math.max(pendingStart - contextLength, 0);
+            System.arraycopy(buffer, retainedStart, buffer, 0, filledLength - retainedStart);
+            filledLength -= retainedStart;
+            pendingStart -= retainedStart;
+        }
+        if (metrics != null) {
+            metrics.recordConversion(renderer.getConversionType(), characterCount, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本替换为拼音后写入 {@code output}，解码规则见 {@link Utf8Decoder}，分段及上下文规则与
+     * {@link #appendPinyin(Reader, PinyinRenderer, Appendable)} 一致。
+     */
+    private int appendPinyin(ByteBuffer input, PinyinRenderer renderer, ByteBuffer output)
+            throws BufferOverflowException, ReadOnlyBufferException {
+        if (output.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        long startNanos = metrics != null ? System.nanoTime() : 0;
+        int characterCount = 0;
+        int bufferLength = SEGMENT_LENGTH + 2 * contextLength;
+        char[] buffer = UTF8_CHARACTER_BUFFER.get();
+        int[] byteOffsets = UTF8_BYTE_OFFSET_BUFFER.get();
+        if (buffer == null || buffer.length < bufferLength) {
+            buffer = new char[bufferLength];
+            byteOffsets = new int[bufferLength + 1];
+            UTF8_CHARACTER_BUFFER.set(buffer);
+            UTF8_BYTE_OFFSET_BUFFER.set(byteOffsets);
+        }
+        CharBuffer text = CharBuffer.wrap(buffer);
+        int[] selectedSyllableIds = getSyllableIdBuffer();
+        int outputStart = output.position();
+        int position = input.position();
+        int limit = input.limit();
+        int filledLength = 0;
+        int pendingStart = 0;
+        int state = PinyinRenderer.STATE_NONE;
+        try {
+            while (true) {
+                int decodedLength = Utf8Decoder.decode(input, position, limit, buffer, byteOffsets, filledLength);
+                characterCount += decodedLength - filledLength;
+                filledLength = decodedLength;
+                position = byteOffsets[filledLength];
+                boolean endOfInput = position >= limit;
+                int segmentEnd = endOfInput ? filledLength : filledLength - contextLength;
+                if (segmentEnd > pendingStart) {
+                    int contextStart = Math.max(pendingStart - contextLength, 0);
+                    select(text, contextStart, filledLength, selectedSyllableIds, pendingStart, segmentEnd);
+                    state = appendSegment(text, byteOffsets, input, pendingStart, segmentEnd, endOfInput ? filledLength : -1,
+                            selectedSyllableIds, contextStart, renderer, state, output);
+                    pendingStart = segmentEnd;
+                }
+                if (endOfInput) {
+                    break;
+                }
+                int retainedStart = Math.max(pendingStart - contextLength, 0);
+                System.arraycopy(buffer, retainedStart, buffer, 0, filledLength - retainedStart);
+                System.arraycopy(byteOffsets, retainedStart, byteOffsets, 0, filledLength - retainedStart + 1);
+                filledLength -= retainedStart;
+                pendingStart -= retainedStart;
+            }
+        } catch (BufferOverflowException e) {
+            output.position(outputStart);
+            throw e;
+        }
+        input.position(limit);
+        if (metrics != null) {
+            metrics.recordConversion(renderer.getConversionType(), characterCount, System.nanoTime() - startNanos);
+        }
+        return output.position() - outputStart;
+    }
+
+    /**
+     * 将文本 [segmentStart, segmentEnd) 区间中的中文替换为拼音后以 UTF-8 编码写入 {@code output}，替换规则与
+     * {@link #appendSegment(CharSequence, int, int, int, int[], int, PinyinRenderer, int, Appendable)} 一致，
+     * 没有拼音的字符直接从 {@code source} 中复制原始字节，{@code byteOffsets[i]} 为文本第 i 个字符在 {@code source} 中的起始位置。
+     *
+     * @return 输出后的状态
+     */
+    private int appendSegment(CharSequence text, int[] byteOffsets, ByteBuffer source, int segmentStart, int segmentEnd, int textEnd,
+                              int[] selectedSyllableIds, int selectedStart, PinyinRenderer renderer, int state,
+                              ByteBuffer output) throws BufferOverflowException {
+        for (int i = segmentStart; i < segmentEnd; i++) {
+            char targetCharacter = text.charAt(i);
+            int syllableId = selectedSyllableIds[i - selectedStart];
+            if (syllableId < 0) {
+                syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                if (syllableId < 0 && Character.isSurrogate(targetCharacter)) {
+                    if (isConvertedLowSurrogate(text, i, selectedStart)) {
+                        continue;
+                    }
+                    syllableId = getSupplementarySyllableId(text, i, textEnd >= 0 ? textEnd : i + 2);
+                }
+            }
+            if (syllableId >= 0) {
+                state = renderer.appendSyllable(syllableId, state, output);
+            } else {
+                state = renderer.appendCharacter(text, i, selectedStart, state, source, byteOffsets[i], byteOffsets[i + 1], output);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 将文本 [segmentStart, segmentEnd) 区间中的中文替换为拼音后追加到 {@code output} 中，并返回输出后的状态。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param segmentStart 分段起始索引位置（包含）
+     * @param segmentEnd 分段结束索引位置（不包含）
+     * @param textEnd 完整文本的结束索引位置，用于判断增补平面汉字是否完整，如果完整文本尚未结束，则为 -1
+     * @param selectedSyllableIds 多音字拼音选择结果数组
+     * @param selectedStart 多音字拼音选择结果数组第一个元素对应的文本索引位置
+     * @param renderer 拼音渲染表
+     * @param state 分段开始时的输出状态
+     * @param output 替换后的内容输出目标
+     * @return 输出后的状态
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    private int appendSegment(CharSequence text, int segmentStart, int segmentEnd, int textEnd,
+                              int[] selectedSyllableIds, int selectedStart, PinyinRenderer renderer, int state,
+                              Appendable output) throws IOException {
+        for (int i = segmentStart; i < segmentEnd; i++) {
+            char targetCharacter = text.charAt(i);
+            int syllableId = selectedSyllableIds[i - selectedStart];
+            if (syllableId < 0) {
+                syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                if (syllableId < 0 && Character.isSurrogate(targetCharacter)) {
+                    // 增补平面汉字的拼音在高代理项位置输出，低代理项直接跳过，分段或区间边界位于代理对中间时结果不变
+                    if (isConvertedLowSurrogate(text, i, selectedStart)) {
+                        continue;
+                    }
+                    // 流式读取时 textEnd 为 -1，分段后至少保留一个字符的后置上下文，因此可以读取 i + 1 位置的字符
+                    syllableId = getSupplementarySyllableId(text, i, textEnd >= 0 ? textEnd : i + 2);
+                }
+            }
+            if (syllableId >= 0) {
+                state = renderer.appendSyllable(syllableId, state, output);
+            } else {
+                state = renderer.appendCharacter(text, i, selectedStart, state, output);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 批量拼音替换任务，将 [start, end) 区间内的文本替换为拼音，区间长度超过 {@code chunkSize} 时将拆分为两个子任务并行执行。
+     */
+    private class BatchConvertTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> texts;
+
+        private final String[] results;
+
+        private final int start;
+
+        private final int end;
+
+        private final int chunkSize;
+
+        private final PinyinRenderer renderer;
+
+        private BatchConvertTask(List<? extends CharSequence> texts, String[] results, int start, int end, int chunkSize,
+                                 PinyinRenderer renderer) {
+            this.texts = texts;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.renderer = renderer;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > chunkSize) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new BatchConvertTask(texts, results, start, middle, chunkSize, renderer),
+                        new BatchConvertTask(texts, results, middle, end, chunkSize, renderer));
+            } else {
+                StringBuilder buffer = OUTPUT_BUFFER.get();
+                for (int i = start; i < end; i++) {
+                    CharSequence text = texts.get(i);
+                    if (text != null) {
+                        buffer.setLength(0);
+                        toPinyin(text, 0, text.length(), renderer, buffer);
+                        results[i] = buffer.toString();
+                    }
+                }
+                if (buffer.capacity() > MAX_OUTPUT_BUFFER_CAPACITY) {
+                    OUTPUT_BUFFER.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 长文本并行替换任务，将第 [start, end) 个区间替换为拼音，每个区间的长度为 {@code rangeLength}，替换结果分别保存在 {@code outputs} 中。
+     */
+    private class RangeConvertTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence text;
+
+        private final StringBuilder[] outputs;
+
+        private final int start;
+
+        private final int end;
+
+        private final int rangeLength;
+
+        private final PinyinRenderer renderer;
+
+        private RangeConvertTask(CharSequence text, StringBuilder[] outputs, int start, int end, int rangeLength,
+                                 PinyinRenderer renderer) {
+            this.text = text;
+            this.outputs = outputs;
+            this.start = start;
+            this.end = end;
+            this.rangeLength = rangeLength;
+            this.renderer = renderer;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new RangeConvertTask(text, outputs, start, middle, rangeLength, renderer),
+                        new RangeConvertTask(text, outputs, middle, end, rangeLength, renderer));
+            } else {
+                int rangeStart = start * rangeLength;
+                int rangeEnd = Math.min(rangeStart + rangeLength, text.length());
+                StringBuilder output = new StringBuilder((rangeEnd - rangeStart) * 4);
+                try {
+                    appendRange(text, rangeStart, rangeEnd, 0, text.length(), renderer, output);
+                } catch (IOException e) { // should not happen
+                    throw new UncheckedIOException(e);
+                }
+                outputs[start] = output;
+            }
+        }
+    }
+
+    /**
+     * 获得拼音转换器使用的汉字拼音字典。
+     *
+     * @return 汉字拼音字典
+     */
+    public PinyinDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 获得拼音转换器使用的内置多音字词组自动机。
+     *
+     * @return 内置多音字词组自动机
+     */
+    public ChineseWordAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    /**
+     * 获得拼音转换统计信息，如果未启用统计，则返回 {@code null}。
+     *
+     * @return 拼音转换统计信息，可能为 {@code null}
+     */
+    public PinyinMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获得拼音转换器的输出格式。
+     *
+     * @return 拼音输出格式
+     */
+    public PinyinFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 获得拼音转换结果缓存，如果未启用缓存，则返回 {@code null}。
+     *
+     * @return 拼音转换结果缓存，可能为 {@code null}
+     */
+    public PinyinResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 获得拼音转换器使用的用户词组拼音词典列表，按添加顺序排列，返回的列表不可修改。
+     *
+     * @return 用户词组拼音词典列表
+     */
+    public List<PinyinPhraseDictionary> getPhraseDictionaries() {
+        return Collections.unmodifiableList(Arrays.asList(phraseDictionaries));
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinConverter{" +
+                "automaton=" + automaton +
+                ", phraseDictionaries=" + Arrays.toString(phraseDictionaries) +
+                ", format=" + format +
+                '}';
+    }
+
+    /**
+     * 拼音转换器构建器，未设置的字典数据将使用 {@link PinyinDictionaryFactory} 和 {@link PinyinSelectorFactory} 提供的共享实例。
+     *
+     * <p><strong>说明：</strong>{@code Builder} 类是非线程安全的，不允许多个线程使用同一个实例。</p>
+     */
+    public static class Builder {
+
+        /**
+         * 用户词组拼音词典列表，按添加顺序排列
+         */
+        private final List<PinyinPhraseDictionary> phraseDictionaryList = new ArrayList<>();
+
+        /**
+         * 汉字拼音字典，为 {@code null} 时使用 {@link PinyinDictionaryFactory#getDictionary()}
+         */
+        private PinyinDictionary dictionary = null;
+
+        /**
+         * 多音字词组自动机，为 {@code null} 时使用 {@link PinyinSelectorFactory#getAutomaton()}
+         */
+        private ChineseWordAutomaton automaton = null;
+
+        /**
+         * 拼音转换统计信息，为 {@code null} 时不进行统计
+         */
+        private PinyinMetrics metrics = null;
+
+        /**
+         * 拼音转换结果缓存，为 {@code null} 时不使用缓存
+         */
+        private PinyinResultCache resultCache = null;
+
+        /**
+         * 拼音输出格式
+         */
+        private PinyinFormat format = PinyinFormat.DEFAULT;
+
+        /**
+         * 设置拼音转换器使用的汉字拼音字典和多音字词组自动机，用于从其它来源（例如文件系统中的字典文件）构建拼音转换器，
+         * 自动机必须使用该字典构建，否则音节 ID 将无法对应。
+         *
+         * @param dictionary 汉字拼音字典，不允许为 {@code null}
+         * @param automaton 使用 {@code dictionary} 构建的多音字词组自动机，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code dictionary} 或 {@code automaton} 为 {@code null}，将抛出此异常
+         */
+        public Builder setDictionary(PinyinDictionary dictionary, ChineseWordAutomaton automaton) throws NullPointerException {
+            this.dictionary = Objects.requireNonNull(dictionary, "dictionary could not be null.");
+            this.automaton = Objects.requireNonNull(automaton, "automaton could not be null.");
+            return this;
+        }
+
+        /**
+         * 添加一个用户词组拼音词典，被词组命中的汉字将使用词典中指定的拼音，后添加的词典优先级更高。
+         *
+         * @param phraseDictionary 用户词组拼音词典，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code phraseDictionary} 为 {@code null}，将抛出此异常
+         */
+        public Builder addPhraseDictionary(PinyinPhraseDictionary phraseDictionary) throws NullPointerException {
+            phraseDictionaryList.add(Objects.requireNonNull(phraseDictionary, "phraseDictionary could not be null."));
+            return this;
+        }
+
+        /**
+         * 设置拼音转换统计信息，设置后拼音转换器将记录转换次数、多音字选择结果、转换耗时等统计信息，多个拼音转换器可共享同一个统计信息实例。
+         *
+         * @param metrics 拼音转换统计信息，为 {@code null} 时不进行统计
+         * @return 当前构建器
+         */
+        public Builder setMetrics(PinyinMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * 设置拼音转换结果缓存，设置后 {@link PinyinConverter#toPinyinWithToneNumber(String)}、
+         * {@link PinyinConverter#toPinyinWithToneMark(String)}、{@link PinyinConverter#toPinyinWithoutTone(String)}、
+         * {@link PinyinConverter#toPinyinInitials(String)} 和 {@link PinyinConverter#toPinyin(String)} 方法将优先返回缓存的转换结果，
+         * 其它方法不受影响。
+         * 多个拼音转换器可共享同一个缓存，缓存命中时不会记录拼音转换统计信息。
+         *
+         * @param resultCache 拼音转换结果缓存，为 {@code null} 时不使用缓存
+         * @return 当前构建器
+         */
+        public Builder setResultCache(PinyinResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        /**
+         * 设置拼音转换器的输出格式，{@link PinyinConverter#toPinyin(String)} 等方法将使用该格式输出拼音，
+         * {@link PinyinConverter#toPinyinWithToneNumber(String)} 等方法的输出格式不受影响，默认为 {@link PinyinFormat#DEFAULT}。
+         *
+         * @param format 拼音输出格式，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code format} 为 {@code null}，将抛出此异常
+         */
+        public Builder setFormat(PinyinFormat format) throws NullPointerException {
+            this.format = Objects.requireNonNull(format, "format could not be null.");
+            return this;
+        }
+
+        /**
+         * 构建一个拼音转换器，如果没有设置汉字拼音字典和多音字词组自动机，共享的字典数据将在首次调用该方法时加载。
+         *
+         * @return 拼音转换器
+         * @throws IllegalArgumentException 如果用户词组拼音词典使用的汉字拼音字典与拼音转换器使用的汉字拼音字典不一致，将抛出此异常
+         */
+        public PinyinConverter build() throws IllegalArgumentException {
+            // 先获取多音字词组自动机，自动机加载时会在等待字典加载前读取多音字词库文件，与其它线程中的字典加载并行进行
+            ChineseWordAutomaton automaton = this.automaton != null ? this.automaton : PinyinSelectorFactory.getAutomaton();
+            PinyinDictionary dictionary = this.dictionary != null ? this.dictionary : PinyinDictionaryFactory.getDictionary();
+            for (PinyinPhraseDictionary phraseDictionary : phraseDictionaryList) {
+                if (phraseDictionary.getDictionary() != dictionary) {
+                    throw new IllegalArgumentException("PinyinPhraseDictionary must be created with the pinyin dictionary of converter: `"
+                            + phraseDictionary + "`.");
+                }
+            }
+            return new PinyinConverter(dictionary, automaton, phraseDictionaryList.toArray(new PinyinPhraseDictionary[0]), metrics,
+                    resultCache, format);
+        }
+    }
+}
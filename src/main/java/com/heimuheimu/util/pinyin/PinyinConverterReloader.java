@@ -0,0 +1,298 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryLoader;
+import com.heimuheimu.util.pinyin.metrics.PinyinMetrics;
+import com.heimuheimu.util.pinyin.multi.ChineseWordAutomaton;
+import com.heimuheimu.util.pinyin.multi.PinyinSelectorLoader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可热加载的拼音转换器持有者，从文件系统目录中加载 "pinyin_mapping.txt" 和 "multi_pinyin_mapping.txt" 格式的字典文件构建拼音转换器，
+ * 并通过 {@link WatchService} 监听字典文件变更，在后台线程中重新构建拼音转换器后整体替换。
+ *
+ * <p>目录中需包含 "pinyin_mapping.txt" 和 "multi_pinyin_mapping.txt" 文件，"pinyin_mapping_extension.txt" 文件为可选文件，
+ * 不存在时使用 classpath 中的扩展字典文件。汉字拼音字典和多音字词组自动机被构建为一个不可变的 {@link PinyinConverter}，
+ * 通过一次 volatile 写入发布，{@link #getConverter()} 方法不会加锁，也不会获得构建到一半的字典数据。
+ * 重新加载失败（例如文件内容不合法）时，将继续使用上一次成功加载的拼音转换器，失败原因可通过 {@link #getLastReloadException()} 方法获取。</p>
+ *
+ * <p>如果设置了系统属性 {@link #WATCH_DIRECTORY_PROPERTY}，{@link PinyinUtil} 将使用该目录创建可热加载的拼音转换器。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinConverterReloader} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinConverterReloader implements Closeable {
+
+    /**
+     * 热加载字典文件目录的系统属性名称，设置后 {@link PinyinUtil} 将从该目录加载字典文件，并在文件变更时自动重新加载
+     */
+    public static final String WATCH_DIRECTORY_PROPERTY = "com.heimuheimu.util.pinyin.watchDirectory";
+
+    private static final String PINYIN_MAPPING_FILE_NAME = "pinyin_mapping.txt";
+
+    private static final String PINYIN_MAPPING_EXTENSION_FILE_NAME = "pinyin_mapping_extension.txt";
+
+    private static final String MULTI_PINYIN_MAPPING_FILE_NAME = "multi_pinyin_mapping.txt";
+
+    private static final String PINYIN_MAPPING_EXTENSION_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping_extension.txt";
+
+    /**
+     * 收到文件变更事件后等待的静默时间，单位：毫秒，用于合并同一次文件更新产生的多个事件
+     */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    /**
+     * 字典文件目录
+     */
+    private final Path directory;
+
+    /**
+     * 拼音转换统计信息，每次加载的拼音转换器共享该实例，为 {@code null} 时不进行统计
+     */
+    private final PinyinMetrics metrics;
+
+    /**
+     * 拼音转换结果缓存，每次加载的拼音转换器共享该实例，为 {@code null} 时不使用缓存
+     */
+    private final PinyinResultCache resultCache;
+
+    /**
+     * 当前使用的拼音转换器
+     */
+    private volatile PinyinConverter converter;
+
+    /**
+     * 最近一次重新加载失败的原因，最近一次重新加载成功时为 {@code null}
+     */
+    private volatile Exception lastReloadException = null;
+
+    /**
+     * 成功重新加载的次数，不包括首次加载
+     */
+    private volatile long reloadCount = 0;
+
+    /**
+     * 文件变更监听服务，未启动监听时为 {@code null}
+     */
+    private WatchService watchService = null;
+
+    /**
+     * 构造一个可热加载的拼音转换器持有者，并立即加载目录中的字典文件，构造完成后不会监听文件变更，需调用 {@link #start()} 方法启动监听。
+     *
+     * @param directory 字典文件目录
+     * @throws IOException 如果字典文件读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果字典文件内容不合法，将抛出此异常
+     */
+    public PinyinConverterReloader(Path directory) throws IOException, IllegalArgumentException {
+        this(directory, null);
+    }
+
+    /**
+     * 构造一个可热加载的拼音转换器持有者，并立即加载目录中的字典文件，每次加载的拼音转换器均使用 {@code metrics} 记录统计信息，
+     * 重新加载后统计信息不会被重置。
+     *
+     * @param directory 字典文件目录
+     * @param metrics 拼音转换统计信息，为 {@code null} 时不进行统计
+     * @throws IOException 如果字典文件读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果字典文件内容不合法，将抛出此异常
+     */
+    public PinyinConverterReloader(Path directory, PinyinMetrics metrics) throws IOException, IllegalArgumentException {
+        this(directory, metrics, null);
+    }
+
+    /**
+     * 构造一个可热加载的拼音转换器持有者，并立即加载目录中的字典文件，每次加载的拼音转换器均使用 {@code metrics} 记录统计信息，
+     * 并共享 {@code resultCache}。缓存条目仅对生成该条目的拼音转换器可见，重新加载成功后将清空缓存，释放旧字典的转换结果。
+     *
+     * @param directory 字典文件目录
+     * @param metrics 拼音转换统计信息，为 {@code null} 时不进行统计
+     * @param resultCache 拼音转换结果缓存，为 {@code null} 时不使用缓存
+     * @throws IOException 如果字典文件读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果字典文件内容不合法，将抛出此异常
+     */
+    public PinyinConverterReloader(Path directory, PinyinMetrics metrics, PinyinResultCache resultCache)
+            throws IOException, IllegalArgumentException {
+        this.directory = directory;
+        this.metrics = metrics;
+        this.resultCache = resultCache;
+        this.converter = load();
+    }
+
+    /**
+     * 获得当前使用的拼音转换器，该方法不会加锁，每次调用均返回最近一次成功加载的拼音转换器。
+     *
+     * @return 当前使用的拼音转换器
+     */
+    public PinyinConverter getConverter() {
+        return converter;
+    }
+
+    /**
+     * 立即重新加载目录中的字典文件，加载成功后替换当前使用的拼音转换器并返回 {@code true}，加载失败时保留当前使用的拼音转换器并返回 {@code false}，
+     * 失败原因可通过 {@link #getLastReloadException()} 方法获取。
+     *
+     * @return 是否重新加载成功
+     */
+    public synchronized boolean reload() {
+        try {
+            converter = load();
+            if (resultCache != null) {
+                resultCache.clear();
+            }
+            lastReloadException = null;
+            reloadCount++;
+            return true;
+        } catch (Exception e) {
+            lastReloadException = e;
+            return false;
+        }
+    }
+
+    /**
+     * 启动后台线程监听字典文件目录，字典文件被创建或修改时将自动重新加载，多次调用仅会启动一次监听。
+     *
+     * @throws IOException 如果监听服务创建失败，将抛出此异常
+     */
+    public synchronized void start() throws IOException {
+        if (watchService == null) {
+            WatchService watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Thread thread = new Thread(() -> watch(watchService), "pinyin-converter-reloader");
+            thread.setDaemon(true);
+            thread.start();
+            this.watchService = watchService;
+        }
+    }
+
+    /**
+     * 停止监听字典文件目录，停止后仍可通过 {@link #getConverter()} 方法获得最近一次成功加载的拼音转换器。
+     *
+     * @throws IOException 如果监听服务关闭失败，将抛出此异常
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * 获得最近一次重新加载失败的原因，如果最近一次重新加载成功或尚未重新加载，则返回 {@code null}。
+     *
+     * @return 最近一次重新加载失败的原因，可能为 {@code null}
+     */
+    public Exception getLastReloadException() {
+        return lastReloadException;
+    }
+
+    /**
+     * 获得成功重新加载的次数，不包括构造时的首次加载。
+     *
+     * @return 成功重新加载的次数
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * 获得字典文件目录。
+     *
+     * @return 字典文件目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinConverterReloader{" +
+                "directory=" + directory +
+                ", reloadCount=" + reloadCount +
+                ", lastReloadException=" + lastReloadException +
+                '}';
+    }
+
+    private PinyinConverter load() throws IOException, IllegalArgumentException {
+        PinyinDictionary dictionary;
+        Path extensionPath = directory.resolve(PINYIN_MAPPING_EXTENSION_FILE_NAME);
+        try (InputStream in = Files.newInputStream(directory.resolve(PINYIN_MAPPING_FILE_NAME));
+             InputStream extensionIn = Files.exists(extensionPath) ? Files.newInputStream(extensionPath)
+                     : PinyinConverterReloader.class.getResourceAsStream(PINYIN_MAPPING_EXTENSION_FILE_PATH)) {
+            dictionary = PinyinDictionaryLoader.loadText(in, extensionIn);
+        }
+        ChineseWordAutomaton automaton;
+        try (InputStream in = Files.newInputStream(directory.resolve(MULTI_PINYIN_MAPPING_FILE_NAME))) {
+            automaton = PinyinSelectorLoader.loadText(in, dictionary);
+        }
+        return new PinyinConverter.Builder().setDictionary(dictionary, automaton).setMetrics(metrics).setResultCache(resultCache).build();
+    }
+
+    /**
+     * 监听字典文件目录，收到字典文件变更事件后，等待 {@link #QUIET_PERIOD_MILLIS} 毫秒内没有新的事件时重新加载，监听服务关闭后退出。
+     */
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = pollEvents(key);
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= pollEvents(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {}
+    }
+
+    private static boolean pollEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else {
+                String fileName = String.valueOf(event.context());
+                changed |= fileName.equals(PINYIN_MAPPING_FILE_NAME) || fileName.equals(PINYIN_MAPPING_EXTENSION_FILE_NAME)
+                        || fileName.equals(MULTI_PINYIN_MAPPING_FILE_NAME);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import java.util.Objects;
+
+/**
+ * 拼音输出格式，包括声调格式、拼音分隔符、字母大小写、"ü" 的输出形式、非中文字符以及空白字符的处理方式，通过 {@link Builder} 构建，
+ * 构建完成后不可修改，可通过 {@link PinyinConverter.Builder#setFormat(PinyinFormat)} 方法设置拼音转换器使用的输出格式。
+ *
+ * <p>拼音分隔符的插入规则与 {@link PinyinUtil#toPinyinWithToneNumber(String)} 一致：拼音与其后的任意字符之间、非空白字符与其后的拼音之间
+ * 插入分隔符，文本末尾不会插入分隔符，被忽略的字符不影响分隔符的插入。默认输出格式 {@link #DEFAULT} 的转换结果与
+ * {@link PinyinUtil#toPinyinWithToneNumber(String)} 完全一致。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinFormat} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinFormat {
+
+    /**
+     * 默认输出格式：带有数字声调、使用空格分隔、小写字母、使用 "v" 表示 "ü"、保留非中文字符和空白字符
+     */
+    public static final PinyinFormat DEFAULT = new Builder().build();
+
+    /**
+     * 声调格式
+     */
+    public enum ToneStyle {
+
+        /**
+         * 带有数字声调，例如 "zhong1"
+         */
+        NUMBER,
+
+        /**
+         * 带有符号声调，例如 "zhōng"，该格式下 "ü" 始终使用 "ü" 表示
+         */
+        MARK,
+
+        /**
+         * 不带声调，例如 "zhong"
+         */
+        NONE
+    }
+
+    /**
+     * 字母大小写
+     */
+    public enum LetterCase {
+
+        /**
+         * 全部小写，例如 "zhong1"
+         */
+        LOWER,
+
+        /**
+         * 全部大写，例如 "ZHONG1"
+         */
+        UPPER,
+
+        /**
+         * 首字母大写，例如 "Zhong1"
+         */
+        CAPITALIZE
+    }
+
+    /**
+     * "ü" 的输出形式，仅对带有数字声调和不带声调的拼音生效
+     */
+    public enum UmlautStyle {
+
+        /**
+         * 使用 "v" 表示，例如 "lv3"
+         */
+        V,
+
+        /**
+         * 使用 "ü" 表示，例如 "lü3"
+         */
+        U_UMLAUT
+    }
+
+    /**
+     * 没有拼音的非空白字符（例如英文字母、数字、标点符号以及字典中不存在的汉字）的处理方式
+     */
+    public enum UnknownCharacterPolicy {
+
+        /**
+         * 原样输出
+         */
+        KEEP,
+
+        /**
+         * 忽略，不输出任何内容
+         */
+        SKIP,
+
+        /**
+         * 使用 {@link #getUnknownCharacterReplacement()} 替换，增补平面字符（代理对）仅替换一次
+         */
+        REPLACE
+    }
+
+    /**
+     * 空白字符（空格、制表符、换行符、回车符以及全角空格）的处理方式
+     */
+    public enum WhitespacePolicy {
+
+        /**
+         * 原样输出
+         */
+        KEEP,
+
+        /**
+         * 连续的空白字符合并为一个拼音分隔符，文本开头和末尾的空白字符将被忽略
+         */
+        COLLAPSE,
+
+        /**
+         * 忽略，不输出任何内容
+         */
+        SKIP
+    }
+
+    private final ToneStyle toneStyle;
+
+    private final String separator;
+
+    private final LetterCase letterCase;
+
+    private final UmlautStyle umlautStyle;
+
+    private final UnknownCharacterPolicy unknownCharacterPolicy;
+
+    private final String unknownCharacterReplacement;
+
+    private final WhitespacePolicy whitespacePolicy;
+
+    private PinyinFormat(Builder builder) {
+        this.toneStyle = builder.toneStyle;
+        this.separator = builder.separator;
+        this.letterCase = builder.letterCase;
+        this.umlautStyle = builder.umlautStyle;
+        this.unknownCharacterPolicy = builder.unknownCharacterPolicy;
+        this.unknownCharacterReplacement = builder.unknownCharacterReplacement;
+        this.whitespacePolicy = builder.whitespacePolicy;
+    }
+
+    /**
+     * 获得声调格式。
+     *
+     * @return 声调格式
+     */
+    public ToneStyle getToneStyle() {
+        return toneStyle;
+    }
+
+    /**
+     * 获得拼音分隔符。
+     *
+     * @return 拼音分隔符
+     */
+    public String getSeparator() {
+        return separator;
+    }
+
+    /**
+     * 获得字母大小写。
+     *
+     * @return 字母大小写
+     */
+    public LetterCase getLetterCase() {
+        return letterCase;
+    }
+
+    /**
+     * 获得 "ü" 的输出形式。
+     *
+     * @return "ü" 的输出形式
+     */
+    public UmlautStyle getUmlautStyle() {
+        return umlautStyle;
+    }
+
+    /**
+     * 获得没有拼音的非空白字符的处理方式。
+     *
+     * @return 没有拼音的非空白字符的处理方式
+     */
+    public UnknownCharacterPolicy getUnknownCharacterPolicy() {
+        return unknownCharacterPolicy;
+    }
+
+    /**
+     * 获得没有拼音的非空白字符的替换内容，仅在处理方式为 {@link UnknownCharacterPolicy#REPLACE} 时使用。
+     *
+     * @return 替换内容
+     */
+    public String getUnknownCharacterReplacement() {
+        return unknownCharacterReplacement;
+    }
+
+    /**
+     * 获得空白字符的处理方式。
+     *
+     * @return 空白字符的处理方式
+     */
+    public WhitespacePolicy getWhitespacePolicy() {
+        return whitespacePolicy;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinFormat{" +
+                "toneStyle=" + toneStyle +
+                ", separator='" + separator + '\'' +
+                ", letterCase=" + letterCase +
+                ", umlautStyle=" + umlautStyle +
+                ", unknownCharacterPolicy=" + unknownCharacterPolicy +
+                ", unknownCharacterReplacement='" + unknownCharacterReplacement + '\'' +
+                ", whitespacePolicy=" + whitespacePolicy +
+                '}';
+    }
+
+    /**
+     * 拼音输出格式构建器，未设置的选项使用 {@link PinyinFormat#DEFAULT} 中的值。
+     *
+     * <p><strong>说明：</strong>{@code Builder} 类是非线程安全的，不允许多个线程使用同一个实例。</p>
+     */
+    public static class Builder {
+
+        private ToneStyle toneStyle = ToneStyle.NUMBER;
+
+        private String separator = " ";
+
+        private LetterCase letterCase = LetterCase.LOWER;
+
+        private UmlautStyle umlautStyle = UmlautStyle.V;
+
+        private UnknownCharacterPolicy unknownCharacterPolicy = UnknownCharacterPolicy.KEEP;
+
+        private String unknownCharacterReplacement = "?";
+
+        private WhitespacePolicy whitespacePolicy = WhitespacePolicy.KEEP;
+
+        /**
+         * 设置声调格式，默认为 {@link ToneStyle#NUMBER}。
+         *
+         * @param toneStyle 声调格式，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code toneStyle} 为 {@code null}，将抛出此异常
+         */
+        public Builder setToneStyle(ToneStyle toneStyle) throws NullPointerException {
+            this.toneStyle = Objects.requireNonNull(toneStyle, "toneStyle could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置拼音分隔符，默认为一个空格，可以为空字符串。
+         *
+         * @param separator 拼音分隔符，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code separator} 为 {@code null}，将抛出此异常
+         */
+        public Builder setSeparator(String separator) throws NullPointerException {
+            this.separator = Objects.requireNonNull(separator, "separator could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置字母大小写，默认为 {@link LetterCase#LOWER}。
+         *
+         * @param letterCase 字母大小写，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code letterCase} 为 {@code null}，将抛出此异常
+         */
+        public Builder setLetterCase(LetterCase letterCase) throws NullPointerException {
+            this.letterCase = Objects.requireNonNull(letterCase, "letterCase could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置 "ü" 的输出形式，默认为 {@link UmlautStyle#V}。
+         *
+         * @param umlautStyle "ü" 的输出形式，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code umlautStyle} 为 {@code null}，将抛出此异常
+         */
+        public Builder setUmlautStyle(UmlautStyle umlautStyle) throws NullPointerException {
+            this.umlautStyle = Objects.requireNonNull(umlautStyle, "umlautStyle could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置没有拼音的非空白字符的处理方式，默认为 {@link UnknownCharacterPolicy#KEEP}。
+         *
+         * @param unknownCharacterPolicy 没有拼音的非空白字符的处理方式，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code unknownCharacterPolicy} 为 {@code null}，将抛出此异常
+         */
+        public Builder setUnknownCharacterPolicy(UnknownCharacterPolicy unknownCharacterPolicy) throws NullPointerException {
+            this.unknownCharacterPolicy = Objects.requireNonNull(unknownCharacterPolicy, "unknownCharacterPolicy could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置没有拼音的非空白字符的替换内容，默认为 "?"，仅在处理方式为 {@link UnknownCharacterPolicy#REPLACE} 时使用。
+         *
+         * @param unknownCharacterReplacement 替换内容，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code unknownCharacterReplacement} 为 {@code null}，将抛出此异常
+         */
+        public Builder setUnknownCharacterReplacement(String unknownCharacterReplacement) throws NullPointerException {
+            this.unknownCharacterReplacement = Objects.requireNonNull(unknownCharacterReplacement,
+                    "unknownCharacterReplacement could not be null.");
+            return this;
+        }
+
+        /**
+         * 设置空白字符的处理方式，默认为 {@link WhitespacePolicy#KEEP}。
+         *
+         * @param whitespacePolicy 空白字符的处理方式，不允许为 {@code null}
+         * @return 当前构建器
+         * @throws NullPointerException 如果 {@code whitespacePolicy} 为 {@code null}，将抛出此异常
+         */
+        public Builder setWhitespacePolicy(WhitespacePolicy whitespacePolicy) throws NullPointerException {
+            this.whitespacePolicy = Objects.requireNonNull(whitespacePolicy, "whitespacePolicy could not be null.");
+            return this;
+        }
+
+        /**
+         * 构建一个拼音输出格式。
+         *
+         * @return 拼音输出格式
+         */
+        public PinyinFormat build() {
+            return new PinyinFormat(this);
+        }
+    }
+}
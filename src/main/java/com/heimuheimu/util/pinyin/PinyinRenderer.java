@@ -0,0 +1,450 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.metrics.PinyinConversionType;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 拼音渲染表，在拼音转换器构建时根据 {@link PinyinFormat} 预先计算每个音节的输出内容以及非中文字符的处理方式，
+ * 拼音转换过程中只需按音节 ID 查表，不再对每个字符判断输出格式选项。
+ *
+ * <p>分隔符采用延迟输出的方式：拼音输出后仅记录状态，在输出下一个字符前再决定是否插入分隔符，因此文本末尾不会出现分隔符，
+ * 被忽略的字符也不会产生多余的分隔符。</p>
+ *
+ * <p>带有数字声调、带有符号声调以及不带声调三种固定格式的渲染表由使用同一个汉字拼音字典的所有拼音转换器共享，
+ * 可通过 {@link #getSharedRenderer(PinyinDictionary, PinyinConversionType)} 方法获得。音节输出内容的 UTF-8 编码仅在首次以
+ * {@code ByteBuffer} 方式输出时创建。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinRenderer} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+final class PinyinRenderer {
+
+    /**
+     * 输出状态：文本开头或空白字符之后，下一个字符前不需要插入分隔符
+     */
+    static final int STATE_NONE = 0;
+
+    /**
+     * 输出状态：非空白字符之后，下一个拼音前需要插入分隔符
+     */
+    static final int STATE_AFTER_OTHER = 1;
+
+    /**
+     * 输出状态：拼音之后（或合并的空白字符之后），下一个输出的字符前需要插入分隔符
+     */
+    static final int STATE_AFTER_PINYIN = 2;
+
+    private static final int ACTION_KEEP = 0;
+
+    private static final int ACTION_SKIP = 1;
+
+    private static final int ACTION_REPLACE = 2;
+
+    private static final int ACTION_COLLAPSE = 3;
+
+    /**
+     * 带有符号声调的拼音输出格式
+     */
+    private static final PinyinFormat TONE_MARK_FORMAT = new PinyinFormat.Builder().setToneStyle(PinyinFormat.ToneStyle.MARK).build();
+
+    /**
+     * 不带声调的拼音输出格式
+     */
+    private static final PinyinFormat WITHOUT_TONE_FORMAT = new PinyinFormat.Builder().setToneStyle(PinyinFormat.ToneStyle.NONE).build();
+
+    /**
+     * 固定格式的拼音渲染表 Map，Key 为汉字拼音字典，Value 为按带有数字声调、带有符号声调、不带声调顺序排列的渲染表数组，
+     * 渲染表不持有字典，字典不再被使用（例如热加载替换）后对应的渲染表将被回收
+     */
+    private static final Map<PinyinDictionary, PinyinRenderer[]> SHARED_RENDERERS_MAP = new WeakHashMap<>();
+
+    /**
+     * 拼音转换类型，用于记录统计信息和缓存转换结果
+     */
+    private final PinyinConversionType conversionType;
+
+    /**
+     * 音节输出内容，索引为音节 ID
+     */
+    private final String[] syllables;
+
+    /**
+     * 音节输出内容的 UTF-8 编码，索引为音节 ID，在首次以 {@code ByteBuffer} 方式输出时创建
+     */
+    private volatile byte[][] syllableBytes = null;
+
+    /**
+     * 拼音分隔符
+     */
+    private final String separator;
+
+    /**
+     * 拼音分隔符的 UTF-8 编码
+     */
+    private final byte[] separatorBytes;
+
+    /**
+     * 没有拼音的非空白字符的处理方式
+     */
+    private final int unknownCharacterAction;
+
+    /**
+     * 没有拼音的非空白字符的替换内容
+     */
+    private final String unknownCharacterReplacement;
+
+    /**
+     * 没有拼音的非空白字符的替换内容的 UTF-8 编码
+     */
+    private final byte[] unknownCharacterReplacementBytes;
+
+    /**
+     * 空白字符的处理方式
+     */
+    private final int whitespaceAction;
+
+    /**
+     * 每个 UTF-8 编码的输入字节对应的最大输出字节数
+     */
+    private final int maxBytesPerInputByte;
+
+    /**
+     * 根据拼音输出格式构造一个拼音渲染表。
+     *
+     * @param dictionary 汉字拼音字典
+     * @param format 拼音输出格式
+     * @param conversionType 拼音转换类型
+     */
+    PinyinRenderer(PinyinDictionary dictionary, PinyinFormat format, PinyinConversionType conversionType) {
+        this.conversionType = conversionType;
+        this.syllables = new String[dictionary.getSyllableCount()];
+        int maxSyllableByteLength = 0;
+        for (int syllableId = 0; syllableId < syllables.length; syllableId++) {
+            syllables[syllableId] = render(dictionary, syllableId, format);
+            maxSyllableByteLength = Math.max(maxSyllableByteLength, getUtf8Length(syllables[syllableId]));
+        }
+        this.separator = format.getSeparator();
+        this.separatorBytes = separator.getBytes(StandardCharsets.UTF_8);
+        switch (format.getUnknownCharacterPolicy()) {
+            case SKIP:
+                this.unknownCharacterAction = ACTION_SKIP;
+                break;
+            case REPLACE:
+                this.unknownCharacterAction = ACTION_REPLACE;
+                break;
+            default:
+                this.unknownCharacterAction = ACTION_KEEP;
+        }
+        this.unknownCharacterReplacement = format.getUnknownCharacterReplacement();
+        this.unknownCharacterReplacementBytes = unknownCharacterReplacement.getBytes(StandardCharsets.UTF_8);
+        switch (format.getWhitespacePolicy()) {
+            case SKIP:
+                this.whitespaceAction = ACTION_SKIP;
+                break;
+            case COLLAPSE:
+                this.whitespaceAction = ACTION_COLLAPSE;
+                break;
+            default:
+                this.whitespaceAction = ACTION_KEEP;
+        }
+        // 汉字的 UTF-8 编码至少为 3 个字节，没有拼音的字符至少为 1 个字节，每个输出内容前至多插入一个分隔符
+        int maxBytesPerInputByte = (maxSyllableByteLength + separatorBytes.length + 2) / 3;
+        maxBytesPerInputByte = Math.max(maxBytesPerInputByte, 1 + separatorBytes.length);
+        if (unknownCharacterAction == ACTION_REPLACE) {
+            maxBytesPerInputByte = Math.max(maxBytesPerInputByte, unknownCharacterReplacementBytes.length + separatorBytes.length);
+        }
+        this.maxBytesPerInputByte = maxBytesPerInputByte;
+    }
+
+    /**
+     * 获得使用指定汉字拼音字典的固定格式拼音渲染表，同一个字典多次调用返回同一个实例。
+     *
+     * @param dictionary 汉字拼音字典
+     * @param conversionType 拼音转换类型，仅支持 {@link PinyinConversionType#TONE_NUMBER}、{@link PinyinConversionType#TONE_MARK}
+     *                       和 {@link PinyinConversionType#WITHOUT_TONE}
+     * @return 拼音渲染表
+     * @throws IllegalArgumentException 如果拼音转换类型不是固定格式，将抛出此异常
+     */
+    static PinyinRenderer getSharedRenderer(PinyinDictionary dictionary, PinyinConversionType conversionType)
+            throws IllegalArgumentException {
+        PinyinRenderer[] renderers;
+        synchronized (SHARED_RENDERERS_MAP) {
+            renderers = SHARED_RENDERERS_MAP.get(dictionary);
+            if (renderers == null) {
+                renderers = new PinyinRenderer[] {
+                        new PinyinRenderer(dictionary, PinyinFormat.DEFAULT, PinyinConversionType.TONE_NUMBER),
+                        new PinyinRenderer(dictionary, TONE_MARK_FORMAT, PinyinConversionType.TONE_MARK),
+                        new PinyinRenderer(dictionary, WITHOUT_TONE_FORMAT, PinyinConversionType.WITHOUT_TONE)
+                };
+                SHARED_RENDERERS_MAP.put(dictionary, renderers);
+            }
+        }
+        switch (conversionType) {
+            case TONE_NUMBER:
+                return renderers[0];
+            case TONE_MARK:
+                return renderers[1];
+            case WITHOUT_TONE:
+                return renderers[2];
+            default:
+                throw new IllegalArgumentException("Unsupported shared conversion type: `" + conversionType + "`.");
+        }
+    }
+
+    /**
+     * 获得拼音转换类型。
+     *
+     * @return 拼音转换类型
+     */
+    PinyinConversionType getConversionType() {
+        return conversionType;
+    }
+
+    /**
+     * 获得每个 UTF-8 编码的输入字节对应的最大输出字节数。
+     *
+     * @return 每个输入字节对应的最大输出字节数
+     */
+    int getMaxBytesPerInputByte() {
+        return maxBytesPerInputByte;
+    }
+
+    /**
+     * 追加音节对应的拼音，如有需要，在拼音前插入分隔符。
+     *
+     * @return 输出后的状态
+     */
+    int appendSyllable(int syllableId, int state, Appendable output) throws IOException {
+        if (state != STATE_NONE) {
+            output.append(separator);
+        }
+        output.append(syllables[syllableId]);
+        return STATE_AFTER_PINYIN;
+    }
+
+    /**
+     * 按输出格式处理 {@code index} 位置没有拼音的字符，{@code start} 为允许向前查看的最小位置，用于识别代理对中的低代理项。
+     *
+     * @return 处理后的状态
+     */
+    int appendCharacter(CharSequence text, int index, int start, int state, Appendable output) throws IOException {
+        char character = text.charAt(index);
+        if (isSpaceCharacter(character)) {
+            switch (whitespaceAction) {
+                case ACTION_KEEP:
+                    if (state == STATE_AFTER_PINYIN) {
+                        output.append(separator);
+                    }
+                    output.append(character);
+                    return STATE_NONE;
+                case ACTION_COLLAPSE:
+                    return state == STATE_NONE ? STATE_NONE : STATE_AFTER_PINYIN;
+                default:
+                    return state;
+            }
+        }
+        switch (unknownCharacterAction) {
+            case ACTION_KEEP:
+                if (state == STATE_AFTER_PINYIN) {
+                    output.append(separator);
+                }
+                output.append(character);
+                return STATE_AFTER_OTHER;
+            case ACTION_REPLACE:
+                if (isLowSurrogateOfPair(text, index, start)) {
+                    return state;
+                }
+                if (state == STATE_AFTER_PINYIN) {
+                    output.append(separator);
+                }
+                output.append(unknownCharacterReplacement);
+                return STATE_AFTER_OTHER;
+            default:
+                return state;
+        }
+    }
+
+    /**
+     * 将音节对应拼音的 UTF-8 编码写入 {@code output}，如有需要，在拼音前插入分隔符。
+     *
+     * @return 输出后的状态
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常
+     */
+    int appendSyllable(int syllableId, int state, ByteBuffer output) throws BufferOverflowException {
+        if (state != STATE_NONE) {
+            output.put(separatorBytes);
+        }
+        output.put(getSyllableBytes()[syllableId]);
+        return STATE_AFTER_PINYIN;
+    }
+
+    /**
+     * 按输出格式处理 {@code index} 位置没有拼音的字符，与 {@link #appendCharacter(CharSequence, int, int, int, Appendable)} 规则一致，
+     * 需要原样输出时，直接复制该字符在 {@code source} 中 [sourceStart, sourceEnd) 区间的原始字节。
+     *
+     * @return 处理后的状态
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常
+     */
+    int appendCharacter(CharSequence text, int index, int start, int state, ByteBuffer source, int sourceStart, int sourceEnd,
+                        ByteBuffer output) throws BufferOverflowException {
+        boolean isSpace = isSpaceCharacter(text.charAt(index));
+        int action = isSpace ? whitespaceAction : unknownCharacterAction;
+        switch (action) {
+            case ACTION_KEEP:
+                if (state == STATE_AFTER_PINYIN) {
+                    output.put(separatorBytes);
+                }
+                for (int i = sourceStart; i < sourceEnd; i++) {
+                    output.put(source.get(i));
+                }
+                return isSpace ? STATE_NONE : STATE_AFTER_OTHER;
+            case ACTION_REPLACE:
+                if (isLowSurrogateOfPair(text, index, start)) {
+                    return state;
+                }
+                if (state == STATE_AFTER_PINYIN) {
+                    output.put(separatorBytes);
+                }
+                output.put(unknownCharacterReplacementBytes);
+                return STATE_AFTER_OTHER;
+            case ACTION_COLLAPSE:
+                return state == STATE_NONE ? STATE_NONE : STATE_AFTER_PINYIN;
+            default:
+                return state;
+        }
+    }
+
+    /**
+     * 获得处理 {@code index} 位置没有拼音的字符后的输出状态，与 {@link #appendCharacter(CharSequence, int, int, int, Appendable)}
+     * 方法的返回值一致，但不会输出任何内容。
+     */
+    int getNextState(CharSequence text, int index, int start, int state) {
+        char character = text.charAt(index);
+        if (isSpaceCharacter(character)) {
+            if (whitespaceAction == ACTION_KEEP) {
+                return STATE_NONE;
+            } else if (whitespaceAction == ACTION_COLLAPSE) {
+                return state == STATE_NONE ? STATE_NONE : STATE_AFTER_PINYIN;
+            } else {
+                return state;
+            }
+        }
+        return isStateIndependent(text, index, start) ? STATE_AFTER_OTHER : state;
+    }
+
+    /**
+     * 判断处理 {@code index} 位置没有拼音的字符后，输出状态是否与处理前的状态无关。
+     */
+    boolean isStateIndependent(CharSequence text, int index, int start) {
+        char character = text.charAt(index);
+        if (isSpaceCharacter(character)) {
+            return whitespaceAction == ACTION_KEEP;
+        }
+        return unknownCharacterAction == ACTION_KEEP
+                || (unknownCharacterAction == ACTION_REPLACE && !isLowSurrogateOfPair(text, index, start));
+    }
+
+    private byte[][] getSyllableBytes() {
+        byte[][] syllableBytes = this.syllableBytes;
+        if (syllableBytes == null) {
+            synchronized (this) {
+                syllableBytes = this.syllableBytes;
+                if (syllableBytes == null) {
+                    syllableBytes = new byte[syllables.length][];
+                    for (int syllableId = 0; syllableId < syllables.length; syllableId++) {
+                        syllableBytes[syllableId] = syllables[syllableId].getBytes(StandardCharsets.UTF_8);
+                    }
+                    this.syllableBytes = syllableBytes;
+                }
+            }
+        }
+        return syllableBytes;
+    }
+
+    static boolean isSpaceCharacter(char character) {
+        return character == 0x20 || character == '\t' || character == '\n' || character == '\r' || character == 0x3000;
+    }
+
+    /**
+     * 计算字符串 UTF-8 编码后的字节数，不会创建任何对象。
+     */
+    private static int getUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isLowSurrogateOfPair(CharSequence text, int index, int start) {
+        return Character.isLowSurrogate(text.charAt(index)) && index - 1 >= start && Character.isHighSurrogate(text.charAt(index - 1));
+    }
+
+    private static String render(PinyinDictionary dictionary, int syllableId, PinyinFormat format) {
+        String syllable;
+        switch (format.getToneStyle()) {
+            case MARK:
+                syllable = dictionary.getSyllableWithToneMark(syllableId);
+                break;
+            case NONE:
+                syllable = dictionary.getSyllableWithoutTone(syllableId);
+                break;
+            default:
+                syllable = dictionary.getSyllable(syllableId);
+        }
+        if (format.getToneStyle() != PinyinFormat.ToneStyle.MARK && format.getUmlautStyle() == PinyinFormat.UmlautStyle.U_UMLAUT) {
+            syllable = syllable.replace('v', 'ü');
+        }
+        switch (format.getLetterCase()) {
+            case UPPER:
+                return syllable.toUpperCase(Locale.ROOT);
+            case CAPITALIZE:
+                return syllable.substring(0, 1).toUpperCase(Locale.ROOT) + syllable.substring(1);
+            default:
+                return syllable;
+        }
+    }
+}
@@ -0,0 +1,658 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.metrics.PinyinConversionType;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 拼音转换结果缓存，以（文本，拼音类型）作为缓存键，适用于店铺名、类目名、城市名等大量重复出现的短文本，可通过
+ * {@link PinyinConverter.Builder#setResultCache(PinyinResultCache)} 方法为拼音转换器启用。
+ *
+ * <p>缓存容量可按条目数或字符数（文本长度与转换结果长度之和）限制，长度超过 {@link #getMaxTextLength()} 的文本不会被缓存，
+ * 直接进行拼音转换。缓存使用 W-TinyLFU 淘汰策略：新条目先进入容量约为 1% 的窗口区，离开窗口区时与主区中按 CLOCK 算法选出的
+ * 淘汰候选比较访问频率（由 Count-Min Sketch 估算），仅当访问频率更高时才会进入主区，偶发的长尾文本不会挤出高频文本。</p>
+ *
+ * <p>缓存按哈希值划分为多个分段，读取操作不会加锁，访问频率在分段锁空闲时记录，写入和淘汰操作仅锁定所在分段。
+ * 同一个缓存可被多个拼音转换器共享，每个缓存条目仅对生成该条目的拼音转换器可见，字典热加载后不会返回旧字典的转换结果。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinResultCache} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinResultCache {
+
+    /**
+     * 系统属性名称，值为正整数时 {@code PinyinUtil} 使用的默认拼音转换器将启用结果缓存，值为缓存的最大条目数
+     */
+    public static final String CACHE_SIZE_PROPERTY = "com.heimuheimu.util.pinyin.cacheSize";
+
+    /**
+     * 默认允许缓存的最大文本长度
+     */
+    public static final int DEFAULT_MAX_TEXT_LENGTH = 64;
+
+    /**
+     * 最大分段数量
+     */
+    private static final int MAX_STRIPE_COUNT = 64;
+
+    /**
+     * 每个分段的最小容量，容量较小时减少分段数量，避免分段内的淘汰过于频繁
+     */
+    private static final long MIN_STRIPE_CAPACITY = 64;
+
+    private static final PinyinConversionType[] CONVERSION_TYPES = PinyinConversionType.values();
+
+    /**
+     * 缓存容量单位
+     */
+    public enum CapacityUnit {
+
+        /**
+         * 按条目数限制缓存容量
+         */
+        ENTRIES,
+
+        /**
+         * 按字符数限制缓存容量，每个条目占用的字符数为文本长度与转换结果长度之和
+         */
+        CHARACTERS
+    }
+
+    /**
+     * 缓存容量
+     */
+    private final long capacity;
+
+    /**
+     * 缓存容量单位
+     */
+    private final CapacityUnit unit;
+
+    /**
+     * 允许缓存的最大文本长度
+     */
+    private final int maxTextLength;
+
+    /**
+     * 缓存条目 Map 数组，索引为 {@link PinyinConversionType#ordinal()}，Key 为文本
+     */
+    private final ConcurrentHashMap<String, Node>[] maps;
+
+    /**
+     * 缓存分段数组，长度为 2 的幂
+     */
+    private final Stripe[] stripes;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder bypassCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 构造一个拼音转换结果缓存，允许缓存的最大文本长度为 {@link #DEFAULT_MAX_TEXT_LENGTH}。
+     *
+     * @param capacity 缓存容量，必须大于 0
+     * @param unit 缓存容量单位，不允许为 {@code null}
+     * @throws IllegalArgumentException 如果 {@code capacity} 小于等于 0，将抛出此异常
+     * @throws NullPointerException 如果 {@code unit} 为 {@code null}，将抛出此异常
+     */
+    public PinyinResultCache(long capacity, CapacityUnit unit) throws IllegalArgumentException, NullPointerException {
+        this(capacity, unit, DEFAULT_MAX_TEXT_LENGTH);
+    }
+
+    /**
+     * 构造一个拼音转换结果缓存。
+     *
+     * @param capacity 缓存容量，必须大于 0
+     * @param unit 缓存容量单位，不允许为 {@code null}
+     * @param maxTextLength 允许缓存的最大文本长度，超过该长度的文本将直接进行拼音转换，必须大于 0
+     * @throws IllegalArgumentException 如果 {@code capacity} 或 {@code maxTextLength} 小于等于 0，将抛出此异常
+     * @throws NullPointerException 如果 {@code unit} 为 {@code null}，将抛出此异常
+     */
+    @SuppressWarnings("unchecked")
+    public PinyinResultCache(long capacity, CapacityUnit unit, int maxTextLength) throws IllegalArgumentException, NullPointerException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: `" + capacity + "`. Capacity must be greater than 0.");
+        }
+        if (maxTextLength <= 0) {
+            throw new IllegalArgumentException("Invalid max text length: `" + maxTextLength + "`. Max text length must be greater than 0.");
+        }
+        this.capacity = capacity;
+        this.unit = Objects.requireNonNull(unit, "unit could not be null.");
+        this.maxTextLength = maxTextLength;
+        this.maps = new ConcurrentHashMap[CONVERSION_TYPES.length];
+        for (int i = 0; i < maps.length; i++) {
+            maps[i] = new ConcurrentHashMap<>();
+        }
+        int stripeCount = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1, MAX_STRIPE_COUNT);
+        while (stripeCount > 1 && capacity / stripeCount < MIN_STRIPE_CAPACITY) {
+            stripeCount >>>= 1;
+        }
+        long stripeCapacity = Math.max(capacity / stripeCount, 1);
+        // 按字符数限制容量时，以平均每个条目占用 16 个字符估算条目数
+        long estimatedEntryCount = unit == CapacityUnit.ENTRIES ? stripeCapacity : Math.max(stripeCapacity / 16, 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stripeCapacity, estimatedEntryCount);
+        }
+    }
+
+    /**
+     * 获得缓存容量。
+     *
+     * @return 缓存容量
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获得缓存容量单位。
+     *
+     * @return 缓存容量单位
+     */
+    public CapacityUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * 获得允许缓存的最大文本长度。
+     *
+     * @return 允许缓存的最大文本长度
+     */
+    public int getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    /**
+     * 获得当前缓存的条目数。
+     *
+     * @return 当前缓存的条目数
+     */
+    public long size() {
+        long size = 0;
+        for (ConcurrentHashMap<String, Node> map : maps) {
+            size += map.size();
+        }
+        return size;
+    }
+
+    /**
+     * 获得当前缓存占用的容量，单位与 {@link #getUnit()} 一致。
+     *
+     * @return 当前缓存占用的容量
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Stripe stripe : stripes) {
+            weight += stripe.windowWeight + stripe.mainWeight;
+        }
+        return weight;
+    }
+
+    /**
+     * 获得缓存命中次数。
+     *
+     * @return 缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 获得缓存未命中次数，不包括文本过长而未使用缓存的次数。
+     *
+     * @return 缓存未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 获得文本长度超过 {@link #getMaxTextLength()} 而未使用缓存的次数。
+     *
+     * @return 未使用缓存的次数
+     */
+    public long getBypassCount() {
+        return bypassCount.sum();
+    }
+
+    /**
+     * 获得因容量不足而被淘汰或未被准入的条目数量。
+     *
+     * @return 被淘汰的条目数量
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 获得缓存命中率，如果没有查询过缓存，则返回 0。
+     *
+     * @return 缓存命中率
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    /**
+     * 清空缓存，统计信息不会被重置。
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 获得 {@code owner} 缓存的拼音转换结果，如果缓存不存在或文本长度超过 {@link #getMaxTextLength()}，则返回 {@code null}。
+     *
+     * @param owner 拼音转换器
+     * @param type 拼音转换类型
+     * @param text 文本
+     * @return 拼音转换结果，可能为 {@code null}
+     */
+    String get(PinyinConverter owner, PinyinConversionType type, String text) {
+        if (text.length() > maxTextLength) {
+            bypassCount.increment();
+            return null;
+        }
+        int hash = hash(type, text);
+        stripes[hash & (stripes.length - 1)].recordAccess(hash);
+        Node node = maps[type.ordinal()].get(text);
+        if (node != null && node.owner == owner) {
+            node.referenced = true;
+            hitCount.increment();
+            return node.value;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 缓存 {@code owner} 的拼音转换结果，如果文本长度超过 {@link #getMaxTextLength()}，则不做任何操作。
+     *
+     * @param owner 拼音转换器
+     * @param type 拼音转换类型
+     * @param text 文本
+     * @param value 拼音转换结果
+     */
+    void put(PinyinConverter owner, PinyinConversionType type, String text, String value) {
+        if (text.length() <= maxTextLength) {
+            int hash = hash(type, text);
+            int weight = unit == CapacityUnit.ENTRIES ? 1 : text.length() + value.length();
+            Stripe stripe = stripes[hash & (stripes.length - 1)];
+            stripe.lock.lock();
+            try {
+                stripe.add(new Node(owner, type, text, value, hash, weight));
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinResultCache{" +
+                "capacity=" + capacity +
+                ", unit=" + unit +
+                ", maxTextLength=" + maxTextLength +
+                ", size=" + size() +
+                ", weight=" + getWeight() +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", bypassCount=" + getBypassCount() +
+                ", evictionCount=" + getEvictionCount() +
+                '}';
+    }
+
+    private static int hash(PinyinConversionType type, String text) {
+        int hash = text.hashCode() * 31 + type.ordinal();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 缓存条目，链表指针及 {@code inMain} 仅在持有分段锁时访问。
+     */
+    private static class Node {
+
+        private final PinyinConverter owner;
+
+        private final PinyinConversionType type;
+
+        private final String text;
+
+        private final String value;
+
+        private final int hash;
+
+        private final int weight;
+
+        /**
+         * 最近是否被访问过，CLOCK 算法选择淘汰候选时使用
+         */
+        private volatile boolean referenced = false;
+
+        /**
+         * 是否位于主区
+         */
+        private boolean inMain = false;
+
+        private Node prev;
+
+        private Node next;
+
+        private Node(PinyinConverter owner, PinyinConversionType type, String text, String value, int hash, int weight) {
+            this.owner = owner;
+            this.type = type;
+            this.text = text;
+            this.value = value;
+            this.hash = hash;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 缓存分段，包含一个 FIFO 窗口区、一个按 CLOCK 算法淘汰的主区以及一个访问频率估算器，除 {@link #recordAccess(int)} 外，
+     * 所有方法均需在持有 {@link #lock} 时调用。
+     */
+    private class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final FrequencySketch sketch;
+
+        private final long windowCapacity;
+
+        private final long mainCapacity;
+
+        private volatile long windowWeight = 0;
+
+        private volatile long mainWeight = 0;
+
+        private int mainCount = 0;
+
+        private Node windowHead;
+
+        private Node windowTail;
+
+        private Node mainHead;
+
+        private Node mainTail;
+
+        private Stripe(long capacity, long estimatedEntryCount) {
+            this.windowCapacity = Math.max(capacity / 100, 1);
+            this.mainCapacity = Math.max(capacity - windowCapacity, 1);
+            this.sketch = new FrequencySketch(estimatedEntryCount);
+        }
+
+        /**
+         * 记录一次访问，如果分段锁正在被其它线程持有，则放弃本次记录，读取操作不会因此阻塞。
+         */
+        private void recordAccess(int hash) {
+            if (lock.tryLock()) {
+                try {
+                    sketch.increment(hash);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void add(Node node) {
+            ConcurrentHashMap<String, Node> map = maps[node.type.ordinal()];
+            Node existingNode = map.get(node.text);
+            if (existingNode != null) {
+                if (existingNode.owner == node.owner) {
+                    return;
+                }
+                remove(existingNode);
+            }
+            if (node.weight > windowCapacity + mainCapacity) {
+                evictionCount.increment();
+                return;
+            }
+            map.put(node.text, node);
+            if (windowTail == null) {
+                windowHead = node;
+            } else {
+                windowTail.next = node;
+                node.prev = windowTail;
+            }
+            windowTail = node;
+            windowWeight += node.weight;
+            while (windowWeight > windowCapacity) {
+                Node candidate = windowHead;
+                unlinkWindow(candidate);
+                admit(candidate);
+            }
+        }
+
+        /**
+         * 离开窗口区的条目与主区淘汰候选比较访问频率，访问频率更高的条目保留在缓存中。
+         */
+        private void admit(Node candidate) {
+            while (mainWeight + candidate.weight > mainCapacity) {
+                Node victim = selectVictim();
+                if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                    maps[candidate.type.ordinal()].remove(candidate.text, candidate);
+                    evictionCount.increment();
+                    return;
+                }
+                unlinkMain(victim);
+                maps[victim.type.ordinal()].remove(victim.text, victim);
+                evictionCount.increment();
+            }
+            candidate.inMain = true;
+            if (mainTail == null) {
+                mainHead = candidate;
+            } else {
+                mainTail.next = candidate;
+                candidate.prev = mainTail;
+            }
+            mainTail = candidate;
+            mainWeight += candidate.weight;
+            mainCount++;
+        }
+
+        /**
+         * 使用 CLOCK 算法在主区中选择淘汰候选：最近被访问过的条目清除访问标记后移至队尾，获得一次保留机会。
+         */
+        private Node selectVictim() {
+            // 读取线程可能同时设置访问标记，最多扫描两轮后直接返回队首条目
+            for (int i = 2 * mainCount; i > 0 && mainHead != null && mainHead.referenced; i--) {
+                Node node = mainHead;
+                node.referenced = false;
+                if (node != mainTail) {
+                    mainHead = node.next;
+                    mainHead.prev = null;
+                    node.next = null;
+                    node.prev = mainTail;
+                    mainTail.next = node;
+                    mainTail = node;
+                }
+            }
+            return mainHead;
+        }
+
+        private void remove(Node node) {
+            if (node.inMain) {
+                unlinkMain(node);
+            } else {
+                unlinkWindow(node);
+            }
+            maps[node.type.ordinal()].remove(node.text, node);
+        }
+
+        private void unlinkWindow(Node node) {
+            if (node.prev == null) {
+                windowHead = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                windowTail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            windowWeight -= node.weight;
+        }
+
+        private void unlinkMain(Node node) {
+            if (node.prev == null) {
+                mainHead = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                mainTail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.inMain = false;
+            mainWeight -= node.weight;
+            mainCount--;
+        }
+
+        private void clear() {
+            for (Node node = windowHead; node != null; node = node.next) {
+                maps[node.type.ordinal()].remove(node.text, node);
+            }
+            for (Node node = mainHead; node != null; node = node.next) {
+                maps[node.type.ordinal()].remove(node.text, node);
+            }
+            windowHead = windowTail = mainHead = mainTail = null;
+            windowWeight = 0;
+            mainWeight = 0;
+            mainCount = 0;
+            sketch.clear();
+        }
+    }
+
+    /**
+     * 使用 4 位计数器的 Count-Min Sketch 估算访问频率，计数器最大值为 15，累计记录次数达到条目数的 10 倍后所有计数器减半，
+     * 使访问频率能够反映近期的访问情况。
+     *
+     * <p><strong>说明：</strong>{@code FrequencySketch} 类是非线程安全的，需在持有分段锁时使用。</p>
+     */
+    private static class FrequencySketch {
+
+        private static final int[] SEEDS = new int[] {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        /**
+         * 计数器数组，每个 long 包含 16 个 4 位计数器
+         */
+        private final long[] table;
+
+        /**
+         * 计数器索引掩码
+         */
+        private final int counterMask;
+
+        /**
+         * 触发计数器减半的记录次数
+         */
+        private final int sampleSize;
+
+        /**
+         * 自上次减半后的记录次数
+         */
+        private int size = 0;
+
+        private FrequencySketch(long estimatedEntryCount) {
+            // 每个条目约对应 16 个计数器，降低哈希冲突导致的频率高估
+            int entryCount = (int) Math.min(Math.max(estimatedEntryCount, 4), 1 << 22);
+            int counterCount = Integer.highestOneBit(entryCount - 1) << 5;
+            this.table = new long[counterCount >>> 4];
+            this.counterMask = counterCount - 1;
+            this.sampleSize = (int) Math.min(estimatedEntryCount * 10, Integer.MAX_VALUE);
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                int shift = (index & 15) << 2;
+                long counter = (table[index >>> 4] >>> shift) & 15L;
+                if (counter < 15) {
+                    table[index >>> 4] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++size >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                frequency = Math.min(frequency, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 15L));
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size >>>= 1;
+        }
+
+        private void clear() {
+            Arrays.fill(table, 0);
+            size = 0;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            return (h ^ (h >>> 15)) & counterMask;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+
+/**
+ * 拼音分词，由 {@link PinyinTokenStream#incrementToken()} 方法更新，同一个拼音分词流始终返回同一个实例，
+ * 调用方如需保留分词内容，应在下一次调用 {@link PinyinTokenStream#incrementToken()} 前自行复制。
+ *
+ * <p><strong>说明：</strong>{@code PinyinToken} 类是非线程安全的，不允许多个线程使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinToken {
+
+    /**
+     * 拼音来源
+     */
+    public enum Source {
+
+        /**
+         * 汉字的默认拼音
+         */
+        DEFAULT,
+
+        /**
+         * 由内置多音字词组确定的拼音
+         */
+        PHRASE,
+
+        /**
+         * 由用户词组拼音词典确定的拼音
+         */
+        USER_PHRASE
+    }
+
+    /**
+     * 音节 ID
+     */
+    private int syllableId = -1;
+
+    /**
+     * 分词对应的汉字在源文本中的起始索引位置（包含）
+     */
+    private int startOffset = 0;
+
+    /**
+     * 分词对应的汉字在源文本中的结束索引位置（不包含）
+     */
+    private int endOffset = 0;
+
+    /**
+     * 拼音来源
+     */
+    private Source source = Source.DEFAULT;
+
+    /**
+     * 音节 ID 所属的汉字拼音字典
+     */
+    private PinyinDictionary dictionary = null;
+
+    /**
+     * 获得分词对应的音节 ID。
+     *
+     * @return 音节 ID
+     */
+    public int getSyllableId() {
+        return syllableId;
+    }
+
+    /**
+     * 获得分词对应的带有数字声调的拼音，例如 "zhong1"，该方法不会创建新的字符串。
+     *
+     * @return 带有数字声调的拼音
+     */
+    public String getSyllable() {
+        return dictionary.getSyllable(syllableId);
+    }
+
+    /**
+     * 获得分词对应的带有符号声调的拼音，例如 "zhōng"，该方法不会创建新的字符串。
+     *
+     * @return 带有符号声调的拼音
+     */
+    public String getSyllableWithToneMark() {
+        return dictionary.getSyllableWithToneMark(syllableId);
+    }
+
+    /**
+     * 获得分词对应的不带声调的拼音，例如 "zhong"，该方法不会创建新的字符串。
+     *
+     * @return 不带声调的拼音
+     */
+    public String getSyllableWithoutTone() {
+        return dictionary.getSyllableWithoutTone(syllableId);
+    }
+
+    /**
+     * 获得分词对应的汉字在源文本中的起始索引位置（包含）。
+     *
+     * @return 起始索引位置
+     */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * 获得分词对应的汉字在源文本中的结束索引位置（不包含），增补平面汉字占用两个字符。
+     *
+     * @return 结束索引位置
+     */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * 获得拼音来源。
+     *
+     * @return 拼音来源
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * 更新分词内容。
+     */
+    void set(PinyinDictionary dictionary, int syllableId, int startOffset, int endOffset, Source source) {
+        this.dictionary = dictionary;
+        this.syllableId = syllableId;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.source = source;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinToken{" +
+                "syllable=" + (dictionary != null && syllableId >= 0 ? dictionary.getSyllable(syllableId) : null) +
+                ", startOffset=" + startOffset +
+                ", endOffset=" + endOffset +
+                ", source=" + source +
+                '}';
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import java.util.Arrays;
+
+/**
+ * 拼音分词结果缓冲区，以列存储的形式保存 {@link PinyinConverter#getTokens(CharSequence, int, int, PinyinTokenBuffer)} 方法输出的分词结果，
+ * 第 i 个分词的各项属性分别位于 {@link #getOffsets()}、{@link #getLengths()}、{@link #getSyllableIds()} 和 {@link #getFlags()}
+ * 返回数组的第 i 个元素，有效元素数量为 {@link #size()}。
+ *
+ * <p>缓冲区由调用方持有并重复使用，容量不足时自动扩容，扩容后返回的数组将被替换，因此每次转换后需重新获取数组。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinTokenBuffer} 类是非线程安全的，不允许多个线程使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinTokenBuffer {
+
+    /**
+     * 分词标记：拼音由多音字词组或用户词组确定，未设置该标记时，拼音为汉字的默认拼音
+     */
+    public static final short FLAG_SELECTED = 1;
+
+    /**
+     * 默认初始容量
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    /**
+     * 分词对应的汉字在源文本中的索引位置
+     */
+    private int[] offsets;
+
+    /**
+     * 分词对应的汉字在源文本中占用的字符数
+     */
+    private short[] lengths;
+
+    /**
+     * 分词对应的音节 ID
+     */
+    private int[] syllableIds;
+
+    /**
+     * 分词标记
+     */
+    private short[] flags;
+
+    /**
+     * 分词数量
+     */
+    private int size = 0;
+
+    /**
+     * 构造一个初始容量为 64 的拼音分词结果缓冲区。
+     */
+    public PinyinTokenBuffer() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * 构造一个拼音分词结果缓冲区。
+     *
+     * @param initialCapacity 初始容量
+     * @throws IllegalArgumentException 如果 {@code initialCapacity} 小于 0，将抛出此异常
+     */
+    public PinyinTokenBuffer(int initialCapacity) throws IllegalArgumentException {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Invalid initial capacity: `" + initialCapacity + "`. Initial capacity could not be negative.");
+        }
+        this.offsets = new int[initialCapacity];
+        this.lengths = new short[initialCapacity];
+        this.syllableIds = new int[initialCapacity];
+        this.flags = new short[initialCapacity];
+    }
+
+    /**
+     * 获得分词数量。
+     *
+     * @return 分词数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获得分词对应的汉字在源文本中的索引位置数组，有效元素数量为 {@link #size()}。
+     *
+     * @return 索引位置数组
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * 获得分词对应的汉字在源文本中占用的字符数数组，基本平面汉字为 1，增补平面汉字为 2，有效元素数量为 {@link #size()}。
+     *
+     * @return 字符数数组
+     */
+    public short[] getLengths() {
+        return lengths;
+    }
+
+    /**
+     * 获得分词对应的音节 ID 数组，音节 ID 可通过 {@link com.heimuheimu.util.pinyin.dictionary.PinyinDictionary#getSyllable(int)}
+     * 等方法获得对应的拼音，有效元素数量为 {@link #size()}。
+     *
+     * @return 音节 ID 数组
+     */
+    public int[] getSyllableIds() {
+        return syllableIds;
+    }
+
+    /**
+     * 获得分词标记数组，标记定义请参考 {@link #FLAG_SELECTED}，有效元素数量为 {@link #size()}。
+     *
+     * @return 分词标记数组
+     */
+    public short[] getFlags() {
+        return flags;
+    }
+
+    /**
+     * 判断第 {@code index} 个分词的拼音是否由多音字词组或用户词组确定。
+     *
+     * @param index 分词索引
+     * @return 是否由多音字词组或用户词组确定
+     * @throws IndexOutOfBoundsException 如果 {@code index} 超出分词范围，将抛出此异常
+     */
+    public boolean isSelected(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return (flags[index] & FLAG_SELECTED) != 0;
+    }
+
+    /**
+     * 清空缓冲区中的分词结果，已分配的数组将被保留。
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 确保缓冲区至少可以容纳 {@code capacity} 个分词。
+     *
+     * @param capacity 需要容纳的分词数量
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > offsets.length) {
+            int newCapacity = Math.max(capacity, offsets.length + (offsets.length >> 1));
+            offsets = Arrays.copyOf(offsets, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            syllableIds = Arrays.copyOf(syllableIds, newCapacity);
+            flags = Arrays.copyOf(flags, newCapacity);
+        }
+    }
+
+    /**
+     * 在缓冲区末尾添加一个分词。
+     */
+    void add(int offset, int length, int syllableId, boolean selected) {
+        ensureCapacity(size + 1);
+        offsets[size] = offset;
+        lengths[size] = (short) length;
+        syllableIds[size] = syllableId;
+        flags[size] = selected ? FLAG_SELECTED : 0;
+        size++;
+    }
+
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index: `" + index + "`. Size: `" + size + "`.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinTokenBuffer{" +
+                "size=" + size +
+                ", capacity=" + offsets.length +
+                '}';
+    }
+}
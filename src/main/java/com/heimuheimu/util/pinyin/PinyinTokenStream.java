@@ -0,0 +1,298 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+
+import java.nio.CharBuffer;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 拼音分词流，以拉取的方式逐个输出文本中汉字的拼音分词，每次调用 {@link #incrementToken()} 方法时更新同一个 {@link PinyinToken} 实例，
+ * 调用方式与 Lucene 的 {@code TokenStream} 类似：
+ * <pre>
+ *     PinyinTokenStream tokenStream = PinyinUtil.createTokenStream();
+ *     PinyinToken token = tokenStream.getToken();
+ *     tokenStream.reset(title);
+ *     for (int i = 0; i &lt; 10 &amp;&amp; tokenStream.incrementToken(); i++) {
+ *         // 使用 token.getSyllable()、token.getStartOffset() 等方法获得分词内容
+ *     }
+ * </pre>
+ *
+ * <p>多音字拼音选择按需进行：第一次拉取分词时才获取拼音转换器，文本按窗口依次进行多音字拼音选择，窗口长度从 {@link #INITIAL_WINDOW_LENGTH} 开始逐次翻倍，
+ * 最大为 {@link #MAX_WINDOW_LENGTH}，窗口两侧保留最长多音字词组长度的上下文，分词结果与
+ * {@link PinyinConverter#getTokens(CharSequence, int, int, PinyinTokenBuffer)} 一致。调用方提前结束拉取时，剩余文本不会进行拼音选择。</p>
+ *
+ * <p>拼音分词流在一次 {@link #reset(CharSequence, int, int)} 后始终使用同一个拼音转换器，拼音转换器被热加载替换后，在下一次 reset 后生效。
+ * 在拉取分词的过程中，不允许修改源文本的内容。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinTokenStream} 类是非线程安全的，不允许多个线程使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinTokenStream {
+
+    /**
+     * 第一个多音字拼音选择窗口的长度
+     */
+    public static final int INITIAL_WINDOW_LENGTH = 32;
+
+    /**
+     * 多音字拼音选择窗口的最大长度
+     */
+    public static final int MAX_WINDOW_LENGTH = 1024;
+
+    /**
+     * 拼音转换器提供者
+     */
+    private final Supplier<PinyinConverter> converterSupplier;
+
+    /**
+     * 复用的拼音分词
+     */
+    private final PinyinToken token = new PinyinToken();
+
+    /**
+     * 当前使用的拼音转换器，在 reset 后第一次进行多音字拼音选择时获取
+     */
+    private PinyinConverter converter = null;
+
+    /**
+     * 当前使用的汉字拼音字典
+     */
+    private PinyinDictionary dictionary = null;
+
+    /**
+     * 源文本
+     */
+    private CharSequence text = null;
+
+    /**
+     * 源文本区间起始索引位置（包含）
+     */
+    private int start = 0;
+
+    /**
+     * 源文本区间结束索引位置（不包含）
+     */
+    private int end = 0;
+
+    /**
+     * 下一个需要处理的字符索引位置
+     */
+    private int position = 0;
+
+    /**
+     * 已完成多音字拼音选择的窗口结束索引位置（不包含）
+     */
+    private int windowEnd = 0;
+
+    /**
+     * 下一个窗口的长度
+     */
+    private int windowLength = INITIAL_WINDOW_LENGTH;
+
+    /**
+     * 多音字拼音选择结果数组第一个元素对应的文本索引位置
+     */
+    private int selectedStart = 0;
+
+    /**
+     * 多音字拼音选择结果数组
+     */
+    private int[] selectedSyllableIds = new int[0];
+
+    /**
+     * 内置多音字词组命中标记数组
+     */
+    private long[] matchedBits = new long[0];
+
+    /**
+     * 用户词组命中标记数组
+     */
+    private long[] userMatchedBits = new long[0];
+
+    /**
+     * 构造一个使用指定拼音转换器的拼音分词流。
+     *
+     * @param converter 拼音转换器，不允许为 {@code null}
+     * @throws NullPointerException 如果 {@code converter} 为 {@code null}，将抛出此异常
+     */
+    public PinyinTokenStream(PinyinConverter converter) throws NullPointerException {
+        Objects.requireNonNull(converter, "Converter could not be null.");
+        this.converterSupplier = () -> converter;
+    }
+
+    /**
+     * 构造一个在第一次拉取分词时才获取拼音转换器的拼音分词流。
+     *
+     * @param converterSupplier 拼音转换器提供者
+     */
+    PinyinTokenStream(Supplier<PinyinConverter> converterSupplier) {
+        this.converterSupplier = converterSupplier;
+    }
+
+    /**
+     * 获得拼音分词流复用的拼音分词，每次调用 {@link #incrementToken()} 方法返回 {@code true} 后，该分词的内容将被更新。
+     *
+     * @return 拼音分词
+     */
+    public PinyinToken getToken() {
+        return token;
+    }
+
+    /**
+     * 重置拼音分词流，从 {@code text} 的开头开始输出分词。
+     *
+     * @param text 源文本，不允许为 {@code null}
+     * @return 当前拼音分词流
+     * @throws NullPointerException 如果 {@code text} 为 {@code null}，将抛出此异常
+     */
+    public PinyinTokenStream reset(CharSequence text) throws NullPointerException {
+        Objects.requireNonNull(text, "Text could not be null.");
+        return reset(text, 0, text.length());
+    }
+
+    /**
+     * 重置拼音分词流，输出 {@code text} 指定区间中的分词，分词的索引位置为在 {@code text} 中的索引位置。
+     *
+     * @param text 源文本，不允许为 {@code null}
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @return 当前拼音分词流
+     * @throws NullPointerException 如果 {@code text} 为 {@code null}，将抛出此异常
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public PinyinTokenStream reset(CharSequence text, int offset, int length) throws NullPointerException, IndexOutOfBoundsException {
+        Objects.requireNonNull(text, "Text could not be null.");
+        if (offset < 0 || length < 0 || offset + length > text.length()) {
+            throw new IndexOutOfBoundsException("Invalid range: `[" + offset + ", " + (offset + length) + ")`. Text length: `"
+                    + text.length() + "`.");
+        }
+        this.text = text;
+        this.start = offset;
+        this.end = offset + length;
+        this.position = offset;
+        this.windowEnd = offset;
+        this.windowLength = INITIAL_WINDOW_LENGTH;
+        this.converter = null;
+        this.dictionary = null;
+        return this;
+    }
+
+    /**
+     * 重置拼音分词流，输出字符数组指定区间中的分词，分词的索引位置为在 {@code text} 中的索引位置，字符数组不会被复制。
+     *
+     * @param text 源字符数组，不允许为 {@code null}
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @return 当前拼音分词流
+     * @throws NullPointerException 如果 {@code text} 为 {@code null}，将抛出此异常
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出数组范围，将抛出此异常
+     */
+    public PinyinTokenStream reset(char[] text, int offset, int length) throws NullPointerException, IndexOutOfBoundsException {
+        Objects.requireNonNull(text, "Text could not be null.");
+        return reset(CharBuffer.wrap(text), offset, length);
+    }
+
+    /**
+     * 输出下一个拼音分词，分词内容通过 {@link #getToken()} 方法返回的实例获取，没有拼音的字符将被跳过。
+     *
+     * @return 如果存在下一个分词，返回 {@code true}，否则返回 {@code false}
+     * @throws IllegalStateException 如果拼音分词流尚未重置，将抛出此异常
+     */
+    public boolean incrementToken() throws IllegalStateException {
+        if (text == null) {
+            throw new IllegalStateException("PinyinTokenStream has not been reset.");
+        }
+        while (position < end) {
+            if (position >= windowEnd) {
+                select();
+            }
+            int index = position - selectedStart;
+            int syllableId = selectedSyllableIds[index];
+            int characterCount = 1;
+            PinyinToken.Source source = PinyinToken.Source.DEFAULT;
+            if (syllableId >= 0) {
+                if ((userMatchedBits[index >>> 6] & (1L << index)) != 0) {
+                    source = PinyinToken.Source.USER_PHRASE;
+                } else if ((matchedBits[index >>> 6] & (1L << index)) != 0) {
+                    source = PinyinToken.Source.PHRASE;
+                }
+            } else {
+                char targetCharacter = text.charAt(position);
+                syllableId = dictionary.getDefaultSyllableId(targetCharacter);
+                // 增补平面汉字的分词位于高代理项，低代理项没有拼音，不会产生分词
+                if (syllableId < 0 && Character.isHighSurrogate(targetCharacter) && position + 1 < end
+                        && Character.isLowSurrogate(text.charAt(position + 1))) {
+                    syllableId = dictionary.getDefaultSyllableId(Character.toCodePoint(targetCharacter, text.charAt(position + 1)));
+                    characterCount = syllableId >= 0 ? 2 : 1;
+                }
+            }
+            int tokenStart = position;
+            position += characterCount;
+            if (syllableId >= 0) {
+                token.set(dictionary, syllableId, tokenStart, position, source);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 对从 {@link #position} 开始的下一个窗口进行多音字拼音选择。
+     */
+    private void select() {
+        if (converter == null) {
+            converter = converterSupplier.get();
+            dictionary = converter.getDictionary();
+        }
+        int contextLength = converter.getContextLength();
+        windowEnd = Math.min(position + windowLength, end);
+        windowLength = Math.min(windowLength << 1, MAX_WINDOW_LENGTH);
+        selectedStart = Math.max(position - contextLength, start);
+        int selectedEnd = Math.min(windowEnd + contextLength, end);
+        int selectedLength = selectedEnd - selectedStart;
+        if (selectedSyllableIds.length < selectedLength) {
+            int capacity = MAX_WINDOW_LENGTH + 2 * contextLength;
+            selectedSyllableIds = new int[capacity];
+            matchedBits = new long[(capacity + 63) >>> 6];
+            userMatchedBits = new long[(capacity + 63) >>> 6];
+        }
+        converter.select(text, selectedStart, selectedEnd, selectedSyllableIds, matchedBits, userMatchedBits);
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinTokenStream{" +
+                "start=" + start +
+                ", end=" + end +
+                ", position=" + position +
+                ", windowEnd=" + windowEnd +
+                ", converter=" + converter +
+                '}';
+    }
+}
@@ -24,36 +24,106 @@
 
 package com.heimuheimu.util.pinyin;
 
-import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
 import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
-import com.heimuheimu.util.pinyin.multi.PinyinSelector;
-import com.heimuheimu.util.pinyin.multi.PinyinSelectorFactory;
+import com.heimuheimu.util.pinyin.metrics.PinyinMetrics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * 提供将文本中的中文转换为拼音的工具方法，支持常用多音字转换。
  *
+ * <p>所有方法均委托给使用内置字典数据构建的默认 {@link PinyinConverter}，如需叠加用户词组拼音词典，可通过
+ * {@link PinyinConverter.Builder} 构建独立的拼音转换器。如果设置了系统属性 {@link PinyinConverterReloader#WATCH_DIRECTORY_PROPERTY}，
+ * 将从该目录加载字典文件，并在文件变更时自动重新加载，目录不存在或首次加载失败时，所有方法均将抛出 {@link ExceptionInInitializerError}
+ * 或 {@link NoClassDefFoundError}（失败原因为 {@link IllegalStateException}），不会回退到内置字典数据。如果设置了系统属性
+ * {@link PinyinMetrics#METRICS_ENABLED_PROPERTY} 为 "true"，将记录拼音转换统计信息，并注册到平台 MBeanServer 中，
+ * 注册失败（例如已有相同名称的 MBean）时同样将抛出上述异常。如果设置了系统属性 {@link PinyinResultCache#CACHE_SIZE_PROPERTY}
+ * 为正整数，将缓存短文本的拼音转换结果。</p>
+ *
  * <p><strong>说明：</strong>{@code PinyinUtil} 类是线程安全的，可在多个线程中使用同一个实例。</p>
  *
  * @author heimuheimu
  */
 public class PinyinUtil {
 
-    private static final PinyinDictionary PINYIN_DICTIONARY = PinyinDictionaryFactory.getDictionary();
+    /**
+     * 拼音转换就绪状态，汉字拼音字典和多音字词组自动机均加载完成后完成
+     */
+    private static final CompletableFuture<Void> READY_FUTURE = new CompletableFuture<>();
 
     /**
-     * 拼音类型：带有数字声调
+     * 是否已启动后台预热
      */
-    private static final int TYPE_WITH_TONE_NUMBER = 1;
+    private static final AtomicBoolean WARM_UP_STARTED = new AtomicBoolean(false);
 
     /**
-     * 拼音类型：带有符号声调
+     * 在后台线程中并行加载汉字拼音字典和多音字词组自动机，并返回拼音转换就绪状态，该方法不会阻塞，多次调用仅会启动一次预热。
+     *
+     * <p>{@code PinyinUtil} 的字典数据在首次进行拼音转换时才会加载，如果希望服务启动后立即接收请求且首个请求不被字典加载阻塞，
+     * 可在启动时调用该方法，并在返回的 {@code CompletableFuture} 完成后再进行拼音转换。如果加载失败，返回的 {@code CompletableFuture}
+     * 将以对应的异常完成。</p>
+     *
+     * @return 拼音转换就绪状态
      */
-    private static final int TYPE_WITH_TONE_MARK = 2;
+    public static CompletableFuture<Void> warmUp() {
+        if (WARM_UP_STARTED.compareAndSet(false, true)) {
+            // 多音字词库读取与汉字拼音字典加载并行进行，词库解析时等待字典加载完成
+            startWarmUpThread("pinyin-dictionary-warm-up", PinyinDictionaryFactory::getDictionary);
+            startWarmUpThread("pinyin-automaton-warm-up", ConverterHolder::getConverter);
+        }
+        return getReadyFuture();
+    }
 
     /**
-     * 拼音类型：不带声调
+     * 获得拼音转换就绪状态，汉字拼音字典和多音字词组自动机均加载完成后，返回的 {@code CompletableFuture} 将会完成，
+     * 加载可由 {@link #warmUp()} 方法或首次拼音转换触发。
+     *
+     * @return 拼音转换就绪状态
      */
-    private static final int TYPE_WITHOUT_TONE = 3;
+    public static CompletableFuture<Void> getReadyFuture() {
+        return READY_FUTURE.thenApply(ignored -> null);
+    }
+
+    /**
+     * 获得当前使用的默认拼音转换器，设置了系统属性 {@link PinyinConverterReloader#WATCH_DIRECTORY_PROPERTY} 时，字典文件变更后将返回新的拼音转换器，
+     * 需要在多次调用之间保持音节 ID 一致的场景（例如构建搜索索引），应持有该方法返回的拼音转换器，调用该方法将会触发字典数据加载。
+     *
+     * @return 当前使用的默认拼音转换器
+     */
+    public static PinyinConverter getConverter() {
+        return ConverterHolder.getConverter();
+    }
+
+    /**
+     * 获得默认拼音转换器使用的统计信息，仅在设置了系统属性 {@link PinyinMetrics#METRICS_ENABLED_PROPERTY} 为 "true" 时可用，
+     * 调用该方法将会触发字典数据加载。
+     *
+     * @return 拼音转换统计信息，未启用统计时返回 {@code null}
+     */
+    public static PinyinMetrics getMetrics() {
+        return ConverterHolder.getConverter().getMetrics();
+    }
+
+    /**
+     * 获得默认拼音转换器使用的结果缓存，仅在设置了系统属性 {@link PinyinResultCache#CACHE_SIZE_PROPERTY} 为正整数时可用，
+     * 可用于查看缓存命中率等统计信息，调用该方法将会触发字典数据加载。
+     *
+     * @return 拼音转换结果缓存，未启用缓存时返回 {@code null}
+     */
+    public static PinyinResultCache getResultCache() {
+        return ConverterHolder.getConverter().getResultCache();
+    }
 
     /**
      * 将文本中的中文替换为带有数字声调的拼音后返回，例如 "他屏气凝神躲在屏风后面。" 替换后的内容为：
@@ -63,7 +133,97 @@ public class PinyinUtil {
      * @return 替换后的文本
      */
     public static String toPinyinWithToneNumber(String text) {
-        return toPinyin(text, TYPE_WITH_TONE_NUMBER);
+        return ConverterHolder.getConverter().toPinyinWithToneNumber(text);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有数字声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public static void toPinyinWithToneNumber(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        ConverterHolder.getConverter().toPinyinWithToneNumber(text, offset, length, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有数字声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public static void toPinyinWithToneNumber(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        ConverterHolder.getConverter().toPinyinWithToneNumber(text, offset, length, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为带有数字声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithToneNumber(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public static List<String> toPinyinWithToneNumber(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithToneNumber(texts, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为带有数字声调的拼音后返回，返回结果与 {@link #toPinyinWithToneNumber(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public static String toPinyinWithToneNumber(CharSequence text, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithToneNumber(text, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为带有数字声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public static void toPinyinWithToneNumber(Reader reader, Writer writer) throws IOException {
+        ConverterHolder.getConverter().toPinyinWithToneNumber(reader, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为带有数字声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithToneNumber(String)} 一致。
+     *
+     * <p>适用于输入和输出均为 UTF-8 字节的场景（例如消息队列、HTTP 请求体），无需先解码为字符串，再将转换结果编码为字节。
+     * 支持堆内和堆外缓冲区，{@code byte[]} 可通过 {@link ByteBuffer#wrap(byte[], int, int)} 方法传入，不会复制数据。</p>
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public static int toPinyinWithToneNumber(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return ConverterHolder.getConverter().toPinyinWithToneNumber(input, output);
     }
 
     /**
@@ -74,7 +234,94 @@ public class PinyinUtil {
      * @return 替换后的文本
      */
     public static String toPinyinWithToneMark(String text) {
-        return toPinyin(text, TYPE_WITH_TONE_MARK);
+        return ConverterHolder.getConverter().toPinyinWithToneMark(text);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有符号声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public static void toPinyinWithToneMark(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        ConverterHolder.getConverter().toPinyinWithToneMark(text, offset, length, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为带有符号声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public static void toPinyinWithToneMark(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        ConverterHolder.getConverter().toPinyinWithToneMark(text, offset, length, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为带有符号声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithToneMark(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public static List<String> toPinyinWithToneMark(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithToneMark(texts, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为带有符号声调的拼音后返回，返回结果与 {@link #toPinyinWithToneMark(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public static String toPinyinWithToneMark(CharSequence text, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithToneMark(text, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为带有符号声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public static void toPinyinWithToneMark(Reader reader, Writer writer) throws IOException {
+        ConverterHolder.getConverter().toPinyinWithToneMark(reader, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为带有符号声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithToneMark(String)} 一致。
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public static int toPinyinWithToneMark(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return ConverterHolder.getConverter().toPinyinWithToneMark(input, output);
     }
 
     /**
@@ -85,54 +332,288 @@ public class PinyinUtil {
      * @return 替换后的文本
      */
     public static String toPinyinWithoutTone(String text) {
-        return toPinyin(text, TYPE_WITHOUT_TONE);
-    }
-
-    private static String toPinyin(String text, int type) {
-        if (text != null && !text.isEmpty()) {
-            StringBuilder buffer = new StringBuilder();
-            char[] targetCharacters = text.toCharArray();
-            boolean needInsertSpace = false;
-            for (int i = 0; i < targetCharacters.length; i++) {
-                String pinyin = "";
-                char targetCharacter = targetCharacters[i];
-                PinyinSelector selector = PinyinSelectorFactory.getSelector(targetCharacter);
-                if (selector == null) {
-                    String[] pinyinArray = PINYIN_DICTIONARY.getPinyinWithToneNumber(targetCharacter);
-                    if (pinyinArray != null && pinyinArray.length > 0) {
-                        pinyin = pinyinArray[0];
-                    }
-                } else {
-                    pinyin = selector.getPinyin(targetCharacters, i);
+        return ConverterHolder.getConverter().toPinyinWithoutTone(text);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为不带声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public static void toPinyinWithoutTone(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        ConverterHolder.getConverter().toPinyinWithoutTone(text, offset, length, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为不带声调的拼音后追加到 {@code output} 中，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     * @throws IOException 如果 {@code output} 写入失败，将抛出此异常
+     */
+    public static void toPinyinWithoutTone(CharSequence text, int offset, int length, Appendable output)
+            throws IndexOutOfBoundsException, IOException {
+        ConverterHolder.getConverter().toPinyinWithoutTone(text, offset, length, output);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将多个文本中的中文替换为不带声调的拼音，返回的列表中第 i 个元素为第 i 个文本的替换结果，
+     * 替换规则与 {@link #toPinyinWithoutTone(String)} 一致，如果文本为 {@code null}，对应的替换结果也为 {@code null}。
+     *
+     * <p>文本列表被划分为固定数量的连续区间，每个工作线程复用自己的输出缓冲区，仅为每个替换结果创建一个字符串。
+     * 调用线程会阻塞直至所有文本替换完成，调用线程本身为 {@code pool} 的工作线程时同样适用。</p>
+     *
+     * @param texts 需要进行拼音替换的文本列表，建议使用支持随机访问的列表
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本列表，长度与 {@code texts} 一致
+     */
+    public static List<String> toPinyinWithoutTone(List<? extends CharSequence> texts, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithoutTone(texts, pool);
+    }
+
+    /**
+     * 使用 {@code pool} 并行地将一个长文本中的中文替换为不带声调的拼音后返回，返回结果与 {@link #toPinyinWithoutTone(String)} 完全一致，
+     * 如果文本为 {@code null}，将返回 {@code null}。
+     *
+     * <p>文本被划分为多个连续区间并行替换后按顺序拼接，区间两侧额外保留最长多音字词组长度的上下文进行多音字拼音选择，
+     * 空格插入规则仅依赖前一个字符，因此区间可在任意位置划分。长度较短的文本将直接在调用线程中替换。</p>
+     *
+     * @param text 需要进行拼音替换的文本
+     * @param pool 执行替换任务的 {@code ForkJoinPool}，例如 {@link ForkJoinPool#commonPool()}
+     * @return 替换后的文本
+     */
+    public static String toPinyinWithoutTone(CharSequence text, ForkJoinPool pool) {
+        return ConverterHolder.getConverter().toPinyinWithoutTone(text, pool);
+    }
+
+    /**
+     * 从 {@code reader} 中读取文本，将文本中的中文替换为不带声调的拼音后写入 {@code writer}，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * <p>文本按固定长度分块读取，内存占用与文本长度无关，跨越分块边界的多音字词组和空格插入规则与对完整文本进行替换时一致。
+     * 该方法不会关闭 {@code reader} 和 {@code writer}，也不会对 {@code writer} 执行 flush 操作，建议传入带有缓冲的 {@code Writer}。</p>
+     *
+     * @param reader 需要进行拼音替换的文本输入
+     * @param writer 替换后的内容输出目标
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     */
+    public static void toPinyinWithoutTone(Reader reader, Writer writer) throws IOException {
+        ConverterHolder.getConverter().toPinyinWithoutTone(reader, writer);
+    }
+
+    /**
+     * 将 {@code input} 中 UTF-8 编码的文本中的中文替换为不带声调的拼音，并将结果以 UTF-8 编码写入 {@code output}，替换规则与 {@link #toPinyinWithoutTone(String)} 一致。
+     *
+     * @param input UTF-8 编码的文本输入，转换成功后 position 将移动到 limit 位置
+     * @param output 替换后的内容输出目标，转换成功后 position 将移动到写入内容之后
+     * @return 写入 {@code output} 的字节数
+     * @throws BufferOverflowException 如果 {@code output} 剩余空间不足，将抛出此异常，{@code input} 和 {@code output} 的 position 均保持不变
+     * @throws ReadOnlyBufferException 如果 {@code output} 为只读缓冲区，将抛出此异常
+     * @see #getMaxPinyinByteLength(int)
+     */
+    public static int toPinyinWithoutTone(ByteBuffer input, ByteBuffer output) throws BufferOverflowException, ReadOnlyBufferException {
+        return ConverterHolder.getConverter().toPinyinWithoutTone(input, output);
+    }
+
+    /**
+     * 获得 {@code byteLength} 个字节的 UTF-8 编码文本替换为拼音后的最大字节数，可用于为 UTF-8 字节转换方法分配输出缓冲区。
+     *
+     * @param byteLength UTF-8 编码的文本字节数
+     * @return 替换后的最大字节数
+     * @throws IllegalArgumentException 如果 {@code byteLength} 小于 0，或计算结果超出 {@code int} 的范围，将抛出此异常
+     */
+    public static int getMaxPinyinByteLength(int byteLength) throws IllegalArgumentException {
+        return ConverterHolder.getConverter().getMaxPinyinByteLength(byteLength);
+    }
+
+    /**
+     * 将文本中的中文替换为拼音首字母后返回，多音字的首字母与 {@link #toPinyinWithToneNumber(String)} 选择的拼音一致，
+     * 其它字符保持不变，且不会插入空格，例如 "中国人" 替换后的内容为 "zgr"，"重庆" 替换后的内容为 "cq"。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @return 替换后的文本
+     */
+    public static String toPinyinInitials(String text) {
+        return ConverterHolder.getConverter().toPinyinInitials(text);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为拼音首字母后追加到 {@code output} 中，替换规则与 {@link #toPinyinInitials(String)} 一致，
+     * 替换过程中不会创建任何中间字符串。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出目标
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public static void toPinyinInitials(CharSequence text, int offset, int length, StringBuilder output)
+            throws IndexOutOfBoundsException {
+        ConverterHolder.getConverter().toPinyinInitials(text, offset, length, output);
+    }
+
+    /**
+     * 将文本指定区间中的中文替换为拼音首字母后写入 {@code output} 数组，替换规则与 {@link #toPinyinInitials(String)} 一致，
+     * 除增补平面汉字的代理对仅对应一个首字母外，每个字符对应一个输出字符，因此写入的字符数量不会超过 {@code length}，
+     * 替换过程中不会创建任何对象。
+     *
+     * @param text 需要进行拼音首字母替换的文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 替换后的内容输出数组
+     * @param outputOffset 输出数组的起始写入位置
+     * @return 写入的字符数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，或输出数组剩余空间不足，将抛出此异常
+     */
+    public static int toPinyinInitials(CharSequence text, int offset, int length, char[] output, int outputOffset)
+            throws IndexOutOfBoundsException {
+        return ConverterHolder.getConverter().toPinyinInitials(text, offset, length, output, outputOffset);
+    }
+
+    /**
+     * 获得文本指定区间中每个字符对应的拼音音节 ID，并写入 {@code output} 数组，多音字的音节 ID 与 {@link #toPinyinWithToneNumber(String)}
+     * 选择的拼音一致，没有拼音的字符对应的音节 ID 为 -1。音节 ID 可通过
+     * {@link com.heimuheimu.util.pinyin.dictionary.PinyinDictionary#getSyllable(int)} 等方法获得对应的拼音，
+     * 写入的音节 ID 数量始终等于 {@code length}，该方法不会创建任何对象。
+     *
+     * @param text 目标文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param output 音节 ID 输出数组
+     * @param outputOffset 输出数组的起始写入位置
+     * @return 写入的音节 ID 数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，或输出数组剩余空间不足，将抛出此异常
+     */
+    public static int getSyllableIds(CharSequence text, int offset, int length, int[] output, int outputOffset)
+            throws IndexOutOfBoundsException {
+        return ConverterHolder.getConverter().getSyllableIds(text, offset, length, output, outputOffset);
+    }
+
+    /**
+     * 获得文本指定区间中每个有拼音的汉字对应的拼音分词结果，并以列存储的形式写入 {@code buffer}，写入前将清空 {@code buffer}。
+     * 每个分词包括汉字在 {@code text} 中的索引位置、占用的字符数、音节 ID 以及拼音是否由多音字词组确定，可用于高亮定位和逐字注音，
+     * 重复使用同一个 {@code buffer} 时，该方法不会创建任何对象。
+     *
+     * @param text 目标文本
+     * @param offset 区间起始索引位置
+     * @param length 区间长度
+     * @param buffer 拼音分词结果输出目标
+     * @return 写入的分词数量
+     * @throws IndexOutOfBoundsException 如果 {@code offset} 或 {@code length} 超出文本范围，将抛出此异常
+     */
+    public static int getTokens(CharSequence text, int offset, int length, PinyinTokenBuffer buffer) throws IndexOutOfBoundsException {
+        return ConverterHolder.getConverter().getTokens(text, offset, length, buffer);
+    }
+
+    /**
+     * 创建一个使用默认拼音转换器的拼音分词流，拼音分词流在每次重置后第一次拉取分词时才获取拼音转换器，
+     * 因此创建拼音分词流不会触发字典加载，拼音转换器热加载后，在拼音分词流下一次重置后生效。
+     *
+     * <p>拼音分词流是非线程安全的，建议每个线程创建一个实例并重复使用，使用方式请参考 {@link PinyinTokenStream}。</p>
+     *
+     * @return 拼音分词流
+     */
+    public static PinyinTokenStream createTokenStream() {
+        return new PinyinTokenStream(ConverterHolder::getConverter);
+    }
+
+    private static void startWarmUpThread(String name, Supplier<?> loader) {
+        Thread thread = new Thread(() -> {
+            try {
+                loader.get();
+            } catch (Throwable e) {
+                READY_FUTURE.completeExceptionally(e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 拼音转换使用的字典数据，在首次进行拼音转换或调用 {@link #warmUp()} 方法时才会加载。
+     */
+    private static class ConverterHolder {
+
+        /**
+         * 拼音转换统计信息，没有设置系统属性 {@link PinyinMetrics#METRICS_ENABLED_PROPERTY} 为 "true" 时为 {@code null}
+         */
+        private static final PinyinMetrics METRICS;
+
+        /**
+         * 拼音转换结果缓存，没有设置系统属性 {@link PinyinResultCache#CACHE_SIZE_PROPERTY} 为正整数时为 {@code null}
+         */
+        private static final PinyinResultCache RESULT_CACHE;
+
+        /**
+         * 可热加载的拼音转换器持有者，没有设置系统属性 {@link PinyinConverterReloader#WATCH_DIRECTORY_PROPERTY} 时为 {@code null}
+         */
+        private static final PinyinConverterReloader RELOADER;
+
+        private static final PinyinConverter CONVERTER;
+
+        static {
+            try {
+                METRICS = createMetrics();
+                RESULT_CACHE = createResultCache();
+                RELOADER = createReloader();
+                CONVERTER = RELOADER == null ? new PinyinConverter.Builder().setMetrics(METRICS)
+                        .setResultCache(RESULT_CACHE).build() : null;
+            } catch (RuntimeException | Error e) {
+                // 初始化可能由普通的拼音转换调用触发，此时也需要通知等待预热完成的使用者
+                READY_FUTURE.completeExceptionally(e);
+                throw e;
+            }
+            READY_FUTURE.complete(null);
+        }
+
+        private static PinyinConverter getConverter() {
+            return RELOADER != null ? RELOADER.getConverter() : CONVERTER;
+        }
+
+        private static PinyinConverterReloader createReloader() {
+            String watchDirectory = System.getProperty(PinyinConverterReloader.WATCH_DIRECTORY_PROPERTY);
+            if (watchDirectory != null && !watchDirectory.isEmpty()) {
+                try {
+                    PinyinConverterReloader reloader = new PinyinConverterReloader(Paths.get(watchDirectory), METRICS, RESULT_CACHE);
+                    reloader.start();
+                    return reloader;
+                } catch (Exception e) {
+                    // 配置了热加载目录但无法加载时直接失败，避免在使用者不知情的情况下回退到内置字典数据
+                    throw new IllegalStateException("Create PinyinConverterReloader failed: `" + e.getMessage() + "`. "
+                            + PinyinConverterReloader.WATCH_DIRECTORY_PROPERTY + ": `" + watchDirectory + "`.", e);
                 }
-                if (!pinyin.isEmpty()) {
-                    if (type == TYPE_WITH_TONE_MARK) {
-                        pinyin = PINYIN_DICTIONARY.toPinyinWithToneMark(pinyin);
-                    } else if (type == TYPE_WITHOUT_TONE) {
-                        pinyin = PINYIN_DICTIONARY.removeToneNumber(pinyin);
-                    }
-                    if (needInsertSpace) {
-                        pinyin = " " + pinyin;
-                    }
-                    if (i < (targetCharacters.length - 1)) {
-                        pinyin += " ";
-                    }
-                    buffer.append(pinyin);
-                    needInsertSpace = false;
-                } else {
-                    buffer.append(targetCharacter);
-                    if (targetCharacter == 0x20 || targetCharacter == '\t' ||
-                            targetCharacter == '\n' || targetCharacter == '\r' ||
-                            targetCharacter == 0x3000) {
-                        needInsertSpace = false;
-                    } else {
-                        needInsertSpace = true;
-                    }
+            }
+            return null;
+        }
+
+        private static PinyinMetrics createMetrics() {
+            if (Boolean.getBoolean(PinyinMetrics.METRICS_ENABLED_PROPERTY)) {
+                PinyinMetrics metrics = new PinyinMetrics();
+                try {
+                    metrics.register();
+                } catch (Exception e) {
+                    // 使用者明确启用了统计，注册失败时直接失败，避免 JMX 中看不到统计信息且没有任何提示
+                    throw new IllegalStateException("Register PinyinMetrics failed: `" + e.getMessage() + "`. "
+                            + PinyinMetrics.METRICS_ENABLED_PROPERTY + ": `true`.", e);
                 }
+                return metrics;
+            }
+            return null;
+        }
+
+        private static PinyinResultCache createResultCache() {
+            Integer cacheSize = Integer.getInteger(PinyinResultCache.CACHE_SIZE_PROPERTY);
+            if (cacheSize != null && cacheSize > 0) {
+                return new PinyinResultCache(cacheSize, PinyinResultCache.CapacityUnit.ENTRIES);
             }
-            return buffer.toString();
-        } else {
-            return text;
+            return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 解码器，将字节缓冲区中的 UTF-8 编码内容解码到可复用的字符数组中，同时记录每个字符在字节缓冲区中的起始位置，
+ * 用于在输出时直接复制没有拼音的字符的原始字节，无需对其重新编码。
+ *
+ * <p>不合法的字节序列（包括过长编码、代理项编码以及不完整的编码）中的每个字节均解码为一个 U+FFFD 字符，
+ * 增补平面字符解码为代理对，低代理项的字节长度为 0。</p>
+ *
+ * <p><strong>说明：</strong>{@code Utf8Decoder} 类是线程安全的，可在多个线程中使用。</p>
+ *
+ * @author heimuheimu
+ */
+class Utf8Decoder {
+
+    /**
+     * 不合法的字节序列解码后使用的字符
+     */
+    static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    /**
+     * 从 {@code input} 的 {@code position} 位置开始解码，直至 {@code limit} 位置或字符数组已满。{@code byteOffsets[i]} 为第 i 个字符的起始字节位置，
+     * 解码结束后 {@code byteOffsets[解码后的字符数组长度]} 为下一次解码的起始字节位置。
+     *
+     * @param input UTF-8 编码的字节缓冲区，不会修改其 position
+     * @param position 解码起始字节位置
+     * @param limit 解码结束字节位置（不包含）
+     * @param characters 解码后的字符数组
+     * @param byteOffsets 字符起始字节位置数组，长度不小于 {@code characters.length + 1}
+     * @param characterCount 字符数组中已有的字符数量
+     * @return 解码后字符数组中的字符数量
+     */
+    static int decode(ByteBuffer input, int position, int limit, char[] characters, int[] byteOffsets, int characterCount) {
+        while (position < limit && characterCount < characters.length) {
+            int b0 = input.get(position);
+            byteOffsets[characterCount] = position;
+            if (b0 >= 0) {
+                characters[characterCount++] = (char) b0;
+                position++;
+                continue;
+            }
+            b0 &= 0xFF;
+            int sequenceLength = 1;
+            int codePoint = -1;
+            if (b0 >= 0xC2 && b0 <= 0xDF) {
+                if (position + 1 < limit && isContinuation(input.get(position + 1))) {
+                    codePoint = ((b0 & 0x1F) << 6) | (input.get(position + 1) & 0x3F);
+                    sequenceLength = 2;
+                }
+            } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                if (position + 2 < limit) {
+                    int b1 = input.get(position + 1) & 0xFF;
+                    int b2 = input.get(position + 2) & 0xFF;
+                    int min = b0 == 0xE0 ? 0xA0 : 0x80; // 过长编码
+                    int max = b0 == 0xED ? 0x9F : 0xBF; // 代理项编码
+                    if (b1 >= min && b1 <= max && isContinuation((byte) b2)) {
+                        codePoint = ((b0 & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F);
+                        sequenceLength = 3;
+                    }
+                }
+            } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                if (position + 3 < limit) {
+                    int b1 = input.get(position + 1) & 0xFF;
+                    int min = b0 == 0xF0 ? 0x90 : 0x80;
+                    int max = b0 == 0xF4 ? 0x8F : 0xBF;
+                    if (b1 >= min && b1 <= max && isContinuation(input.get(position + 2)) && isContinuation(input.get(position + 3))) {
+                        if (characterCount + 1 >= characters.length) {
+                            // 字符数组剩余空间无法容纳代理对，等待下一次解码
+                            break;
+                        }
+                        codePoint = ((b0 & 0x07) << 18) | ((b1 & 0x3F) << 12) | ((input.get(position + 2) & 0x3F) << 6)
+                                | (input.get(position + 3) & 0x3F);
+                        sequenceLength = 4;
+                    }
+                }
+            }
+            if (codePoint < 0) {
+                characters[characterCount++] = REPLACEMENT_CHARACTER;
+            } else if (sequenceLength == 4) {
+                characters[characterCount++] = Character.highSurrogate(codePoint);
+                byteOffsets[characterCount] = position + 4;
+                characters[characterCount++] = Character.lowSurrogate(codePoint);
+            } else {
+                characters[characterCount++] = (char) codePoint;
+            }
+            position += sequenceLength;
+        }
+        byteOffsets[characterCount] = position;
+        return characterCount;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
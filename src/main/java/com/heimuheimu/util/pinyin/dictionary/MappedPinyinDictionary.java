@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * 基于内存映射文件的汉字拼音字典，汉字拼音起始位置数组和音节 ID 数组直接从 {@code FileChannel.map} 返回的堆外内存中读取，
+ * 不占用 Java 堆空间，同一台机器上的多个 JVM 进程可共享操作系统页缓存中的同一份数据。
+ *
+ * <p>音节表及其带有符号声调、不带声调的预计算结果以及基本区以外的汉字拼音页表数据量很小，仍保存在 Java 堆中。</p>
+ *
+ * <p><strong>说明：</strong>{@code MappedPinyinDictionary} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+class MappedPinyinDictionary extends PinyinDictionary {
+
+    /**
+     * 汉字拼音在 {@link #pinyinSyllableIds} 中的起始位置，内容位于内存映射文件中
+     */
+    private final IntBuffer pinyinOffsets;
+
+    /**
+     * 汉字拼音对应的音节 ID，内容位于内存映射文件中
+     */
+    private final ShortBuffer pinyinSyllableIds;
+
+    /**
+     * 构造一个基于内存映射文件的汉字拼音字典。
+     *
+     * @param syllables 音节表，索引为音节 ID，值为对应的带有数字声调的拼音
+     * @param pinyinOffsets 汉字拼音在 {@code pinyinSyllableIds} 中的起始位置，长度为中文字符数量 + 1
+     * @param pinyinSyllableIds 汉字拼音对应的音节 ID
+     * @param extensionTable 基本区以外的汉字拼音页表
+     * @throws IllegalArgumentException 如果传入的内容不合法，将抛出此异常
+     */
+    MappedPinyinDictionary(String[] syllables, IntBuffer pinyinOffsets, ShortBuffer pinyinSyllableIds,
+                           PinyinPageTable extensionTable) throws IllegalArgumentException {
+        super(syllables, extensionTable);
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        if (pinyinOffsets.limit() != characterCount + 1) {
+            throw new IllegalArgumentException("Invalid pinyin offsets length: `" + pinyinOffsets.limit() + "`. Expected length: `"
+                    + (characterCount + 1) + "`.");
+        }
+        if (pinyinOffsets.get(characterCount) != pinyinSyllableIds.limit()) {
+            throw new IllegalArgumentException("Invalid pinyin syllable ids length: `" + pinyinSyllableIds.limit()
+                    + "`. Expected length: `" + pinyinOffsets.get(characterCount) + "`.");
+        }
+        for (int i = 0; i < pinyinSyllableIds.limit(); i++) {
+            short syllableId = pinyinSyllableIds.get(i);
+            if (syllableId < 0 || syllableId >= syllables.length) {
+                throw new IllegalArgumentException("Invalid syllable id: `" + syllableId + "`.");
+            }
+        }
+        this.pinyinOffsets = pinyinOffsets;
+        this.pinyinSyllableIds = pinyinSyllableIds;
+    }
+
+    @Override
+    int[] getPinyinOffsets() {
+        int[] array = new int[pinyinOffsets.limit()];
+        pinyinOffsets.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    short[] getPinyinSyllableIds() {
+        short[] array = new short[pinyinSyllableIds.limit()];
+        pinyinSyllableIds.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    int pinyinOffset(int index) {
+        return pinyinOffsets.get(index);
+    }
+
+    @Override
+    short pinyinSyllableId(int position) {
+        return pinyinSyllableIds.get(position);
+    }
+}
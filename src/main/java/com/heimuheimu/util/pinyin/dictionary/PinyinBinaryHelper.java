@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * 提供二进制字典文件读写的工具方法，所有数值均使用大端字节序，数组以 "长度 + 元素" 的形式存储，读取时使用批量读取。
+ *
+ * <p><strong>说明：</strong>{@code PinyinBinaryHelper} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinBinaryHelper {
+
+    /**
+     * 读取输入流中的全部内容，并返回对应的 {@code ByteBuffer}。
+     *
+     * @param in 输入流
+     * @return 输入流中的全部内容
+     * @throws IOException 如果读取失败，将抛出此异常
+     */
+    public static ByteBuffer readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        byte[] buffer = new byte[16 * 1024];
+        int length;
+        while ((length = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, length);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * 写入二进制文件头，文件头由魔数和格式版本号组成。
+     *
+     * @param out 输出流
+     * @param magic 魔数
+     * @param version 格式版本号
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeHeader(DataOutputStream out, int magic, int version) throws IOException {
+        out.writeInt(magic);
+        out.writeInt(version);
+    }
+
+    /**
+     * 读取并校验二进制文件头。
+     *
+     * @param buffer 二进制内容
+     * @param magic 期望的魔数
+     * @param version 期望的格式版本号
+     * @throws IllegalArgumentException 如果魔数或格式版本号与期望值不一致，将抛出此异常
+     */
+    public static void checkHeader(ByteBuffer buffer, int magic, int version) throws IllegalArgumentException {
+        int actualMagic = buffer.getInt();
+        if (actualMagic != magic) {
+            throw new IllegalArgumentException("Invalid magic: `" + Integer.toHexString(actualMagic) + "`. Expected magic: `"
+                    + Integer.toHexString(magic) + "`.");
+        }
+        int actualVersion = buffer.getInt();
+        if (actualVersion != version) {
+            throw new IllegalArgumentException("Unsupported version: `" + actualVersion + "`. Expected version: `"
+                    + version + "`.");
+        }
+    }
+
+    /**
+     * 写入 int 数组。
+     *
+     * @param out 输出流
+     * @param array int 数组
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeIntArray(DataOutputStream out, int[] array) throws IOException {
+        out.writeInt(array.length);
+        for (int value : array) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * 写入 short 数组。
+     *
+     * @param out 输出流
+     * @param array short 数组
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeShortArray(DataOutputStream out, short[] array) throws IOException {
+        out.writeInt(array.length);
+        for (short value : array) {
+            out.writeShort(value);
+        }
+    }
+
+    /**
+     * 写入 char 数组。
+     *
+     * @param out 输出流
+     * @param array char 数组
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeCharArray(DataOutputStream out, char[] array) throws IOException {
+        out.writeInt(array.length);
+        for (char value : array) {
+            out.writeChar(value);
+        }
+    }
+
+    /**
+     * 批量读取 int 数组。
+     *
+     * @param buffer 二进制内容
+     * @return int 数组
+     */
+    public static int[] readIntArray(ByteBuffer buffer) {
+        int[] array = new int[readArrayLength(buffer, Integer.BYTES)];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Integer.BYTES);
+        return array;
+    }
+
+    /**
+     * 批量读取 short 数组。
+     *
+     * @param buffer 二进制内容
+     * @return short 数组
+     */
+    public static short[] readShortArray(ByteBuffer buffer) {
+        short[] array = new short[readArrayLength(buffer, Short.BYTES)];
+        buffer.asShortBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Short.BYTES);
+        return array;
+    }
+
+    /**
+     * 批量读取 char 数组。
+     *
+     * @param buffer 二进制内容
+     * @return char 数组
+     */
+    public static char[] readCharArray(ByteBuffer buffer) {
+        char[] array = new char[readArrayLength(buffer, Character.BYTES)];
+        buffer.asCharBuffer().get(array);
+        buffer.position(buffer.position() + array.length * Character.BYTES);
+        return array;
+    }
+
+    /**
+     * 返回 int 数组对应的 {@code IntBuffer} 视图，不复制数组内容，适用于内存映射文件等堆外内容。
+     *
+     * @param buffer 二进制内容
+     * @return int 数组视图
+     */
+    public static IntBuffer sliceIntArray(ByteBuffer buffer) {
+        int length = readArrayLength(buffer, Integer.BYTES);
+        return slice(buffer, length * Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * 返回 short 数组对应的 {@code ShortBuffer} 视图，不复制数组内容，适用于内存映射文件等堆外内容。
+     *
+     * @param buffer 二进制内容
+     * @return short 数组视图
+     */
+    public static ShortBuffer sliceShortArray(ByteBuffer buffer) {
+        int length = readArrayLength(buffer, Short.BYTES);
+        return slice(buffer, length * Short.BYTES).asShortBuffer();
+    }
+
+    /**
+     * 返回 char 数组对应的 {@code CharBuffer} 视图，不复制数组内容，适用于内存映射文件等堆外内容。
+     *
+     * @param buffer 二进制内容
+     * @return char 数组视图
+     */
+    public static CharBuffer sliceCharArray(ByteBuffer buffer) {
+        int length = readArrayLength(buffer, Character.BYTES);
+        return slice(buffer, length * Character.BYTES).asCharBuffer();
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int byteLength) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(byteLength);
+        buffer.position(buffer.position() + byteLength);
+        return slice;
+    }
+
+    private static int readArrayLength(ByteBuffer buffer, int elementBytes) throws IllegalArgumentException {
+        int length = buffer.getInt();
+        if (length < 0 || (long) length * elementBytes > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid array length: `" + length + "`. Remaining bytes: `"
+                    + buffer.remaining() + "`.");
+        }
+        return length;
+    }
+}
@@ -25,11 +25,18 @@
 package com.heimuheimu.util.pinyin.dictionary;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * 汉字拼音字典，拼音带有数字声调，数字声调位于拼音最后，使用数字 1 - 5 表示，5 为轻声，例如：lv3, bai4, de5。
  *
+ * <p>字典中所有不同的带有数字声调的拼音会被收录到一个共享的音节表中，每个音节拥有一个从 0 开始的音节 ID，汉字拼音以音节 ID 的形式
+ * 存储在以 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT} 为索引的数组中，查找时无需哈希计算和装箱操作。</p>
+ *
+ * <p>基本区（{@code 0x4e00 - 0x9fa5}）以外的汉字，包括扩展 A 区、兼容汉字以及增补平面中的扩展区汉字，存储在一个两级页表中，
+ * 仅在基本区数组查找未命中时访问，因此不会影响基本区汉字的查找速度。增补平面汉字需要使用 UNICODE 编码值（而非 {@code char}）进行查找。</p>
+ *
  * <p><strong>说明：</strong>{@code PinyinDictionary} 类是线程安全的，可在多个线程中使用同一个实例。</p>
  *
  * @author heimuheimu
@@ -88,17 +95,173 @@ public class PinyinDictionary {
     }
 
     /**
-     * 拼音 Map，Key 为汉字对应的 UNICODE 编码值，Value 为汉字对应的带有数字声调的拼音数组
+     * 音节表，索引为音节 ID，值为对应的带有数字声调的拼音
+     */
+    private final String[] syllables;
+
+    /**
+     * 带有符号声调的音节表，索引为音节 ID，值为对应的带有符号声调的拼音，在字典构造时预先计算
+     */
+    private final String[] syllablesWithToneMark;
+
+    /**
+     * 不带声调的音节表，索引为音节 ID，值为对应的不带声调的拼音，在字典构造时预先计算
+     */
+    private final String[] syllablesWithoutTone;
+
+    /**
+     * 音节首字母表，索引为音节 ID，值为对应拼音的首字母，例如 "zhong1" 对应 'z'，在字典构造时预先计算
+     */
+    private final char[] syllableInitials;
+
+    /**
+     * 音节 ID Map，Key 为带有数字声调的拼音，Value 为对应的音节 ID
+     */
+    private final Map<String, Integer> syllableIdMap;
+
+    /**
+     * 汉字拼音在 {@link #pinyinSyllableIds} 数组中的起始位置，索引为 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，
+     * 数组长度为中文字符数量 + 1，第 i 个汉字的拼音位于 [pinyinOffsets[i], pinyinOffsets[i + 1]) 区间
+     */
+    private final int[] pinyinOffsets;
+
+    /**
+     * 汉字拼音对应的音节 ID 数组，每个汉字的第一个音节 ID 为该汉字的默认拼音
+     */
+    private final short[] pinyinSyllableIds;
+
+    /**
+     * 基本区以外的汉字拼音页表
+     */
+    private final PinyinPageTable extensionTable;
+
+    /**
+     * 不带声调的音节表，在首次调用 {@link #getTonelessSyllableTable()} 方法时创建
      */
-    private final Map<Integer, String[]> pinyinMap;
+    private volatile TonelessSyllableTable tonelessSyllableTable = null;
 
     /**
      * 构造一个汉字拼音字典。
      *
-     * @param pinyinMap 词典使用的拼音 Map，Key 为汉字对应的 UNICODE 编码值，Value 为汉字对应的带有数字声调的拼音数组
+     * @param pinyinMap 词典使用的拼音 Map，Key 为汉字对应的 UNICODE 编码值，可以为 {@link PinyinDictionaryHelper#isCjkIdeograph(int)}
+     *                  范围内的任意汉字，Value 为汉字对应的带有数字声调的拼音数组
+     * @throws IllegalArgumentException 如果 {@code pinyinMap} 中存在非中文字符或非带有数字声调的拼音，将抛出此异常
+     */
+    public PinyinDictionary(Map<Integer, String[]> pinyinMap) throws IllegalArgumentException {
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        Map<String, Integer> internedSyllableMap = new LinkedHashMap<>();
+        int[] offsets = new int[characterCount + 1];
+        int totalPinyinCount = 0;
+        for (Map.Entry<Integer, String[]> entry : pinyinMap.entrySet()) {
+            if (!PinyinDictionaryHelper.isCjkIdeograph(entry.getKey())) {
+                throw new IllegalArgumentException("`" + Integer.toString(entry.getKey(), 16) + "` is not a valid chinese character.");
+            }
+            if (PinyinDictionaryHelper.isChineseCharacter(entry.getKey())) {
+                totalPinyinCount += entry.getValue() != null ? entry.getValue().length : 0;
+            }
+        }
+        short[] ids = new short[totalPinyinCount];
+        int position = 0;
+        for (int i = 0; i < characterCount; i++) {
+            offsets[i] = position;
+            String[] pinyinArray = pinyinMap.get(PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + i);
+            if (pinyinArray != null) {
+                for (String pinyin : pinyinArray) {
+                    ids[position++] = (short) internSyllable(internedSyllableMap, pinyin);
+                }
+            }
+        }
+        offsets[characterCount] = position;
+        Map<Integer, short[]> extensionSyllableIdsMap = new HashMap<>();
+        for (Map.Entry<Integer, String[]> entry : pinyinMap.entrySet()) {
+            if (!PinyinDictionaryHelper.isChineseCharacter(entry.getKey()) && entry.getValue() != null && entry.getValue().length > 0) {
+                short[] syllableIds = new short[entry.getValue().length];
+                for (int i = 0; i < syllableIds.length; i++) {
+                    syllableIds[i] = (short) internSyllable(internedSyllableMap, entry.getValue()[i]);
+                }
+                extensionSyllableIdsMap.put(entry.getKey(), syllableIds);
+            }
+        }
+        this.syllables = internedSyllableMap.keySet().toArray(new String[0]);
+        this.syllablesWithToneMark = createSyllablesWithToneMark(syllables);
+        this.syllablesWithoutTone = createSyllablesWithoutTone(syllables);
+        this.syllableInitials = createSyllableInitials(syllables);
+        this.syllableIdMap = new HashMap<>(internedSyllableMap);
+        this.pinyinOffsets = offsets;
+        this.pinyinSyllableIds = ids;
+        this.extensionTable = PinyinPageTable.create(extensionSyllableIdsMap);
+    }
+
+    /**
+     * 构造一个汉字拼音字典，字典直接使用传入的数组，调用方不应再对其进行修改。
+     *
+     * @param syllables 音节表，索引为音节 ID，值为对应的带有数字声调的拼音，长度不能超过 {@link Short#MAX_VALUE}
+     * @param pinyinOffsets 汉字拼音在 {@code pinyinSyllableIds} 数组中的起始位置，索引为 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，
+     *                      数组长度为中文字符数量 + 1
+     * @param pinyinSyllableIds 汉字拼音对应的音节 ID 数组，每个汉字的第一个音节 ID 为该汉字的默认拼音
+     * @throws IllegalArgumentException 如果传入的数组长度或内容不合法，将抛出此异常
+     */
+    public PinyinDictionary(String[] syllables, int[] pinyinOffsets, short[] pinyinSyllableIds) throws IllegalArgumentException {
+        this(syllables, pinyinOffsets, pinyinSyllableIds, PinyinPageTable.EMPTY);
+    }
+
+    /**
+     * 构造一个包含基本区以外汉字拼音的汉字拼音字典，字典直接使用传入的数组，调用方不应再对其进行修改。
+     *
+     * @param syllables 音节表，索引为音节 ID，值为对应的带有数字声调的拼音，长度不能超过 {@link Short#MAX_VALUE}
+     * @param pinyinOffsets 基本区汉字拼音在 {@code pinyinSyllableIds} 数组中的起始位置，数组长度为中文字符数量 + 1
+     * @param pinyinSyllableIds 基本区汉字拼音对应的音节 ID 数组
+     * @param extensionTable 基本区以外的汉字拼音页表
+     * @throws IllegalArgumentException 如果传入的数组长度或内容不合法，将抛出此异常
+     */
+    PinyinDictionary(String[] syllables, int[] pinyinOffsets, short[] pinyinSyllableIds, PinyinPageTable extensionTable)
+            throws IllegalArgumentException {
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        if (syllables.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many syllables: `" + syllables.length + "`.");
+        }
+        if (pinyinOffsets.length != characterCount + 1) {
+            throw new IllegalArgumentException("Invalid pinyin offsets length: `" + pinyinOffsets.length + "`. Expected length: `"
+                    + (characterCount + 1) + "`.");
+        }
+        if (pinyinOffsets[characterCount] != pinyinSyllableIds.length) {
+            throw new IllegalArgumentException("Invalid pinyin syllable ids length: `" + pinyinSyllableIds.length
+                    + "`. Expected length: `" + pinyinOffsets[characterCount] + "`.");
+        }
+        Map<String, Integer> syllableIdMap = createSyllableIdMap(syllables);
+        checkSyllableIds(pinyinSyllableIds, syllables.length);
+        checkSyllableIds(extensionTable.getPinyinSyllableIds(), syllables.length);
+        this.syllables = syllables;
+        this.syllablesWithToneMark = createSyllablesWithToneMark(syllables);
+        this.syllablesWithoutTone = createSyllablesWithoutTone(syllables);
+        this.syllableInitials = createSyllableInitials(syllables);
+        this.syllableIdMap = syllableIdMap;
+        this.pinyinOffsets = pinyinOffsets;
+        this.pinyinSyllableIds = pinyinSyllableIds;
+        this.extensionTable = extensionTable;
+    }
+
+    /**
+     * 构造一个仅包含音节表的汉字拼音字典，汉字拼音数据由子类通过覆盖 {@link #pinyinOffset(int)} 和 {@link #pinyinSyllableId(int)}
+     * 方法提供，例如从内存映射文件中读取。
+     *
+     * @param syllables 音节表，索引为音节 ID，值为对应的带有数字声调的拼音，长度不能超过 {@link Short#MAX_VALUE}
+     * @param extensionTable 基本区以外的汉字拼音页表
+     * @throws IllegalArgumentException 如果音节表不合法，将抛出此异常
      */
-    public PinyinDictionary(Map<Integer, String[]> pinyinMap) {
-        this.pinyinMap = pinyinMap;
+    PinyinDictionary(String[] syllables, PinyinPageTable extensionTable) throws IllegalArgumentException {
+        if (syllables.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many syllables: `" + syllables.length + "`.");
+        }
+        this.syllableIdMap = createSyllableIdMap(syllables);
+        this.syllables = syllables;
+        this.syllablesWithToneMark = createSyllablesWithToneMark(syllables);
+        this.syllablesWithoutTone = createSyllablesWithoutTone(syllables);
+        this.syllableInitials = createSyllableInitials(syllables);
+        this.pinyinOffsets = null;
+        this.pinyinSyllableIds = null;
+        checkSyllableIds(extensionTable.getPinyinSyllableIds(), syllables.length);
+        this.extensionTable = extensionTable;
     }
 
     /**
@@ -106,26 +269,183 @@ public class PinyinDictionary {
      *
      * <p>如果查找的 UNICODE 编码值在字典中不存在，将会返回 {@code null}。</p>
      *
+     * <p><strong>注意：</strong>每次调用均会返回一个新的数组，数组中的拼音为音节表中共享的字符串实例，对性能敏感的场景建议使用
+     * {@link #getDefaultSyllableId(int)} 或 {@link #getSyllableId(int, int)} 方法。</p>
+     *
      * @param codePoint 中文字符 UNICODE 编码值
      * @return 带有数字声调的拼音数组，可能返回 {@code null}
      */
     public String[] getPinyinWithToneNumber(int codePoint) {
-        return pinyinMap.get(codePoint);
+        int pinyinCount = getPinyinCount(codePoint);
+        if (pinyinCount > 0) {
+            String[] pinyinArray = new String[pinyinCount];
+            for (int i = 0; i < pinyinCount; i++) {
+                pinyinArray[i] = syllables[getSyllableId(codePoint, i)];
+            }
+            return pinyinArray;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 根据中文字符 UNICODE 编码值获得该汉字在字典中的拼音数量，如果为多音字，返回值将大于 1，如果找不到拼音，返回 0。
+     *
+     * @param codePoint 中文字符 UNICODE 编码值
+     * @return 拼音数量
+     */
+    public int getPinyinCount(int codePoint) {
+        if (PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+            int index = codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+            return pinyinOffset(index + 1) - pinyinOffset(index);
+        } else {
+            int index = extensionTable.indexOf(codePoint);
+            return index >= 0 ? extensionTable.pinyinOffset(index + 1) - extensionTable.pinyinOffset(index) : 0;
+        }
+    }
+
+    /**
+     * 根据中文字符 UNICODE 编码值获得该汉字默认拼音对应的音节 ID，如果找不到拼音，返回 -1。
+     *
+     * @param codePoint 中文字符 UNICODE 编码值
+     * @return 默认拼音对应的音节 ID，可能返回 -1
+     */
+    public int getDefaultSyllableId(int codePoint) {
+        if (PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+            int index = codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+            int offset = pinyinOffset(index);
+            if (offset < pinyinOffset(index + 1)) {
+                return pinyinSyllableId(offset);
+            }
+        } else {
+            int index = extensionTable.indexOf(codePoint);
+            if (index >= 0) {
+                int offset = extensionTable.pinyinOffset(index);
+                if (offset < extensionTable.pinyinOffset(index + 1)) {
+                    return extensionTable.pinyinSyllableId(offset);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 根据中文字符 UNICODE 编码值获得该汉字第 {@code pinyinIndex} 个拼音对应的音节 ID，如果不存在，返回 -1。
+     *
+     * @param codePoint 中文字符 UNICODE 编码值
+     * @param pinyinIndex 拼音索引位置，0 为默认拼音
+     * @return 音节 ID，可能返回 -1
+     */
+    public int getSyllableId(int codePoint, int pinyinIndex) {
+        if (pinyinIndex >= 0 && pinyinIndex < getPinyinCount(codePoint)) {
+            if (PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+                return pinyinSyllableId(pinyinOffset(codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT) + pinyinIndex);
+            } else {
+                return extensionTable.pinyinSyllableId(extensionTable.pinyinOffset(extensionTable.indexOf(codePoint)) + pinyinIndex);
+            }
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * 根据带有数字声调的拼音获得对应的音节 ID，如果该拼音不在音节表中，返回 -1。
+     *
+     * @param pinyinWithToneNumber 带有数字声调的拼音
+     * @return 音节 ID，可能返回 -1
+     */
+    public int getSyllableId(String pinyinWithToneNumber) {
+        Integer syllableId = syllableIdMap.get(pinyinWithToneNumber);
+        return syllableId != null ? syllableId : -1;
+    }
+
+    /**
+     * 根据音节 ID 获得对应的带有数字声调的拼音。
+     *
+     * @param syllableId 音节 ID
+     * @return 带有数字声调的拼音
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public String getSyllable(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllables[syllableId];
+    }
+
+    /**
+     * 根据音节 ID 获得对应的带有符号声调的拼音，例如 "lv3" 对应的音节返回 "lǚ"，返回的字符串在字典构造时预先计算并共享。
+     *
+     * @param syllableId 音节 ID
+     * @return 带有符号声调的拼音
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public String getSyllableWithToneMark(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllablesWithToneMark[syllableId];
+    }
+
+    /**
+     * 根据音节 ID 获得对应的不带声调的拼音，例如 "lv3" 对应的音节返回 "lv"，返回的字符串在字典构造时预先计算并共享。
+     *
+     * @param syllableId 音节 ID
+     * @return 不带声调的拼音
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public String getSyllableWithoutTone(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllablesWithoutTone[syllableId];
+    }
+
+    /**
+     * 根据音节 ID 获得对应拼音的首字母，例如 "zhong1" 对应的音节返回 'z'，"lv3" 对应的音节返回 'l'。
+     *
+     * @param syllableId 音节 ID
+     * @return 拼音首字母
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public char getSyllableInitial(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllableInitials[syllableId];
+    }
+
+    /**
+     * 获得音节表中的音节数量，音节 ID 的取值范围为 [0, syllableCount)。
+     *
+     * @return 音节数量
+     */
+    public int getSyllableCount() {
+        return syllables.length;
+    }
+
+    /**
+     * 获得由该字典音节表构建的不带声调的音节表，音节表在首次调用该方法时创建，多次调用返回同一个实例，
+     * 拼音反向索引、拼音搜索索引等使用无声调音节 ID 的组件均应使用该实例，保证无声调音节 ID 一致。
+     *
+     * @return 不带声调的音节表
+     */
+    public TonelessSyllableTable getTonelessSyllableTable() {
+        TonelessSyllableTable tonelessSyllableTable = this.tonelessSyllableTable;
+        if (tonelessSyllableTable == null) {
+            synchronized (this) {
+                tonelessSyllableTable = this.tonelessSyllableTable;
+                if (tonelessSyllableTable == null) {
+                    tonelessSyllableTable = new TonelessSyllableTable(this);
+                    this.tonelessSyllableTable = tonelessSyllableTable;
+                }
+            }
+        }
+        return tonelessSyllableTable;
     }
 
     /**
      * 移除拼音中最后一位的数字声调并返回，例如 "lv3" 移除数字声调后的拼音为 "lv"。
      *
-     * <p>如果传入的不是带数字声调的拼音，将原内容返回。</p>
+     * <p>如果传入的不是带数字声调的拼音，将原内容返回。如果传入的拼音存在于音节表中，将直接返回预先计算的共享结果。</p>
      *
      * @param pinyinWithToneNumber 带有数字声调的拼音
      * @return 不含声调的拼音
      */
     public String removeToneNumber(String pinyinWithToneNumber) {
-        if (PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
-            return pinyinWithToneNumber.substring(0, pinyinWithToneNumber.length() - 1);
+        Integer syllableId = pinyinWithToneNumber != null ? syllableIdMap.get(pinyinWithToneNumber) : null;
+        if (syllableId != null) {
+            return syllablesWithoutTone[syllableId];
         } else {
-            return pinyinWithToneNumber;
+            return computePinyinWithoutTone(pinyinWithToneNumber);
         }
     }
 
@@ -140,15 +460,44 @@ public class PinyinDictionary {
      *     <li>单个韵母不必说。</li>
      * </ul>
      *
-     * <p>如果传入的不是带数字声调的拼音，将原内容返回。</p>
+     * <p>如果传入的不是带数字声调的拼音，将原内容返回。如果传入的拼音存在于音节表中，将直接返回预先计算的共享结果。</p>
      *
      * @param pinyinWithToneNumber 带有数字声调的拼音
      * @return 带有符号声调的拼音
      */
     public String toPinyinWithToneMark(String pinyinWithToneNumber) {
+        Integer syllableId = pinyinWithToneNumber != null ? syllableIdMap.get(pinyinWithToneNumber) : null;
+        if (syllableId != null) {
+            return syllablesWithToneMark[syllableId];
+        } else {
+            return computePinyinWithToneMark(pinyinWithToneNumber);
+        }
+    }
+
+    /**
+     * 移除拼音中最后一位的数字声调并返回，如果传入的不是带数字声调的拼音，将原内容返回。
+     *
+     * @param pinyinWithToneNumber 带有数字声调的拼音
+     * @return 不含声调的拼音
+     */
+    private static String computePinyinWithoutTone(String pinyinWithToneNumber) {
+        if (PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
+            return pinyinWithToneNumber.substring(0, pinyinWithToneNumber.length() - 1);
+        } else {
+            return pinyinWithToneNumber;
+        }
+    }
+
+    /**
+     * 根据声调标注规则将带有数字声调的拼音转换为带有符号声调的拼音，如果传入的不是带数字声调的拼音，将原内容返回。
+     *
+     * @param pinyinWithToneNumber 带有数字声调的拼音
+     * @return 带有符号声调的拼音
+     */
+    private static String computePinyinWithToneMark(String pinyinWithToneNumber) {
         if (PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
             int toneNumber = Integer.parseInt(String.valueOf(pinyinWithToneNumber.charAt(pinyinWithToneNumber.length() - 1)));
-            String pinyinWithoutTone = removeToneNumber(pinyinWithToneNumber);
+            String pinyinWithoutTone = computePinyinWithoutTone(pinyinWithToneNumber);
             if (toneNumber >= 1 && toneNumber <= 4) {
                 int indexOfA = pinyinWithoutTone.indexOf(VOWEL_A);
                 if (indexOfA >= 0) {
@@ -196,7 +545,7 @@ public class PinyinDictionary {
      * @param vowelIndex 需要替换的元音位置
      * @return 替换后带有声调符号的拼音
      */
-    private String replaceVowelWithToneMark(String pinyinWithoutTone, int toneNumber, int vowelIndex) {
+    private static String replaceVowelWithToneMark(String pinyinWithoutTone, int toneNumber, int vowelIndex) {
         char[] chars = pinyinWithoutTone.toCharArray();
         char vowelWithoutTone = chars[vowelIndex];
         char vowelWithToneMark = MARKED_VOWEL_MAP.get(vowelWithoutTone)[toneNumber - 1];
@@ -208,4 +557,123 @@ public class PinyinDictionary {
         }
         return new String(chars);
     }
+
+    /**
+     * 获得音节表，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 音节表
+     */
+    String[] getSyllables() {
+        return syllables;
+    }
+
+    /**
+     * 获得汉字拼音在音节 ID 数组中的起始位置数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 汉字拼音起始位置数组
+     */
+    int[] getPinyinOffsets() {
+        return pinyinOffsets;
+    }
+
+    /**
+     * 获得汉字拼音对应的音节 ID 数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 汉字拼音对应的音节 ID 数组
+     */
+    short[] getPinyinSyllableIds() {
+        return pinyinSyllableIds;
+    }
+
+    /**
+     * 获得基本区以外的汉字拼音页表。
+     *
+     * @return 基本区以外的汉字拼音页表
+     */
+    PinyinPageTable getExtensionTable() {
+        return extensionTable;
+    }
+
+    /**
+     * 获得第 {@code index} 个汉字的拼音在音节 ID 数组中的起始位置，子类可通过覆盖该方法使用其它存储方式。
+     *
+     * @param index 汉字索引位置，即 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，允许等于中文字符数量
+     * @return 拼音起始位置
+     */
+    int pinyinOffset(int index) {
+        return pinyinOffsets[index];
+    }
+
+    /**
+     * 获得音节 ID 数组中第 {@code position} 个音节 ID，子类可通过覆盖该方法使用其它存储方式。
+     *
+     * @param position 音节 ID 数组索引位置
+     * @return 音节 ID
+     */
+    short pinyinSyllableId(int position) {
+        return pinyinSyllableIds[position];
+    }
+
+    private static Map<String, Integer> createSyllableIdMap(String[] syllables) throws IllegalArgumentException {
+        Map<String, Integer> syllableIdMap = new HashMap<>();
+        for (int i = 0; i < syllables.length; i++) {
+            if (!PinyinDictionaryHelper.isPinyinWithToneNumber(syllables[i])) {
+                throw new IllegalArgumentException("Invalid pinyin with tone number: `" + syllables[i] + "`. Syllable id: `" + i + "`.");
+            }
+            if (syllableIdMap.put(syllables[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate syllable: `" + syllables[i] + "`.");
+            }
+        }
+        return syllableIdMap;
+    }
+
+    private static void checkSyllableIds(short[] syllableIds, int syllableCount) throws IllegalArgumentException {
+        for (short syllableId : syllableIds) {
+            if (syllableId < 0 || syllableId >= syllableCount) {
+                throw new IllegalArgumentException("Invalid syllable id: `" + syllableId + "`.");
+            }
+        }
+    }
+
+    private static String[] createSyllablesWithToneMark(String[] syllables) {
+        String[] syllablesWithToneMark = new String[syllables.length];
+        for (int i = 0; i < syllables.length; i++) {
+            syllablesWithToneMark[i] = computePinyinWithToneMark(syllables[i]);
+        }
+        return syllablesWithToneMark;
+    }
+
+    private static String[] createSyllablesWithoutTone(String[] syllables) {
+        String[] syllablesWithoutTone = new String[syllables.length];
+        Map<String, String> internedMap = new HashMap<>();
+        for (int i = 0; i < syllables.length; i++) {
+            String pinyinWithoutTone = computePinyinWithoutTone(syllables[i]);
+            String interned = internedMap.putIfAbsent(pinyinWithoutTone, pinyinWithoutTone);
+            syllablesWithoutTone[i] = interned != null ? interned : pinyinWithoutTone;
+        }
+        return syllablesWithoutTone;
+    }
+
+    private static char[] createSyllableInitials(String[] syllables) {
+        char[] syllableInitials = new char[syllables.length];
+        for (int i = 0; i < syllables.length; i++) {
+            syllableInitials[i] = syllables[i].charAt(0);
+        }
+        return syllableInitials;
+    }
+
+    private static int internSyllable(Map<String, Integer> internedSyllableMap, String pinyinWithToneNumber) {
+        if (!PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
+            throw new IllegalArgumentException("Invalid pinyin with tone number: `" + pinyinWithToneNumber + "`.");
+        }
+        Integer syllableId = internedSyllableMap.get(pinyinWithToneNumber);
+        if (syllableId == null) {
+            syllableId = internedSyllableMap.size();
+            if (syllableId > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many syllables: `" + syllableId + "`.");
+            }
+            internedSyllableMap.put(pinyinWithToneNumber, syllableId);
+        }
+        return syllableId;
+    }
 }
@@ -24,16 +24,20 @@
 
 package com.heimuheimu.util.pinyin.dictionary;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * 汉字拼音字典工厂类，字典内容与 "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt" 文件内容一致。
  *
+ * <p>如果设置了系统属性 {@link #MAPPED_DIRECTORY_PROPERTY}，将使用内存映射方式加载该目录下的 "pinyin_mapping.bin" 文件，
+ * 字典数据位于堆外内存中，同一台机器上的多个 JVM 进程可共享同一份数据，该文件不存在时将使用 classpath 中的字典文件。</p>
+ *
+ * <p>二进制字典文件存在但内容不合法或格式版本不一致时（包括 classpath 中构建生成的二进制文件），加载字典将抛出 {@link IllegalArgumentException}，
+ * 不会静默回退到文本文件解析。</p>
+ *
  * <p><strong>说明：</strong>{@code PinyinDictionaryFactory} 类是线程安全的，可在多个线程中使用同一个实例。</p>
  *
  * @author heimuheimu
@@ -42,41 +46,77 @@ public class PinyinDictionaryFactory {
 
     private static final String PINYIN_MAPPING_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt";
 
-    private static final PinyinDictionary DICTIONARY;
+    private static final String PINYIN_MAPPING_EXTENSION_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping_extension.txt";
 
-    static {
-        try (InputStream in = PinyinDictionaryFactory.class.getResourceAsStream(PINYIN_MAPPING_FILE_PATH);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
-            Map<Integer, String[]> pinyinMap = new HashMap<>();
-            int codePoint = 0x4e00;
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] pinyinWithToneNumberArray = line.split(",");
-                if (pinyinWithToneNumberArray.length == 0) {
-                    throw new IllegalArgumentException("Empty pinyin with tone number array. Code point: `"
-                            + Integer.toString(codePoint, 16) + ". Line number: `" + (codePoint - 0x4e00 + 1) + ".");
-                }
-                for (String pinyinWithToneNumber : pinyinWithToneNumberArray) {
-                    if (!PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
-                        throw new IllegalArgumentException("Invalid pinyin with tone number: `" + pinyinWithToneNumber
-                                + "`. Code point: `" + Integer.toString(codePoint, 16) + "`. Line number: `"
-                                + + (codePoint - 0x4e00 + 1) + ".");
-                    }
+    private static final String PINYIN_MAPPING_BINARY_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.bin";
+
+    /**
+     * 二进制字典文件目录的系统属性名称，设置后将使用内存映射方式加载该目录下的二进制字典文件，二进制字典文件可通过
+     * {@code com.heimuheimu.util.pinyin.multi.PinyinBinaryCompiler} 生成
+     */
+    public static final String MAPPED_DIRECTORY_PROPERTY = "com.heimuheimu.util.pinyin.mappedDirectory";
+
+    /**
+     * 获得汉字拼音字典，字典内容与 "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt" 文件内容一致。
+     *
+     * <p>字典在首次调用该方法时加载，只使用汉字拼音字典的场景不会加载多音字词库。</p>
+     *
+     * @return 汉字拼音字典
+     */
+    public static PinyinDictionary getDictionary() {
+        return DictionaryHolder.DICTIONARY;
+    }
+
+    /**
+     * 获得由 {@link #getDictionary()} 字典构建的拼音反向索引，索引在首次调用该方法时构建，多次调用返回同一个实例。
+     *
+     * @return 拼音反向索引
+     */
+    public static PinyinReverseIndex getReverseIndex() {
+        return ReverseIndexHolder.REVERSE_INDEX;
+    }
+
+    private static PinyinDictionary loadDictionary() throws IllegalArgumentException {
+        String mappedDirectory = System.getProperty(MAPPED_DIRECTORY_PROPERTY);
+        if (mappedDirectory != null && !mappedDirectory.isEmpty()) {
+            Path path = Paths.get(mappedDirectory, "pinyin_mapping.bin");
+            if (Files.exists(path)) {
+                try {
+                    return PinyinDictionaryLoader.mapBinary(path);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Map binary pinyin mapping file failed: `" + path + "`.", e);
                 }
-                pinyinMap.put(codePoint++, pinyinWithToneNumberArray);
             }
-            DICTIONARY = new PinyinDictionary(pinyinMap);
+        }
+        // 优先使用构建时由文本文件编译生成的二进制文件，仅在二进制文件不存在时使用文本文件
+        try (InputStream in = PinyinDictionaryFactory.class.getResourceAsStream(PINYIN_MAPPING_BINARY_FILE_PATH)) {
+            if (in != null) {
+                return PinyinDictionaryLoader.loadBinary(in);
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Load binary pinyin mapping file failed: `" + PINYIN_MAPPING_BINARY_FILE_PATH + "`.", e);
+        }
+        try (InputStream in = PinyinDictionaryFactory.class.getResourceAsStream(PINYIN_MAPPING_FILE_PATH);
+             InputStream extensionIn = PinyinDictionaryFactory.class.getResourceAsStream(PINYIN_MAPPING_EXTENSION_FILE_PATH)) {
+            return PinyinDictionaryLoader.loadText(in, extensionIn);
         } catch (Exception e) {
             throw new IllegalArgumentException("Load pinyin mapping file failed: `" + PINYIN_MAPPING_FILE_PATH + "`.", e);
         }
     }
 
     /**
-     * 获得汉字拼音字典，字典内容与 "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt" 文件内容一致。
-     *
-     * @return 汉字拼音字典
+     * 汉字拼音字典持有类，在首次调用 {@link #getDictionary()} 方法时才会加载字典。
      */
-    public static PinyinDictionary getDictionary() {
-        return DICTIONARY;
+    private static class DictionaryHolder {
+
+        private static final PinyinDictionary DICTIONARY = loadDictionary();
+    }
+
+    /**
+     * 拼音反向索引持有类，在首次调用 {@link #getReverseIndex()} 方法时才会构建索引。
+     */
+    private static class ReverseIndexHolder {
+
+        private static final PinyinReverseIndex REVERSE_INDEX = new PinyinReverseIndex(getDictionary());
     }
 }
@@ -44,15 +44,36 @@ public class PinyinDictionaryHelper {
     public static final int CHINESE_CHAR_MAX_CODE_POINT = 0x9fa5;
 
     /**
-     * 根据 UNICODE 编码值判断是否为中文字符。
+     * 根据 UNICODE 编码值判断是否为基本区（{@code 0x4e00 - 0x9fa5}）中文字符，基本区汉字的拼音及多音字数据使用以
+     * {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT} 为索引的数组存储。
+     *
+     * <p>如需判断扩展区汉字或兼容汉字，请使用 {@link #isCjkIdeograph(int)} 方法。</p>
      *
      * @param codePoint UNICODE 编码值
-     * @return 是否为中文字符
+     * @return 是否为基本区中文字符
      */
     public static boolean isChineseCharacter(int codePoint) {
         return codePoint >= CHINESE_CHAR_MIN_CODE_POINT && codePoint <= CHINESE_CHAR_MAX_CODE_POINT;
     }
 
+    /**
+     * 根据 UNICODE 编码值判断是否为 CJK 汉字，包括基本区、扩展 A 区（{@code 0x3400 - 0x4dbf}）、兼容汉字（{@code 0xf900 - 0xfaff}）、
+     * 扩展 B 区（{@code 0x20000 - 0x2a6df}）、扩展 C - F 区及扩展 I 区（{@code 0x2a700 - 0x2ee5f}）、
+     * 兼容汉字补充（{@code 0x2f800 - 0x2fa1f}）以及扩展 G - H 区（{@code 0x30000 - 0x323af}）。
+     *
+     * @param codePoint UNICODE 编码值
+     * @return 是否为 CJK 汉字
+     */
+    public static boolean isCjkIdeograph(int codePoint) {
+        if (codePoint < 0x20000) {
+            return (codePoint >= 0x3400 && codePoint <= 0x4dbf) || (codePoint >= 0x4e00 && codePoint <= 0x9fff)
+                    || (codePoint >= 0xf900 && codePoint <= 0xfaff);
+        } else {
+            return codePoint <= 0x2a6df || (codePoint >= 0x2a700 && codePoint <= 0x2ee5f)
+                    || (codePoint >= 0x2f800 && codePoint <= 0x2fa1f) || (codePoint >= 0x30000 && codePoint <= 0x323af);
+        }
+    }
+
     /**
      * 判断传入的拼音是否为带有数字声调的拼音，数字声调位于拼音最后，使用数字 1 - 5 表示，5 为轻声，例如：lv3, bai4, de5。
      *
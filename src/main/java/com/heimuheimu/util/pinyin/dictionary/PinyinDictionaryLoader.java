@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 汉字拼音字典加载器，支持从 "pinyin_mapping.txt" 格式的文本文件或由 {@link #writeBinary(PinyinDictionary, OutputStream)}
+ * 方法生成的二进制文件中加载汉字拼音字典。
+ *
+ * <p>文本文件的第 N 行为 UNICODE 编码值 {@code 0x4e00 + N - 1} 对应汉字的带有数字声调的拼音，多个拼音使用 "," 分隔，第一个拼音为默认拼音。
+ * 基本区以外的汉字拼音位于 "pinyin_mapping_extension.txt" 格式的扩展文本文件中，每行格式为 "十六进制 UNICODE 编码值=拼音"，
+ * 例如 "20bb7=ji2"，以 "#" 开头的行为注释。兼容汉字（例如 {@code 0xf900 - 0xfaff}）的拼音由其 NFC 规范化后对应的汉字自动生成，无需在文本文件中列出。
+ * 二进制文件由文本文件在构建时编译生成，加载时无需进行文本解析和校验，文本文件始终是字典内容的唯一来源。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinDictionaryLoader} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinDictionaryLoader {
+
+    /**
+     * 二进制字典文件魔数："PYDC"
+     */
+    private static final int BINARY_MAGIC = 0x50594443;
+
+    /**
+     * 二进制字典文件格式版本号，格式变更时需要递增
+     */
+    private static final int BINARY_VERSION = 2;
+
+    /**
+     * 兼容汉字所在的编码区间，每两个元素为一个闭区间
+     */
+    private static final int[] COMPATIBILITY_IDEOGRAPH_RANGES = {0xf900, 0xfaff, 0x2f800, 0x2fa1f};
+
+    /**
+     * 从 "pinyin_mapping.txt" 格式的文本输入流中加载汉字拼音字典，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @return 汉字拼音字典
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static PinyinDictionary loadText(InputStream in) throws IOException, IllegalArgumentException {
+        return loadText(in, null);
+    }
+
+    /**
+     * 从 "pinyin_mapping.txt" 格式的文本输入流以及 "pinyin_mapping_extension.txt" 格式的扩展文本输入流中加载汉字拼音字典，
+     * 兼容汉字的拼音由其 NFC 规范化后对应的汉字自动生成，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @param extensionIn 扩展文本输入流，使用 UTF-8 编码，允许为 {@code null}
+     * @return 汉字拼音字典
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static PinyinDictionary loadText(InputStream in, InputStream extensionIn) throws IOException, IllegalArgumentException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        Map<String, Integer> syllableIdMap = new LinkedHashMap<>();
+        int[] pinyinOffsets = new int[characterCount + 1];
+        short[] pinyinSyllableIds = new short[characterCount * 2];
+        int pinyinCount = 0;
+        int codePoint = PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (codePoint > PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT) {
+                throw new IllegalArgumentException("Too many lines. Line number: `" + (codePoint - 0x4e00 + 1) + ".");
+            }
+            String[] pinyinWithToneNumberArray = line.split(",");
+            if (pinyinWithToneNumberArray.length == 0) {
+                throw new IllegalArgumentException("Empty pinyin with tone number array. Code point: `"
+                        + Integer.toString(codePoint, 16) + ". Line number: `" + (codePoint - 0x4e00 + 1) + ".");
+            }
+            pinyinOffsets[codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT] = pinyinCount;
+            for (String pinyinWithToneNumber : pinyinWithToneNumberArray) {
+                if (!PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
+                    throw new IllegalArgumentException("Invalid pinyin with tone number: `" + pinyinWithToneNumber
+                            + "`. Code point: `" + Integer.toString(codePoint, 16) + "`. Line number: `"
+                            + (codePoint - 0x4e00 + 1) + ".");
+                }
+                Integer syllableId = syllableIdMap.get(pinyinWithToneNumber);
+                if (syllableId == null) {
+                    syllableId = syllableIdMap.size();
+                    syllableIdMap.put(pinyinWithToneNumber, syllableId);
+                }
+                if (pinyinCount == pinyinSyllableIds.length) {
+                    pinyinSyllableIds = Arrays.copyOf(pinyinSyllableIds, pinyinSyllableIds.length * 2);
+                }
+                pinyinSyllableIds[pinyinCount++] = (short) (int) syllableId;
+            }
+            codePoint++;
+        }
+        for (int i = codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT; i <= characterCount; i++) {
+            pinyinOffsets[i] = pinyinCount;
+        }
+        Map<Integer, short[]> extensionSyllableIdsMap = extensionIn != null ? readExtensionText(extensionIn, syllableIdMap)
+                : new HashMap<>();
+        addCompatibilityIdeographs(extensionSyllableIdsMap, pinyinOffsets, pinyinSyllableIds);
+        return new PinyinDictionary(syllableIdMap.keySet().toArray(new String[0]), pinyinOffsets,
+                Arrays.copyOf(pinyinSyllableIds, pinyinCount), PinyinPageTable.create(extensionSyllableIdsMap));
+    }
+
+    /**
+     * 从二进制输入流中加载汉字拼音字典，该方法不会关闭输入流。
+     *
+     * @param in 二进制输入流，内容由 {@link #writeBinary(PinyinDictionary, OutputStream)} 方法生成
+     * @return 汉字拼音字典
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果二进制内容不合法或格式版本不一致，将抛出此异常
+     */
+    public static PinyinDictionary loadBinary(InputStream in) throws IOException, IllegalArgumentException {
+        return loadBinary(PinyinBinaryHelper.readFully(in));
+    }
+
+    /**
+     * 从二进制内容中加载汉字拼音字典，读取将从 {@code buffer} 的当前位置开始。
+     *
+     * @param buffer 二进制内容，由 {@link #writeBinary(PinyinDictionary, OutputStream)} 方法生成
+     * @return 汉字拼音字典
+     * @throws IllegalArgumentException 如果二进制内容不合法或格式版本不一致，将抛出此异常
+     */
+    public static PinyinDictionary loadBinary(ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            PinyinBinaryHelper.checkHeader(buffer, BINARY_MAGIC, BINARY_VERSION);
+            String[] syllables = readSyllables(buffer);
+            int[] pinyinOffsets = PinyinBinaryHelper.readIntArray(buffer);
+            short[] pinyinSyllableIds = PinyinBinaryHelper.readShortArray(buffer);
+            return new PinyinDictionary(syllables, pinyinOffsets, pinyinSyllableIds, readExtensionTable(buffer));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid binary pinyin dictionary.", e);
+        }
+    }
+
+    /**
+     * 使用内存映射方式（{@code FileChannel.map}）加载二进制汉字拼音字典文件，汉字拼音数据直接从映射的堆外内存中读取，不会复制到 Java 堆中，
+     * 同一台机器上映射同一文件的多个 JVM 进程将共享操作系统页缓存中的同一份数据。
+     *
+     * <p><strong>注意：</strong>字典使用期间不应修改或删除该文件，映射的内存在字典实例被回收后才会释放。</p>
+     *
+     * @param path 二进制汉字拼音字典文件路径，文件内容由 {@link #writeBinary(PinyinDictionary, OutputStream)} 方法生成
+     * @return 汉字拼音字典
+     * @throws IOException 如果文件映射失败，将抛出此异常
+     * @throws IllegalArgumentException 如果二进制内容不合法或格式版本不一致，将抛出此异常
+     */
+    public static PinyinDictionary mapBinary(Path path) throws IOException, IllegalArgumentException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            PinyinBinaryHelper.checkHeader(buffer, BINARY_MAGIC, BINARY_VERSION);
+            String[] syllables = readSyllables(buffer);
+            IntBuffer pinyinOffsets = PinyinBinaryHelper.sliceIntArray(buffer);
+            ShortBuffer pinyinSyllableIds = PinyinBinaryHelper.sliceShortArray(buffer);
+            return new MappedPinyinDictionary(syllables, pinyinOffsets, pinyinSyllableIds, readExtensionTable(buffer));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid binary pinyin dictionary: `" + path + "`.", e);
+        }
+    }
+
+    /**
+     * 将汉字拼音字典以二进制格式写入输出流，该方法不会关闭输出流。
+     *
+     * @param dictionary 汉字拼音字典
+     * @param out 输出流
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeBinary(PinyinDictionary dictionary, OutputStream out) throws IOException {
+        DataOutputStream dataOutput = new DataOutputStream(out);
+        PinyinBinaryHelper.writeHeader(dataOutput, BINARY_MAGIC, BINARY_VERSION);
+        String[] syllables = dictionary.getSyllables();
+        int[] syllableOffsets = new int[syllables.length + 1];
+        StringBuilder syllableCharacters = new StringBuilder();
+        for (int i = 0; i < syllables.length; i++) {
+            syllableOffsets[i] = syllableCharacters.length();
+            syllableCharacters.append(syllables[i]);
+        }
+        syllableOffsets[syllables.length] = syllableCharacters.length();
+        PinyinBinaryHelper.writeIntArray(dataOutput, syllableOffsets);
+        PinyinBinaryHelper.writeCharArray(dataOutput, syllableCharacters.toString().toCharArray());
+        PinyinBinaryHelper.writeIntArray(dataOutput, dictionary.getPinyinOffsets());
+        PinyinBinaryHelper.writeShortArray(dataOutput, dictionary.getPinyinSyllableIds());
+        PinyinPageTable extensionTable = dictionary.getExtensionTable();
+        PinyinBinaryHelper.writeIntArray(dataOutput, extensionTable.getPageIndexes());
+        PinyinBinaryHelper.writeIntArray(dataOutput, extensionTable.getPinyinOffsets());
+        PinyinBinaryHelper.writeShortArray(dataOutput, extensionTable.getPinyinSyllableIds());
+        dataOutput.flush();
+    }
+
+    private static PinyinPageTable readExtensionTable(ByteBuffer buffer) {
+        int[] pageIndexes = PinyinBinaryHelper.readIntArray(buffer);
+        int[] pinyinOffsets = PinyinBinaryHelper.readIntArray(buffer);
+        short[] pinyinSyllableIds = PinyinBinaryHelper.readShortArray(buffer);
+        return pageIndexes.length > 0 ? new PinyinPageTable(pageIndexes, pinyinOffsets, pinyinSyllableIds) : PinyinPageTable.EMPTY;
+    }
+
+    private static Map<Integer, short[]> readExtensionText(InputStream extensionIn, Map<String, Integer> syllableIdMap)
+            throws IOException, IllegalArgumentException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(extensionIn, StandardCharsets.UTF_8));
+        Map<Integer, short[]> extensionSyllableIdsMap = new HashMap<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separatorIndex = line.indexOf('=');
+            int codePoint;
+            try {
+                codePoint = separatorIndex > 0 ? Integer.parseInt(line.substring(0, separatorIndex).trim(), 16) : -1;
+            } catch (NumberFormatException e) {
+                codePoint = -1;
+            }
+            if (!PinyinDictionaryHelper.isCjkIdeograph(codePoint) || PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+                throw new IllegalArgumentException("Invalid extension chinese character: `" + line + "`. Line number: `"
+                        + lineNumber + "`.");
+            }
+            String[] pinyinWithToneNumberArray = line.substring(separatorIndex + 1).trim().split(",");
+            short[] syllableIds = new short[pinyinWithToneNumberArray.length];
+            for (int i = 0; i < syllableIds.length; i++) {
+                String pinyinWithToneNumber = pinyinWithToneNumberArray[i];
+                if (!PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber)) {
+                    throw new IllegalArgumentException("Invalid pinyin with tone number: `" + pinyinWithToneNumber
+                            + "`. Line number: `" + lineNumber + "`.");
+                }
+                Integer syllableId = syllableIdMap.get(pinyinWithToneNumber);
+                if (syllableId == null) {
+                    syllableId = syllableIdMap.size();
+                    syllableIdMap.put(pinyinWithToneNumber, syllableId);
+                }
+                syllableIds[i] = (short) (int) syllableId;
+            }
+            if (extensionSyllableIdsMap.put(codePoint, syllableIds) != null) {
+                throw new IllegalArgumentException("Duplicate extension chinese character: `" + Integer.toString(codePoint, 16)
+                        + "`. Line number: `" + lineNumber + "`.");
+            }
+        }
+        return extensionSyllableIdsMap;
+    }
+
+    /**
+     * 判断是否为兼容汉字，兼容汉字的拼音由其 NFC 规范化后对应的汉字自动生成。
+     */
+    static boolean isCompatibilityIdeograph(int codePoint) {
+        for (int i = 0; i < COMPATIBILITY_IDEOGRAPH_RANGES.length; i += 2) {
+            if (codePoint >= COMPATIBILITY_IDEOGRAPH_RANGES[i] && codePoint <= COMPATIBILITY_IDEOGRAPH_RANGES[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为 NFC 规范化后对应单个汉字的兼容汉字生成拼音，拼音与规范化后的汉字一致，已在扩展文本文件中列出的兼容汉字不会被覆盖。
+     */
+    private static void addCompatibilityIdeographs(Map<Integer, short[]> extensionSyllableIdsMap, int[] pinyinOffsets,
+                                                   short[] pinyinSyllableIds) {
+        for (int i = 0; i < COMPATIBILITY_IDEOGRAPH_RANGES.length; i += 2) {
+            for (int codePoint = COMPATIBILITY_IDEOGRAPH_RANGES[i]; codePoint <= COMPATIBILITY_IDEOGRAPH_RANGES[i + 1]; codePoint++) {
+                if (extensionSyllableIdsMap.containsKey(codePoint)) {
+                    continue;
+                }
+                String normalized = Normalizer.normalize(new String(Character.toChars(codePoint)), Normalizer.Form.NFC);
+                int targetCodePoint = normalized.codePointAt(0);
+                if (targetCodePoint == codePoint || Character.charCount(targetCodePoint) != normalized.length()) {
+                    continue;
+                }
+                short[] syllableIds = null;
+                if (PinyinDictionaryHelper.isChineseCharacter(targetCodePoint)) {
+                    int index = targetCodePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+                    if (pinyinOffsets[index + 1] > pinyinOffsets[index]) {
+                        syllableIds = Arrays.copyOfRange(pinyinSyllableIds, pinyinOffsets[index], pinyinOffsets[index + 1]);
+                    }
+                } else {
+                    syllableIds = extensionSyllableIdsMap.get(targetCodePoint);
+                }
+                if (syllableIds != null) {
+                    extensionSyllableIdsMap.put(codePoint, syllableIds);
+                }
+            }
+        }
+    }
+
+    private static String[] readSyllables(ByteBuffer buffer) {
+        int[] syllableOffsets = PinyinBinaryHelper.readIntArray(buffer);
+        char[] syllableCharacters = PinyinBinaryHelper.readCharArray(buffer);
+        String[] syllables = new String[syllableOffsets.length - 1];
+        for (int i = 0; i < syllables.length; i++) {
+            syllables[i] = new String(syllableCharacters, syllableOffsets[i], syllableOffsets[i + 1] - syllableOffsets[i]);
+        }
+        return syllables;
+    }
+}
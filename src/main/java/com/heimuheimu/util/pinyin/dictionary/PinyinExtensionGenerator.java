@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 扩展区汉字拼音文件生成器，根据 Unihan 数据库中的 "Unihan_Readings.txt" 文件生成 "pinyin_mapping_extension.txt" 文件，
+ * 覆盖扩展 A 区、增补平面扩展区等基本区以外的所有拥有普通话读音的汉字。
+ *
+ * <p>默认拼音使用 kMandarin 字段中的第一个读音，其余读音依次来自 kMandarin、kHanyuPinyin 和 kXHC1983 字段，重复的读音将被忽略。
+ * 兼容汉字的拼音由 {@link PinyinDictionaryLoader} 根据其 NFC 规范化后对应的汉字自动生成，不会写入生成的文件。</p>
+ *
+ * <p>使用方式：{@code java com.heimuheimu.util.pinyin.dictionary.PinyinExtensionGenerator <Unihan_Readings.txt 文件路径> <输出文件路径>}，
+ * Unihan 数据库可从 https://www.unicode.org/Public/UCD/latest/ucd/Unihan.zip 下载。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinExtensionGenerator {
+
+    /**
+     * Unihan 数据库中的读音字段，按读音优先级排列
+     */
+    private static final String[] READING_FIELDS = {"kMandarin", "kHanyuPinyin", "kXHC1983"};
+
+    /**
+     * 组合声调符号对应的数字声调，Key 为组合声调符号，Value 为数字声调
+     */
+    private static final Map<Character, Character> TONE_MARK_MAP;
+
+    static {
+        Map<Character, Character> toneMarkMap = new HashMap<>();
+        // 组合声调符号依次为：阴平（U+0304）、阳平（U+0301）、上声（U+030C）、去声（U+0300）
+        toneMarkMap.put('\u0304', '1');
+        toneMarkMap.put('\u0301', '2');
+        toneMarkMap.put('\u030c', '3');
+        toneMarkMap.put('\u0300', '4');
+        TONE_MARK_MAP = toneMarkMap;
+    }
+
+    /**
+     * 根据 Unihan 数据库中的 "Unihan_Readings.txt" 文件生成 "pinyin_mapping_extension.txt" 文件。
+     *
+     * @param args 参数数组，第一个参数为 "Unihan_Readings.txt" 文件路径，第二个参数为输出文件路径
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     * @throws IllegalArgumentException 如果参数或文件内容不合法，将抛出此异常
+     */
+    public static void main(String[] args) throws IOException, IllegalArgumentException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: PinyinExtensionGenerator <Unihan_Readings.txt> <output file>");
+        }
+        Map<Integer, String[]> extensionPinyinMap;
+        try (InputStream in = new FileInputStream(args[0])) {
+            extensionPinyinMap = parseUnihanReadings(in);
+        }
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            writeExtensionText(extensionPinyinMap, out);
+        }
+    }
+
+    /**
+     * 从 "Unihan_Readings.txt" 格式的文本输入流中读取基本区以外的汉字拼音，兼容汉字不包含在返回结果中，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @return 汉字拼音 Map，Key 为汉字对应的 UNICODE 编码值，Value 为带有数字声调的拼音数组，第一个拼音为默认拼音，按 UNICODE 编码值升序排列
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static Map<Integer, String[]> parseUnihanReadings(InputStream in) throws IOException, IllegalArgumentException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        // 每个汉字每个字段对应的读音列表，数组索引与 READING_FIELDS 一致
+        Map<Integer, List<List<String>>> readingsMap = new TreeMap<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t");
+            if (columns.length != 3 || !columns[0].startsWith("U+")) {
+                throw new IllegalArgumentException("Invalid unihan readings line: `" + line + "`. Line number: `" + lineNumber + "`.");
+            }
+            int fieldIndex = indexOfField(columns[1]);
+            if (fieldIndex < 0) {
+                continue;
+            }
+            int codePoint;
+            try {
+                codePoint = Integer.parseInt(columns[0].substring(2), 16);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid unihan code point: `" + line + "`. Line number: `" + lineNumber + "`.", e);
+            }
+            if (!PinyinDictionaryHelper.isCjkIdeograph(codePoint) || PinyinDictionaryHelper.isChineseCharacter(codePoint)
+                    || PinyinDictionaryLoader.isCompatibilityIdeograph(codePoint)) {
+                continue;
+            }
+            List<List<String>> fieldReadings = readingsMap.computeIfAbsent(codePoint, key -> {
+                List<List<String>> list = new ArrayList<>();
+                for (int i = 0; i < READING_FIELDS.length; i++) {
+                    list.add(new ArrayList<>());
+                }
+                return list;
+            });
+            List<String> readings = fieldReadings.get(fieldIndex);
+            for (String value : columns[2].split(" ")) {
+                // kHanyuPinyin 和 kXHC1983 字段的格式为 "位置:读音1,读音2"
+                int separatorIndex = value.indexOf(':');
+                for (String reading : value.substring(separatorIndex + 1).split(",")) {
+                    String pinyinWithToneNumber = toPinyinWithToneNumber(reading);
+                    if (pinyinWithToneNumber != null) {
+                        readings.add(pinyinWithToneNumber);
+                    }
+                }
+            }
+        }
+        Map<Integer, String[]> extensionPinyinMap = new TreeMap<>();
+        for (Map.Entry<Integer, List<List<String>>> entry : readingsMap.entrySet()) {
+            List<String> pinyinList = new ArrayList<>();
+            for (List<String> readings : entry.getValue()) {
+                for (String reading : readings) {
+                    if (!pinyinList.contains(reading)) {
+                        pinyinList.add(reading);
+                    }
+                }
+            }
+            if (!pinyinList.isEmpty()) {
+                extensionPinyinMap.put(entry.getKey(), pinyinList.toArray(new String[0]));
+            }
+        }
+        return extensionPinyinMap;
+    }
+
+    /**
+     * 将汉字拼音以 "pinyin_mapping_extension.txt" 格式写入输出流，该方法不会关闭输出流。
+     *
+     * @param extensionPinyinMap 汉字拼音 Map，Key 为汉字对应的 UNICODE 编码值，Value 为带有数字声调的拼音数组
+     * @param out 输出流，使用 UTF-8 编码
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeExtensionText(Map<Integer, String[]> extensionPinyinMap, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("# 基本区（0x4e00 - 0x9fa5）以外的汉字拼音，每行格式为 \"十六进制 UNICODE 编码值=拼音\"，多个拼音使用 \",\" 分隔，第一个拼音为默认拼音\n");
+        writer.write("# 兼容汉字的拼音由其 NFC 规范化后对应的汉字自动生成，无需在此列出\n");
+        writer.write("# 该文件由 com.heimuheimu.util.pinyin.dictionary.PinyinExtensionGenerator 根据 Unihan 数据库生成\n");
+        for (Map.Entry<Integer, String[]> entry : new TreeMap<>(extensionPinyinMap).entrySet()) {
+            writer.write("# ");
+            writer.write(new String(Character.toChars(entry.getKey())));
+            writer.write('\n');
+            writer.write(Integer.toString(entry.getKey(), 16));
+            writer.write('=');
+            writer.write(String.join(",", entry.getValue()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * 将带有符号声调的拼音转换为带有数字声调的拼音，例如 "lǘ" 转换后为 "lv2"，没有声调符号的拼音使用轻声 5，
+     * 如果转换后不是合法的带有数字声调的拼音，返回 {@code null}。
+     *
+     * @param pinyinWithToneMark 带有符号声调的拼音
+     * @return 带有数字声调的拼音，可能返回 {@code null}
+     */
+    static String toPinyinWithToneNumber(String pinyinWithToneMark) {
+        String decomposed = Normalizer.normalize(pinyinWithToneMark.trim().toLowerCase(), Normalizer.Form.NFD);
+        StringBuilder buffer = new StringBuilder(decomposed.length() + 1);
+        char toneNumber = '5';
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            Character tone = TONE_MARK_MAP.get(c);
+            if (tone != null) {
+                toneNumber = tone;
+            } else if (c == '\u0308' && buffer.length() > 0 && buffer.charAt(buffer.length() - 1) == 'u') {
+                buffer.setCharAt(buffer.length() - 1, 'v');
+            } else {
+                buffer.append(c);
+            }
+        }
+        String pinyinWithToneNumber = buffer.append(toneNumber).toString();
+        return PinyinDictionaryHelper.isPinyinWithToneNumber(pinyinWithToneNumber) ? pinyinWithToneNumber : null;
+    }
+
+    private static int indexOfField(String field) {
+        for (int i = 0; i < READING_FIELDS.length; i++) {
+            if (READING_FIELDS[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
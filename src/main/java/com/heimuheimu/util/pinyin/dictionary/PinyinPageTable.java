@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 扩展区汉字拼音页表，使用两级页表存储基本区（{@code 0x4e00 - 0x9fa5}）以外汉字的拼音，包括扩展 A 区、兼容汉字以及增补平面中的扩展区汉字。
+ *
+ * <p>UNICODE 编码值按 256 个一页划分，第一级为页号到页存储位置的映射，没有任何汉字拼音的页不分配存储空间；第二级为页内每个编码值在
+ * {@link #pinyinSyllableIds} 数组中的起始位置，同一页中所有编码值的拼音连续存储，因此稀疏的编码区间不会占用额外内存。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinPageTable} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+class PinyinPageTable {
+
+    /**
+     * 页内编码值数量的位数
+     */
+    static final int PAGE_SHIFT = 8;
+
+    /**
+     * 页内编码值数量
+     */
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    /**
+     * 页数量，覆盖全部 UNICODE 编码值
+     */
+    static final int PAGE_COUNT = (Character.MAX_CODE_POINT + 1) >>> PAGE_SHIFT;
+
+    /**
+     * 不包含任何汉字拼音的页表
+     */
+    static final PinyinPageTable EMPTY = new PinyinPageTable(new int[0], new int[] {0}, new short[0]);
+
+    /**
+     * 页存储位置数组，索引为页号，值为 -1 表示该页未分配存储空间，长度为 0 表示页表为空
+     */
+    private final int[] pageIndexes;
+
+    /**
+     * 汉字拼音在 {@link #pinyinSyllableIds} 数组中的起始位置，第 p 个已分配页中第 i 个编码值的拼音位于
+     * [pinyinOffsets[p * PAGE_SIZE + i], pinyinOffsets[p * PAGE_SIZE + i + 1]) 区间，数组长度为已分配页数量 * PAGE_SIZE + 1
+     */
+    private final int[] pinyinOffsets;
+
+    /**
+     * 汉字拼音对应的音节 ID 数组，每个汉字的第一个音节 ID 为该汉字的默认拼音
+     */
+    private final short[] pinyinSyllableIds;
+
+    /**
+     * 构造一个扩展区汉字拼音页表，页表直接使用传入的数组，调用方不应再对其进行修改。
+     *
+     * @param pageIndexes 页存储位置数组，长度为 0 或 {@link #PAGE_COUNT}
+     * @param pinyinOffsets 汉字拼音起始位置数组
+     * @param pinyinSyllableIds 汉字拼音对应的音节 ID 数组
+     * @throws IllegalArgumentException 如果传入的数组长度或内容不合法，将抛出此异常
+     */
+    PinyinPageTable(int[] pageIndexes, int[] pinyinOffsets, short[] pinyinSyllableIds) throws IllegalArgumentException {
+        if (pageIndexes.length != 0 && pageIndexes.length != PAGE_COUNT) {
+            throw new IllegalArgumentException("Invalid page indexes length: `" + pageIndexes.length + "`. Expected length: `"
+                    + PAGE_COUNT + "`.");
+        }
+        int pageCount = 0;
+        for (int pageIndex : pageIndexes) {
+            pageCount = Math.max(pageCount, pageIndex + 1);
+        }
+        if (pinyinOffsets.length != pageCount * PAGE_SIZE + 1) {
+            throw new IllegalArgumentException("Invalid extension pinyin offsets length: `" + pinyinOffsets.length
+                    + "`. Expected length: `" + (pageCount * PAGE_SIZE + 1) + "`.");
+        }
+        if (pinyinOffsets[pinyinOffsets.length - 1] != pinyinSyllableIds.length) {
+            throw new IllegalArgumentException("Invalid extension pinyin syllable ids length: `" + pinyinSyllableIds.length
+                    + "`. Expected length: `" + pinyinOffsets[pinyinOffsets.length - 1] + "`.");
+        }
+        this.pageIndexes = pageIndexes;
+        this.pinyinOffsets = pinyinOffsets;
+        this.pinyinSyllableIds = pinyinSyllableIds;
+    }
+
+    /**
+     * 根据汉字拼音对应的音节 ID Map 构造一个扩展区汉字拼音页表。
+     *
+     * @param syllableIdsMap 汉字拼音对应的音节 ID Map，Key 为汉字对应的 UNICODE 编码值，Value 为汉字对应的音节 ID 数组
+     * @return 扩展区汉字拼音页表
+     */
+    static PinyinPageTable create(Map<Integer, short[]> syllableIdsMap) {
+        if (syllableIdsMap.isEmpty()) {
+            return EMPTY;
+        }
+        TreeMap<Integer, short[]> sortedMap = new TreeMap<>(syllableIdsMap);
+        int[] pageIndexes = new int[PAGE_COUNT];
+        Arrays.fill(pageIndexes, -1);
+        int pageCount = 0;
+        int totalPinyinCount = 0;
+        for (Map.Entry<Integer, short[]> entry : sortedMap.entrySet()) {
+            int page = entry.getKey() >>> PAGE_SHIFT;
+            if (pageIndexes[page] < 0) {
+                pageIndexes[page] = pageCount++;
+            }
+            totalPinyinCount += entry.getValue().length;
+        }
+        int[] pinyinOffsets = new int[pageCount * PAGE_SIZE + 1];
+        short[] pinyinSyllableIds = new short[totalPinyinCount];
+        int position = 0;
+        int index = 0;
+        for (Map.Entry<Integer, short[]> entry : sortedMap.entrySet()) {
+            int entryIndex = (pageIndexes[entry.getKey() >>> PAGE_SHIFT] << PAGE_SHIFT) | (entry.getKey() & (PAGE_SIZE - 1));
+            while (index <= entryIndex) {
+                pinyinOffsets[index++] = position;
+            }
+            for (short syllableId : entry.getValue()) {
+                pinyinSyllableIds[position++] = syllableId;
+            }
+        }
+        while (index < pinyinOffsets.length) {
+            pinyinOffsets[index++] = position;
+        }
+        return new PinyinPageTable(pageIndexes, pinyinOffsets, pinyinSyllableIds);
+    }
+
+    /**
+     * 获得编码值在 {@link #pinyinOffset(int)} 中对应的索引位置，如果编码值所在的页未分配存储空间，返回 -1。
+     *
+     * @param codePoint UNICODE 编码值
+     * @return 索引位置，可能返回 -1
+     */
+    int indexOf(int codePoint) {
+        if (pageIndexes.length > 0 && codePoint >= 0 && codePoint <= Character.MAX_CODE_POINT) {
+            int pageIndex = pageIndexes[codePoint >>> PAGE_SHIFT];
+            if (pageIndex >= 0) {
+                return (pageIndex << PAGE_SHIFT) | (codePoint & (PAGE_SIZE - 1));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获得第 {@code index} 个编码值的拼音在音节 ID 数组中的起始位置。
+     *
+     * @param index 索引位置，由 {@link #indexOf(int)} 方法返回，允许为该值 + 1
+     * @return 拼音起始位置
+     */
+    int pinyinOffset(int index) {
+        return pinyinOffsets[index];
+    }
+
+    /**
+     * 获得音节 ID 数组中第 {@code position} 个音节 ID。
+     *
+     * @param position 音节 ID 数组索引位置
+     * @return 音节 ID
+     */
+    short pinyinSyllableId(int position) {
+        return pinyinSyllableIds[position];
+    }
+
+    /**
+     * 获得页表中所有拥有拼音的 UNICODE 编码值，按升序排列。
+     *
+     * @return UNICODE 编码值数组
+     */
+    int[] getCodePoints() {
+        int[] codePoints = new int[pinyinOffsets.length - 1];
+        int count = 0;
+        for (int page = 0; page < pageIndexes.length; page++) {
+            int pageIndex = pageIndexes[page];
+            if (pageIndex >= 0) {
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    int index = (pageIndex << PAGE_SHIFT) | i;
+                    if (pinyinOffsets[index + 1] > pinyinOffsets[index]) {
+                        codePoints[count++] = (page << PAGE_SHIFT) | i;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(codePoints, count);
+    }
+
+    /**
+     * 获得页存储位置数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 页存储位置数组
+     */
+    int[] getPageIndexes() {
+        return pageIndexes;
+    }
+
+    /**
+     * 获得汉字拼音起始位置数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 汉字拼音起始位置数组
+     */
+    int[] getPinyinOffsets() {
+        return pinyinOffsets;
+    }
+
+    /**
+     * 获得汉字拼音对应的音节 ID 数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 汉字拼音对应的音节 ID 数组
+     */
+    short[] getPinyinSyllableIds() {
+        return pinyinSyllableIds;
+    }
+}
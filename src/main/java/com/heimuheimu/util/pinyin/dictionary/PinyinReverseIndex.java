@@ -0,0 +1,329 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.util.Arrays;
+
+/**
+ * 拼音反向索引，根据音节（带声调或不带声调）查找具有该读音的所有汉字，可用于搜索中的同音字扩展及输入法候选字生成。
+ *
+ * <p>索引由汉字拼音字典一次性构建，每个音节对应的汉字连续存储在一个共享的 {@code char[]} 数组中，并使用 {@code int[]}
+ * 数组记录每个音节的起始位置，根据音节 ID 查找的时间复杂度为 O(1)。每个音节对应的汉字中，默认拼音为该音节的汉字排在前面，
+ * 其余汉字排在后面，两部分内部均按 UNICODE 编码值升序排列。</p>
+ *
+ * <p>索引包含基本区汉字以及基本平面中的扩展 A 区汉字和兼容汉字，增补平面中的汉字无法使用单个 {@code char} 表示，不包含在索引中。</p>
+ *
+ * <p>不带声调的音节使用 {@link PinyinDictionary#getTonelessSyllableTable()} 中的无声调 ID 表示，与拼音搜索索引、拼音音节切分使用的
+ * 无声调 ID 一致，可通过 {@link #getTonelessId(int)} 方法由音节 ID 获得，同一个汉字的多个读音去除声调后相同时
+ * （例如 "数" 的 shu3 和 shu4），该汉字只会出现一次。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinReverseIndex} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinReverseIndex {
+
+    /**
+     * 汉字拼音字典
+     */
+    private final PinyinDictionary dictionary;
+
+    /**
+     * 汉字拼音字典共享的不带声调的音节表
+     */
+    private final TonelessSyllableTable syllableTable;
+
+    /**
+     * 音节对应的汉字在 {@link #characters} 数组中的起始位置，数组长度为音节数量 + 1
+     */
+    private final int[] characterOffsets;
+
+    /**
+     * 按音节排列的汉字数组
+     */
+    private final char[] characters;
+
+    /**
+     * 不带声调的音节对应的汉字在 {@link #tonelessCharacters} 数组中的起始位置，数组长度为无声调音节数量 + 1
+     */
+    private final int[] tonelessCharacterOffsets;
+
+    /**
+     * 按不带声调的音节排列的汉字数组
+     */
+    private final char[] tonelessCharacters;
+
+    /**
+     * 根据汉字拼音字典构造一个拼音反向索引。
+     *
+     * @param dictionary 汉字拼音字典
+     */
+    public PinyinReverseIndex(PinyinDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.syllableTable = dictionary.getTonelessSyllableTable();
+        int syllableCount = dictionary.getSyllableCount();
+        int tonelessCount = syllableTable.getSyllableCount();
+        int[] codePoints = getCodePoints(dictionary);
+        // 第一遍统计每个音节的汉字数量，第二遍和第三遍分别写入默认拼音和其它拼音对应的汉字
+        this.characterOffsets = new int[syllableCount + 1];
+        this.tonelessCharacterOffsets = new int[tonelessCount + 1];
+        for (int codePoint : codePoints) {
+            int pinyinCount = dictionary.getPinyinCount(codePoint);
+            for (int i = 0; i < pinyinCount; i++) {
+                int syllableId = dictionary.getSyllableId(codePoint, i);
+                int tonelessId = syllableTable.getTonelessIdBySyllableId(syllableId);
+                if (isFirstSyllable(codePoint, i, syllableId)) {
+                    characterOffsets[syllableId + 1]++;
+                }
+                if (isFirstToneless(codePoint, i, tonelessId)) {
+                    tonelessCharacterOffsets[tonelessId + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < syllableCount; i++) {
+            characterOffsets[i + 1] += characterOffsets[i];
+        }
+        for (int i = 0; i < tonelessCount; i++) {
+            tonelessCharacterOffsets[i + 1] += tonelessCharacterOffsets[i];
+        }
+        this.characters = new char[characterOffsets[syllableCount]];
+        this.tonelessCharacters = new char[tonelessCharacterOffsets[tonelessCount]];
+        int[] characterPositions = Arrays.copyOf(characterOffsets, syllableCount);
+        int[] tonelessCharacterPositions = Arrays.copyOf(tonelessCharacterOffsets, tonelessCount);
+        for (int codePoint : codePoints) {
+            int syllableId = dictionary.getDefaultSyllableId(codePoint);
+            if (syllableId >= 0) {
+                characters[characterPositions[syllableId]++] = (char) codePoint;
+                tonelessCharacters[tonelessCharacterPositions[syllableTable.getTonelessIdBySyllableId(syllableId)]++] = (char) codePoint;
+            }
+        }
+        for (int codePoint : codePoints) {
+            int pinyinCount = dictionary.getPinyinCount(codePoint);
+            for (int i = 1; i < pinyinCount; i++) {
+                int syllableId = dictionary.getSyllableId(codePoint, i);
+                int tonelessId = syllableTable.getTonelessIdBySyllableId(syllableId);
+                if (isFirstSyllable(codePoint, i, syllableId)) {
+                    characters[characterPositions[syllableId]++] = (char) codePoint;
+                }
+                if (isFirstToneless(codePoint, i, tonelessId)) {
+                    tonelessCharacters[tonelessCharacterPositions[tonelessId]++] = (char) codePoint;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获得不带声调的音节数量，无声调 ID 的取值范围为 [0, 不带声调的音节数量)。
+     *
+     * @return 不带声调的音节数量
+     */
+    public int getTonelessCount() {
+        return syllableTable.getSyllableCount();
+    }
+
+    /**
+     * 根据音节 ID 获得对应的无声调 ID。
+     *
+     * @param syllableId 音节 ID
+     * @return 无声调 ID
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public int getTonelessId(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllableTable.getTonelessIdBySyllableId(syllableId);
+    }
+
+    /**
+     * 根据不带声调的拼音获得对应的无声调 ID，如果不存在，返回 -1。
+     *
+     * @param pinyinWithoutTone 不带声调的拼音，例如：zhong
+     * @return 无声调 ID，可能返回 -1
+     */
+    public int getTonelessId(String pinyinWithoutTone) {
+        return syllableTable.getTonelessId(pinyinWithoutTone);
+    }
+
+    /**
+     * 根据无声调 ID 获得对应的不带声调的拼音。
+     *
+     * @param tonelessId 无声调 ID
+     * @return 不带声调的拼音
+     * @throws ArrayIndexOutOfBoundsException 如果无声调 ID 不存在，将抛出此异常
+     */
+    public String getSyllableWithoutTone(int tonelessId) throws ArrayIndexOutOfBoundsException {
+        return syllableTable.getSyllable(tonelessId);
+    }
+
+    /**
+     * 获得读音为指定音节的汉字数量。
+     *
+     * @param syllableId 音节 ID
+     * @return 汉字数量
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public int getCharacterCount(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return characterOffsets[syllableId + 1] - characterOffsets[syllableId];
+    }
+
+    /**
+     * 获得读音为指定音节的汉字数组，每次调用均会返回一个新的数组。
+     *
+     * @param syllableId 音节 ID
+     * @return 汉字数组
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public char[] getCharacters(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return Arrays.copyOfRange(characters, characterOffsets[syllableId], characterOffsets[syllableId + 1]);
+    }
+
+    /**
+     * 将读音为指定音节的汉字复制到 {@code output} 数组中，返回复制的汉字数量，该方法不会创建任何对象。
+     *
+     * @param syllableId 音节 ID
+     * @param output 输出数组，剩余空间应不小于 {@link #getCharacterCount(int)}
+     * @param outputOffset 输出数组起始位置
+     * @return 复制的汉字数量
+     * @throws IndexOutOfBoundsException 如果音节 ID 不存在或输出数组空间不足，将抛出此异常
+     */
+    public int getCharacters(int syllableId, char[] output, int outputOffset) throws IndexOutOfBoundsException {
+        int start = characterOffsets[syllableId];
+        int count = characterOffsets[syllableId + 1] - start;
+        System.arraycopy(characters, start, output, outputOffset, count);
+        return count;
+    }
+
+    /**
+     * 根据带有数字声调的拼音获得读音为该拼音的汉字数组，如果该拼音不在音节表中，返回 {@code null}。
+     *
+     * @param pinyinWithToneNumber 带有数字声调的拼音，例如：zhong1
+     * @return 汉字数组，可能返回 {@code null}
+     */
+    public char[] getCharacters(String pinyinWithToneNumber) {
+        int syllableId = dictionary.getSyllableId(pinyinWithToneNumber);
+        return syllableId >= 0 ? getCharacters(syllableId) : null;
+    }
+
+    /**
+     * 获得去除声调后读音为指定音节的汉字数量。
+     *
+     * @param tonelessId 无声调 ID
+     * @return 汉字数量
+     * @throws ArrayIndexOutOfBoundsException 如果无声调 ID 不存在，将抛出此异常
+     */
+    public int getCharacterCountWithoutTone(int tonelessId) throws ArrayIndexOutOfBoundsException {
+        return tonelessCharacterOffsets[tonelessId + 1] - tonelessCharacterOffsets[tonelessId];
+    }
+
+    /**
+     * 获得去除声调后读音为指定音节的汉字数组，每次调用均会返回一个新的数组。
+     *
+     * @param tonelessId 无声调 ID
+     * @return 汉字数组
+     * @throws ArrayIndexOutOfBoundsException 如果无声调 ID 不存在，将抛出此异常
+     */
+    public char[] getCharactersWithoutTone(int tonelessId) throws ArrayIndexOutOfBoundsException {
+        return Arrays.copyOfRange(tonelessCharacters, tonelessCharacterOffsets[tonelessId], tonelessCharacterOffsets[tonelessId + 1]);
+    }
+
+    /**
+     * 将去除声调后读音为指定音节的汉字复制到 {@code output} 数组中，返回复制的汉字数量，该方法不会创建任何对象。
+     *
+     * @param tonelessId 无声调 ID
+     * @param output 输出数组，剩余空间应不小于 {@link #getCharacterCountWithoutTone(int)}
+     * @param outputOffset 输出数组起始位置
+     * @return 复制的汉字数量
+     * @throws IndexOutOfBoundsException 如果无声调 ID 不存在或输出数组空间不足，将抛出此异常
+     */
+    public int getCharactersWithoutTone(int tonelessId, char[] output, int outputOffset) throws IndexOutOfBoundsException {
+        int start = tonelessCharacterOffsets[tonelessId];
+        int count = tonelessCharacterOffsets[tonelessId + 1] - start;
+        System.arraycopy(tonelessCharacters, start, output, outputOffset, count);
+        return count;
+    }
+
+    /**
+     * 根据不带声调的拼音获得去除声调后读音为该拼音的汉字数组，如果该拼音不存在，返回 {@code null}。
+     *
+     * @param pinyinWithoutTone 不带声调的拼音，例如：zhong
+     * @return 汉字数组，可能返回 {@code null}
+     */
+    public char[] getCharactersWithoutTone(String pinyinWithoutTone) {
+        int tonelessId = getTonelessId(pinyinWithoutTone);
+        return tonelessId >= 0 ? getCharactersWithoutTone(tonelessId) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinReverseIndex{" +
+                "syllableCount=" + (characterOffsets.length - 1) +
+                ", tonelessCount=" + syllableTable.getSyllableCount() +
+                ", characterCount=" + characters.length +
+                '}';
+    }
+
+    /**
+     * 获得字典中所有拥有拼音的基本平面汉字 UNICODE 编码值，按升序排列。
+     */
+    private static int[] getCodePoints(PinyinDictionary dictionary) {
+        int[] extensionCodePoints = dictionary.getExtensionTable().getCodePoints();
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        int[] codePoints = new int[characterCount + extensionCodePoints.length];
+        int count = 0;
+        int extensionIndex = 0;
+        while (extensionIndex < extensionCodePoints.length && extensionCodePoints[extensionIndex] < PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT) {
+            codePoints[count++] = extensionCodePoints[extensionIndex++];
+        }
+        for (int codePoint = PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT; codePoint <= PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT; codePoint++) {
+            codePoints[count++] = codePoint;
+        }
+        while (extensionIndex < extensionCodePoints.length && extensionCodePoints[extensionIndex] <= Character.MAX_VALUE) {
+            codePoints[count++] = extensionCodePoints[extensionIndex++];
+        }
+        return Arrays.copyOf(codePoints, count);
+    }
+
+    /**
+     * 判断汉字的第 {@code pinyinIndex} 个拼音是否为该音节在该汉字中的首次出现。
+     */
+    private boolean isFirstSyllable(int codePoint, int pinyinIndex, int syllableId) {
+        for (int i = 0; i < pinyinIndex; i++) {
+            if (dictionary.getSyllableId(codePoint, i) == syllableId) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断汉字的第 {@code pinyinIndex} 个拼音去除声调后是否为首次出现。
+     */
+    private boolean isFirstToneless(int codePoint, int pinyinIndex, int tonelessId) {
+        for (int i = 0; i < pinyinIndex; i++) {
+            if (syllableTable.getTonelessIdBySyllableId(dictionary.getSyllableId(codePoint, i)) == tonelessId) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * 不带声调的音节表，由汉字拼音字典中所有音节去除声调后按字典序排列组成，每个音节拥有一个从 0 开始的无声调音节 ID，
+ * 因此以同一前缀开头的音节在音节表中是连续的。
+ *
+ * <p>同一个汉字拼音字典的无声调音节 ID 在拼音反向索引、拼音搜索索引以及拼音音节切分中保持一致，可通过
+ * {@link PinyinDictionary#getTonelessSyllableTable()} 获得字典共享的音节表。</p>
+ *
+ * <p><strong>说明：</strong>{@code TonelessSyllableTable} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class TonelessSyllableTable {
+
+    /**
+     * 不带声调的音节数组，按字典序排列，索引为无声调音节 ID
+     */
+    private final String[] syllables;
+
+    /**
+     * 音节字符数组，索引为无声调音节 ID
+     */
+    private final char[][] syllableCharacters;
+
+    /**
+     * 汉字拼音字典中的音节 ID 对应的无声调音节 ID，索引为汉字拼音字典中的音节 ID
+     */
+    private final int[] tonelessIds;
+
+    /**
+     * 以字母 'a' + i 开头的音节在音节表中的起始位置，数组长度为 27，以字母 'a' + i 开头的音节位于 [letterOffsets[i], letterOffsets[i + 1]) 区间
+     */
+    private final int[] letterOffsets;
+
+    /**
+     * 根据汉字拼音字典构造一个不带声调的音节表。
+     *
+     * @param dictionary 汉字拼音字典
+     */
+    public TonelessSyllableTable(PinyinDictionary dictionary) {
+        TreeSet<String> syllableSet = new TreeSet<>();
+        for (int i = 0; i < dictionary.getSyllableCount(); i++) {
+            syllableSet.add(dictionary.getSyllableWithoutTone(i));
+        }
+        this.syllables = syllableSet.toArray(new String[0]);
+        this.syllableCharacters = new char[syllables.length][];
+        for (int i = 0; i < syllables.length; i++) {
+            syllableCharacters[i] = syllables[i].toCharArray();
+        }
+        this.tonelessIds = new int[dictionary.getSyllableCount()];
+        for (int i = 0; i < tonelessIds.length; i++) {
+            tonelessIds[i] = Arrays.binarySearch(syllables, dictionary.getSyllableWithoutTone(i));
+        }
+        this.letterOffsets = new int[27];
+        for (int i = 0; i <= 26; i++) {
+            int index = Arrays.binarySearch(syllables, String.valueOf((char) ('a' + i)));
+            letterOffsets[i] = index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * 获得音节数量。
+     *
+     * @return 音节数量
+     */
+    public int getSyllableCount() {
+        return syllables.length;
+    }
+
+    /**
+     * 根据无声调音节 ID 获得对应的不带声调的拼音。
+     *
+     * @param tonelessId 无声调音节 ID
+     * @return 不带声调的拼音
+     * @throws ArrayIndexOutOfBoundsException 如果无声调音节 ID 不存在，将抛出此异常
+     */
+    public String getSyllable(int tonelessId) throws ArrayIndexOutOfBoundsException {
+        return syllables[tonelessId];
+    }
+
+    /**
+     * 根据无声调音节 ID 获得对应的拼音字符数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @param tonelessId 无声调音节 ID
+     * @return 拼音字符数组
+     * @throws ArrayIndexOutOfBoundsException 如果无声调音节 ID 不存在，将抛出此异常
+     */
+    public char[] getSyllableCharacters(int tonelessId) throws ArrayIndexOutOfBoundsException {
+        return syllableCharacters[tonelessId];
+    }
+
+    /**
+     * 根据不带声调的拼音获得对应的无声调音节 ID，如果不存在，返回 -1。
+     *
+     * @param syllable 不带声调的拼音
+     * @return 无声调音节 ID，可能返回 -1
+     */
+    public int getTonelessId(String syllable) {
+        int index = Arrays.binarySearch(syllables, syllable);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 根据汉字拼音字典中的音节 ID 获得对应的无声调音节 ID，如果音节 ID 小于 0，返回 -1。
+     *
+     * @param syllableId 汉字拼音字典中的音节 ID
+     * @return 无声调音节 ID，可能返回 -1
+     * @throws ArrayIndexOutOfBoundsException 如果音节 ID 不存在，将抛出此异常
+     */
+    public int getTonelessIdBySyllableId(int syllableId) throws ArrayIndexOutOfBoundsException {
+        return syllableId >= 0 ? tonelessIds[syllableId] : -1;
+    }
+
+    /**
+     * 获得以指定字母开头的音节在音节表中的起始位置（包含），如果不是小写字母，返回 0。
+     *
+     * @param letter 小写字母
+     * @return 起始位置
+     */
+    public int getLetterStart(char letter) {
+        return letter >= 'a' && letter <= 'z' ? letterOffsets[letter - 'a'] : 0;
+    }
+
+    /**
+     * 获得以指定字母开头的音节在音节表中的结束位置（不包含），如果不是小写字母，返回 0。
+     *
+     * @param letter 小写字母
+     * @return 结束位置
+     */
+    public int getLetterEnd(char letter) {
+        return letter >= 'a' && letter <= 'z' ? letterOffsets[letter - 'a' + 1] : 0;
+    }
+}
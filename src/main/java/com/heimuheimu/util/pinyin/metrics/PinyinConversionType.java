@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.metrics;
+
+/**
+ * 拼音转换类型，用于区分不同输出格式的统计信息。
+ *
+ * @author heimuheimu
+ */
+public enum PinyinConversionType {
+
+    /**
+     * 带有数字声调的拼音
+     */
+    TONE_NUMBER,
+
+    /**
+     * 带有符号声调的拼音
+     */
+    TONE_MARK,
+
+    /**
+     * 不带声调的拼音
+     */
+    WITHOUT_TONE,
+
+    /**
+     * 使用拼音转换器配置的输出格式
+     */
+    FORMATTED,
+
+    /**
+     * 拼音首字母
+     */
+    INITIALS,
+
+    /**
+     * 音节 ID
+     */
+    SYLLABLE_IDS,
+
+    /**
+     * 拼音分词结果
+     */
+    TOKENS
+}
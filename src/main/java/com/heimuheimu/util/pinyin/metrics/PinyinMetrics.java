@@ -0,0 +1,376 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.metrics;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 拼音转换统计信息，所有计数均使用 {@link LongAdder} 记录，多个线程并发转换时不会竞争同一个计数器。
+ *
+ * <p>统计默认不启用，可通过 {@code com.heimuheimu.util.pinyin.PinyinConverter.Builder#setMetrics(PinyinMetrics)} 方法为拼音转换器启用统计，
+ * 未启用统计的拼音转换器仅需在每次转换时判断一次统计信息是否为 {@code null}。启用统计后，每个字符将额外进行一次多音字和字典未命中判断，
+ * 分段内的计数先在本地累加后再写入 {@code LongAdder}。</p>
+ *
+ * <p>统计信息可通过 {@link #register()} 方法注册到 JMX，也可以通过 {@link #addListener(PinyinMetricsListener)} 方法注册监听器接入其它监控系统。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinMetrics} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinMetrics implements PinyinMetricsMXBean {
+
+    /**
+     * 默认的 JMX ObjectName
+     */
+    public static final String DEFAULT_OBJECT_NAME = "com.heimuheimu.util.pinyin:type=PinyinMetrics";
+
+    /**
+     * 系统属性名称，值为 "true" 时 {@code PinyinUtil} 使用的默认拼音转换器将启用统计，并注册到平台 MBeanServer 中
+     */
+    public static final String METRICS_ENABLED_PROPERTY = "com.heimuheimu.util.pinyin.metricsEnabled";
+
+    /**
+     * 耗时分布的区间数量
+     */
+    private static final int LATENCY_BUCKET_COUNT = 64;
+
+    private static final PinyinMetricsListener[] EMPTY_LISTENERS = new PinyinMetricsListener[0];
+
+    private static final PinyinConversionType[] CONVERSION_TYPES = PinyinConversionType.values();
+
+    /**
+     * 各拼音转换类型的转换次数，索引为 {@link PinyinConversionType#ordinal()}
+     */
+    private final LongAdder[] conversionCounts = createAdders(CONVERSION_TYPES.length);
+
+    /**
+     * 各拼音转换类型的耗时分布，第一维索引为 {@link PinyinConversionType#ordinal()}
+     */
+    private final LongAdder[][] latencyBuckets = new LongAdder[CONVERSION_TYPES.length][];
+
+    private final LongAdder characterCount = new LongAdder();
+
+    private final LongAdder dictionaryMissCount = new LongAdder();
+
+    private final LongAdder polyphoneMatchedCount = new LongAdder();
+
+    private final LongAdder polyphoneDefaultCount = new LongAdder();
+
+    private final LongAdder matcherComparisonCount = new LongAdder();
+
+    /**
+     * 每个多音字的词组命中次数，索引为 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，计数器在多音字首次被选择时创建
+     */
+    private final AtomicReferenceArray<LongAdder> polyphoneMatchedCounts;
+
+    /**
+     * 每个多音字使用默认拼音的次数，索引为 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，计数器在多音字首次被选择时创建
+     */
+    private final AtomicReferenceArray<LongAdder> polyphoneDefaultCounts;
+
+    /**
+     * 已注册的监听器数组，注册或移除监听器时整体替换
+     */
+    private volatile PinyinMetricsListener[] listeners = EMPTY_LISTENERS;
+
+    /**
+     * 构造一个拼音转换统计信息。
+     */
+    public PinyinMetrics() {
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            latencyBuckets[i] = createAdders(LATENCY_BUCKET_COUNT);
+        }
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        this.polyphoneMatchedCounts = new AtomicReferenceArray<>(characterCount);
+        this.polyphoneDefaultCounts = new AtomicReferenceArray<>(characterCount);
+    }
+
+    /**
+     * 记录一次拼音转换。
+     *
+     * @param type 拼音转换类型
+     * @param characterCount 转换的字符数量
+     * @param elapsedNanos 转换耗时，单位：纳秒
+     */
+    public void recordConversion(PinyinConversionType type, int characterCount, long elapsedNanos) {
+        conversionCounts[type.ordinal()].increment();
+        this.characterCount.add(characterCount);
+        int bucket = elapsedNanos > 0 ? 63 - Long.numberOfLeadingZeros(elapsedNanos) : 0;
+        latencyBuckets[type.ordinal()][bucket].increment();
+        for (PinyinMetricsListener listener : listeners) {
+            listener.onConversion(type, characterCount, elapsedNanos);
+        }
+    }
+
+    /**
+     * 记录一个多音字的拼音选择结果，多音字的汇总计数需通过 {@link #recordSelection(int, int, int, int)} 方法记录。
+     *
+     * @param codePoint 多音字 UNICODE 编码值
+     * @param matched 是否由多音字词组命中确定拼音
+     */
+    public void recordPolyphone(int codePoint, boolean matched) {
+        if (PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+            int index = codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+            getOrCreateAdder(matched ? polyphoneMatchedCounts : polyphoneDefaultCounts, index).increment();
+        }
+        for (PinyinMetricsListener listener : listeners) {
+            listener.onPolyphone(codePoint, matched);
+        }
+    }
+
+    /**
+     * 记录一个文本分段的拼音选择汇总结果。
+     *
+     * @param polyphoneMatchedCount 由多音字词组命中确定拼音的次数
+     * @param polyphoneDefaultCount 使用多音字默认拼音的次数
+     * @param dictionaryMissCount 字典未命中次数
+     * @param matcherComparisonCount 比较的词组数量
+     */
+    public void recordSelection(int polyphoneMatchedCount, int polyphoneDefaultCount, int dictionaryMissCount,
+                                int matcherComparisonCount) {
+        if (polyphoneMatchedCount > 0) {
+            this.polyphoneMatchedCount.add(polyphoneMatchedCount);
+        }
+        if (polyphoneDefaultCount > 0) {
+            this.polyphoneDefaultCount.add(polyphoneDefaultCount);
+        }
+        if (dictionaryMissCount > 0) {
+            this.dictionaryMissCount.add(dictionaryMissCount);
+        }
+        if (matcherComparisonCount > 0) {
+            this.matcherComparisonCount.add(matcherComparisonCount);
+        }
+    }
+
+    /**
+     * 注册一个拼音转换事件监听器。
+     *
+     * @param listener 拼音转换事件监听器，不允许为 {@code null}
+     * @throws NullPointerException 如果 {@code listener} 为 {@code null}，将抛出此异常
+     */
+    public synchronized void addListener(PinyinMetricsListener listener) throws NullPointerException {
+        Objects.requireNonNull(listener, "listener could not be null.");
+        PinyinMetricsListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    /**
+     * 移除一个已注册的拼音转换事件监听器，如果监听器未注册，则不做任何操作。
+     *
+     * @param listener 拼音转换事件监听器
+     */
+    public synchronized void removeListener(PinyinMetricsListener listener) {
+        List<PinyinMetricsListener> listenerList = new ArrayList<>(Arrays.asList(listeners));
+        if (listenerList.remove(listener)) {
+            listeners = listenerList.toArray(EMPTY_LISTENERS);
+        }
+    }
+
+    /**
+     * 使用 {@link #DEFAULT_OBJECT_NAME} 将统计信息注册到平台 MBeanServer。
+     *
+     * @return 注册使用的 ObjectName
+     * @throws JMException 如果注册失败（例如已有相同名称的 MBean），将抛出此异常
+     */
+    public ObjectName register() throws JMException {
+        return register(new ObjectName(DEFAULT_OBJECT_NAME));
+    }
+
+    /**
+     * 使用指定的 ObjectName 将统计信息注册到平台 MBeanServer。
+     *
+     * @param objectName 注册使用的 ObjectName
+     * @return 注册使用的 ObjectName
+     * @throws JMException 如果注册失败（例如已有相同名称的 MBean），将抛出此异常
+     */
+    public ObjectName register(ObjectName objectName) throws JMException {
+        return ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName).getObjectName();
+    }
+
+    /**
+     * 获得指定拼音转换类型的转换次数。
+     *
+     * @param type 拼音转换类型
+     * @return 转换次数
+     */
+    public long getConversionCount(PinyinConversionType type) {
+        return conversionCounts[type.ordinal()].sum();
+    }
+
+    /**
+     * 获得指定拼音转换类型的耗时分布，格式请参考 {@link #getLatencyHistograms()} 方法。
+     *
+     * @param type 拼音转换类型
+     * @return 耗时分布
+     */
+    public long[] getLatencyHistogram(PinyinConversionType type) {
+        return sum(latencyBuckets[type.ordinal()]);
+    }
+
+    @Override
+    public long getConversionCount() {
+        long count = 0;
+        for (LongAdder adder : conversionCounts) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getConversionCounts() {
+        Map<String, Long> countMap = new LinkedHashMap<>();
+        for (PinyinConversionType type : CONVERSION_TYPES) {
+            countMap.put(type.name(), getConversionCount(type));
+        }
+        return countMap;
+    }
+
+    @Override
+    public long getCharacterCount() {
+        return characterCount.sum();
+    }
+
+    @Override
+    public long getDictionaryMissCount() {
+        return dictionaryMissCount.sum();
+    }
+
+    @Override
+    public long getPolyphoneLookupCount() {
+        return polyphoneMatchedCount.sum() + polyphoneDefaultCount.sum();
+    }
+
+    @Override
+    public long getPolyphoneMatchedCount() {
+        return polyphoneMatchedCount.sum();
+    }
+
+    @Override
+    public long getPolyphoneDefaultCount() {
+        return polyphoneDefaultCount.sum();
+    }
+
+    @Override
+    public long getMatcherComparisonCount() {
+        return matcherComparisonCount.sum();
+    }
+
+    @Override
+    public Map<String, long[]> getLatencyHistograms() {
+        Map<String, long[]> histogramMap = new LinkedHashMap<>();
+        for (PinyinConversionType type : CONVERSION_TYPES) {
+            histogramMap.put(type.name(), getLatencyHistogram(type));
+        }
+        return histogramMap;
+    }
+
+    @Override
+    public Map<String, long[]> getPolyphoneStatistics() {
+        Map<String, long[]> statisticsMap = new LinkedHashMap<>();
+        for (int i = 0; i < polyphoneMatchedCounts.length(); i++) {
+            LongAdder matchedAdder = polyphoneMatchedCounts.get(i);
+            LongAdder defaultAdder = polyphoneDefaultCounts.get(i);
+            if (matchedAdder != null || defaultAdder != null) {
+                long[] counts = new long[]{matchedAdder != null ? matchedAdder.sum() : 0, defaultAdder != null ? defaultAdder.sum() : 0};
+                statisticsMap.put(String.valueOf((char) (i + PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT)), counts);
+            }
+        }
+        return statisticsMap;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : conversionCounts) {
+            adder.reset();
+        }
+        for (LongAdder[] buckets : latencyBuckets) {
+            for (LongAdder adder : buckets) {
+                adder.reset();
+            }
+        }
+        characterCount.reset();
+        dictionaryMissCount.reset();
+        polyphoneMatchedCount.reset();
+        polyphoneDefaultCount.reset();
+        matcherComparisonCount.reset();
+        for (int i = 0; i < polyphoneMatchedCounts.length(); i++) {
+            polyphoneMatchedCounts.set(i, null);
+            polyphoneDefaultCounts.set(i, null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinMetrics{" +
+                "conversionCount=" + getConversionCount() +
+                ", characterCount=" + getCharacterCount() +
+                ", dictionaryMissCount=" + getDictionaryMissCount() +
+                ", polyphoneMatchedCount=" + getPolyphoneMatchedCount() +
+                ", polyphoneDefaultCount=" + getPolyphoneDefaultCount() +
+                ", matcherComparisonCount=" + getMatcherComparisonCount() +
+                '}';
+    }
+
+    private static LongAdder getOrCreateAdder(AtomicReferenceArray<LongAdder> adders, int index) {
+        LongAdder adder = adders.get(index);
+        while (adder == null) {
+            LongAdder newAdder = new LongAdder();
+            if (adders.compareAndSet(index, null, newAdder)) {
+                return newAdder;
+            }
+            adder = adders.get(index);
+        }
+        return adder;
+    }
+
+    private static LongAdder[] createAdders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sum(LongAdder[] adders) {
+        long[] values = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            values[i] = adders[i].sum();
+        }
+        return values;
+    }
+}
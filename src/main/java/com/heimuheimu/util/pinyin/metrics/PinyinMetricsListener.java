@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.metrics;
+
+/**
+ * 拼音转换事件监听器，可通过 {@link PinyinMetrics#addListener(PinyinMetricsListener)} 方法注册，用于将统计信息接入其它监控系统。
+ *
+ * <p>监听器方法在执行拼音转换的线程中同步调用，实现类应尽快返回，且不应抛出异常。</p>
+ *
+ * <p><strong>说明：</strong>监听器的实现类必须是线程安全的。</p>
+ *
+ * @author heimuheimu
+ */
+public interface PinyinMetricsListener {
+
+    /**
+     * 一次拼音转换完成后调用。
+     *
+     * @param type 拼音转换类型
+     * @param characterCount 转换的字符数量
+     * @param elapsedNanos 转换耗时，单位：纳秒
+     */
+    default void onConversion(PinyinConversionType type, int characterCount, long elapsedNanos) {}
+
+    /**
+     * 完成一个多音字的拼音选择后调用。
+     *
+     * @param codePoint 多音字 UNICODE 编码值
+     * @param matched 是否由多音字词组命中确定拼音，为 {@code false} 时使用多音字默认拼音
+     */
+    default void onPolyphone(int codePoint, boolean matched) {}
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.metrics;
+
+import java.util.Map;
+
+/**
+ * 拼音转换统计信息 JMX 接口。
+ *
+ * @author heimuheimu
+ */
+public interface PinyinMetricsMXBean {
+
+    /**
+     * 获得拼音转换总次数。
+     *
+     * @return 拼音转换总次数
+     */
+    long getConversionCount();
+
+    /**
+     * 获得各拼音转换类型的转换次数，Key 为 {@link PinyinConversionType} 名称。
+     *
+     * @return 各拼音转换类型的转换次数
+     */
+    Map<String, Long> getConversionCounts();
+
+    /**
+     * 获得已处理的字符总数。
+     *
+     * @return 已处理的字符总数
+     */
+    long getCharacterCount();
+
+    /**
+     * 获得字典未命中次数，即在汉字拼音字典中找不到拼音的中文字符数量。
+     *
+     * @return 字典未命中次数
+     */
+    long getDictionaryMissCount();
+
+    /**
+     * 获得多音字拼音选择次数。
+     *
+     * @return 多音字拼音选择次数
+     */
+    long getPolyphoneLookupCount();
+
+    /**
+     * 获得由多音字词组命中确定拼音的次数。
+     *
+     * @return 由多音字词组命中确定拼音的次数
+     */
+    long getPolyphoneMatchedCount();
+
+    /**
+     * 获得没有词组命中、使用多音字默认拼音的次数。
+     *
+     * @return 使用多音字默认拼音的次数
+     */
+    long getPolyphoneDefaultCount();
+
+    /**
+     * 获得多音字拼音选择过程中比较的词组数量。
+     *
+     * @return 比较的词组数量
+     */
+    long getMatcherComparisonCount();
+
+    /**
+     * 获得各拼音转换类型的耗时分布，Key 为 {@link PinyinConversionType} 名称，Value 为长度 64 的数组，
+     * 第 i 个元素为耗时位于 [2^i, 2^(i+1)) 纳秒区间内的转换次数（第 0 个元素同时包含耗时为 0 纳秒的转换）。
+     *
+     * @return 各拼音转换类型的耗时分布
+     */
+    Map<String, long[]> getLatencyHistograms();
+
+    /**
+     * 获得每个多音字的拼音选择统计信息，Key 为多音字，Value 为长度 2 的数组，分别为词组命中次数和使用默认拼音的次数，
+     * 仅包含至少被选择过一次的多音字。
+     *
+     * @return 每个多音字的拼音选择统计信息
+     */
+    Map<String, long[]> getPolyphoneStatistics();
+
+    /**
+     * 将所有统计信息重置为 0。
+     */
+    void reset();
+}
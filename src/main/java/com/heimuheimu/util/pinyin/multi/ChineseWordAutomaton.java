@@ -0,0 +1,558 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 多音字词组自动机，将所有多音字拼音选择器中的中文词组编译为一个 Aho-Corasick 自动机，对目标文本进行一次线性扫描即可完成所有多音字的拼音选择。
+ *
+ * <p>拼音选择结果与 {@link PinyinSelector#getPinyin(char[], int)} 方法保持一致：同一个多音字位置被多个词组命中时，
+ * 选择在 {@code PinyinSelector} 中优先级最高（拼音顺序、词组顺序最靠前）的词组对应的拼音，没有词组命中时，使用多音字默认拼音。</p>
+ *
+ * <p>自动机同时持有编译时使用的多音字拼音选择器，可通过 {@link #getSelector(int)} 方法获取。</p>
+ *
+ * <p><strong>说明：</strong>{@code ChineseWordAutomaton} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class ChineseWordAutomaton {
+
+    /**
+     * 未命中任何词组时的选择结果值
+     */
+    private static final int NOT_MATCHED = Integer.MAX_VALUE;
+
+    /**
+     * 根节点对应的状态
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * 根节点的状态转移数组，索引为 {@code c - CHINESE_CHAR_MIN_CODE_POINT}，值为转移后的状态，根节点的状态转移最为频繁，因此使用稠密数组存储
+     */
+    private final int[] rootTransitions;
+
+    /**
+     * 非根节点子节点在 {@link #childCharacters} 和 {@link #childStates} 数组中的起始位置，数组长度为状态数量 + 1
+     */
+    private final int[] childOffsets;
+
+    /**
+     * 子节点对应的字符，同一个节点的子节点按字符升序排列
+     */
+    private final char[] childCharacters;
+
+    /**
+     * 子节点对应的状态
+     */
+    private final int[] childStates;
+
+    /**
+     * 失败状态数组，索引为状态
+     */
+    private final int[] failureStates;
+
+    /**
+     * 输出链接数组，索引为状态，值为沿失败状态链找到的下一个拥有输出的状态，0 表示不存在
+     */
+    private final int[] outputLinks;
+
+    /**
+     * 状态输出在 {@link #outputBackDistances} 和 {@link #outputValues} 数组中的起始位置，数组长度为状态数量 + 1
+     */
+    private final int[] outputOffsets;
+
+    /**
+     * 输出对应的多音字位置与词组末尾字符位置的距离
+     */
+    private final int[] outputBackDistances;
+
+    /**
+     * 输出对应的选择结果值，高 16 位为词组在所属拼音选择器中的优先级，低 16 位为对应的音节 ID
+     */
+    private final int[] outputValues;
+
+    /**
+     * 多音字默认拼音对应的音节 ID 数组，索引为 {@code codePoint - CHINESE_CHAR_MIN_CODE_POINT}，值为 -1 表示该字符不是多音字
+     */
+    private final short[] defaultSyllableIds;
+
+    /**
+     * 最长的中文词组长度
+     */
+    private final int maxWordLength;
+
+    /**
+     * 多音字拼音选择器 Map，Key 为多音字 UNICODE 编码值，Value 为对应的多音字拼音选择器，从二进制内容加载时在首次使用时创建
+     */
+    private volatile Map<Integer, PinyinSelector> selectorMap;
+
+    /**
+     * 多音字拼音选择器 Map 创建器，仅在从二进制内容加载时使用，其它情况下为 {@code null}
+     */
+    private final Supplier<Map<Integer, PinyinSelector>> selectorMapLoader;
+
+    /**
+     * 构造一个多音字词组自动机。
+     *
+     * @param dictionary 汉字拼音字典，用于获取拼音对应的音节 ID
+     * @param selectors 多音字拼音选择器集合
+     * @throws IllegalArgumentException 如果拼音选择器中的拼音在汉字拼音字典的音节表中不存在，将抛出此异常
+     * @throws IllegalArgumentException 如果单个拼音选择器中的中文词组数量过多，将抛出此异常
+     */
+    public ChineseWordAutomaton(PinyinDictionary dictionary, Collection<PinyinSelector> selectors) throws IllegalArgumentException {
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        List<TreeMap<Character, Integer>> childrenList = new ArrayList<>();
+        List<List<int[]>> outputList = new ArrayList<>();
+        childrenList.add(new TreeMap<>());
+        outputList.add(null);
+        short[] defaultSyllableIds = new short[characterCount];
+        Arrays.fill(defaultSyllableIds, (short) -1);
+        int maxWordLength = 0;
+        Map<Integer, PinyinSelector> selectorMap = new HashMap<>();
+        for (PinyinSelector selector : selectors) {
+            int codePoint = selector.getCodePoint();
+            if (selectorMap.put(codePoint, selector) != null) {
+                throw new IllegalArgumentException("Duplicate PinyinSelector for chinese character: `" + (char) codePoint + "`.");
+            }
+            defaultSyllableIds[codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT] =
+                    (short) getSyllableId(dictionary, selector.getDefaultPinyin());
+            int rank = 0;
+            for (Map.Entry<String, List<ChineseWordMatcher>> entry : selector.getChineseWordMatcherMap().entrySet()) {
+                int syllableId = getSyllableId(dictionary, entry.getKey());
+                for (ChineseWordMatcher matcher : entry.getValue()) {
+                    if (rank > Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("Too many chinese words for chinese character: `" + (char) codePoint + "`.");
+                    }
+                    char[] wordCharacters = matcher.getWordCharacters();
+                    int state = ROOT;
+                    for (char c : wordCharacters) {
+                        Integer nextState = childrenList.get(state).get(c);
+                        if (nextState == null) {
+                            nextState = childrenList.size();
+                            childrenList.add(new TreeMap<>());
+                            outputList.add(null);
+                            childrenList.get(state).put(c, nextState);
+                        }
+                        state = nextState;
+                    }
+                    for (int pivotalCharacterIndex : matcher.getPivotalCharacterIndexes()) {
+                        // 关键字符与多音字不一致的词组在 PinyinSelector 中永远不会被命中
+                        if (pivotalCharacterIndex >= 0 && pivotalCharacterIndex < wordCharacters.length
+                                && wordCharacters[pivotalCharacterIndex] == codePoint) {
+                            if (outputList.get(state) == null) {
+                                outputList.set(state, new ArrayList<>());
+                            }
+                            outputList.get(state).add(new int[]{wordCharacters.length - 1 - pivotalCharacterIndex,
+                                    (rank << 16) | syllableId});
+                        }
+                    }
+                    maxWordLength = Math.max(maxWordLength, wordCharacters.length);
+                    rank++;
+                }
+            }
+        }
+
+        int stateCount = childrenList.size();
+        int[] rootTransitions = new int[characterCount];
+        int[] childOffsets = new int[stateCount + 1];
+        int transitionCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            childOffsets[state] = transitionCount;
+            if (state != ROOT) {
+                transitionCount += childrenList.get(state).size();
+            }
+        }
+        childOffsets[stateCount] = transitionCount;
+        char[] childCharacters = new char[transitionCount];
+        int[] childStates = new int[transitionCount];
+        for (Map.Entry<Character, Integer> entry : childrenList.get(ROOT).entrySet()) {
+            rootTransitions[entry.getKey() - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT] = entry.getValue();
+        }
+        for (int state = 1; state < stateCount; state++) {
+            int position = childOffsets[state];
+            for (Map.Entry<Character, Integer> entry : childrenList.get(state).entrySet()) {
+                childCharacters[position] = entry.getKey();
+                childStates[position] = entry.getValue();
+                position++;
+            }
+        }
+
+        int[] outputOffsets = new int[stateCount + 1];
+        int outputCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            outputOffsets[state] = outputCount;
+            if (outputList.get(state) != null) {
+                outputCount += outputList.get(state).size();
+            }
+        }
+        outputOffsets[stateCount] = outputCount;
+        int[] outputBackDistances = new int[outputCount];
+        int[] outputValues = new int[outputCount];
+        for (int state = 0; state < stateCount; state++) {
+            if (outputList.get(state) != null) {
+                int position = outputOffsets[state];
+                for (int[] output : outputList.get(state)) {
+                    outputBackDistances[position] = output[0];
+                    outputValues[position] = output[1];
+                    position++;
+                }
+            }
+        }
+
+        this.rootTransitions = rootTransitions;
+        this.childOffsets = childOffsets;
+        this.childCharacters = childCharacters;
+        this.childStates = childStates;
+        this.outputOffsets = outputOffsets;
+        this.outputBackDistances = outputBackDistances;
+        this.outputValues = outputValues;
+        this.defaultSyllableIds = defaultSyllableIds;
+        this.maxWordLength = maxWordLength;
+        this.selectorMap = selectorMap;
+        this.selectorMapLoader = null;
+        this.failureStates = new int[stateCount];
+        this.outputLinks = new int[stateCount];
+
+        // 按广度优先顺序计算失败状态和输出链接
+        Queue<Integer> stateQueue = new ArrayDeque<>(childrenList.get(ROOT).values());
+        while (!stateQueue.isEmpty()) {
+            int state = stateQueue.poll();
+            for (Map.Entry<Character, Integer> entry : childrenList.get(state).entrySet()) {
+                char c = entry.getKey();
+                int childState = entry.getValue();
+                int failureState = failureStates[state];
+                int nextState;
+                while ((nextState = findChildState(failureState, c)) < 0 && failureState != ROOT) {
+                    failureState = failureStates[failureState];
+                }
+                failureStates[childState] = nextState > 0 ? nextState : ROOT;
+                int childFailureState = failureStates[childState];
+                outputLinks[childState] = hasOutput(childFailureState) ? childFailureState : outputLinks[childFailureState];
+                stateQueue.add(childState);
+            }
+        }
+    }
+
+    /**
+     * 使用已编译的自动机数据构造一个多音字词组自动机，仅用于从二进制文件中加载，传入的数组不会被复制，
+     * 多音字拼音选择器在首次调用 {@link #getSelector(int)} 等方法时才通过 {@code selectorMapLoader} 创建。
+     */
+    ChineseWordAutomaton(int[] rootTransitions, int[] childOffsets, char[] childCharacters, int[] childStates,
+                         int[] failureStates, int[] outputLinks, int[] outputOffsets, int[] outputBackDistances,
+                         int[] outputValues, short[] defaultSyllableIds, int maxWordLength,
+                         Supplier<Map<Integer, PinyinSelector>> selectorMapLoader) {
+        this.rootTransitions = rootTransitions;
+        this.childOffsets = childOffsets;
+        this.childCharacters = childCharacters;
+        this.childStates = childStates;
+        this.failureStates = failureStates;
+        this.outputLinks = outputLinks;
+        this.outputOffsets = outputOffsets;
+        this.outputBackDistances = outputBackDistances;
+        this.outputValues = outputValues;
+        this.defaultSyllableIds = defaultSyllableIds;
+        this.maxWordLength = maxWordLength;
+        this.selectorMap = null;
+        this.selectorMapLoader = selectorMapLoader;
+    }
+
+    /**
+     * 对目标文本 [start, end) 区间内的所有多音字进行拼音选择，选择结果写入 {@code syllableIds} 数组，
+     * 文本中第 i 个字符的选择结果位于 {@code syllableIds[i - start]}，非多音字的选择结果为 -1。
+     *
+     * <p>只有完整位于 [start, end) 区间内的中文词组才会参与匹配。</p>
+     *
+     * @param text 目标文本
+     * @param start 起始索引位置（包含）
+     * @param end 结束索引位置（不包含）
+     * @param syllableIds 选择结果数组，长度不能小于 {@code end - start}
+     */
+    public void select(CharSequence text, int start, int end, int[] syllableIds) {
+        select(text, start, end, syllableIds, null);
+    }
+
+    /**
+     * 对目标文本 [start, end) 区间内的所有多音字进行拼音选择，选择结果与 {@link #select(CharSequence, int, int, int[])} 方法一致，
+     * 如果 {@code matchedBits} 不为 {@code null}，由词组命中确定拼音的字符对应的位将被设置为 1，其它位将被设置为 0，
+     * 文本中第 i 个字符对应 {@code matchedBits[(i - start) >>> 6]} 的第 {@code (i - start) & 63} 位。
+     *
+     * @param text 目标文本
+     * @param start 起始索引位置（包含）
+     * @param end 结束索引位置（不包含）
+     * @param syllableIds 选择结果数组，长度不能小于 {@code end - start}
+     * @param matchedBits 词组命中标记数组，长度不能小于 {@code (end - start + 63) >>> 6}，允许为 {@code null}
+     * @return 选择过程中比较的词组输出数量
+     */
+    public int select(CharSequence text, int start, int end, int[] syllableIds, long[] matchedBits) {
+        int length = end - start;
+        Arrays.fill(syllableIds, 0, length, NOT_MATCHED);
+        int comparisonCount = 0;
+        int state = ROOT;
+        for (int i = start; i < end; i++) {
+            state = nextState(state, text.charAt(i));
+            int outputState = hasOutput(state) ? state : outputLink(state);
+            while (outputState != ROOT) {
+                int outputEnd = outputOffset(outputState + 1);
+                comparisonCount += outputEnd - outputOffset(outputState);
+                for (int j = outputOffset(outputState); j < outputEnd; j++) {
+                    int index = i - start - outputBackDistance(j);
+                    int value = outputValue(j);
+                    if (value < syllableIds[index]) {
+                        syllableIds[index] = value;
+                    }
+                }
+                outputState = outputLink(outputState);
+            }
+        }
+        if (matchedBits != null) {
+            Arrays.fill(matchedBits, 0, (length + 63) >>> 6, 0L);
+        }
+        for (int i = 0; i < length; i++) {
+            int value = syllableIds[i];
+            if (value == NOT_MATCHED) {
+                syllableIds[i] = getDefaultSyllableId(text.charAt(start + i));
+            } else {
+                syllableIds[i] = value & 0xFFFF;
+                if (matchedBits != null) {
+                    matchedBits[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        return comparisonCount;
+    }
+
+    /**
+     * 根据多音字 UNICODE 编码值获得该多音字默认拼音对应的音节 ID，如果该字符不是多音字，则返回 -1。
+     *
+     * @param codePoint 多音字 UNICODE 编码值
+     * @return 默认拼音对应的音节 ID，可能返回 -1
+     */
+    public int getDefaultSyllableId(int codePoint) {
+        if (PinyinDictionaryHelper.isChineseCharacter(codePoint)) {
+            return defaultSyllableId(codePoint - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT);
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * 根据多音字 UNICODE 编码值获得对应的多音字拼音选择器，如果不存在，则返回 {@code null}。
+     *
+     * @param codePoint 多音字 UNICODE 编码值
+     * @return 多音字拼音选择器，可能为 {@code null}
+     */
+    public PinyinSelector getSelector(int codePoint) {
+        return getSelectorMap().get(codePoint);
+    }
+
+    /**
+     * 获得自动机中最长的中文词组长度，对文本分段进行拼音选择时，分段两侧至少需要保留 {@code maxWordLength - 1} 个字符的上下文，
+     * 才能保证选择结果与对整个文本进行选择时一致。
+     *
+     * @return 最长的中文词组长度
+     */
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    @Override
+    public String toString() {
+        return "ChineseWordAutomaton{" +
+                "stateCount=" + getStateCount() +
+                ", outputCount=" + getOutputCount() +
+                ", maxWordLength=" + maxWordLength +
+                '}';
+    }
+
+    int getStateCount() {
+        return failureStates.length;
+    }
+
+    int getOutputCount() {
+        return outputValues.length;
+    }
+
+    int[] getRootTransitions() {
+        return rootTransitions;
+    }
+
+    int[] getChildOffsets() {
+        return childOffsets;
+    }
+
+    char[] getChildCharacters() {
+        return childCharacters;
+    }
+
+    int[] getChildStates() {
+        return childStates;
+    }
+
+    int[] getFailureStates() {
+        return failureStates;
+    }
+
+    int[] getOutputLinks() {
+        return outputLinks;
+    }
+
+    int[] getOutputOffsets() {
+        return outputOffsets;
+    }
+
+    int[] getOutputBackDistances() {
+        return outputBackDistances;
+    }
+
+    int[] getOutputValues() {
+        return outputValues;
+    }
+
+    short[] getDefaultSyllableIds() {
+        return defaultSyllableIds;
+    }
+
+    Map<Integer, PinyinSelector> getSelectorMap() {
+        Map<Integer, PinyinSelector> selectorMap = this.selectorMap;
+        if (selectorMap == null) {
+            synchronized (this) {
+                selectorMap = this.selectorMap;
+                if (selectorMap == null) {
+                    selectorMap = selectorMapLoader.get();
+                    this.selectorMap = selectorMap;
+                }
+            }
+        }
+        return selectorMap;
+    }
+
+    /*
+     * 以下方法为自动机数据的读取方法，选择过程中的所有数据读取均通过这些方法完成，子类可通过覆盖这些方法使用其它存储方式（例如内存映射文件），
+     * 在没有子类被加载时，JIT 会将这些方法内联为直接的数组读取。
+     */
+
+    int rootTransition(int index) {
+        return rootTransitions[index];
+    }
+
+    int childOffset(int state) {
+        return childOffsets[state];
+    }
+
+    char childCharacter(int position) {
+        return childCharacters[position];
+    }
+
+    int childState(int position) {
+        return childStates[position];
+    }
+
+    int failureState(int state) {
+        return failureStates[state];
+    }
+
+    int outputLink(int state) {
+        return outputLinks[state];
+    }
+
+    int outputOffset(int state) {
+        return outputOffsets[state];
+    }
+
+    int outputBackDistance(int position) {
+        return outputBackDistances[position];
+    }
+
+    int outputValue(int position) {
+        return outputValues[position];
+    }
+
+    short defaultSyllableId(int index) {
+        return defaultSyllableIds[index];
+    }
+
+    private int nextState(int state, char c) {
+        while (state != ROOT) {
+            int childState = findChildState(state, c);
+            if (childState > 0) {
+                return childState;
+            }
+            state = failureState(state);
+        }
+        if (PinyinDictionaryHelper.isChineseCharacter(c)) {
+            return rootTransition(c - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT);
+        } else {
+            return ROOT;
+        }
+    }
+
+    private int findChildState(int state, char c) {
+        if (state == ROOT) {
+            int childState = PinyinDictionaryHelper.isChineseCharacter(c) ?
+                    rootTransition(c - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT) : ROOT;
+            return childState != ROOT ? childState : -1;
+        }
+        int low = childOffset(state);
+        int high = childOffset(state + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleCharacter = childCharacter(middle);
+            if (middleCharacter < c) {
+                low = middle + 1;
+            } else if (middleCharacter > c) {
+                high = middle - 1;
+            } else {
+                return childState(middle);
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasOutput(int state) {
+        return outputOffset(state) < outputOffset(state + 1);
+    }
+
+    private static int getSyllableId(PinyinDictionary dictionary, String pinyinWithToneNumber) throws IllegalArgumentException {
+        int syllableId = dictionary.getSyllableId(pinyinWithToneNumber);
+        if (syllableId < 0) {
+            throw new IllegalArgumentException("`" + pinyinWithToneNumber + "` is not in the syllable table of pinyin dictionary.");
+        }
+        return syllableId;
+    }
+}
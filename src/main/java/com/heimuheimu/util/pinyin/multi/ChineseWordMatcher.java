@@ -108,6 +108,24 @@ public class ChineseWordMatcher {
         return false;
     }
 
+    /**
+     * 获得中文词组对应的字符数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 中文词组对应的字符数组
+     */
+    char[] getWordCharacters() {
+        return wordCharacters;
+    }
+
+    /**
+     * 获得关键字符在词组字符数组中的索引位置数组，返回的数组为内部数组，调用方不应对其进行修改。
+     *
+     * @return 关键字符索引位置数组
+     */
+    int[] getPivotalCharacterIndexes() {
+        return pivotalCharacterIndexes;
+    }
+
     @Override
     public String toString() {
         return "ChineseWordMatcher{" +
@@ -0,0 +1,353 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinBinaryHelper;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存映射文件的多音字词组自动机，自动机数据和多音字拼音选择器数据直接从 {@code FileChannel.map} 返回的堆外内存中读取，
+ * 不占用 Java 堆空间，同一台机器上的多个 JVM 进程可共享操作系统页缓存中的同一份数据。
+ *
+ * <p>{@link #select(CharSequence, int, int, int[])} 方法不会创建任何堆对象，{@link PinyinSelector} 实例仅在调用
+ * {@link #getSelector(int)} 方法时按需创建并缓存。</p>
+ *
+ * <p><strong>说明：</strong>{@code MappedChineseWordAutomaton} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+class MappedChineseWordAutomaton extends ChineseWordAutomaton {
+
+    private final IntBuffer rootTransitions;
+
+    private final IntBuffer childOffsets;
+
+    private final CharBuffer childCharacters;
+
+    private final IntBuffer childStates;
+
+    private final IntBuffer failureStates;
+
+    private final IntBuffer outputLinks;
+
+    private final IntBuffer outputOffsets;
+
+    private final IntBuffer outputBackDistances;
+
+    private final IntBuffer outputValues;
+
+    private final ShortBuffer defaultSyllableIds;
+
+    /**
+     * 多音字拼音选择器表，内容位于内存映射文件中
+     */
+    private final PinyinSelectorTable selectorTable;
+
+    /**
+     * 汉字拼音字典，用于创建多音字拼音选择器
+     */
+    private final PinyinDictionary dictionary;
+
+    /**
+     * 已创建的多音字拼音选择器 Map，Key 为多音字对应的 UNICODE 编码值，Value 为多音字拼音选择器
+     */
+    private final ConcurrentHashMap<Integer, PinyinSelector> selectorCache = new ConcurrentHashMap<>();
+
+    /**
+     * 从二进制内容的当前位置读取自动机数据，构造一个基于内存映射文件的多音字词组自动机，自动机数据不会被复制。
+     *
+     * @param selectorTable 多音字拼音选择器表
+     * @param buffer 二进制内容，当前位置为自动机数据的起始位置
+     * @param dictionary 汉字拼音字典
+     * @throws IllegalArgumentException 如果二进制内容不合法，将抛出此异常
+     */
+    MappedChineseWordAutomaton(PinyinSelectorTable selectorTable, ByteBuffer buffer, PinyinDictionary dictionary) throws IllegalArgumentException {
+        this(selectorTable, dictionary, PinyinBinaryHelper.sliceIntArray(buffer), PinyinBinaryHelper.sliceIntArray(buffer),
+                PinyinBinaryHelper.sliceCharArray(buffer), PinyinBinaryHelper.sliceIntArray(buffer),
+                PinyinBinaryHelper.sliceIntArray(buffer), PinyinBinaryHelper.sliceIntArray(buffer),
+                PinyinBinaryHelper.sliceIntArray(buffer), PinyinBinaryHelper.sliceIntArray(buffer),
+                PinyinBinaryHelper.sliceIntArray(buffer), PinyinBinaryHelper.sliceShortArray(buffer), buffer.getInt());
+    }
+
+    private MappedChineseWordAutomaton(PinyinSelectorTable selectorTable, PinyinDictionary dictionary, IntBuffer rootTransitions,
+                                       IntBuffer childOffsets, CharBuffer childCharacters, IntBuffer childStates,
+                                       IntBuffer failureStates, IntBuffer outputLinks, IntBuffer outputOffsets,
+                                       IntBuffer outputBackDistances, IntBuffer outputValues, ShortBuffer defaultSyllableIds,
+                                       int maxWordLength) throws IllegalArgumentException {
+        super(null, null, null, null, null, null, null, null, null, null, maxWordLength, null);
+        int stateCount = failureStates.limit();
+        if (childOffsets.limit() != stateCount + 1 || outputLinks.limit() != stateCount
+                || outputOffsets.limit() != stateCount + 1 || childCharacters.limit() != childStates.limit()
+                || outputBackDistances.limit() != outputValues.limit()) {
+            throw new IllegalArgumentException("Invalid mapped automaton. State count: `" + stateCount + "`.");
+        }
+        // 根节点状态转移和多音字默认拼音按 codePoint - CHINESE_CHAR_MIN_CODE_POINT 索引，长度不足时在加载阶段拒绝该文件
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        if (rootTransitions.limit() != characterCount || defaultSyllableIds.limit() != characterCount) {
+            throw new IllegalArgumentException("Invalid mapped automaton. Root transition count: `" + rootTransitions.limit()
+                    + "`. Default syllable id count: `" + defaultSyllableIds.limit() + "`. Expected count: `" + characterCount + "`.");
+        }
+        // 状态、偏移和音节 ID 在查询时直接作为索引使用，越界时在加载阶段拒绝该文件，与 MappedPinyinDictionary 的音节 ID 校验一致
+        checkStates("root transition", rootTransitions, stateCount);
+        checkStates("child state", childStates, stateCount);
+        checkStates("failure state", failureStates, stateCount);
+        checkStates("output link", outputLinks, stateCount);
+        checkOffsets("child offset", childOffsets, childStates.limit());
+        checkOffsets("output offset", outputOffsets, outputValues.limit());
+        int syllableCount = dictionary.getSyllableCount();
+        for (int i = 0; i < outputValues.limit(); i++) {
+            int outputBackDistance = outputBackDistances.get(i);
+            if (outputBackDistance < 0 || outputBackDistance >= maxWordLength) {
+                throw new IllegalArgumentException("Invalid mapped automaton. Output back distance: `" + outputBackDistance
+                        + "`. Max word length: `" + maxWordLength + "`.");
+            }
+            int syllableId = outputValues.get(i) & 0xFFFF;
+            if (syllableId >= syllableCount) {
+                throw new IllegalArgumentException("Invalid mapped automaton. Output syllable id: `" + syllableId
+                        + "`. Syllable count: `" + syllableCount + "`.");
+            }
+        }
+        for (int i = 0; i < characterCount; i++) {
+            int syllableId = defaultSyllableIds.get(i);
+            if (syllableId < -1 || syllableId >= syllableCount) {
+                throw new IllegalArgumentException("Invalid mapped automaton. Default syllable id: `" + syllableId
+                        + "`. Syllable count: `" + syllableCount + "`.");
+            }
+        }
+        this.rootTransitions = rootTransitions;
+        this.childOffsets = childOffsets;
+        this.childCharacters = childCharacters;
+        this.childStates = childStates;
+        this.failureStates = failureStates;
+        this.outputLinks = outputLinks;
+        this.outputOffsets = outputOffsets;
+        this.outputBackDistances = outputBackDistances;
+        this.outputValues = outputValues;
+        this.defaultSyllableIds = defaultSyllableIds;
+        this.selectorTable = selectorTable;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public PinyinSelector getSelector(int codePoint) {
+        PinyinSelector selector = selectorCache.get(codePoint);
+        if (selector == null) {
+            int index = selectorTable.indexOf(codePoint);
+            if (index < 0) {
+                return null;
+            }
+            selector = selectorTable.createSelector(index, dictionary);
+            PinyinSelector existedSelector = selectorCache.putIfAbsent(codePoint, selector);
+            if (existedSelector != null) {
+                selector = existedSelector;
+            }
+        }
+        return selector;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedChineseWordAutomaton{" +
+                "stateCount=" + getStateCount() +
+                ", outputCount=" + getOutputCount() +
+                ", maxWordLength=" + getMaxWordLength() +
+                '}';
+    }
+
+    @Override
+    int getStateCount() {
+        return failureStates.limit();
+    }
+
+    @Override
+    int getOutputCount() {
+        return outputValues.limit();
+    }
+
+    @Override
+    int[] getRootTransitions() {
+        return toIntArray(rootTransitions);
+    }
+
+    @Override
+    int[] getChildOffsets() {
+        return toIntArray(childOffsets);
+    }
+
+    @Override
+    char[] getChildCharacters() {
+        char[] array = new char[childCharacters.limit()];
+        childCharacters.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    int[] getChildStates() {
+        return toIntArray(childStates);
+    }
+
+    @Override
+    int[] getFailureStates() {
+        return toIntArray(failureStates);
+    }
+
+    @Override
+    int[] getOutputLinks() {
+        return toIntArray(outputLinks);
+    }
+
+    @Override
+    int[] getOutputOffsets() {
+        return toIntArray(outputOffsets);
+    }
+
+    @Override
+    int[] getOutputBackDistances() {
+        return toIntArray(outputBackDistances);
+    }
+
+    @Override
+    int[] getOutputValues() {
+        return toIntArray(outputValues);
+    }
+
+    @Override
+    short[] getDefaultSyllableIds() {
+        short[] array = new short[defaultSyllableIds.limit()];
+        defaultSyllableIds.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    Map<Integer, PinyinSelector> getSelectorMap() {
+        return selectorTable.createSelectorMap(dictionary);
+    }
+
+    @Override
+    int rootTransition(int index) {
+        return rootTransitions.get(index);
+    }
+
+    @Override
+    int childOffset(int state) {
+        return childOffsets.get(state);
+    }
+
+    @Override
+    char childCharacter(int position) {
+        return childCharacters.get(position);
+    }
+
+    @Override
+    int childState(int position) {
+        return childStates.get(position);
+    }
+
+    @Override
+    int failureState(int state) {
+        return failureStates.get(state);
+    }
+
+    @Override
+    int outputLink(int state) {
+        return outputLinks.get(state);
+    }
+
+    @Override
+    int outputOffset(int state) {
+        return outputOffsets.get(state);
+    }
+
+    @Override
+    int outputBackDistance(int position) {
+        return outputBackDistances.get(position);
+    }
+
+    @Override
+    int outputValue(int position) {
+        return outputValues.get(position);
+    }
+
+    @Override
+    short defaultSyllableId(int index) {
+        return defaultSyllableIds.get(index);
+    }
+
+    /**
+     * 检查状态数组中的所有状态是否位于 [0, stateCount) 区间内。
+     *
+     * @param name 状态数组名称，用于异常信息
+     * @param states 状态数组
+     * @param stateCount 状态数量
+     * @throws IllegalArgumentException 如果存在越界的状态，将抛出此异常
+     */
+    private static void checkStates(String name, IntBuffer states, int stateCount) throws IllegalArgumentException {
+        for (int i = 0; i < states.limit(); i++) {
+            int state = states.get(i);
+            if (state < 0 || state >= stateCount) {
+                throw new IllegalArgumentException("Invalid mapped automaton. Invalid " + name + ": `" + state + "`. Index: `"
+                        + i + "`. State count: `" + stateCount + "`.");
+            }
+        }
+    }
+
+    /**
+     * 检查偏移数组是否从 0 开始单调递增，并且最后一个偏移等于对应数据数组的长度。
+     *
+     * @param name 偏移数组名称，用于异常信息
+     * @param offsets 偏移数组
+     * @param length 对应数据数组的长度
+     * @throws IllegalArgumentException 如果偏移不合法，将抛出此异常
+     */
+    private static void checkOffsets(String name, IntBuffer offsets, int length) throws IllegalArgumentException {
+        int previousOffset = 0;
+        for (int i = 0; i < offsets.limit(); i++) {
+            int offset = offsets.get(i);
+            if (offset < previousOffset || offset > length || (i == 0 && offset != 0)) {
+                throw new IllegalArgumentException("Invalid mapped automaton. Invalid " + name + ": `" + offset + "`. Index: `"
+                        + i + "`. Previous offset: `" + previousOffset + "`. Length: `" + length + "`.");
+            }
+            previousOffset = offset;
+        }
+        if (previousOffset != length) {
+            throw new IllegalArgumentException("Invalid mapped automaton. Invalid last " + name + ": `" + previousOffset
+                    + "`. Length: `" + length + "`.");
+        }
+    }
+
+    private static int[] toIntArray(IntBuffer buffer) {
+        int[] array = new int[buffer.limit()];
+        buffer.duplicate().get(array);
+        return array;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryLoader;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 拼音字典二进制文件编译器，在构建时将 "pinyin_mapping.txt"（及扩展区汉字文件 "pinyin_mapping_extension.txt"）和
+ * "multi_pinyin_mapping.txt" 文本文件编译为对应的二进制文件
+ * "pinyin_mapping.bin" 和 "multi_pinyin_mapping.bin"，{@link com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory} 和
+ * {@link PinyinSelectorFactory} 将优先加载二进制文件。
+ *
+ * <p>使用方式：{@code java com.heimuheimu.util.pinyin.multi.PinyinBinaryCompiler <文本文件所在目录> <二进制文件输出目录>}</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinBinaryCompiler {
+
+    private static final String PINYIN_MAPPING_FILE_NAME = "pinyin_mapping.txt";
+
+    private static final String PINYIN_MAPPING_EXTENSION_FILE_NAME = "pinyin_mapping_extension.txt";
+
+    private static final String PINYIN_MAPPING_BINARY_FILE_NAME = "pinyin_mapping.bin";
+
+    private static final String MULTI_PINYIN_MAPPING_FILE_NAME = "multi_pinyin_mapping.txt";
+
+    private static final String MULTI_PINYIN_MAPPING_BINARY_FILE_NAME = "multi_pinyin_mapping.bin";
+
+    /**
+     * 将文本文件所在目录中的拼音字典文件编译为二进制文件，并写入二进制文件输出目录。
+     *
+     * @param args 参数数组，第一个参数为文本文件所在目录，第二个参数为二进制文件输出目录
+     * @throws IOException 如果读取或写入失败，将抛出此异常
+     * @throws IllegalArgumentException 如果参数或文本文件内容不合法，将抛出此异常
+     */
+    public static void main(String[] args) throws IOException, IllegalArgumentException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: PinyinBinaryCompiler <source directory> <output directory>");
+        }
+        File sourceDirectory = new File(args[0]);
+        File outputDirectory = new File(args[1]);
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("Create output directory failed: `" + outputDirectory.getAbsolutePath() + "`.");
+        }
+        PinyinDictionary dictionary;
+        File extensionFile = new File(sourceDirectory, PINYIN_MAPPING_EXTENSION_FILE_NAME);
+        try (InputStream in = new FileInputStream(new File(sourceDirectory, PINYIN_MAPPING_FILE_NAME));
+             InputStream extensionIn = extensionFile.isFile() ? new FileInputStream(extensionFile) : null) {
+            dictionary = PinyinDictionaryLoader.loadText(in, extensionIn);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(outputDirectory, PINYIN_MAPPING_BINARY_FILE_NAME)))) {
+            PinyinDictionaryLoader.writeBinary(dictionary, out);
+        }
+        ChineseWordAutomaton automaton;
+        try (InputStream in = new FileInputStream(new File(sourceDirectory, MULTI_PINYIN_MAPPING_FILE_NAME))) {
+            automaton = PinyinSelectorLoader.loadText(in, dictionary);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(outputDirectory, MULTI_PINYIN_MAPPING_BINARY_FILE_NAME)))) {
+            PinyinSelectorLoader.writeBinary(automaton, dictionary, out);
+        }
+    }
+}
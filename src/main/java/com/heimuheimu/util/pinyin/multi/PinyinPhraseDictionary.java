@@ -0,0 +1,389 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * 用户词组拼音词典，用于在内置多音字词库之上指定地名、品牌名、专业术语等词组中每个汉字的拼音，例如 "重庆" 对应 "chong2 qing4"。
+ *
+ * <p>所有词组被编译为一个独立的 Aho-Corasick 自动机，对目标文本进行一次线性扫描即可找到所有命中的词组，不会复制或修改内置多音字词组自动机。
+ * 根节点的状态转移仅覆盖词组首字符所在的区间，对于不是任何词组首字符的汉字，扫描时只需一次比较即可跳过。</p>
+ *
+ * <p>同一个字符被多个词组命中时，选择在词典中位置最靠前的词组对应的拼音。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinPhraseDictionary} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinPhraseDictionary {
+
+    /**
+     * 根节点对应的状态
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * 词组使用的汉字拼音字典，音节 ID 依赖于该字典的音节表
+     */
+    private final PinyinDictionary dictionary;
+
+    /**
+     * 词组拼音 Map，Key 为词组，Value 为词组中每个汉字对应的带有数字声调的拼音，迭代顺序即为词组优先级
+     */
+    private final Map<String, String[]> phraseMap;
+
+    /**
+     * 根节点状态转移数组中第一个元素对应的字符
+     */
+    private final char rootMinCharacter;
+
+    /**
+     * 根节点的状态转移数组，索引为 {@code c - rootMinCharacter}，仅覆盖词组首字符所在的区间
+     */
+    private final int[] rootTransitions;
+
+    /**
+     * 非根节点子节点在 {@link #childCharacters} 和 {@link #childStates} 数组中的起始位置，数组长度为状态数量 + 1
+     */
+    private final int[] childOffsets;
+
+    /**
+     * 子节点对应的字符，同一个节点的子节点按字符升序排列
+     */
+    private final char[] childCharacters;
+
+    /**
+     * 子节点对应的状态
+     */
+    private final int[] childStates;
+
+    /**
+     * 失败状态数组，索引为状态
+     */
+    private final int[] failureStates;
+
+    /**
+     * 输出链接数组，索引为状态，值为沿失败状态链找到的下一个词组结束状态，0 表示不存在
+     */
+    private final int[] outputLinks;
+
+    /**
+     * 状态对应的词组索引，值为 -1 表示该状态不是词组结束状态
+     */
+    private final int[] statePhrases;
+
+    /**
+     * 词组音节 ID 在 {@link #phraseSyllableIds} 数组中的起始位置，数组长度为词组数量 + 1
+     */
+    private final int[] phraseOffsets;
+
+    /**
+     * 所有词组中每个汉字对应的音节 ID，按词组顺序排列
+     */
+    private final int[] phraseSyllableIds;
+
+    /**
+     * 最长的词组长度
+     */
+    private final int maxPhraseLength;
+
+    /**
+     * 构造一个用户词组拼音词典。
+     *
+     * @param dictionary 汉字拼音字典，用于获取拼音对应的音节 ID
+     * @param phraseMap 词组拼音 Map，Key 为词组，Value 为词组中每个汉字对应的带有数字声调的拼音，迭代顺序即为词组优先级
+     * @throws IllegalArgumentException 如果词组为空或包含非中文字符，将抛出此异常
+     * @throws IllegalArgumentException 如果拼音数量与词组长度不一致，或拼音在汉字拼音字典的音节表中不存在，将抛出此异常
+     */
+    public PinyinPhraseDictionary(PinyinDictionary dictionary, Map<String, String[]> phraseMap) throws IllegalArgumentException {
+        List<TreeMap<Character, Integer>> childrenList = new ArrayList<>();
+        List<Integer> statePhraseList = new ArrayList<>();
+        childrenList.add(new TreeMap<>());
+        statePhraseList.add(-1);
+        int[] phraseOffsets = new int[phraseMap.size() + 1];
+        int syllableCount = 0;
+        for (String phrase : phraseMap.keySet()) {
+            syllableCount += phrase.length();
+        }
+        int[] phraseSyllableIds = new int[syllableCount];
+        Map<String, String[]> copiedPhraseMap = new LinkedHashMap<>();
+        int maxPhraseLength = 0;
+        int phraseIndex = 0;
+        int position = 0;
+        for (Map.Entry<String, String[]> entry : phraseMap.entrySet()) {
+            String phrase = entry.getKey();
+            String[] pinyinArray = entry.getValue();
+            if (phrase == null || phrase.isEmpty()) {
+                throw new IllegalArgumentException("Phrase could not be empty.");
+            }
+            if (pinyinArray == null || pinyinArray.length != phrase.length()) {
+                throw new IllegalArgumentException("Pinyin count does not match phrase length. Phrase: `" + phrase + "`.");
+            }
+            phraseOffsets[phraseIndex] = position;
+            int state = ROOT;
+            for (int i = 0; i < phrase.length(); i++) {
+                char c = phrase.charAt(i);
+                if (!PinyinDictionaryHelper.isCjkIdeograph(c)) {
+                    throw new IllegalArgumentException("Invalid chinese character: `" + c + "`. Phrase: `" + phrase + "`.");
+                }
+                int syllableId = dictionary.getSyllableId(pinyinArray[i]);
+                if (syllableId < 0) {
+                    throw new IllegalArgumentException("`" + pinyinArray[i] + "` is not in the syllable table of pinyin dictionary. Phrase: `"
+                            + phrase + "`.");
+                }
+                phraseSyllableIds[position++] = syllableId;
+                Integer nextState = childrenList.get(state).get(c);
+                if (nextState == null) {
+                    nextState = childrenList.size();
+                    childrenList.add(new TreeMap<>());
+                    statePhraseList.add(-1);
+                    childrenList.get(state).put(c, nextState);
+                }
+                state = nextState;
+            }
+            statePhraseList.set(state, phraseIndex);
+            copiedPhraseMap.put(phrase, pinyinArray.clone());
+            maxPhraseLength = Math.max(maxPhraseLength, phrase.length());
+            phraseIndex++;
+        }
+        phraseOffsets[phraseIndex] = position;
+
+        int stateCount = childrenList.size();
+        TreeMap<Character, Integer> rootChildren = childrenList.get(ROOT);
+        char rootMinCharacter = rootChildren.isEmpty() ? 0 : rootChildren.firstKey();
+        int[] rootTransitions = new int[rootChildren.isEmpty() ? 0 : rootChildren.lastKey() - rootMinCharacter + 1];
+        for (Map.Entry<Character, Integer> entry : rootChildren.entrySet()) {
+            rootTransitions[entry.getKey() - rootMinCharacter] = entry.getValue();
+        }
+        int[] childOffsets = new int[stateCount + 1];
+        int transitionCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            childOffsets[state] = transitionCount;
+            if (state != ROOT) {
+                transitionCount += childrenList.get(state).size();
+            }
+        }
+        childOffsets[stateCount] = transitionCount;
+        char[] childCharacters = new char[transitionCount];
+        int[] childStates = new int[transitionCount];
+        for (int state = 1; state < stateCount; state++) {
+            int childPosition = childOffsets[state];
+            for (Map.Entry<Character, Integer> entry : childrenList.get(state).entrySet()) {
+                childCharacters[childPosition] = entry.getKey();
+                childStates[childPosition] = entry.getValue();
+                childPosition++;
+            }
+        }
+        int[] statePhrases = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            statePhrases[state] = statePhraseList.get(state);
+        }
+
+        this.dictionary = dictionary;
+        this.phraseMap = Collections.unmodifiableMap(copiedPhraseMap);
+        this.rootMinCharacter = rootMinCharacter;
+        this.rootTransitions = rootTransitions;
+        this.childOffsets = childOffsets;
+        this.childCharacters = childCharacters;
+        this.childStates = childStates;
+        this.statePhrases = statePhrases;
+        this.phraseOffsets = phraseOffsets;
+        this.phraseSyllableIds = phraseSyllableIds;
+        this.maxPhraseLength = maxPhraseLength;
+        this.failureStates = new int[stateCount];
+        this.outputLinks = new int[stateCount];
+
+        // 按广度优先顺序计算失败状态和输出链接
+        Queue<Integer> stateQueue = new ArrayDeque<>(rootChildren.values());
+        while (!stateQueue.isEmpty()) {
+            int state = stateQueue.poll();
+            for (Map.Entry<Character, Integer> entry : childrenList.get(state).entrySet()) {
+                char c = entry.getKey();
+                int childState = entry.getValue();
+                int failureState = failureStates[state];
+                int nextState;
+                while ((nextState = findChildState(failureState, c)) < 0 && failureState != ROOT) {
+                    failureState = failureStates[failureState];
+                }
+                failureStates[childState] = nextState > 0 ? nextState : ROOT;
+                int childFailureState = failureStates[childState];
+                outputLinks[childState] = statePhrases[childFailureState] >= 0 ? childFailureState : outputLinks[childFailureState];
+                stateQueue.add(childState);
+            }
+        }
+    }
+
+    /**
+     * 使用词典中的词组覆盖目标文本 [start, end) 区间内的拼音选择结果，文本中第 i 个字符的选择结果位于 {@code syllableIds[i - start]}，
+     * 被词组命中的字符的选择结果将被替换为词组中对应汉字的音节 ID，其它字符的选择结果保持不变。
+     *
+     * <p>只有完整位于 [start, end) 区间内的词组才会参与匹配。没有任何词组命中时，该方法不会写入 {@code syllableIds} 数组。</p>
+     *
+     * @param text 目标文本
+     * @param start 起始索引位置（包含）
+     * @param end 结束索引位置（不包含）
+     * @param syllableIds 选择结果数组，长度不能小于 {@code end - start}，数组中的值必须大于等于 -1
+     */
+    public void select(CharSequence text, int start, int end, int[] syllableIds) {
+        select(text, start, end, syllableIds, null);
+    }
+
+    /**
+     * 使用词典中的词组覆盖目标文本 [start, end) 区间内的拼音选择结果，选择规则与 {@link #select(CharSequence, int, int, int[])} 一致，
+     * 并在 {@code matchedBits} 中标记被词组命中的字符：文本中第 i 个字符被命中时，{@code matchedBits[(i - start) >>> 6]} 的第
+     * {@code (i - start) & 63} 位将被置为 1，其它位保持不变，可与 {@link ChineseWordAutomaton} 的命中标记合并使用。
+     *
+     * @param text 目标文本
+     * @param start 起始索引位置（包含）
+     * @param end 结束索引位置（不包含）
+     * @param syllableIds 选择结果数组，长度不能小于 {@code end - start}，数组中的值必须大于等于 -1
+     * @param matchedBits 命中标记数组，长度不能小于 {@code (end - start + 63) >>> 6}，为 {@code null} 时不进行标记
+     */
+    public void select(CharSequence text, int start, int end, int[] syllableIds, long[] matchedBits) {
+        int firstIndex = Integer.MAX_VALUE;
+        int lastIndex = -1;
+        int state = ROOT;
+        for (int i = start; i < end; i++) {
+            state = nextState(state, text.charAt(i));
+            int outputState = statePhrases[state] >= 0 ? state : outputLinks[state];
+            while (outputState != ROOT) {
+                int phraseIndex = statePhrases[outputState];
+                int phraseStart = phraseOffsets[phraseIndex];
+                int phraseEnd = phraseOffsets[phraseIndex + 1];
+                int index = i - start - (phraseEnd - phraseStart - 1);
+                firstIndex = Math.min(firstIndex, index);
+                lastIndex = i - start;
+                // 扫描过程中以 -2 - position 的形式记录命中的词组位置，位置越小，词组优先级越高
+                for (int position = phraseStart; position < phraseEnd; position++) {
+                    int value = -2 - position;
+                    if (syllableIds[index] >= -1 || syllableIds[index] < value) {
+                        syllableIds[index] = value;
+                    }
+                    index++;
+                }
+                outputState = outputLinks[outputState];
+            }
+        }
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            int value = syllableIds[i];
+            if (value < -1) {
+                syllableIds[i] = phraseSyllableIds[-2 - value];
+                if (matchedBits != null) {
+                    matchedBits[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获得词组使用的汉字拼音字典，词典中的音节 ID 依赖于该字典的音节表。
+     *
+     * @return 汉字拼音字典
+     */
+    public PinyinDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 获得词组拼音 Map，Key 为词组，Value 为词组中每个汉字对应的带有数字声调的拼音，返回的 Map 不可修改。
+     *
+     * @return 词组拼音 Map
+     */
+    public Map<String, String[]> getPhraseMap() {
+        return phraseMap;
+    }
+
+    /**
+     * 获得词典中的词组数量。
+     *
+     * @return 词组数量
+     */
+    public int getPhraseCount() {
+        return phraseMap.size();
+    }
+
+    /**
+     * 获得词典中最长的词组长度，对文本分段进行拼音选择时，分段两侧至少需要保留 {@code maxPhraseLength - 1} 个字符的上下文。
+     *
+     * @return 最长的词组长度
+     */
+    public int getMaxPhraseLength() {
+        return maxPhraseLength;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinPhraseDictionary{" +
+                "phraseCount=" + getPhraseCount() +
+                ", stateCount=" + failureStates.length +
+                ", maxPhraseLength=" + maxPhraseLength +
+                '}';
+    }
+
+    private int nextState(int state, char c) {
+        while (state != ROOT) {
+            int childState = findChildState(state, c);
+            if (childState > 0) {
+                return childState;
+            }
+            state = failureStates[state];
+        }
+        int index = c - rootMinCharacter;
+        return index >= 0 && index < rootTransitions.length ? rootTransitions[index] : ROOT;
+    }
+
+    private int findChildState(int state, char c) {
+        if (state == ROOT) {
+            int index = c - rootMinCharacter;
+            int childState = index >= 0 && index < rootTransitions.length ? rootTransitions[index] : ROOT;
+            return childState != ROOT ? childState : -1;
+        }
+        int low = childOffsets[state];
+        int high = childOffsets[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleCharacter = childCharacters[middle];
+            if (middleCharacter < c) {
+                low = middle + 1;
+            } else if (middleCharacter > c) {
+                high = middle - 1;
+            } else {
+                return childStates[middle];
+            }
+        }
+        return -1;
+    }
+}
@@ -107,4 +107,31 @@ public class PinyinSelector {
         }
         return defaultPinyin;
     }
+
+    /**
+     * 获得多音字对应的 UNICODE 编码值。
+     *
+     * @return 多音字对应的 UNICODE 编码值
+     */
+    int getCodePoint() {
+        return codePoint;
+    }
+
+    /**
+     * 获得多音字默认带有数字声调的拼音。
+     *
+     * @return 多音字默认带有数字声调的拼音
+     */
+    String getDefaultPinyin() {
+        return defaultPinyin;
+    }
+
+    /**
+     * 获得多音字中文词组匹配器 Map，迭代顺序即为拼音选择时的匹配优先级，返回的 Map 为内部 Map，调用方不应对其进行修改。
+     *
+     * @return 多音字中文词组匹配器 Map
+     */
+    Map<String, List<ChineseWordMatcher>> getChineseWordMatcherMap() {
+        return chineseWordMatcherMap;
+    }
 }
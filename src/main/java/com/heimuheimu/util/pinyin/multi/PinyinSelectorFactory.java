@@ -24,18 +24,26 @@
 
 package com.heimuheimu.util.pinyin.multi;
 
+import com.heimuheimu.util.pinyin.dictionary.PinyinBinaryHelper;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
 import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
-import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * 多音字拼音选择器工厂类。
  *
+ * <p>如果设置了系统属性 {@link PinyinDictionaryFactory#MAPPED_DIRECTORY_PROPERTY}，将使用内存映射方式加载该目录下的
+ * "multi_pinyin_mapping.bin" 文件，该文件不存在时将使用 classpath 中的多音字词库文件。</p>
+ *
+ * <p>二进制词库文件存在但内容不合法或格式版本不一致时（包括 classpath 中构建生成的二进制文件），加载自动机将抛出 {@link IllegalArgumentException}，
+ * 不会静默回退到文本文件解析。仅当使用了内存映射目录中的自定义字典，且其音节表与 classpath 中的二进制词库不一致时，才会解析文本词库文件。</p>
+ *
  * <p><strong>说明：</strong>{@code PinyinSelectorFactory} 类是线程安全的，可在多个线程中使用同一个实例。</p>
  *
  * @author heimuheimu
@@ -44,85 +52,76 @@ public class PinyinSelectorFactory {
 
     private static final String MULTI_PINYIN_MAPPING_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/multi_pinyin_mapping.txt";
 
+    private static final String MULTI_PINYIN_MAPPING_BINARY_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/multi_pinyin_mapping.bin";
+
     /**
-     * 多音字拼音选择器 Map，Key 为多音字 UNICODE 编码值，Value 为对应的多音字拼音选择器
+     * 根据多音字 UNICODE 编码值获得对应的多音字拼音选择器，如果不存在，则返回 {@code null}。
+     *
+     * @param codePoint 多音字 UNICODE 编码值
+     * @return 多音字拼音选择器，可能为 {@code null}
+     */
+    public static PinyinSelector getSelector(int codePoint) {
+        return AutomatonHolder.AUTOMATON.getSelector(codePoint);
+    }
+
+    /**
+     * 获得由所有多音字拼音选择器编译而成的多音字词组自动机，可对目标文本进行一次线性扫描完成所有多音字的拼音选择。
+     *
+     * <p>自动机在首次调用该方法或 {@link #getSelector(int)} 方法时加载。</p>
+     *
+     * @return 多音字词组自动机
      */
-    private static final Map<Integer, PinyinSelector> PINYIN_SELECTOR_MAP;
+    public static ChineseWordAutomaton getAutomaton() {
+        return AutomatonHolder.AUTOMATON;
+    }
 
-    static {
-        PINYIN_SELECTOR_MAP = new HashMap<>();
-        int lineNumber = 1;
-        try (InputStream in = PinyinDictionaryFactory.class.getResourceAsStream(MULTI_PINYIN_MAPPING_FILE_PATH);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
-            String line;
-            int codePoint = -1;
-            String defaultPinyin = "";
-            Map<String, List<ChineseWordMatcher>>  chineseWordMatcherMap = null;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    char firstChar = line.charAt(0);
-                    if (PinyinDictionaryHelper.isChineseCharacter(firstChar)) {
-                        if (codePoint != -1) {
-                            throw new IllegalArgumentException("Previous PinyinSelector is not saved.");
-                        }
-                        codePoint = firstChar;
-                        defaultPinyin = line.split(",")[1];
-                        chineseWordMatcherMap = new LinkedHashMap<>();
-                    } else if (firstChar >= 'a' && firstChar <= 'z') {
-                        if (codePoint == -1) {
-                            throw new IllegalArgumentException("There is no chinese character unicode code point.");
-                        }
-                        String[] parts = line.split(",");
-                        if (chineseWordMatcherMap.containsKey(parts[0])) {
-                            throw new IllegalArgumentException("Duplicate pinyin: `" + parts[0] + "`. Invalid char: `"
-                                    + (char) codePoint + "`.");
-                        }
-                        List<ChineseWordMatcher> wordMatcherList = new ArrayList<>();
-                        for (int i = 1; i < parts.length; i++) {
-                            String chineseWord = parts[i].trim();
-                            if (!chineseWord.contains("_")) {
-                                wordMatcherList.add(new ChineseWordMatcher(chineseWord, codePoint));
-                            } else {
-                                String[] wordParts = chineseWord.split("_");
-                                int[] pivotalIndexes = new int[wordParts.length - 1];
-                                for (int j = 0; j < pivotalIndexes.length; j++) {
-                                    pivotalIndexes[j] = Integer.parseInt(wordParts[j + 1]);
-                                }
-                                wordMatcherList.add(new ChineseWordMatcher(wordParts[0], pivotalIndexes));
-                            }
-                        }
-                        chineseWordMatcherMap.put(parts[0], wordMatcherList);
-                    } else {
-                        throw new IllegalArgumentException("Unknown first char: `" + firstChar + "`.");
-                    }
-                } else {
-                    if (codePoint != -1) {
-                        PinyinSelector selector = new PinyinSelector(codePoint, defaultPinyin, chineseWordMatcherMap);
-                        PINYIN_SELECTOR_MAP.put(codePoint, selector);
-                        codePoint = -1;
-                        defaultPinyin = "";
-                        chineseWordMatcherMap = null;
-                    }
+    private static ChineseWordAutomaton loadAutomaton() throws IllegalArgumentException {
+        String mappedDirectory = System.getProperty(PinyinDictionaryFactory.MAPPED_DIRECTORY_PROPERTY);
+        boolean mapped = mappedDirectory != null && !mappedDirectory.isEmpty();
+        if (mapped) {
+            Path path = Paths.get(mappedDirectory, "multi_pinyin_mapping.bin");
+            if (Files.exists(path)) {
+                try {
+                    return PinyinSelectorLoader.mapBinary(path, PinyinDictionaryFactory.getDictionary());
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Map binary multi pinyin mapping file failed: `" + path + "`.", e);
                 }
-                lineNumber++;
             }
-            if (codePoint != -1) {
-                PINYIN_SELECTOR_MAP.put(codePoint, new PinyinSelector(codePoint, defaultPinyin, chineseWordMatcherMap));
+        }
+        // 优先使用构建时由文本文件编译生成的二进制文件，二进制文件不存在时使用文本文件。
+        // 词库文件在获取汉字拼音字典前读取，与字典加载并行进行时可减少等待时间
+        ByteBuffer binary;
+        try (InputStream in = PinyinSelectorFactory.class.getResourceAsStream(MULTI_PINYIN_MAPPING_BINARY_FILE_PATH)) {
+            binary = in != null ? PinyinBinaryHelper.readFully(in) : null;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Read binary multi pinyin mapping file failed: `" + MULTI_PINYIN_MAPPING_BINARY_FILE_PATH + "`.", e);
+        }
+        if (binary != null) {
+            PinyinDictionary dictionary = PinyinDictionaryFactory.getDictionary();
+            // 内存映射目录中的自定义字典可能拥有不同的音节表，此时 classpath 中的二进制词库不可用，其它情况下音节表不一致说明构建产物有误
+            if (!mapped || PinyinSelectorLoader.isSyllableTableMatched(binary, dictionary)) {
+                try {
+                    return PinyinSelectorLoader.loadBinary(binary, dictionary);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Load binary multi pinyin mapping file failed: `"
+                            + MULTI_PINYIN_MAPPING_BINARY_FILE_PATH + "`.", e);
+                }
             }
+        }
+        List<PinyinSelector> selectorList;
+        try (InputStream in = PinyinSelectorFactory.class.getResourceAsStream(MULTI_PINYIN_MAPPING_FILE_PATH)) {
+            selectorList = PinyinSelectorLoader.parseSelectors(in);
         } catch (Exception e) {
-            throw new IllegalArgumentException("Load multi pinyin mapping file failed: `" + MULTI_PINYIN_MAPPING_FILE_PATH
-                    + "`. Error line number: `" + lineNumber + "`.", e);
+            throw new IllegalArgumentException("Load multi pinyin mapping file failed: `" + MULTI_PINYIN_MAPPING_FILE_PATH + "`.", e);
         }
+        return new ChineseWordAutomaton(PinyinDictionaryFactory.getDictionary(), selectorList);
     }
 
     /**
-     * 根据多音字 UNICODE 编码值获得对应的多音字拼音选择器，如果不存在，则返回 {@code null}。
-     *
-     * @param codePoint 多音字 UNICODE 编码值
-     * @return 多音字拼音选择器，可能为 {@code null}
+     * 多音字词组自动机持有类，在首次使用时才会加载多音字词库。
      */
-    public static PinyinSelector getSelector(int codePoint) {
-        return PINYIN_SELECTOR_MAP.get(codePoint);
+    private static class AutomatonHolder {
+
+        private static final ChineseWordAutomaton AUTOMATON = loadAutomaton();
     }
 }
@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinBinaryHelper;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 多音字词库加载器，支持从 "multi_pinyin_mapping.txt" 格式的文本文件或由
+ * {@link #writeBinary(ChineseWordAutomaton, PinyinDictionary, OutputStream)} 方法生成的二进制文件中加载多音字词组自动机。
+ *
+ * <p>二进制文件同时包含多音字拼音选择器数据和已编译的自动机数据，加载时无需进行文本解析、校验和自动机编译，文本文件始终是词库内容的唯一来源。
+ * 二进制文件中的音节 ID 依赖于汉字拼音字典的音节表，加载时会校验音节表是否一致。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinSelectorLoader} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinSelectorLoader {
+
+    /**
+     * 二进制多音字词库文件魔数："PYMC"
+     */
+    private static final int BINARY_MAGIC = 0x50594d43;
+
+    /**
+     * 二进制多音字词库文件格式版本号，格式变更时需要递增
+     */
+    private static final int BINARY_VERSION = 1;
+
+    /**
+     * 从 "multi_pinyin_mapping.txt" 格式的文本输入流中解析多音字拼音选择器列表，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @return 多音字拼音选择器列表
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static List<PinyinSelector> parseSelectors(InputStream in) throws IOException, IllegalArgumentException {
+        List<PinyinSelector> selectorList = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 1;
+        try {
+            String line;
+            int codePoint = -1;
+            String defaultPinyin = "";
+            Map<String, List<ChineseWordMatcher>>  chineseWordMatcherMap = null;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    char firstChar = line.charAt(0);
+                    if (PinyinDictionaryHelper.isChineseCharacter(firstChar)) {
+                        if (codePoint != -1) {
+                            throw new IllegalArgumentException("Previous PinyinSelector is not saved.");
+                        }
+                        codePoint = firstChar;
+                        defaultPinyin = line.split(",")[1];
+                        chineseWordMatcherMap = new LinkedHashMap<>();
+                    } else if (firstChar >= 'a' && firstChar <= 'z') {
+                        if (codePoint == -1) {
+                            throw new IllegalArgumentException("There is no chinese character unicode code point.");
+                        }
+                        String[] parts = line.split(",");
+                        if (chineseWordMatcherMap.containsKey(parts[0])) {
+                            throw new IllegalArgumentException("Duplicate pinyin: `" + parts[0] + "`. Invalid char: `"
+                                    + (char) codePoint + "`.");
+                        }
+                        List<ChineseWordMatcher> wordMatcherList = new ArrayList<>();
+                        for (int i = 1; i < parts.length; i++) {
+                            String chineseWord = parts[i].trim();
+                            if (!chineseWord.contains("_")) {
+                                wordMatcherList.add(new ChineseWordMatcher(chineseWord, codePoint));
+                            } else {
+                                String[] wordParts = chineseWord.split("_");
+                                int[] pivotalIndexes = new int[wordParts.length - 1];
+                                for (int j = 0; j < pivotalIndexes.length; j++) {
+                                    pivotalIndexes[j] = Integer.parseInt(wordParts[j + 1]);
+                                }
+                                wordMatcherList.add(new ChineseWordMatcher(wordParts[0], pivotalIndexes));
+                            }
+                        }
+                        chineseWordMatcherMap.put(parts[0], wordMatcherList);
+                    } else {
+                        throw new IllegalArgumentException("Unknown first char: `" + firstChar + "`.");
+                    }
+                } else {
+                    if (codePoint != -1) {
+                        selectorList.add(new PinyinSelector(codePoint, defaultPinyin, chineseWordMatcherMap));
+                        codePoint = -1;
+                        defaultPinyin = "";
+                        chineseWordMatcherMap = null;
+                    }
+                }
+                lineNumber++;
+            }
+            if (codePoint != -1) {
+                selectorList.add(new PinyinSelector(codePoint, defaultPinyin, chineseWordMatcherMap));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid multi pinyin mapping. Error line number: `" + lineNumber + "`.", e);
+        }
+        return selectorList;
+    }
+
+    /**
+     * 从用户词组文本输入流中解析词组拼音 Map，返回的 Map 迭代顺序与文本中的词组顺序一致，该方法不会关闭输入流。
+     *
+     * <p>文本每行包含一个词组及其中每个汉字对应的带有数字声调的拼音，词组与拼音之间使用 "," 分隔，拼音之间使用空格分隔，
+     * 例如 "重庆,chong2 qing4"，以 "#" 开头的行为注释，空行将被忽略。</p>
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @return 词组拼音 Map，Key 为词组，Value 为词组中每个汉字对应的带有数字声调的拼音
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static Map<String, String[]> parsePhrases(InputStream in) throws IOException, IllegalArgumentException {
+        Map<String, String[]> phraseMap = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 1;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    int separatorIndex = line.indexOf(',');
+                    if (separatorIndex < 0) {
+                        throw new IllegalArgumentException("There is no pinyin for phrase: `" + line + "`.");
+                    }
+                    String phrase = line.substring(0, separatorIndex).trim();
+                    String[] pinyinArray = line.substring(separatorIndex + 1).trim().split("\\s+");
+                    for (String pinyin : pinyinArray) {
+                        if (!PinyinDictionaryHelper.isPinyinWithToneNumber(pinyin)) {
+                            throw new IllegalArgumentException("`" + pinyin + "` is not a valid pinyin with tone number.");
+                        }
+                    }
+                    if (phraseMap.put(phrase, pinyinArray) != null) {
+                        throw new IllegalArgumentException("Duplicate phrase: `" + phrase + "`.");
+                    }
+                }
+                lineNumber++;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid phrase mapping. Error line number: `" + lineNumber + "`.", e);
+        }
+        return phraseMap;
+    }
+
+    /**
+     * 从用户词组文本输入流中加载用户词组拼音词典，文本格式请参考 {@link #parsePhrases(InputStream)} 方法，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @param dictionary 汉字拼音字典，用于获取拼音对应的音节 ID
+     * @return 用户词组拼音词典
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static PinyinPhraseDictionary loadPhraseDictionary(InputStream in, PinyinDictionary dictionary)
+            throws IOException, IllegalArgumentException {
+        return new PinyinPhraseDictionary(dictionary, parsePhrases(in));
+    }
+
+    /**
+     * 从 "multi_pinyin_mapping.txt" 格式的文本输入流中加载多音字词组自动机，该方法不会关闭输入流。
+     *
+     * @param in 文本输入流，使用 UTF-8 编码
+     * @param dictionary 汉字拼音字典，用于获取拼音对应的音节 ID
+     * @return 多音字词组自动机
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果文本内容不合法，将抛出此异常
+     */
+    public static ChineseWordAutomaton loadText(InputStream in, PinyinDictionary dictionary) throws IOException, IllegalArgumentException {
+        return new ChineseWordAutomaton(dictionary, parseSelectors(in));
+    }
+
+    /**
+     * 从二进制输入流中加载多音字词组自动机，该方法不会关闭输入流。
+     *
+     * @param in 二进制输入流，内容由 {@link #writeBinary(ChineseWordAutomaton, PinyinDictionary, OutputStream)} 方法生成
+     * @param dictionary 汉字拼音字典，必须与生成二进制文件时使用的字典拥有相同的音节表
+     * @return 多音字词组自动机
+     * @throws IOException 如果读取失败，将抛出此异常
+     * @throws IllegalArgumentException 如果二进制内容不合法、格式版本不一致或音节表不一致，将抛出此异常
+     */
+    public static ChineseWordAutomaton loadBinary(InputStream in, PinyinDictionary dictionary) throws IOException, IllegalArgumentException {
+        return loadBinary(PinyinBinaryHelper.readFully(in), dictionary);
+    }
+
+    /**
+     * 从二进制内容中加载多音字词组自动机，读取将从 {@code buffer} 的当前位置开始。
+     *
+     * @param buffer 二进制内容，由 {@link #writeBinary(ChineseWordAutomaton, PinyinDictionary, OutputStream)} 方法生成
+     * @param dictionary 汉字拼音字典，必须与生成二进制文件时使用的字典拥有相同的音节表
+     * @return 多音字词组自动机
+     * @throws IllegalArgumentException 如果二进制内容不合法、格式版本不一致或音节表不一致，将抛出此异常
+     */
+    public static ChineseWordAutomaton loadBinary(ByteBuffer buffer, PinyinDictionary dictionary) throws IllegalArgumentException {
+        try {
+            checkHeader(buffer, dictionary);
+            // 选择器表仅引用二进制内容，多音字拼音选择器在首次使用时才创建，加载过程不会解析词组
+            PinyinSelectorTable selectorTable = new PinyinSelectorTable(buffer);
+            int[] rootTransitions = PinyinBinaryHelper.readIntArray(buffer);
+            int[] childOffsets = PinyinBinaryHelper.readIntArray(buffer);
+            char[] childCharacters = PinyinBinaryHelper.readCharArray(buffer);
+            int[] childStates = PinyinBinaryHelper.readIntArray(buffer);
+            int[] failureStates = PinyinBinaryHelper.readIntArray(buffer);
+            int[] outputLinks = PinyinBinaryHelper.readIntArray(buffer);
+            int[] outputOffsets = PinyinBinaryHelper.readIntArray(buffer);
+            int[] outputBackDistances = PinyinBinaryHelper.readIntArray(buffer);
+            int[] outputValues = PinyinBinaryHelper.readIntArray(buffer);
+            short[] defaultSyllableIds = PinyinBinaryHelper.readShortArray(buffer);
+            int maxWordLength = buffer.getInt();
+            return new ChineseWordAutomaton(rootTransitions, childOffsets, childCharacters, childStates, failureStates,
+                    outputLinks, outputOffsets, outputBackDistances, outputValues, defaultSyllableIds, maxWordLength,
+                    () -> selectorTable.createSelectorMap(dictionary));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid binary multi pinyin mapping.", e);
+        }
+    }
+
+    /**
+     * 使用内存映射方式（{@code FileChannel.map}）加载二进制多音字词库文件，自动机数据和多音字词组数据直接从映射的堆外内存中读取，
+     * 不会复制到 Java 堆中，同一台机器上映射同一文件的多个 JVM 进程将共享操作系统页缓存中的同一份数据。
+     *
+     * <p>返回的自动机仅在调用 {@link ChineseWordAutomaton#getSelector(int)} 方法时按需创建对应的多音字拼音选择器。</p>
+     *
+     * <p><strong>注意：</strong>自动机使用期间不应修改或删除该文件，映射的内存在自动机实例被回收后才会释放。</p>
+     *
+     * @param path 二进制多音字词库文件路径，文件内容由 {@link #writeBinary(ChineseWordAutomaton, PinyinDictionary, OutputStream)} 方法生成
+     * @param dictionary 汉字拼音字典，必须与生成二进制文件时使用的字典拥有相同的音节表
+     * @return 多音字词组自动机
+     * @throws IOException 如果文件映射失败，将抛出此异常
+     * @throws IllegalArgumentException 如果二进制内容不合法、格式版本不一致或音节表不一致，将抛出此异常
+     */
+    public static ChineseWordAutomaton mapBinary(Path path, PinyinDictionary dictionary) throws IOException, IllegalArgumentException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            checkHeader(buffer, dictionary);
+            PinyinSelectorTable selectorTable = new PinyinSelectorTable(buffer);
+            return new MappedChineseWordAutomaton(selectorTable, buffer, dictionary);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid binary multi pinyin mapping: `" + path + "`.", e);
+        }
+    }
+
+    /**
+     * 将多音字词组自动机以二进制格式写入输出流，该方法不会关闭输出流。
+     *
+     * @param automaton 多音字词组自动机
+     * @param dictionary 构造自动机时使用的汉字拼音字典
+     * @param out 输出流
+     * @throws IOException 如果写入失败，将抛出此异常
+     */
+    public static void writeBinary(ChineseWordAutomaton automaton, PinyinDictionary dictionary, OutputStream out) throws IOException {
+        DataOutputStream dataOutput = new DataOutputStream(out);
+        PinyinBinaryHelper.writeHeader(dataOutput, BINARY_MAGIC, BINARY_VERSION);
+        dataOutput.writeInt(dictionary.getSyllableCount());
+        dataOutput.writeInt(getSyllableHash(dictionary));
+        writeSelectors(dataOutput, automaton.getSelectorMap(), dictionary);
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getRootTransitions());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getChildOffsets());
+        PinyinBinaryHelper.writeCharArray(dataOutput, automaton.getChildCharacters());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getChildStates());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getFailureStates());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getOutputLinks());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getOutputOffsets());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getOutputBackDistances());
+        PinyinBinaryHelper.writeIntArray(dataOutput, automaton.getOutputValues());
+        PinyinBinaryHelper.writeShortArray(dataOutput, automaton.getDefaultSyllableIds());
+        dataOutput.writeInt(automaton.getMaxWordLength());
+        dataOutput.flush();
+    }
+
+    /**
+     * 将多音字拼音选择器以扁平化的数组形式写入输出流，选择器按 UNICODE 编码值升序排列。
+     */
+    private static void writeSelectors(DataOutputStream dataOutput, Map<Integer, PinyinSelector> selectorMap,
+                                       PinyinDictionary dictionary) throws IOException {
+        Map<Integer, PinyinSelector> sortedSelectorMap = new TreeMap<>(selectorMap);
+        int selectorCount = sortedSelectorMap.size();
+        int[] selectorCodePoints = new int[selectorCount];
+        short[] selectorDefaultSyllableIds = new short[selectorCount];
+        int[] selectorPinyinOffsets = new int[selectorCount + 1];
+        List<Short> pinyinSyllableIdList = new ArrayList<>();
+        List<Integer> pinyinMatcherOffsetList = new ArrayList<>();
+        List<Integer> matcherWordOffsetList = new ArrayList<>();
+        StringBuilder wordCharacters = new StringBuilder();
+        List<Integer> matcherPivotalOffsetList = new ArrayList<>();
+        List<Integer> pivotalIndexList = new ArrayList<>();
+        int selectorIndex = 0;
+        for (PinyinSelector selector : sortedSelectorMap.values()) {
+            selectorCodePoints[selectorIndex] = selector.getCodePoint();
+            selectorDefaultSyllableIds[selectorIndex] = (short) dictionary.getSyllableId(selector.getDefaultPinyin());
+            selectorPinyinOffsets[selectorIndex] = pinyinSyllableIdList.size();
+            for (Map.Entry<String, List<ChineseWordMatcher>> entry : selector.getChineseWordMatcherMap().entrySet()) {
+                pinyinSyllableIdList.add((short) dictionary.getSyllableId(entry.getKey()));
+                pinyinMatcherOffsetList.add(matcherWordOffsetList.size());
+                for (ChineseWordMatcher matcher : entry.getValue()) {
+                    matcherWordOffsetList.add(wordCharacters.length());
+                    wordCharacters.append(matcher.getWordCharacters());
+                    matcherPivotalOffsetList.add(pivotalIndexList.size());
+                    for (int pivotalCharacterIndex : matcher.getPivotalCharacterIndexes()) {
+                        pivotalIndexList.add(pivotalCharacterIndex);
+                    }
+                }
+            }
+            selectorIndex++;
+        }
+        selectorPinyinOffsets[selectorCount] = pinyinSyllableIdList.size();
+        pinyinMatcherOffsetList.add(matcherWordOffsetList.size());
+        matcherWordOffsetList.add(wordCharacters.length());
+        matcherPivotalOffsetList.add(pivotalIndexList.size());
+
+        short[] pinyinSyllableIds = new short[pinyinSyllableIdList.size()];
+        for (int i = 0; i < pinyinSyllableIds.length; i++) {
+            pinyinSyllableIds[i] = pinyinSyllableIdList.get(i);
+        }
+        PinyinBinaryHelper.writeIntArray(dataOutput, selectorCodePoints);
+        PinyinBinaryHelper.writeShortArray(dataOutput, selectorDefaultSyllableIds);
+        PinyinBinaryHelper.writeIntArray(dataOutput, selectorPinyinOffsets);
+        PinyinBinaryHelper.writeShortArray(dataOutput, pinyinSyllableIds);
+        PinyinBinaryHelper.writeIntArray(dataOutput, toIntArray(pinyinMatcherOffsetList));
+        PinyinBinaryHelper.writeIntArray(dataOutput, toIntArray(matcherWordOffsetList));
+        PinyinBinaryHelper.writeCharArray(dataOutput, wordCharacters.toString().toCharArray());
+        PinyinBinaryHelper.writeIntArray(dataOutput, toIntArray(matcherPivotalOffsetList));
+        PinyinBinaryHelper.writeIntArray(dataOutput, toIntArray(pivotalIndexList));
+    }
+
+    /**
+     * 判断二进制内容生成时使用的字典音节表与 {@code dictionary} 的音节表是否一致，不会修改 {@code buffer} 的位置。
+     *
+     * @param buffer 二进制内容，由 {@link #writeBinary(ChineseWordAutomaton, PinyinDictionary, OutputStream)} 方法生成
+     * @param dictionary 汉字拼音字典
+     * @return 音节表是否一致
+     * @throws IllegalArgumentException 如果二进制内容不合法或格式版本不一致，将抛出此异常
+     */
+    static boolean isSyllableTableMatched(ByteBuffer buffer, PinyinDictionary dictionary) throws IllegalArgumentException {
+        try {
+            ByteBuffer header = buffer.duplicate();
+            PinyinBinaryHelper.checkHeader(header, BINARY_MAGIC, BINARY_VERSION);
+            return header.getInt() == dictionary.getSyllableCount() && header.getInt() == getSyllableHash(dictionary);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid binary multi pinyin mapping.", e);
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, PinyinDictionary dictionary) throws IllegalArgumentException {
+        PinyinBinaryHelper.checkHeader(buffer, BINARY_MAGIC, BINARY_VERSION);
+        int syllableCount = buffer.getInt();
+        int syllableHash = buffer.getInt();
+        if (syllableCount != dictionary.getSyllableCount() || syllableHash != getSyllableHash(dictionary)) {
+            throw new IllegalArgumentException("Syllable table of pinyin dictionary is not matched.");
+        }
+    }
+
+    private static int getSyllableHash(PinyinDictionary dictionary) {
+        int hash = 1;
+        for (int i = 0; i < dictionary.getSyllableCount(); i++) {
+            hash = 31 * hash + dictionary.getSyllable(i).hashCode();
+        }
+        return hash;
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
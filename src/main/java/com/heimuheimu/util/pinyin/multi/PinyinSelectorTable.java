@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinBinaryHelper;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以扁平化数组形式存储的多音字拼音选择器表，数组内容为二进制多音字词库文件中的视图，不会复制到 Java 堆中，
+ * 仅在需要时创建对应的 {@link PinyinSelector} 实例。
+ *
+ * <p>选择器按 UNICODE 编码值升序排列，数组格式由 {@link PinyinSelectorLoader#writeBinary} 方法定义。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinSelectorTable} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+class PinyinSelectorTable {
+
+    /**
+     * 选择器对应的 UNICODE 编码值，升序排列
+     */
+    private final IntBuffer selectorCodePoints;
+
+    /**
+     * 选择器默认拼音对应的音节 ID
+     */
+    private final ShortBuffer selectorDefaultSyllableIds;
+
+    /**
+     * 选择器拼音在 {@link #pinyinSyllableIds} 中的起始位置，长度为选择器数量 + 1
+     */
+    private final IntBuffer selectorPinyinOffsets;
+
+    /**
+     * 选择器拼音对应的音节 ID
+     */
+    private final ShortBuffer pinyinSyllableIds;
+
+    /**
+     * 拼音对应的词组匹配器在 {@link #matcherWordOffsets} 中的起始位置，长度为拼音数量 + 1
+     */
+    private final IntBuffer pinyinMatcherOffsets;
+
+    /**
+     * 词组匹配器的词组在 {@link #wordCharacters} 中的起始位置，长度为词组匹配器数量 + 1
+     */
+    private final IntBuffer matcherWordOffsets;
+
+    /**
+     * 所有词组字符
+     */
+    private final CharBuffer wordCharacters;
+
+    /**
+     * 词组匹配器的关键字符索引在 {@link #pivotalIndexes} 中的起始位置，长度为词组匹配器数量 + 1
+     */
+    private final IntBuffer matcherPivotalOffsets;
+
+    /**
+     * 所有词组匹配器的关键字符索引
+     */
+    private final IntBuffer pivotalIndexes;
+
+    /**
+     * 从二进制内容的当前位置读取多音字拼音选择器表，读取完成后 {@code buffer} 的位置将移动到选择器表之后。
+     *
+     * @param buffer 二进制内容
+     * @throws IllegalArgumentException 如果二进制内容不合法，将抛出此异常
+     */
+    PinyinSelectorTable(ByteBuffer buffer) throws IllegalArgumentException {
+        this.selectorCodePoints = PinyinBinaryHelper.sliceIntArray(buffer);
+        this.selectorDefaultSyllableIds = PinyinBinaryHelper.sliceShortArray(buffer);
+        this.selectorPinyinOffsets = PinyinBinaryHelper.sliceIntArray(buffer);
+        this.pinyinSyllableIds = PinyinBinaryHelper.sliceShortArray(buffer);
+        this.pinyinMatcherOffsets = PinyinBinaryHelper.sliceIntArray(buffer);
+        this.matcherWordOffsets = PinyinBinaryHelper.sliceIntArray(buffer);
+        this.wordCharacters = PinyinBinaryHelper.sliceCharArray(buffer);
+        this.matcherPivotalOffsets = PinyinBinaryHelper.sliceIntArray(buffer);
+        this.pivotalIndexes = PinyinBinaryHelper.sliceIntArray(buffer);
+        if (selectorDefaultSyllableIds.limit() != size() || selectorPinyinOffsets.limit() != size() + 1) {
+            throw new IllegalArgumentException("Invalid selector table. Selector count: `" + size() + "`.");
+        }
+    }
+
+    /**
+     * 获得选择器数量。
+     *
+     * @return 选择器数量
+     */
+    int size() {
+        return selectorCodePoints.limit();
+    }
+
+    /**
+     * 获得 UNICODE 编码值对应的选择器索引位置，如果不存在，返回 -1。
+     *
+     * @param codePoint UNICODE 编码值
+     * @return 选择器索引位置，可能返回 -1
+     */
+    int indexOf(int codePoint) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleCodePoint = selectorCodePoints.get(middle);
+            if (middleCodePoint < codePoint) {
+                low = middle + 1;
+            } else if (middleCodePoint > codePoint) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 创建选择器表中的所有多音字拼音选择器。
+     *
+     * @param dictionary 汉字拼音字典，用于获取音节 ID 对应的拼音
+     * @return 多音字拼音选择器 Map，Key 为多音字 UNICODE 编码值，Value 为对应的多音字拼音选择器
+     */
+    Map<Integer, PinyinSelector> createSelectorMap(PinyinDictionary dictionary) {
+        Map<Integer, PinyinSelector> selectorMap = new HashMap<>(size() * 2);
+        for (int i = 0; i < size(); i++) {
+            PinyinSelector selector = createSelector(i, dictionary);
+            selectorMap.put(selector.getCodePoint(), selector);
+        }
+        return selectorMap;
+    }
+
+    /**
+     * 创建指定索引位置对应的多音字拼音选择器。
+     *
+     * @param index 选择器索引位置
+     * @param dictionary 汉字拼音字典，用于获取音节 ID 对应的拼音
+     * @return 多音字拼音选择器
+     */
+    PinyinSelector createSelector(int index, PinyinDictionary dictionary) {
+        int codePoint = selectorCodePoints.get(index);
+        Map<String, List<ChineseWordMatcher>> chineseWordMatcherMap = new LinkedHashMap<>();
+        for (int j = selectorPinyinOffsets.get(index); j < selectorPinyinOffsets.get(index + 1); j++) {
+            int matcherStart = pinyinMatcherOffsets.get(j);
+            int matcherEnd = pinyinMatcherOffsets.get(j + 1);
+            List<ChineseWordMatcher> wordMatcherList = new ArrayList<>(matcherEnd - matcherStart);
+            for (int k = matcherStart; k < matcherEnd; k++) {
+                int wordStart = matcherWordOffsets.get(k);
+                String chineseWord = wordCharacters.subSequence(wordStart, matcherWordOffsets.get(k + 1)).toString();
+                int pivotalStart = matcherPivotalOffsets.get(k);
+                int[] pivotalCharacterIndexes = new int[matcherPivotalOffsets.get(k + 1) - pivotalStart];
+                for (int m = 0; m < pivotalCharacterIndexes.length; m++) {
+                    pivotalCharacterIndexes[m] = pivotalIndexes.get(pivotalStart + m);
+                }
+                wordMatcherList.add(new ChineseWordMatcher(chineseWord, pivotalCharacterIndexes));
+            }
+            chineseWordMatcherMap.put(dictionary.getSyllable(pinyinSyllableIds.get(j)), wordMatcherList);
+        }
+        return new PinyinSelector(codePoint, dictionary.getSyllable(selectorDefaultSyllableIds.get(index)), chineseWordMatcherMap);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.dictionary.TonelessSyllableTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 拼音音节前缀匹配器，将模糊拼音规则编译为一个基于字母的确定性有限状态自动机，用于判断输入的拼音片段是否为某个音节（或其模糊拼写）的前缀。
+ *
+ * <p>构造时为音节表中的每个音节生成其在所有已启用规则下的拼写（每个音节最多 2<sup>n</sup> 种，n 为该音节适用的规则数量，
+ * 通常不超过 4 种），并将所有拼写构建为一棵字典树，每个状态使用位图记录可以由该状态对应的前缀匹配的音节。匹配时逐个字母进行状态转换，
+ * 每个字母仅需一次数组访问，判断音节是否匹配仅需一次位运算，因此模糊匹配的开销与精确匹配相同，且不会将查询文本展开为多个变体。</p>
+ *
+ * <p>状态 0 为初始状态，不匹配任何音节；状态转换失败时返回 -1。</p>
+ *
+ * <p><strong>说明：</strong>{@code FuzzyPinyinMatcher} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class FuzzyPinyinMatcher {
+
+    /**
+     * 已启用的模糊拼音规则
+     */
+    private final Set<FuzzyPinyinRule> rules;
+
+    /**
+     * 状态转换表，状态 s 在字母 'a' + i 上的转换结果位于 transitions[s * 26 + i]，-1 表示转换失败
+     */
+    private final int[] transitions;
+
+    /**
+     * 每个状态可匹配的音节位图，状态 s 的位图位于 [s * maskWordCount, (s + 1) * maskWordCount) 区间
+     */
+    private final long[] syllableMasks;
+
+    /**
+     * 每个状态的音节位图所占用的 long 数量
+     */
+    private final int maskWordCount;
+
+    /**
+     * 每个状态可匹配的最小无声调音节 ID
+     */
+    private final int[] minTonelessIds;
+
+    /**
+     * 每个状态可匹配的最大无声调音节 ID
+     */
+    private final int[] maxTonelessIds;
+
+    /**
+     * 根据不带声调的音节表和模糊拼音规则构造一个拼音音节前缀匹配器，如果规则为空，则为精确匹配。
+     *
+     * @param syllableTable 不带声调的音节表
+     * @param rules 模糊拼音规则，不允许为 {@code null}
+     */
+    public FuzzyPinyinMatcher(TonelessSyllableTable syllableTable, Set<FuzzyPinyinRule> rules) {
+        this.rules = Collections.unmodifiableSet(new LinkedHashSet<>(rules));
+        this.maskWordCount = (syllableTable.getSyllableCount() + 63) >>> 6;
+        List<int[]> transitionList = new ArrayList<>();
+        List<long[]> maskList = new ArrayList<>();
+        transitionList.add(createTransition());
+        maskList.add(new long[maskWordCount]);
+        for (int tonelessId = 0; tonelessId < syllableTable.getSyllableCount(); tonelessId++) {
+            for (String spelling : getSpellings(syllableTable.getSyllable(tonelessId))) {
+                int state = 0;
+                for (int i = 0; i < spelling.length(); i++) {
+                    int letter = spelling.charAt(i) - 'a';
+                    if (letter < 0 || letter >= 26) {
+                        break;
+                    }
+                    int nextState = transitionList.get(state)[letter];
+                    if (nextState < 0) {
+                        nextState = transitionList.size();
+                        transitionList.get(state)[letter] = nextState;
+                        transitionList.add(createTransition());
+                        maskList.add(new long[maskWordCount]);
+                    }
+                    state = nextState;
+                    maskList.get(state)[tonelessId >>> 6] |= 1L << tonelessId;
+                }
+            }
+        }
+        int stateCount = transitionList.size();
+        this.transitions = new int[stateCount * 26];
+        this.syllableMasks = new long[stateCount * maskWordCount];
+        this.minTonelessIds = new int[stateCount];
+        this.maxTonelessIds = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            System.arraycopy(transitionList.get(state), 0, transitions, state * 26, 26);
+            long[] mask = maskList.get(state);
+            System.arraycopy(mask, 0, syllableMasks, state * maskWordCount, maskWordCount);
+            minTonelessIds[state] = Integer.MAX_VALUE;
+            maxTonelessIds[state] = -1;
+            for (int i = 0; i < maskWordCount; i++) {
+                if (mask[i] != 0) {
+                    if (minTonelessIds[state] == Integer.MAX_VALUE) {
+                        minTonelessIds[state] = (i << 6) + Long.numberOfTrailingZeros(mask[i]);
+                    }
+                    maxTonelessIds[state] = (i << 6) + 63 - Long.numberOfLeadingZeros(mask[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获得已启用的模糊拼音规则，返回的集合不可修改。
+     *
+     * @return 模糊拼音规则
+     */
+    public Set<FuzzyPinyinRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 获得状态在指定字母上的转换结果，如果转换失败或字母不是小写字母，返回 -1。
+     *
+     * @param state 当前状态，不允许小于 0
+     * @param letter 小写字母
+     * @return 转换后的状态，可能返回 -1
+     */
+    public int nextState(int state, char letter) {
+        return letter >= 'a' && letter <= 'z' ? transitions[state * 26 + letter - 'a'] : -1;
+    }
+
+    /**
+     * 判断状态对应的拼音前缀是否可以匹配指定的音节。
+     *
+     * @param state 当前状态，不允许小于 0
+     * @param tonelessId 无声调音节 ID
+     * @return 是否匹配
+     */
+    public boolean matches(int state, int tonelessId) {
+        return (syllableMasks[state * maskWordCount + (tonelessId >>> 6)] & (1L << tonelessId)) != 0;
+    }
+
+    /**
+     * 获得状态可匹配的最小无声调音节 ID，如果状态不匹配任何音节，返回 {@link Integer#MAX_VALUE}。
+     *
+     * @param state 当前状态，不允许小于 0
+     * @return 最小无声调音节 ID
+     */
+    public int getMinTonelessId(int state) {
+        return minTonelessIds[state];
+    }
+
+    /**
+     * 获得状态可匹配的最大无声调音节 ID，如果状态不匹配任何音节，返回 -1。
+     *
+     * @param state 当前状态，不允许小于 0
+     * @return 最大无声调音节 ID
+     */
+    public int getMaxTonelessId(int state) {
+        return maxTonelessIds[state];
+    }
+
+    /**
+     * 判断拼音片段是否为指定音节（或其模糊拼写）的非空前缀。
+     *
+     * @param prefix 拼音片段，仅包含小写字母
+     * @param tonelessId 无声调音节 ID
+     * @return 是否匹配
+     */
+    public boolean matchesPrefix(CharSequence prefix, int tonelessId) {
+        int state = 0;
+        for (int i = 0; i < prefix.length() && state >= 0; i++) {
+            state = nextState(state, prefix.charAt(i));
+        }
+        return state > 0 && matches(state, tonelessId);
+    }
+
+    @Override
+    public String toString() {
+        return "FuzzyPinyinMatcher{" +
+                "rules=" + rules +
+                ", stateCount=" + minTonelessIds.length +
+                '}';
+    }
+
+    private Set<String> getSpellings(String syllable) {
+        Set<String> spellingSet = new LinkedHashSet<>();
+        spellingSet.add(syllable);
+        for (FuzzyPinyinRule rule : rules) {
+            for (String spelling : spellingSet.toArray(new String[0])) {
+                String fuzzySpelling = rule.apply(spelling);
+                if (fuzzySpelling != null) {
+                    spellingSet.add(fuzzySpelling);
+                }
+            }
+        }
+        return spellingSet;
+    }
+
+    private static int[] createTransition() {
+        int[] transition = new int[26];
+        Arrays.fill(transition, -1);
+        return transition;
+    }
+}
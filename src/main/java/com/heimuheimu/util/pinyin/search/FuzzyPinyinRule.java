@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+/**
+ * 模糊拼音规则，每条规则定义一组可以互相替换的声母或韵母，例如启用 {@link #Z_ZH} 规则后，输入 "zan" 可以匹配 "zhan"，输入 "zhan" 也可以匹配 "zan"。
+ *
+ * @author heimuheimu
+ */
+public enum FuzzyPinyinRule {
+
+    /**
+     * 声母 z 和 zh 模糊
+     */
+    Z_ZH("z", "zh", true),
+
+    /**
+     * 声母 c 和 ch 模糊
+     */
+    C_CH("c", "ch", true),
+
+    /**
+     * 声母 s 和 sh 模糊
+     */
+    S_SH("s", "sh", true),
+
+    /**
+     * 声母 n 和 l 模糊
+     */
+    N_L("n", "l", true),
+
+    /**
+     * 韵母 in 和 ing 模糊
+     */
+    IN_ING("in", "ing", false),
+
+    /**
+     * 韵母 en 和 eng 模糊
+     */
+    EN_ENG("en", "eng", false);
+
+    /**
+     * 规则中的第一个声母或韵母
+     */
+    private final String first;
+
+    /**
+     * 规则中的第二个声母或韵母
+     */
+    private final String second;
+
+    /**
+     * 是否为声母规则，如果为 {@code false}，则为韵母规则
+     */
+    private final boolean initial;
+
+    FuzzyPinyinRule(String first, String second, boolean initial) {
+        this.first = first;
+        this.second = second;
+        this.initial = initial;
+    }
+
+    /**
+     * 获得音节在该规则下的另一种拼写，如果音节不适用于该规则，返回 {@code null}。
+     *
+     * @param syllable 不带声调的拼音
+     * @return 音节的另一种拼写，可能返回 {@code null}
+     */
+    public String apply(String syllable) {
+        if (initial) {
+            // 优先匹配较长的声母，避免将 "zh" 中的 "z" 识别为声母 "z"
+            String longer = first.length() >= second.length() ? first : second;
+            String shorter = longer == first ? second : first;
+            if (syllable.startsWith(longer) && syllable.length() > longer.length()) {
+                return shorter + syllable.substring(longer.length());
+            } else if (syllable.startsWith(shorter) && syllable.length() > shorter.length()) {
+                return longer + syllable.substring(shorter.length());
+            }
+        } else {
+            if (syllable.endsWith(second) && syllable.length() > second.length()) {
+                return syllable.substring(0, syllable.length() - second.length()) + first;
+            } else if (syllable.endsWith(first) && syllable.length() > first.length()) {
+                return syllable.substring(0, syllable.length() - first.length()) + second;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,678 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.PinyinConverter;
+import com.heimuheimu.util.pinyin.PinyinUtil;
+import com.heimuheimu.util.pinyin.dictionary.TonelessSyllableTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 拼音前缀搜索索引，支持使用全拼、首字母或两者混合的输入对中文条目进行前缀搜索，例如 "zhangsan"、"zs"、"zhangs" 均可搜索到 "张三"。
+ *
+ * <p>每个条目的文本按 {@link PinyinConverter#getSyllableIds(CharSequence, int, int, int[], int)} 的结果（多音字按词组选择）转换为
+ * 不带声调的音节序列，音节表与音节 ID 来自同一个拼音转换器，字典热加载不会影响已构造的索引，存储在以无声调音节 ID 为边的字典树中，没有拼音的字符不参与索引。字典树节点使用基本类型数组保存子节点和条目，
+ * 每个节点记录子树中的最大权重，搜索时按权重从高到低进行最优优先遍历，找到 {@code limit} 个结果后立即结束。</p>
+ *
+ * <p>查询文本被划分为若干段，每段依次匹配条目音节序列中对应音节的非空前缀，查询文本匹配完成后，该节点子树中的所有条目均为搜索结果。
+ * 查询文本中的大写字母会转换为小写字母，"ü" 视为 "v"，其它非字母字符将被忽略。</p>
+ *
+ * <p>可在构造时指定模糊拼音规则，例如启用 {@link FuzzyPinyinRule#Z_ZH} 后，"zs" 和 "zangsan" 均可以搜索到 "张三"。
+ * 模糊规则被编译为 {@link FuzzyPinyinMatcher} 状态机，搜索时与精确匹配使用同一套流程，不会将查询文本展开为多个变体。</p>
+ *
+ * <p>索引更新时复制从根节点到目标节点路径上的所有节点，并通过 volatile 变量发布新的根节点，因此搜索操作无需加锁，
+ * 且每次搜索均基于一个一致的索引快照；多个更新操作之间互斥执行。加载大量条目时应使用 {@link #addAll(long[], CharSequence[], double[])}
+ * 方法，字典树仅被构建一次，不会为每个条目复制路径上的节点。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinSearchIndex} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinSearchIndex {
+
+    /**
+     * 每个条目最多索引的音节数量，超出部分不参与索引
+     */
+    public static final int MAX_INDEXED_SYLLABLE_COUNT = 64;
+
+    private static final Node EMPTY_NODE = new Node(new int[0], new Node[0], new long[0], new double[0], new String[0]);
+
+    /**
+     * 不带声调的音节表
+     */
+    private final TonelessSyllableTable syllableTable;
+
+    /**
+     * 拼音音节前缀匹配器
+     */
+    private final FuzzyPinyinMatcher matcher;
+
+    /**
+     * 获取条目音节 ID 的拼音转换器，与 {@link #syllableTable} 使用同一个汉字拼音字典
+     */
+    private final PinyinConverter converter;
+
+    /**
+     * 条目音节序列 Map，Key 为条目 ID，Value 为条目对应的无声调音节 ID 序列，仅在更新操作中访问
+     */
+    private final Map<Long, int[]> entryKeyMap = new HashMap<>();
+
+    /**
+     * 当前索引快照
+     */
+    private volatile Snapshot snapshot = new Snapshot(EMPTY_NODE, 0);
+
+    /**
+     * 构造一个空的拼音前缀搜索索引，使用精确匹配，以及构造时 {@link PinyinUtil#getConverter()} 返回的拼音转换器。
+     */
+    public PinyinSearchIndex() {
+        this(EnumSet.noneOf(FuzzyPinyinRule.class));
+    }
+
+    /**
+     * 构造一个空的拼音前缀搜索索引，并启用指定的模糊拼音规则，使用构造时 {@link PinyinUtil#getConverter()} 返回的拼音转换器。
+     *
+     * @param fuzzyRules 模糊拼音规则，不允许为 {@code null}，如果为空，则为精确匹配
+     */
+    public PinyinSearchIndex(Set<FuzzyPinyinRule> fuzzyRules) {
+        this(PinyinUtil.getConverter(), fuzzyRules);
+    }
+
+    /**
+     * 构造一个空的拼音前缀搜索索引，音节表和条目音节 ID 均来自 {@code converter}，并启用指定的模糊拼音规则。
+     *
+     * @param converter 拼音转换器，不允许为 {@code null}
+     * @param fuzzyRules 模糊拼音规则，不允许为 {@code null}，如果为空，则为精确匹配
+     * @throws NullPointerException 如果 {@code converter} 为 {@code null}，将抛出此异常
+     */
+    public PinyinSearchIndex(PinyinConverter converter, Set<FuzzyPinyinRule> fuzzyRules) throws NullPointerException {
+        this.converter = Objects.requireNonNull(converter, "Converter could not be null.");
+        this.syllableTable = converter.getDictionary().getTonelessSyllableTable();
+        this.matcher = new FuzzyPinyinMatcher(syllableTable, fuzzyRules);
+    }
+
+    /**
+     * 向索引中添加一个条目，如果条目 ID 已存在，将替换原有条目。
+     *
+     * @param id 条目 ID
+     * @param text 条目文本，不允许为 {@code null}
+     * @param weight 条目权重，权重越高的条目在搜索结果中越靠前，不允许为 {@code NaN}
+     * @throws IllegalArgumentException 如果 {@code text} 为 {@code null} 或 {@code weight} 为 {@code NaN}，将抛出此异常
+     */
+    public void add(long id, CharSequence text, double weight) throws IllegalArgumentException {
+        if (text == null) {
+            throw new IllegalArgumentException("Add entry failed: `text could not be null`. Id: `" + id + "`.");
+        }
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("Add entry failed: `weight could not be NaN`. Id: `" + id + "`. Text: `"
+                    + text + "`.");
+        }
+        int[] keys = getKeys(text);
+        synchronized (entryKeyMap) {
+            Node root = snapshot.root;
+            int size = snapshot.size;
+            int[] oldKeys = entryKeyMap.put(id, keys);
+            if (oldKeys != null) {
+                root = remove(root, oldKeys, 0, id);
+            } else {
+                size++;
+            }
+            root = insert(root, keys, 0, id, text.toString(), weight);
+            snapshot = new Snapshot(root, size);
+        }
+    }
+
+    /**
+     * 向索引中批量添加条目，如果条目 ID 已存在，将替换原有条目，同一个条目 ID 在本次添加的条目中出现多次时，使用最后一次出现的条目。
+     *
+     * <p>已有条目与新增条目合并后一次性构建字典树，并仅发布一次索引快照，不会为每个条目复制路径上的节点，适用于启动时加载大量条目。
+     * 构建期间搜索操作继续使用原有的索引快照，参数校验失败时索引不会发生变化。</p>
+     *
+     * @param ids 条目 ID 数组，不允许为 {@code null}
+     * @param texts 条目文本数组，长度与 {@code ids} 一致，不允许为 {@code null}，也不允许包含 {@code null}
+     * @param weights 条目权重数组，长度与 {@code ids} 一致，不允许为 {@code null}，也不允许包含 {@code NaN}
+     * @throws NullPointerException 如果 {@code ids}、{@code texts} 或 {@code weights} 为 {@code null}，将抛出此异常
+     * @throws IllegalArgumentException 如果数组长度不一致、条目文本为 {@code null} 或条目权重为 {@code NaN}，将抛出此异常
+     */
+    public void addAll(long[] ids, CharSequence[] texts, double[] weights) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(ids, "Ids could not be null.");
+        Objects.requireNonNull(texts, "Texts could not be null.");
+        Objects.requireNonNull(weights, "Weights could not be null.");
+        if (texts.length != ids.length || weights.length != ids.length) {
+            throw new IllegalArgumentException("Add entries failed: `array lengths are not equal`. Ids length: `" + ids.length
+                    + "`. Texts length: `" + texts.length + "`. Weights length: `" + weights.length + "`.");
+        }
+        int[][] keys = new int[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            if (texts[i] == null) {
+                throw new IllegalArgumentException("Add entry failed: `text could not be null`. Id: `" + ids[i] + "`.");
+            }
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("Add entry failed: `weight could not be NaN`. Id: `" + ids[i] + "`. Text: `"
+                        + texts[i] + "`.");
+            }
+            keys[i] = getKeys(texts[i]);
+        }
+        synchronized (entryKeyMap) {
+            // 同一个条目 ID 仅保留最后一次出现的条目，已有条目中被替换的条目不参与构建
+            Map<Long, Integer> indexMap = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                indexMap.put(ids[i], i);
+            }
+            EntryBuffer entries = new EntryBuffer(snapshot.size + indexMap.size());
+            collectEntries(snapshot.root, indexMap, entries);
+            for (int i = 0; i < ids.length; i++) {
+                if (indexMap.get(ids[i]) == i) {
+                    entries.add(keys[i], ids[i], texts[i].toString(), weights[i]);
+                    entryKeyMap.put(ids[i], keys[i]);
+                }
+            }
+            snapshot = new Snapshot(entries.size > 0 ? build(entries) : EMPTY_NODE, entryKeyMap.size());
+        }
+    }
+
+    /**
+     * 从索引中删除指定 ID 的条目，如果条目不存在，返回 {@code false}。
+     *
+     * @param id 条目 ID
+     * @return 是否删除成功
+     */
+    public boolean remove(long id) {
+        synchronized (entryKeyMap) {
+            int[] keys = entryKeyMap.remove(id);
+            if (keys != null) {
+                snapshot = new Snapshot(remove(snapshot.root, keys, 0, id), snapshot.size - 1);
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 获得索引中的条目数量。
+     *
+     * @return 条目数量
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * 获得索引使用的不带声调的音节表。
+     *
+     * @return 不带声调的音节表
+     */
+    public TonelessSyllableTable getSyllableTable() {
+        return syllableTable;
+    }
+
+    /**
+     * 获得索引使用的拼音音节前缀匹配器。
+     *
+     * @return 拼音音节前缀匹配器
+     */
+    public FuzzyPinyinMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * 使用拼音前缀进行搜索，返回按权重从高到低排列的最多 {@code limit} 个条目，该方法不会阻塞。
+     *
+     * <p>如果查询文本中不包含字母，将返回索引中权重最高的 {@code limit} 个条目。</p>
+     *
+     * @param query 拼音查询文本，可以为全拼、首字母或两者混合，例如 "zhangsan"、"zs"、"zhangs"
+     * @param limit 最大结果数量
+     * @return 搜索结果列表，不会返回 {@code null}
+     */
+    public List<PinyinSearchResult> search(CharSequence query, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        char[] queryCharacters = normalizeQuery(query);
+        Node root = snapshot.root;
+        List<PinyinSearchResult> resultList = new ArrayList<>(Math.min(limit, 16));
+        PriorityQueue<SearchState> stateQueue = new PriorityQueue<>();
+        int[] matcherStates = new int[queryCharacters.length + 1];
+        stateQueue.add(new SearchState(root, 0, -1, root.maxWeight));
+        while (!stateQueue.isEmpty() && resultList.size() < limit) {
+            SearchState state = stateQueue.poll();
+            Node node = state.node;
+            if (state.postingIndex >= 0) {
+                int postingIndex = state.postingIndex;
+                if (!containsId(resultList, node.ids[postingIndex])) {
+                    resultList.add(new PinyinSearchResult(node.ids[postingIndex], node.texts[postingIndex], node.weights[postingIndex]));
+                }
+                if (++postingIndex < node.ids.length) {
+                    stateQueue.add(new SearchState(node, state.queryPosition, postingIndex, node.weights[postingIndex]));
+                }
+            } else if (state.queryPosition == queryCharacters.length) {
+                // 查询文本已匹配完成，子树中的所有条目均为搜索结果
+                if (node.ids.length > 0) {
+                    stateQueue.add(new SearchState(node, state.queryPosition, 0, node.weights[0]));
+                }
+                for (Node child : node.children) {
+                    stateQueue.add(new SearchState(child, state.queryPosition, -1, child.maxWeight));
+                }
+            } else {
+                // matcherStates[j] 为查询文本下一段长度为 j 时对应的匹配器状态
+                int queryPosition = state.queryPosition;
+                int maxSegmentLength = 0;
+                int matcherState = 0;
+                while (queryPosition + maxSegmentLength < queryCharacters.length) {
+                    matcherState = matcher.nextState(matcherState, queryCharacters[queryPosition + maxSegmentLength]);
+                    if (matcherState < 0) {
+                        break;
+                    }
+                    matcherStates[++maxSegmentLength] = matcherState;
+                }
+                if (maxSegmentLength > 0) {
+                    int firstState = matcherStates[1];
+                    int childEnd = lowerBound(node.childKeys, matcher.getMaxTonelessId(firstState) + 1);
+                    for (int i = lowerBound(node.childKeys, matcher.getMinTonelessId(firstState)); i < childEnd; i++) {
+                        int childKey = node.childKeys[i];
+                        Node child = node.children[i];
+                        // 查询文本的下一段可以是该音节（或其模糊拼写）的任意非空前缀
+                        for (int j = 1; j <= maxSegmentLength && matcher.matches(matcherStates[j], childKey); j++) {
+                            stateQueue.add(new SearchState(child, queryPosition + j, -1, child.maxWeight));
+                        }
+                    }
+                }
+            }
+        }
+        return resultList;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinSearchIndex{" +
+                "size=" + size() +
+                '}';
+    }
+
+    private int[] getKeys(CharSequence text) {
+        int[] syllableIds = new int[text.length()];
+        converter.getSyllableIds(text, 0, text.length(), syllableIds, 0);
+        int keyCount = 0;
+        for (int i = 0; i < syllableIds.length && keyCount < MAX_INDEXED_SYLLABLE_COUNT; i++) {
+            if (syllableIds[i] >= 0) {
+                syllableIds[keyCount++] = syllableTable.getTonelessIdBySyllableId(syllableIds[i]);
+            }
+        }
+        return Arrays.copyOf(syllableIds, keyCount);
+    }
+
+    private static char[] normalizeQuery(CharSequence query) {
+        char[] queryCharacters = new char[query.length()];
+        int length = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                queryCharacters[length++] = c;
+            } else if (c >= 'A' && c <= 'Z') {
+                queryCharacters[length++] = (char) (c - 'A' + 'a');
+            } else if (c == 'ü' || c == 'Ü') {
+                queryCharacters[length++] = 'v';
+            }
+        }
+        return length == queryCharacters.length ? queryCharacters : Arrays.copyOf(queryCharacters, length);
+    }
+
+    private static boolean containsId(List<PinyinSearchResult> resultList, long id) {
+        for (PinyinSearchResult result : resultList) {
+            if (result.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 返回有序数组中第一个大于等于 {@code key} 的元素位置。
+     */
+    private static int lowerBound(int[] array, int key) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Node insert(Node node, int[] keys, int depth, long id, String text, double weight) {
+        if (depth == keys.length) {
+            return node.withPosting(id, text, weight);
+        }
+        Node child = node.getChild(keys[depth]);
+        return node.withChild(keys[depth], insert(child != null ? child : EMPTY_NODE, keys, depth + 1, id, text, weight));
+    }
+
+    /**
+     * 收集字典树中未被替换的条目，条目的音节序列从 {@link #entryKeyMap} 中获得。
+     */
+    private void collectEntries(Node node, Map<Long, Integer> replacedIndexMap, EntryBuffer entries) {
+        for (int i = 0; i < node.ids.length; i++) {
+            if (!replacedIndexMap.containsKey(node.ids[i])) {
+                entries.add(entryKeyMap.get(node.ids[i]), node.ids[i], node.texts[i], node.weights[i]);
+            }
+        }
+        for (Node child : node.children) {
+            collectEntries(child, replacedIndexMap, entries);
+        }
+    }
+
+    /**
+     * 根据条目一次性构建字典树，条目按音节序列的字典序排列后，每个节点对应一个连续区间，每个节点仅创建一次。
+     */
+    private static Node build(EntryBuffer entries) {
+        Integer[] order = new Integer[entries.size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // 音节序列相同的条目按权重从高到低排列，权重相同时保持添加顺序，与逐个添加的结果一致
+        Arrays.sort(order, (a, b) -> {
+            int result = compareKeys(entries.keys[a], entries.keys[b]);
+            if (result == 0) {
+                result = Double.compare(entries.weights[b], entries.weights[a]);
+            }
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+        return build(entries, order, 0, order.length, 0);
+    }
+
+    private static Node build(EntryBuffer entries, Integer[] order, int from, int to, int depth) {
+        // 音节序列长度等于当前深度的条目位于区间开头，为当前节点的条目
+        int postingEnd = from;
+        while (postingEnd < to && entries.keys[order[postingEnd]].length == depth) {
+            postingEnd++;
+        }
+        long[] ids = new long[postingEnd - from];
+        double[] weights = new double[ids.length];
+        String[] texts = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int index = order[from + i];
+            ids[i] = entries.ids[index];
+            weights[i] = entries.weights[index];
+            texts[i] = entries.texts[index];
+        }
+        int childCount = 0;
+        for (int i = postingEnd; i < to; i++) {
+            if (i == postingEnd || entries.keys[order[i]][depth] != entries.keys[order[i - 1]][depth]) {
+                childCount++;
+            }
+        }
+        int[] childKeys = new int[childCount];
+        Node[] children = new Node[childCount];
+        int childStart = postingEnd;
+        for (int i = 0; i < childCount; i++) {
+            int childKey = entries.keys[order[childStart]][depth];
+            int childEnd = childStart + 1;
+            while (childEnd < to && entries.keys[order[childEnd]][depth] == childKey) {
+                childEnd++;
+            }
+            childKeys[i] = childKey;
+            children[i] = build(entries, order, childStart, childEnd, depth + 1);
+            childStart = childEnd;
+        }
+        return new Node(childKeys, children, ids, weights, texts);
+    }
+
+    /**
+     * 按字典序比较两个音节序列，前缀排在前面。
+     */
+    private static int compareKeys(int[] keys, int[] otherKeys) {
+        int length = Math.min(keys.length, otherKeys.length);
+        for (int i = 0; i < length; i++) {
+            if (keys[i] != otherKeys[i]) {
+                return Integer.compare(keys[i], otherKeys[i]);
+            }
+        }
+        return Integer.compare(keys.length, otherKeys.length);
+    }
+
+    private static Node remove(Node node, int[] keys, int depth, long id) {
+        if (depth == keys.length) {
+            return node.withoutPosting(id);
+        }
+        Node child = node.getChild(keys[depth]);
+        if (child == null) {
+            return node;
+        }
+        return node.withChild(keys[depth], remove(child, keys, depth + 1, id));
+    }
+
+    /**
+     * 批量构建字典树时使用的条目缓冲区，条目数据使用数组保存。
+     */
+    private static class EntryBuffer {
+
+        private int[][] keys;
+
+        private long[] ids;
+
+        private String[] texts;
+
+        private double[] weights;
+
+        private int size = 0;
+
+        private EntryBuffer(int capacity) {
+            this.keys = new int[capacity][];
+            this.ids = new long[capacity];
+            this.texts = new String[capacity];
+            this.weights = new double[capacity];
+        }
+
+        private void add(int[] key, long id, String text, double weight) {
+            if (size == ids.length) {
+                int capacity = Math.max(16, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            texts[size] = text;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * 索引快照，包含字典树根节点和条目数量。
+     */
+    private static class Snapshot {
+
+        private final Node root;
+
+        private final int size;
+
+        private Snapshot(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 不可变的字典树节点，子节点按无声调音节 ID 升序排列，条目按权重从高到低排列。
+     */
+    private static class Node {
+
+        private final int[] childKeys;
+
+        private final Node[] children;
+
+        private final long[] ids;
+
+        private final double[] weights;
+
+        private final String[] texts;
+
+        /**
+         * 子树中的最大权重，包括当前节点的条目
+         */
+        private final double maxWeight;
+
+        private Node(int[] childKeys, Node[] children, long[] ids, double[] weights, String[] texts) {
+            this.childKeys = childKeys;
+            this.children = children;
+            this.ids = ids;
+            this.weights = weights;
+            this.texts = texts;
+            double maxWeight = weights.length > 0 ? weights[0] : Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                maxWeight = Math.max(maxWeight, child.maxWeight);
+            }
+            this.maxWeight = maxWeight;
+        }
+
+        private boolean isEmpty() {
+            return ids.length == 0 && children.length == 0;
+        }
+
+        private Node getChild(int key) {
+            int index = Arrays.binarySearch(childKeys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node withChild(int key, Node child) {
+            int index = Arrays.binarySearch(childKeys, key);
+            if (index >= 0) {
+                if (child.isEmpty()) {
+                    return new Node(removeInt(childKeys, index), removeElement(children, new Node[children.length - 1], index),
+                            ids, weights, texts);
+                } else {
+                    Node[] newChildren = children.clone();
+                    newChildren[index] = child;
+                    return new Node(childKeys, newChildren, ids, weights, texts);
+                }
+            } else if (!child.isEmpty()) {
+                index = -index - 1;
+                int[] newChildKeys = new int[childKeys.length + 1];
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(childKeys, 0, newChildKeys, 0, index);
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildKeys[index] = key;
+                newChildren[index] = child;
+                System.arraycopy(childKeys, index, newChildKeys, index + 1, childKeys.length - index);
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                return new Node(newChildKeys, newChildren, ids, weights, texts);
+            } else {
+                return this;
+            }
+        }
+
+        private Node withPosting(long id, String text, double weight) {
+            int index = 0;
+            while (index < weights.length && weights[index] >= weight) {
+                index++;
+            }
+            long[] newIds = new long[ids.length + 1];
+            double[] newWeights = new double[weights.length + 1];
+            String[] newTexts = new String[texts.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, index);
+            System.arraycopy(weights, 0, newWeights, 0, index);
+            System.arraycopy(texts, 0, newTexts, 0, index);
+            newIds[index] = id;
+            newWeights[index] = weight;
+            newTexts[index] = text;
+            System.arraycopy(ids, index, newIds, index + 1, ids.length - index);
+            System.arraycopy(weights, index, newWeights, index + 1, weights.length - index);
+            System.arraycopy(texts, index, newTexts, index + 1, texts.length - index);
+            return new Node(childKeys, children, newIds, newWeights, newTexts);
+        }
+
+        private Node withoutPosting(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] newIds = new long[ids.length - 1];
+                    double[] newWeights = new double[weights.length - 1];
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    System.arraycopy(weights, 0, newWeights, 0, i);
+                    System.arraycopy(weights, i + 1, newWeights, i, weights.length - i - 1);
+                    return new Node(childKeys, children, newIds, newWeights, removeElement(texts, new String[texts.length - 1], i));
+                }
+            }
+            return this;
+        }
+
+        private static int[] removeInt(int[] array, int index) {
+            int[] newArray = new int[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+            return newArray;
+        }
+
+        private static <T> T[] removeElement(T[] array, T[] newArray, int index) {
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+            return newArray;
+        }
+    }
+
+    /**
+     * 搜索状态，{@code postingIndex} 大于等于 0 时表示节点中第 {@code postingIndex} 个条目，否则表示查询文本已匹配到
+     * {@code queryPosition} 位置的节点，{@code bound} 为该状态能够产生的结果的最大权重。
+     */
+    private static class SearchState implements Comparable<SearchState> {
+
+        private final Node node;
+
+        private final int queryPosition;
+
+        private final int postingIndex;
+
+        private final double bound;
+
+        private SearchState(Node node, int queryPosition, int postingIndex, double bound) {
+            this.node = node;
+            this.queryPosition = queryPosition;
+            this.postingIndex = postingIndex;
+            this.bound = bound;
+        }
+
+        @Override
+        public int compareTo(SearchState o) {
+            return Double.compare(o.bound, bound);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+/**
+ * 拼音前缀搜索结果。
+ *
+ * <p><strong>说明：</strong>{@code PinyinSearchResult} 类是线程安全的，可在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinSearchResult {
+
+    /**
+     * 条目 ID
+     */
+    private final long id;
+
+    /**
+     * 条目文本
+     */
+    private final String text;
+
+    /**
+     * 条目权重
+     */
+    private final double weight;
+
+    /**
+     * 构造一个拼音前缀搜索结果。
+     *
+     * @param id 条目 ID
+     * @param text 条目文本
+     * @param weight 条目权重
+     */
+    public PinyinSearchResult(long id, String text, double weight) {
+        this.id = id;
+        this.text = text;
+        this.weight = weight;
+    }
+
+    /**
+     * 获得条目 ID。
+     *
+     * @return 条目 ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 获得条目文本。
+     *
+     * @return 条目文本
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 获得条目权重。
+     *
+     * @return 条目权重
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinSearchResult{" +
+                "id=" + id +
+                ", text='" + text + '\'' +
+                ", weight=" + weight +
+                '}';
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 拼音音节切分网格，由 {@link PinyinSyllableSegmenter} 生成，记录无空格拼音输入的所有合法切分方式。
+ *
+ * <p>网格中的位置为规范化后的字母索引（大写字母转换为小写字母，"ü" 视为 "v"，分隔符 "'" 和空白字符被移除并作为强制分隔位置）。
+ * 从位置 {@code i} 出发的每条边表示一个从 {@code i} 开始的音节，网格中只保留位于完整切分路径上的边，例如 "xian" 包含
+ * [0, 4) "xian"、[0, 2) "xi" 和 [2, 4) "an" 三条边。</p>
+ *
+ * <p>网格内部使用可复用的 {@code int[]} 数组，数组容量仅在输入变长时增长，同一个实例可用于多次切分，切分过程不会创建子字符串。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinSyllableLattice} 类是非线程安全的，不允许在多个线程中使用同一个实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinSyllableLattice {
+
+    /**
+     * 无法完整切分时的最少音节数量
+     */
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * 规范化后的字母数组
+     */
+    char[] letters = new char[16];
+
+    /**
+     * 强制分隔位置，为 {@code true} 时表示音节不能跨越该位置
+     */
+    boolean[] forcedBoundaries = new boolean[17];
+
+    /**
+     * 可以从输入开头到达的位置，仅在切分过程中使用
+     */
+    boolean[] reachablePositions = new boolean[17];
+
+    /**
+     * 规范化后的字母数量
+     */
+    int length;
+
+    /**
+     * 从位置 i 出发的边位于 [edgeOffsets[i], edgeOffsets[i + 1]) 区间，同一位置的边按音节长度从长到短排列
+     */
+    int[] edgeOffsets = new int[18];
+
+    /**
+     * 边的结束位置（不包含）
+     */
+    int[] edgeEnds = new int[64];
+
+    /**
+     * 边对应的无声调音节 ID，不完整音节为 -1
+     */
+    int[] edgeTonelessIds = new int[64];
+
+    /**
+     * 从位置 i 到输入结尾的最少音节数量，无法完整切分时为 {@link #UNREACHABLE}
+     */
+    int[] minSyllableCounts = new int[17];
+
+    /**
+     * 从位置 i 到输入结尾的切分方式数量，超过 {@link Long#MAX_VALUE} 时为 {@link Long#MAX_VALUE}
+     */
+    long[] segmentationCounts = new long[17];
+
+    /**
+     * 获得规范化后的输入长度，即网格中的最大位置。
+     *
+     * @return 规范化后的输入长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获得规范化后输入中指定位置的字母。
+     *
+     * @param position 字母位置
+     * @return 小写字母
+     * @throws IndexOutOfBoundsException 如果位置不合法，将抛出此异常
+     */
+    public char getLetter(int position) throws IndexOutOfBoundsException {
+        checkPosition(position, length - 1);
+        return letters[position];
+    }
+
+    /**
+     * 判断输入是否可以完整切分为合法音节。
+     *
+     * @return 是否可以完整切分
+     */
+    public boolean isSegmentable() {
+        return minSyllableCounts[0] != UNREACHABLE;
+    }
+
+    /**
+     * 判断输入是否存在多种切分方式，例如 "xian" 可以切分为 "xian" 或 "xi'an"。
+     *
+     * @return 是否存在多种切分方式
+     */
+    public boolean isAmbiguous() {
+        return getSegmentationCount() > 1;
+    }
+
+    /**
+     * 获得切分方式数量，如果无法完整切分，返回 0。
+     *
+     * @return 切分方式数量
+     */
+    public long getSegmentationCount() {
+        return isSegmentable() ? segmentationCounts[0] : 0;
+    }
+
+    /**
+     * 获得从指定位置出发的边数量。
+     *
+     * @param position 起始位置
+     * @return 边数量
+     * @throws IndexOutOfBoundsException 如果位置不合法，将抛出此异常
+     */
+    public int getEdgeCount(int position) throws IndexOutOfBoundsException {
+        checkPosition(position, length);
+        return edgeOffsets[position + 1] - edgeOffsets[position];
+    }
+
+    /**
+     * 获得从指定位置出发的第 {@code index} 条边的结束位置（不包含），同一位置的边按音节长度从长到短排列。
+     *
+     * @param position 起始位置
+     * @param index 边索引
+     * @return 结束位置
+     * @throws IndexOutOfBoundsException 如果位置或边索引不合法，将抛出此异常
+     */
+    public int getEdgeEnd(int position, int index) throws IndexOutOfBoundsException {
+        return edgeEnds[getEdgeIndex(position, index)];
+    }
+
+    /**
+     * 获得从指定位置出发的第 {@code index} 条边对应的无声调音节 ID，如果为末尾的不完整音节，返回 -1。
+     *
+     * @param position 起始位置
+     * @param index 边索引
+     * @return 无声调音节 ID，可能返回 -1
+     * @throws IndexOutOfBoundsException 如果位置或边索引不合法，将抛出此异常
+     */
+    public int getEdgeTonelessId(int position, int index) throws IndexOutOfBoundsException {
+        return edgeTonelessIds[getEdgeIndex(position, index)];
+    }
+
+    /**
+     * 获得最少音节数量的切分方式，音节数量相同时优先选择靠前音节较长的切分方式，例如 "xian" 切分为 "xian"，
+     * "fangan" 切分为 "fang'an"。
+     *
+     * <p>切分结果为每个音节的结束位置（不包含），按顺序写入 {@code output} 数组，该方法不会创建任何对象。</p>
+     *
+     * @param output 输出数组，长度应不小于 {@link #getBestSyllableCount()}
+     * @return 音节数量，如果无法完整切分，返回 0
+     * @throws IndexOutOfBoundsException 如果输出数组长度不足，将抛出此异常
+     */
+    public int getBestSegmentation(int[] output) throws IndexOutOfBoundsException {
+        if (!isSegmentable()) {
+            return 0;
+        }
+        int count = 0;
+        int position = 0;
+        while (position < length) {
+            for (int i = edgeOffsets[position]; i < edgeOffsets[position + 1]; i++) {
+                if (minSyllableCounts[edgeEnds[i]] == minSyllableCounts[position] - 1) {
+                    position = edgeEnds[i];
+                    break;
+                }
+            }
+            output[count++] = position;
+        }
+        return count;
+    }
+
+    /**
+     * 获得最少音节数量的切分方式中的音节数量，如果无法完整切分，返回 0。
+     *
+     * @return 音节数量
+     */
+    public int getBestSyllableCount() {
+        return isSegmentable() ? minSyllableCounts[0] : 0;
+    }
+
+    /**
+     * 获得最多 {@code limit} 种切分方式，按音节数量从少到多排列，每种切分方式为各音节的结束位置（不包含）组成的数组。
+     *
+     * <p>该方法会为每种切分方式创建一个数组，对性能敏感的场景建议直接遍历网格中的边或使用 {@link #getBestSegmentation(int[])} 方法。</p>
+     *
+     * @param limit 最大切分方式数量
+     * @return 切分方式列表，不会返回 {@code null}
+     */
+    public List<int[]> getSegmentations(int limit) {
+        List<int[]> segmentationList = new ArrayList<>();
+        if (isSegmentable() && limit > 0) {
+            // 按音节数量逐层枚举，保证结果按音节数量从少到多排列
+            int maxSyllableCount = length;
+            int[] path = new int[length];
+            for (int syllableCount = minSyllableCounts[0]; syllableCount <= maxSyllableCount && segmentationList.size() < limit; syllableCount++) {
+                collectSegmentations(0, 0, syllableCount, path, segmentationList, limit);
+            }
+        }
+        return segmentationList;
+    }
+
+    /**
+     * 将指定区间内的字母作为字符串返回，通常用于获得某条边对应的拼音。
+     *
+     * @param start 起始位置（包含）
+     * @param end 结束位置（不包含）
+     * @return 字母组成的字符串
+     * @throws IndexOutOfBoundsException 如果区间不合法，将抛出此异常
+     */
+    public String substring(int start, int end) throws IndexOutOfBoundsException {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range: `[" + start + ", " + end + ")`. Length: `" + length + "`.");
+        }
+        return new String(letters, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinSyllableLattice{" +
+                "input='" + new String(letters, 0, length) + '\'' +
+                ", segmentationCount=" + getSegmentationCount() +
+                '}';
+    }
+
+    /**
+     * 清空网格，并确保数组容量足以容纳指定长度的输入。
+     */
+    void reset(int capacity) {
+        if (letters.length < capacity) {
+            int newCapacity = Math.max(capacity, letters.length * 2);
+            letters = new char[newCapacity];
+            forcedBoundaries = new boolean[newCapacity + 1];
+            reachablePositions = new boolean[newCapacity + 1];
+            edgeOffsets = new int[newCapacity + 2];
+            minSyllableCounts = new int[newCapacity + 1];
+            segmentationCounts = new long[newCapacity + 1];
+        } else {
+            Arrays.fill(forcedBoundaries, 0, capacity + 1, false);
+        }
+        length = 0;
+    }
+
+    /**
+     * 确保边数组容量不小于指定值。
+     */
+    void ensureEdgeCapacity(int capacity) {
+        if (edgeEnds.length < capacity) {
+            int newCapacity = Math.max(capacity, edgeEnds.length * 2);
+            edgeEnds = Arrays.copyOf(edgeEnds, newCapacity);
+            edgeTonelessIds = Arrays.copyOf(edgeTonelessIds, newCapacity);
+        }
+    }
+
+    private void collectSegmentations(int position, int depth, int syllableCount, int[] path, List<int[]> segmentationList, int limit) {
+        if (position == length) {
+            if (depth == syllableCount) {
+                segmentationList.add(Arrays.copyOf(path, depth));
+            }
+            return;
+        }
+        for (int i = edgeOffsets[position]; i < edgeOffsets[position + 1] && segmentationList.size() < limit; i++) {
+            int end = edgeEnds[i];
+            if (depth + 1 + minSyllableCounts[end] <= syllableCount) {
+                path[depth] = end;
+                collectSegmentations(end, depth + 1, syllableCount, path, segmentationList, limit);
+            }
+        }
+    }
+
+    private int getEdgeIndex(int position, int index) throws IndexOutOfBoundsException {
+        int count = getEdgeCount(position);
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Invalid edge index: `" + index + "`. Edge count: `" + count + "`. Position: `"
+                    + position + "`.");
+        }
+        return edgeOffsets[position] + index;
+    }
+
+    private void checkPosition(int position, int maxPosition) throws IndexOutOfBoundsException {
+        if (position < 0 || position > maxPosition) {
+            throw new IndexOutOfBoundsException("Invalid position: `" + position + "`. Length: `" + length + "`.");
+        }
+    }
+}
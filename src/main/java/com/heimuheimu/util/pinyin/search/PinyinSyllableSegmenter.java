@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.dictionary.TonelessSyllableTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 拼音音节切分器，将无空格的拼音输入（例如 "xianggang"、"zhongguoren"）切分为合法音节，切分结果为一个 {@link PinyinSyllableLattice} 网格，
+ * 包含所有的切分方式，并可快速获得最少音节数量的切分方式。
+ *
+ * <p>切分器使用由音节表中所有音节构建的字典树，从每个位置出发沿字典树最多前进最长音节长度个字母，因此切分的时间复杂度与输入长度成线性关系。
+ * 切分过程仅使用网格中可复用的基本类型数组，不会创建子字符串，适用于在每次按键时执行。</p>
+ *
+ * <p>输入中的大写字母会转换为小写字母，"ü" 视为 "v"，分隔符 "'" 和空白字符作为强制分隔位置（例如 "xi'an" 只能切分为 "xi" 和 "an"），
+ * 其它字符将被忽略。</p>
+ *
+ * <p><strong>说明：</strong>{@code PinyinSyllableSegmenter} 类是线程安全的，可在多个线程中使用同一个实例，但每个线程应使用独立的
+ * {@link PinyinSyllableLattice} 实例。</p>
+ *
+ * @author heimuheimu
+ */
+public class PinyinSyllableSegmenter {
+
+    /**
+     * 字典树状态转换表，状态 s 在字母 'a' + i 上的转换结果位于 transitions[s * 26 + i]，-1 表示转换失败，状态 0 为根节点
+     */
+    private final int[] transitions;
+
+    /**
+     * 状态对应的完整音节的无声调音节 ID，如果该状态不是一个完整音节，值为 -1
+     */
+    private final int[] stateTonelessIds;
+
+    /**
+     * 最长音节的字母数量
+     */
+    private final int maxSyllableLength;
+
+    /**
+     * 根据不带声调的音节表构造一个拼音音节切分器。
+     *
+     * @param syllableTable 不带声调的音节表
+     */
+    public PinyinSyllableSegmenter(TonelessSyllableTable syllableTable) {
+        List<int[]> transitionList = new ArrayList<>();
+        transitionList.add(createTransition());
+        int maxSyllableLength = 0;
+        // 字典树的状态数量不超过音节字母总数 + 1
+        int stateCapacity = 1;
+        for (int tonelessId = 0; tonelessId < syllableTable.getSyllableCount(); tonelessId++) {
+            stateCapacity += syllableTable.getSyllableCharacters(tonelessId).length;
+        }
+        int[] stateTonelessIds = new int[stateCapacity];
+        Arrays.fill(stateTonelessIds, -1);
+        for (int tonelessId = 0; tonelessId < syllableTable.getSyllableCount(); tonelessId++) {
+            char[] syllable = syllableTable.getSyllableCharacters(tonelessId);
+            int state = 0;
+            for (char c : syllable) {
+                int nextState = transitionList.get(state)[c - 'a'];
+                if (nextState < 0) {
+                    nextState = transitionList.size();
+                    transitionList.get(state)[c - 'a'] = nextState;
+                    transitionList.add(createTransition());
+                }
+                state = nextState;
+            }
+            stateTonelessIds[state] = tonelessId;
+            maxSyllableLength = Math.max(maxSyllableLength, syllable.length);
+        }
+        this.transitions = new int[transitionList.size() * 26];
+        for (int i = 0; i < transitionList.size(); i++) {
+            System.arraycopy(transitionList.get(i), 0, transitions, i * 26, 26);
+        }
+        this.stateTonelessIds = Arrays.copyOf(stateTonelessIds, transitionList.size());
+        this.maxSyllableLength = maxSyllableLength;
+    }
+
+    /**
+     * 将拼音输入切分为合法音节，结果写入可复用的网格中，网格中的原有内容将被清空。
+     *
+     * @param input 拼音输入，不允许为 {@code null}
+     * @param lattice 可复用的切分网格，不允许为 {@code null}
+     * @return 切分网格，即 {@code lattice}
+     */
+    public PinyinSyllableLattice segment(CharSequence input, PinyinSyllableLattice lattice) {
+        return segment(input, false, lattice);
+    }
+
+    /**
+     * 将拼音输入切分为合法音节，结果写入可复用的网格中，网格中的原有内容将被清空。
+     *
+     * <p>如果 {@code allowPartialLast} 为 {@code true}，输入末尾的音节允许为某个音节的前缀，适用于用户仍在输入的场景，
+     * 例如 "zhongg" 可以切分为 "zhong" 和 "g"，不完整音节对应的无声调音节 ID 为 -1。</p>
+     *
+     * @param input 拼音输入，不允许为 {@code null}
+     * @param allowPartialLast 末尾的音节是否允许为不完整音节
+     * @param lattice 可复用的切分网格，不允许为 {@code null}
+     * @return 切分网格，即 {@code lattice}
+     */
+    public PinyinSyllableLattice segment(CharSequence input, boolean allowPartialLast, PinyinSyllableLattice lattice) {
+        normalize(input, lattice);
+        int length = lattice.length;
+        char[] letters = lattice.letters;
+        boolean[] forcedBoundaries = lattice.forcedBoundaries;
+        lattice.ensureEdgeCapacity(length * (maxSyllableLength + 1));
+        int[] edgeOffsets = lattice.edgeOffsets;
+        int[] edgeEnds = lattice.edgeEnds;
+        int[] edgeTonelessIds = lattice.edgeTonelessIds;
+        // 生成从每个位置出发的所有音节，同一位置的边按音节长度从长到短排列
+        int edgeCount = 0;
+        for (int start = 0; start < length; start++) {
+            edgeOffsets[start] = edgeCount;
+            int state = 0;
+            for (int end = start; end < length && end - start < maxSyllableLength; end++) {
+                if (end > start && forcedBoundaries[end]) {
+                    break;
+                }
+                state = transitions[state * 26 + letters[end] - 'a'];
+                if (state < 0) {
+                    break;
+                }
+                if (stateTonelessIds[state] >= 0) {
+                    edgeEnds[edgeCount] = end + 1;
+                    edgeTonelessIds[edgeCount++] = stateTonelessIds[state];
+                } else if (allowPartialLast && end + 1 == length) {
+                    edgeEnds[edgeCount] = end + 1;
+                    edgeTonelessIds[edgeCount++] = -1;
+                }
+            }
+            reverse(edgeEnds, edgeTonelessIds, edgeOffsets[start], edgeCount);
+        }
+        edgeOffsets[length] = edgeCount;
+        edgeOffsets[length + 1] = edgeCount;
+        // 从后向前计算每个位置到输入结尾的最少音节数量和切分方式数量
+        int[] minSyllableCounts = lattice.minSyllableCounts;
+        long[] segmentationCounts = lattice.segmentationCounts;
+        minSyllableCounts[length] = 0;
+        segmentationCounts[length] = 1;
+        for (int position = length - 1; position >= 0; position--) {
+            int minSyllableCount = PinyinSyllableLattice.UNREACHABLE;
+            long segmentationCount = 0;
+            for (int i = edgeOffsets[position]; i < edgeOffsets[position + 1]; i++) {
+                int end = edgeEnds[i];
+                if (minSyllableCounts[end] != PinyinSyllableLattice.UNREACHABLE) {
+                    minSyllableCount = Math.min(minSyllableCount, minSyllableCounts[end] + 1);
+                    segmentationCount += segmentationCounts[end];
+                    if (segmentationCount < 0) {
+                        segmentationCount = Long.MAX_VALUE;
+                    }
+                }
+            }
+            minSyllableCounts[position] = minSyllableCount;
+            segmentationCounts[position] = segmentationCount;
+        }
+        // 仅保留位于完整切分路径上的边：起始位置可以从输入开头到达，且结束位置可以到达输入结尾
+        boolean[] reachable = lattice.reachablePositions;
+        Arrays.fill(reachable, 0, length + 1, false);
+        reachable[0] = true;
+        int validEdgeCount = 0;
+        for (int position = 0; position < length; position++) {
+            int start = edgeOffsets[position];
+            int end = edgeOffsets[position + 1];
+            edgeOffsets[position] = validEdgeCount;
+            if (reachable[position] && minSyllableCounts[position] != PinyinSyllableLattice.UNREACHABLE) {
+                for (int i = start; i < end; i++) {
+                    if (minSyllableCounts[edgeEnds[i]] != PinyinSyllableLattice.UNREACHABLE) {
+                        reachable[edgeEnds[i]] = true;
+                        edgeEnds[validEdgeCount] = edgeEnds[i];
+                        edgeTonelessIds[validEdgeCount++] = edgeTonelessIds[i];
+                    }
+                }
+            }
+        }
+        edgeOffsets[length] = validEdgeCount;
+        edgeOffsets[length + 1] = validEdgeCount;
+        return lattice;
+    }
+
+    @Override
+    public String toString() {
+        return "PinyinSyllableSegmenter{" +
+                "stateCount=" + stateTonelessIds.length +
+                ", maxSyllableLength=" + maxSyllableLength +
+                '}';
+    }
+
+    private static void normalize(CharSequence input, PinyinSyllableLattice lattice) {
+        lattice.reset(input.length());
+        char[] letters = lattice.letters;
+        boolean[] forcedBoundaries = lattice.forcedBoundaries;
+        int length = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                letters[length++] = c;
+            } else if (c >= 'A' && c <= 'Z') {
+                letters[length++] = (char) (c - 'A' + 'a');
+            } else if (c == 'ü' || c == 'Ü') {
+                letters[length++] = 'v';
+            } else if (c == '\'' || Character.isWhitespace(c)) {
+                forcedBoundaries[length] = true;
+            }
+        }
+        lattice.length = length;
+    }
+
+    private static void reverse(int[] ends, int[] tonelessIds, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int end = ends[i];
+            ends[i] = ends[j];
+            ends[j] = end;
+            int tonelessId = tonelessIds[i];
+            tonelessIds[i] = tonelessIds[j];
+            tonelessIds[j] = tonelessId;
+        }
+    }
+
+    private static int[] createTransition() {
+        int[] transition = new int[26];
+        Arrays.fill(transition, -1);
+        return transition;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.metrics.PinyinConversionType;
+import com.heimuheimu.util.pinyin.multi.PinyinPhraseDictionary;
+import com.heimuheimu.util.pinyin.multi.PinyinSelectorFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link PinyinConverter} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinConverter {
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    /**
+     * 对不包含用户词组拼音词典的拼音转换器进行测试，转换结果需与 {@link PinyinUtil} 一致
+     */
+    @Test
+    public void testDefault() {
+        PinyinConverter converter = new PinyinConverter.Builder().build();
+        Assert.assertSame(DICTIONARY, converter.getDictionary());
+        Assert.assertSame(PinyinSelectorFactory.getAutomaton(), converter.getAutomaton());
+        Assert.assertTrue(converter.getPhraseDictionaries().isEmpty());
+        String text = "两岁能数数的小孩已数见不鲜了。乐亭县";
+        Assert.assertEquals(PinyinUtil.toPinyinWithToneNumber(text), converter.toPinyinWithToneNumber(text));
+        Assert.assertEquals(PinyinUtil.toPinyinWithToneMark(text), converter.toPinyinWithToneMark(text));
+        Assert.assertEquals(PinyinUtil.toPinyinWithoutTone(text), converter.toPinyinWithoutTone(text));
+        Assert.assertEquals(PinyinUtil.toPinyinInitials(text), converter.toPinyinInitials(text));
+    }
+
+    /**
+     * 对 {@link PinyinRenderer#getSharedRenderer(PinyinDictionary, PinyinConversionType)} 方法进行测试，
+     * 使用同一个汉字拼音字典的拼音转换器共享固定格式的拼音渲染表
+     */
+    @Test
+    public void testSharedRenderer() {
+        PinyinConversionType[] conversionTypes = {PinyinConversionType.TONE_NUMBER, PinyinConversionType.TONE_MARK,
+                PinyinConversionType.WITHOUT_TONE};
+        PinyinDictionary otherDictionary = new PinyinDictionary(Collections.singletonMap(0x4e50, new String[]{"lao4"}));
+        for (PinyinConversionType conversionType : conversionTypes) {
+            PinyinRenderer renderer = PinyinRenderer.getSharedRenderer(DICTIONARY, conversionType);
+            Assert.assertSame(renderer, PinyinRenderer.getSharedRenderer(DICTIONARY, conversionType));
+            Assert.assertEquals(conversionType, renderer.getConversionType());
+            Assert.assertNotSame(renderer, PinyinRenderer.getSharedRenderer(otherDictionary, conversionType));
+        }
+        try {
+            PinyinRenderer.getSharedRenderer(DICTIONARY, PinyinConversionType.FORMATTED);
+            Assert.fail("PinyinRenderer#getSharedRenderer didn't throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+
+        // 共享的渲染表在多个拼音转换器中输出结果一致，包括延迟创建 UTF-8 编码的 ByteBuffer 输出
+        PinyinConverter converter = new PinyinConverter.Builder().build();
+        PinyinConverter otherConverter = new PinyinConverter.Builder().setFormat(new PinyinFormat.Builder().setSeparator("-").build()).build();
+        String text = "中文拼音";
+        ByteBuffer output = ByteBuffer.allocate(64);
+        otherConverter.toPinyinWithToneMark(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), output);
+        output.flip();
+        Assert.assertEquals(converter.toPinyinWithToneMark(text), StandardCharsets.UTF_8.decode(output).toString());
+    }
+
+    /**
+     * 对叠加用户词组拼音词典的拼音转换器进行测试
+     */
+    @Test
+    public void testPhraseDictionary() throws Exception {
+        PinyinPhraseDictionary placeDictionary = createPhraseDictionary("乐亭", "lao4 ting2", "单县", "shan4 xian4");
+        PinyinPhraseDictionary tenantDictionary = createPhraseDictionary("乐亭县", "le4 ting2 xian4");
+        PinyinConverter placeConverter = new PinyinConverter.Builder().addPhraseDictionary(placeDictionary).build();
+        PinyinConverter tenantConverter = new PinyinConverter.Builder().addPhraseDictionary(placeDictionary)
+                .addPhraseDictionary(tenantDictionary).build();
+        // 所有转换器共享内置字典数据
+        Assert.assertSame(placeConverter.getAutomaton(), tenantConverter.getAutomaton());
+        Assert.assertEquals(2, tenantConverter.getPhraseDictionaries().size());
+
+        Assert.assertEquals("lao4 ting2 xian4 zai4 tang2 shan1 ， shan4 xian4 zai4 shan1 dong1 。",
+                placeConverter.toPinyinWithToneNumber("乐亭县在唐山，单县在山东。"));
+        Assert.assertEquals("lào tíng", placeConverter.toPinyinWithToneMark("乐亭"));
+        Assert.assertEquals("lt", placeConverter.toPinyinInitials("乐亭"));
+        // 后添加的词典优先级更高
+        Assert.assertEquals("le4 ting2 xian4 ， lao4 ting2", tenantConverter.toPinyinWithToneNumber("乐亭县，乐亭"));
+        // 未被用户词组命中的文本转换结果与 PinyinUtil 一致
+        String text = "两岁能数数的小孩已数见不鲜了。";
+        Assert.assertEquals(PinyinUtil.toPinyinWithToneNumber(text), tenantConverter.toPinyinWithToneNumber(text));
+        Assert.assertEquals("le4 ting2", PinyinUtil.toPinyinWithToneNumber("乐亭"));
+
+        int[] syllableIds = new int[2];
+        placeConverter.getSyllableIds("乐亭", 0, 2, syllableIds, 0);
+        Assert.assertEquals(DICTIONARY.getSyllableId("lao4"), syllableIds[0]);
+
+        // 长文本分段、并行以及 Reader 方式的转换结果需一致
+        StringBuilder longText = new StringBuilder();
+        while (longText.length() < 40 * 1024) {
+            longText.append(text).append("乐亭县").append("abc单县 ");
+        }
+        String expected = placeConverter.toPinyinWithToneNumber(longText.toString());
+        Assert.assertFalse(expected.contains("le4 ting2"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assert.assertEquals(expected, placeConverter.toPinyinWithToneNumber(longText, pool));
+            Assert.assertEquals(Collections.singletonList(expected),
+                    placeConverter.toPinyinWithToneNumber(Collections.singletonList(longText), pool));
+        } finally {
+            pool.shutdown();
+        }
+        StringWriter writer = new StringWriter();
+        placeConverter.toPinyinWithToneNumber(new StringReader(longText.toString()), writer);
+        Assert.assertEquals(expected, writer.toString());
+    }
+
+    /**
+     * 对 {@link PinyinConverter#toPinyin(ByteBuffer, ByteBuffer)} 等 UTF-8 字节转换方法进行测试，转换结果需与字符串转换的结果一致
+     */
+    @Test
+    public void testByteBuffer() {
+        PinyinConverter converter = new PinyinConverter.Builder().setFormat(new PinyinFormat.Builder()
+                .setToneStyle(PinyinFormat.ToneStyle.MARK).setSeparator("·")
+                .setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.REPLACE).build()).build();
+        String[] pieces = new String[] {"重庆", "数数", " ", "a", "，", "𠮷", "😀", "\n", "两岁能数数的小孩已数见不鲜了。"};
+        Random random = new Random(20181001L);
+        StringBuilder textBuilder = new StringBuilder();
+        while (textBuilder.length() < 10000) {
+            textBuilder.append(pieces[random.nextInt(pieces.length)]);
+        }
+        String[] texts = new String[] {"", "两岁能数数的小孩已数见不鲜了。", "a重庆𠮷b，中", textBuilder.toString()};
+        for (String text : texts) {
+            byte[] input = text.getBytes(StandardCharsets.UTF_8);
+            int maxLength = converter.getMaxPinyinByteLength(input.length);
+            for (boolean direct : new boolean[] {false, true}) {
+                ByteBuffer output = direct ? ByteBuffer.allocateDirect(maxLength + 2) : ByteBuffer.allocate(maxLength + 2);
+                output.position(2);
+                ByteBuffer inputBuffer = direct ? ByteBuffer.allocateDirect(input.length) : ByteBuffer.allocate(input.length);
+                inputBuffer.put(input).flip();
+                Assert.assertEquals(converter.toPinyinWithToneNumber(text), decode(output, converter.toPinyinWithToneNumber(inputBuffer, output)));
+                Assert.assertFalse(inputBuffer.hasRemaining());
+                inputBuffer.rewind();
+                Assert.assertEquals(converter.toPinyinWithToneMark(text), decode(output, converter.toPinyinWithToneMark(inputBuffer, output)));
+                inputBuffer.rewind();
+                Assert.assertEquals(converter.toPinyinWithoutTone(text), decode(output, converter.toPinyinWithoutTone(inputBuffer, output)));
+                inputBuffer.rewind();
+                Assert.assertEquals(converter.toPinyin(text), decode(output, converter.toPinyin(inputBuffer, output)));
+            }
+        }
+
+        // 原样输出时，不合法的 UTF-8 字节序列保持不变
+        byte[] input = new byte[] {(byte) 0xE4, (byte) 0xB8, (byte) 0xAD, (byte) 0xC0, (byte) 0x80, (byte) 0xE5, (byte) 0x9B};
+        ByteBuffer output = ByteBuffer.allocate(64);
+        int length = PinyinUtil.toPinyinWithToneNumber(ByteBuffer.wrap(input), output);
+        byte[] expected = new byte[] {'z', 'h', 'o', 'n', 'g', '1', ' ', (byte) 0xC0, (byte) 0x80, (byte) 0xE5, (byte) 0x9B};
+        Assert.assertArrayEquals(expected, Arrays.copyOf(output.array(), length));
+        output.clear();
+        // 替换时，不合法的 UTF-8 字节序列中的每个字节均被替换
+        Assert.assertEquals("zhōng·????", decode(output, converter.toPinyin(ByteBuffer.wrap(input), output)));
+
+        // 输出缓冲区空间不足时，输入和输出的 position 均保持不变
+        ByteBuffer inputBuffer = ByteBuffer.wrap("中国".getBytes(StandardCharsets.UTF_8));
+        output = ByteBuffer.allocate(8);
+        output.position(1);
+        try {
+            PinyinUtil.toPinyinWithToneNumber(inputBuffer, output);
+            Assert.fail("PinyinUtil#toPinyinWithToneNumber(ByteBuffer, ByteBuffer) didn't throw BufferOverflowException.");
+        } catch (BufferOverflowException ignored) {}
+        Assert.assertEquals(0, inputBuffer.position());
+        Assert.assertEquals(1, output.position());
+        try {
+            PinyinUtil.toPinyinWithToneNumber(inputBuffer, ByteBuffer.allocate(64).asReadOnlyBuffer());
+            Assert.fail("PinyinUtil#toPinyinWithToneNumber(ByteBuffer, ByteBuffer) didn't throw ReadOnlyBufferException.");
+        } catch (ReadOnlyBufferException ignored) {}
+        try {
+            PinyinUtil.getMaxPinyinByteLength(-1);
+            Assert.fail("PinyinUtil#getMaxPinyinByteLength(int) didn't throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinConverter.Builder#build()} 方法的字典数据加载顺序进行测试，多音字词组自动机需先于汉字拼音字典获取，
+     * 使自动机加载时能够在等待字典加载前读取多音字词库文件
+     */
+    @Test
+    public void testBuildLoadOrder() throws Exception {
+        // 使用独立的类加载器保证共享的字典数据尚未加载，并通过不合法的二进制字典文件使字典加载失败，根据失败时的调用栈判断加载顺序
+        Path directory = Files.createTempDirectory("pinyin_mapped");
+        Path path = Files.write(directory.resolve("pinyin_mapping.bin"), new byte[]{1, 2, 3, 4});
+        path.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+        URL classesUrl = PinyinConverter.class.getProtectionDomain().getCodeSource().getLocation();
+        System.setProperty(PinyinDictionaryFactory.MAPPED_DIRECTORY_PROPERTY, directory.toString());
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesUrl}, null)) {
+            Class<?> builderClass = classLoader.loadClass(PinyinConverter.Builder.class.getName());
+            builderClass.getMethod("build").invoke(builderClass.newInstance());
+            Assert.fail("PinyinConverter.Builder#build didn't fail with invalid mapped dictionary.");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue("Invalid exception: `" + e.getCause() + "`.", e.getCause() instanceof ExceptionInInitializerError);
+            boolean automatonFirst = false;
+            for (StackTraceElement element : e.getCause().getStackTrace()) {
+                if (element.getClassName().equals(PinyinSelectorFactory.class.getName())
+                        && element.getMethodName().equals("loadAutomaton")) {
+                    automatonFirst = true;
+                }
+            }
+            Assert.assertTrue("PinyinDictionary should be loaded by PinyinSelectorFactory.", automatonFirst);
+        } finally {
+            System.clearProperty(PinyinDictionaryFactory.MAPPED_DIRECTORY_PROPERTY);
+        }
+    }
+
+    /**
+     * 对 {@link PinyinConverter.Builder#build()} 方法的参数校验进行测试
+     */
+    @Test
+    public void testBuild() throws Exception {
+        try {
+            new PinyinConverter.Builder().addPhraseDictionary(null);
+            Assert.fail("PinyinConverter.Builder#addPhraseDictionary didn't throw NullPointerException.");
+        } catch (NullPointerException ignored) {}
+
+        PinyinDictionary otherDictionary = new PinyinDictionary(Collections.singletonMap(0x4e50, new String[]{"lao4"}));
+        Map<String, String[]> phraseMap = Collections.singletonMap("乐", new String[]{"lao4"});
+        PinyinConverter.Builder builder = new PinyinConverter.Builder()
+                .addPhraseDictionary(new PinyinPhraseDictionary(otherDictionary, phraseMap));
+        try {
+            builder.build();
+            Assert.fail("PinyinConverter.Builder#build didn't throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    private static String decode(ByteBuffer output, int length) {
+        byte[] bytes = new byte[length];
+        output.position(output.position() - length);
+        output.get(bytes);
+        output.position(2);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static PinyinPhraseDictionary createPhraseDictionary(String... phraseAndPinyinArray) {
+        Map<String, String[]> phraseMap = new LinkedHashMap<>();
+        for (int i = 0; i < phraseAndPinyinArray.length; i += 2) {
+            phraseMap.put(phraseAndPinyinArray[i], phraseAndPinyinArray[i + 1].split(" "));
+        }
+        return new PinyinPhraseDictionary(DICTIONARY, phraseMap);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link PinyinConverterReloader} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinConverterReloader {
+
+    private static final String DICTIONARY_DIRECTORY = "/com/heimuheimu/util/pinyin/dictionary/";
+
+    /**
+     * 对 {@link PinyinConverterReloader#reload()} 方法进行测试，文件内容不合法时需继续使用上一次成功加载的拼音转换器
+     */
+    @Test
+    public void testReload() throws Exception {
+        Path directory = createDictionaryDirectory();
+        PinyinConverterReloader reloader = new PinyinConverterReloader(directory);
+        PinyinConverter converter = reloader.getConverter();
+        Assert.assertEquals("le4 ting2", converter.toPinyinWithToneNumber("乐亭"));
+        Assert.assertEquals("ji2", converter.toPinyinWithToneNumber("𠮷"));
+
+        replaceDefaultPinyin(directory, "乐,le4", "乐,lao4");
+        Assert.assertTrue(reloader.reload());
+        Assert.assertEquals(1, reloader.getReloadCount());
+        Assert.assertNull(reloader.getLastReloadException());
+        Assert.assertEquals("lao4 ting2", reloader.getConverter().toPinyinWithToneNumber("乐亭"));
+        Assert.assertEquals("yin1 yue4", reloader.getConverter().toPinyinWithToneNumber("音乐"));
+        // 已获得的拼音转换器不受影响
+        Assert.assertEquals("le4 ting2", converter.toPinyinWithToneNumber("乐亭"));
+
+        converter = reloader.getConverter();
+        replaceDefaultPinyin(directory, "乐,lao4", "乐,abc");
+        Assert.assertFalse(reloader.reload());
+        Assert.assertNotNull(reloader.getLastReloadException());
+        Assert.assertSame(converter, reloader.getConverter());
+        Assert.assertEquals(1, reloader.getReloadCount());
+
+        Files.delete(directory.resolve("multi_pinyin_mapping.txt"));
+        Assert.assertFalse(reloader.reload());
+        Assert.assertSame(converter, reloader.getConverter());
+    }
+
+    /**
+     * 对 {@link PinyinConverterReloader#start()} 方法进行测试，字典文件变更后需自动重新加载
+     */
+    @Test
+    public void testWatch() throws Exception {
+        Path directory = createDictionaryDirectory();
+        try (PinyinConverterReloader reloader = new PinyinConverterReloader(directory)) {
+            reloader.start();
+            reloader.start();
+            replaceDefaultPinyin(directory, "乐,le4", "乐,lao4");
+            long deadline = System.currentTimeMillis() + 30000;
+            while (reloader.getReloadCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("lao4", reloader.getConverter().toPinyinWithToneNumber("乐"));
+        }
+    }
+
+    private static Path createDictionaryDirectory() throws Exception {
+        Path directory = Files.createTempDirectory("pinyin");
+        directory.toFile().deleteOnExit();
+        for (String fileName : new String[]{"pinyin_mapping.txt", "multi_pinyin_mapping.txt"}) {
+            try (InputStream in = TestPinyinConverterReloader.class.getResourceAsStream(DICTIONARY_DIRECTORY + fileName)) {
+                Path path = directory.resolve(fileName);
+                Files.copy(in, path);
+                path.toFile().deleteOnExit();
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * 使用临时文件原子替换多音字词库文件，与生产环境中更新字典文件的方式一致。
+     */
+    private static void replaceDefaultPinyin(Path directory, String target, String replacement) throws Exception {
+        Path path = directory.resolve("multi_pinyin_mapping.txt");
+        String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.contains(target));
+        Path tempPath = Files.createTempFile(directory, "multi", ".tmp");
+        Files.write(tempPath, content.replace(target, replacement).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
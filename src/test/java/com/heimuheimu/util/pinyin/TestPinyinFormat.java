@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link PinyinFormat} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinFormat {
+
+    @Test
+    public void testDefaultFormat() {
+        PinyinConverter converter = new PinyinConverter.Builder().build();
+        Assert.assertSame(PinyinFormat.DEFAULT, converter.getFormat());
+        String[] texts = new String[] {"两岁能数数的小孩已数见不鲜了。", "  中 国 abc", "a重庆𠮷b，中", "绿女", ""};
+        for (String text : texts) {
+            Assert.assertEquals(PinyinUtil.toPinyinWithToneNumber(text), converter.toPinyin(text));
+        }
+        Assert.assertNull(converter.toPinyin((String) null));
+    }
+
+    @Test
+    public void testSyllableFormat() {
+        Assert.assertEquals("Zhong1-Guo2-Ren2", convert(new PinyinFormat.Builder().setSeparator("-")
+                .setLetterCase(PinyinFormat.LetterCase.CAPITALIZE), "中国人"));
+        Assert.assertEquals("ZhongGuoRen", convert(new PinyinFormat.Builder().setSeparator("")
+                .setToneStyle(PinyinFormat.ToneStyle.NONE).setLetterCase(PinyinFormat.LetterCase.CAPITALIZE), "中国人"));
+        Assert.assertEquals("ZHŌNG GUÓ", convert(new PinyinFormat.Builder().setToneStyle(PinyinFormat.ToneStyle.MARK)
+                .setLetterCase(PinyinFormat.LetterCase.UPPER), "中国"));
+        Assert.assertEquals("lü4 nü3", convert(new PinyinFormat.Builder().setUmlautStyle(PinyinFormat.UmlautStyle.U_UMLAUT), "绿女"));
+        Assert.assertEquals("LÜ NÜ", convert(new PinyinFormat.Builder().setUmlautStyle(PinyinFormat.UmlautStyle.U_UMLAUT)
+                .setToneStyle(PinyinFormat.ToneStyle.NONE).setLetterCase(PinyinFormat.LetterCase.UPPER), "绿女"));
+        // 声调符号格式下始终使用 "ü"
+        Assert.assertEquals("lǜ nǚ", convert(new PinyinFormat.Builder().setToneStyle(PinyinFormat.ToneStyle.MARK), "绿女"));
+    }
+
+    @Test
+    public void testCharacterPolicy() {
+        PinyinFormat.Builder skipBuilder = new PinyinFormat.Builder().setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.SKIP);
+        Assert.assertEquals("zhong1 guo2", convert(skipBuilder, "中a国!"));
+        Assert.assertEquals("zhong1 guo2", convert(skipBuilder, "!中a国"));
+        Assert.assertEquals(" zhong1  guo2  ", convert(skipBuilder, " 中a 国 "));
+
+        PinyinFormat.Builder replaceBuilder = new PinyinFormat.Builder()
+                .setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.REPLACE).setUnknownCharacterReplacement("*");
+        Assert.assertEquals("zhong1 ** guo2 *", convert(replaceBuilder, "中ab国😀"));
+
+        PinyinFormat.Builder collapseBuilder = new PinyinFormat.Builder().setSeparator("_")
+                .setWhitespacePolicy(PinyinFormat.WhitespacePolicy.COLLAPSE);
+        Assert.assertEquals("zhong1_guo2_a_b", convert(collapseBuilder, " \t中 　国  a\r\nb \n"));
+        Assert.assertEquals("zhong1_guo2_ab", convert(collapseBuilder, "中国ab"));
+
+        PinyinFormat.Builder removeBuilder = new PinyinFormat.Builder().setWhitespacePolicy(PinyinFormat.WhitespacePolicy.SKIP);
+        Assert.assertEquals("zhong1 guo2 ab", convert(removeBuilder, " 中 国 a b "));
+
+        PinyinFormat.Builder pinyinOnlyBuilder = new PinyinFormat.Builder().setSeparator(",")
+                .setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.SKIP).setWhitespacePolicy(PinyinFormat.WhitespacePolicy.SKIP);
+        Assert.assertEquals("zhong1,guo2,ren2", convert(pinyinOnlyBuilder, "(中 国) 人!"));
+        Assert.assertEquals("", convert(pinyinOnlyBuilder, "abc "));
+    }
+
+    /**
+     * 并行替换、流式替换和区间替换的结果需与直接替换完整文本的结果一致
+     */
+    @Test
+    public void testConsistency() throws Exception {
+        PinyinFormat[] formats = new PinyinFormat[] {
+                PinyinFormat.DEFAULT,
+                new PinyinFormat.Builder().setSeparator("-").setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.SKIP).build(),
+                new PinyinFormat.Builder().setWhitespacePolicy(PinyinFormat.WhitespacePolicy.COLLAPSE)
+                        .setUnknownCharacterPolicy(PinyinFormat.UnknownCharacterPolicy.REPLACE).build(),
+                new PinyinFormat.Builder().setWhitespacePolicy(PinyinFormat.WhitespacePolicy.SKIP).setToneStyle(PinyinFormat.ToneStyle.MARK).build()
+        };
+        String[] pieces = new String[] {"重庆", "数数", " ", "  ", "a", "bc", "，", "𠮷", "😀", "\n", "两岁能数数的小孩已数见不鲜了。"};
+        Random random = new Random(20181001L);
+        StringBuilder textBuilder = new StringBuilder();
+        while (textBuilder.length() < 100000) {
+            textBuilder.append(pieces[random.nextInt(pieces.length)]);
+        }
+        String text = textBuilder.toString();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (PinyinFormat format : formats) {
+                PinyinConverter converter = new PinyinConverter.Builder().setFormat(format).build();
+                String expected = converter.toPinyin(text);
+                Assert.assertEquals("Invalid parallel result: `" + format + "`.", expected, converter.toPinyin(text, pool));
+                StringWriter writer = new StringWriter();
+                converter.toPinyin(new StringReader(text), writer);
+                Assert.assertEquals("Invalid stream result: `" + format + "`.", expected, writer.toString());
+
+                List<String> texts = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    texts.add(text.substring(i * 100, i * 100 + 97));
+                }
+                List<String> results = converter.toPinyin(texts, pool);
+                for (int i = 0; i < texts.size(); i++) {
+                    StringBuilder output = new StringBuilder();
+                    converter.toPinyin(text, i * 100, 97, output);
+                    Assert.assertEquals(output.toString(), results.get(i));
+                }
+            }
+            Assert.assertEquals(Arrays.asList("zhong1", null), new PinyinConverter.Builder().build().toPinyin(Arrays.asList("中", null), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String convert(PinyinFormat.Builder builder, String text) {
+        return new PinyinConverter.Builder().setFormat(builder.build()).build().toPinyin(text);
+    }
+}
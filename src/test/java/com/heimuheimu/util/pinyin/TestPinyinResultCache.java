@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.multi.PinyinPhraseDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PinyinResultCache} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinResultCache {
+
+    @Test
+    public void testHitAndMiss() {
+        PinyinResultCache cache = new PinyinResultCache(100, PinyinResultCache.CapacityUnit.ENTRIES, 8);
+        PinyinConverter converter = new PinyinConverter.Builder().setResultCache(cache).build();
+        Assert.assertSame(cache, converter.getResultCache());
+
+        Assert.assertEquals("chong2 qing4", converter.toPinyinWithToneNumber("重庆"));
+        Assert.assertEquals("chong2 qing4", converter.toPinyinWithToneNumber("重庆"));
+        Assert.assertEquals("chóng qìng", converter.toPinyinWithToneMark("重庆"));
+        Assert.assertEquals("chong qing", converter.toPinyinWithoutTone("重庆"));
+        Assert.assertEquals("cq", converter.toPinyinInitials("重庆"));
+        Assert.assertEquals("cq", converter.toPinyinInitials("重庆"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(4, cache.getMissCount());
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(4, cache.getWeight());
+        Assert.assertEquals(1.0 / 3, cache.getHitRate(), 0.0001);
+
+        // 超过最大文本长度的文本不会被缓存
+        String longText = "两岁能数数的小孩已数见不鲜了。";
+        Assert.assertEquals(PinyinUtil.toPinyinWithToneNumber(longText), converter.toPinyinWithToneNumber(longText));
+        Assert.assertEquals(1, cache.getBypassCount());
+        Assert.assertEquals(4, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getWeight());
+        Assert.assertEquals("chong2 qing4", converter.toPinyinWithToneNumber("重庆"));
+        Assert.assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void testSharedCache() {
+        PinyinResultCache cache = new PinyinResultCache(100, PinyinResultCache.CapacityUnit.ENTRIES);
+        PinyinConverter converter = new PinyinConverter.Builder().setResultCache(cache).build();
+        PinyinPhraseDictionary phraseDictionary = new PinyinPhraseDictionary(PinyinDictionaryFactory.getDictionary(),
+                Collections.singletonMap("乐亭", new String[]{"lao4", "ting2"}));
+        PinyinConverter phraseConverter = new PinyinConverter.Builder().setResultCache(cache).addPhraseDictionary(phraseDictionary).build();
+
+        Assert.assertEquals("le4 ting2", converter.toPinyinWithToneNumber("乐亭"));
+        // 缓存条目仅对生成该条目的拼音转换器可见
+        Assert.assertEquals("lao4 ting2", phraseConverter.toPinyinWithToneNumber("乐亭"));
+        Assert.assertEquals("lao4 ting2", phraseConverter.toPinyinWithToneNumber("乐亭"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testCapacity() {
+        PinyinResultCache cache = new PinyinResultCache(1000, PinyinResultCache.CapacityUnit.ENTRIES);
+        PinyinConverter converter = new PinyinConverter.Builder().setResultCache(cache).build();
+        for (int i = 0; i < 20000; i++) {
+            converter.toPinyinWithoutTone("店铺" + i);
+        }
+        Assert.assertTrue("Invalid cache size: `" + cache.size() + "`.", cache.size() <= 1000);
+        Assert.assertEquals(cache.size(), cache.getWeight());
+        Assert.assertTrue(cache.getEvictionCount() >= 19000);
+
+        PinyinResultCache characterCache = new PinyinResultCache(1000, PinyinResultCache.CapacityUnit.CHARACTERS);
+        converter = new PinyinConverter.Builder().setResultCache(characterCache).build();
+        for (int i = 0; i < 20000; i++) {
+            converter.toPinyinWithToneNumber("店铺" + i);
+        }
+        Assert.assertTrue("Invalid cache weight: `" + characterCache.getWeight() + "`.", characterCache.getWeight() <= 1000);
+        Assert.assertTrue(characterCache.size() > 0);
+    }
+
+    @Test
+    public void testFrequencyAdmission() {
+        PinyinResultCache cache = new PinyinResultCache(100, PinyinResultCache.CapacityUnit.ENTRIES);
+        PinyinConverter converter = new PinyinConverter.Builder().setResultCache(cache).build();
+        // 大量只出现一次的文本不会挤出高频文本
+        for (int i = 0; i < 5000; i++) {
+            converter.toPinyinWithToneNumber("北京" + (i % 50));
+            converter.toPinyinWithToneNumber("上海" + i);
+        }
+        long hitCount = cache.getHitCount();
+        for (int i = 0; i < 50; i++) {
+            converter.toPinyinWithToneNumber("北京" + i);
+        }
+        Assert.assertTrue("Invalid hit count: `" + (cache.getHitCount() - hitCount) + "`.", cache.getHitCount() - hitCount >= 45);
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        PinyinResultCache cache = new PinyinResultCache(200, PinyinResultCache.CapacityUnit.ENTRIES);
+        PinyinConverter converter = new PinyinConverter.Builder().setResultCache(cache).build();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futureList.add(executorService.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        int index = (i * 31 + seed) % 500;
+                        Assert.assertEquals("zhong1 guo2 " + index, converter.toPinyinWithToneNumber("中国" + index));
+                    }
+                }));
+            }
+            for (Future<?> future : futureList) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertTrue(cache.size() <= 200);
+        Assert.assertEquals(160000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            new PinyinResultCache(0, PinyinResultCache.CapacityUnit.ENTRIES);
+            Assert.fail("Expected throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+        try {
+            new PinyinResultCache(100, PinyinResultCache.CapacityUnit.ENTRIES, 0);
+            Assert.fail("Expected throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+        try {
+            new PinyinResultCache(100, null);
+            Assert.fail("Expected throw NullPointerException.");
+        } catch (NullPointerException ignored) {}
+    }
+}
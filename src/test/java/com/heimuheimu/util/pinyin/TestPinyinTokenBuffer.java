@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.multi.PinyinPhraseDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * {@link PinyinTokenBuffer} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinTokenBuffer {
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    @Test
+    public void testGetTokens() {
+        PinyinTokenBuffer buffer = new PinyinTokenBuffer(1);
+        String text = "a重庆𠮷b，中";
+        Assert.assertEquals(4, PinyinUtil.getTokens(text, 0, text.length(), buffer));
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertArrayEquals(new int[]{1, 2, 3, 7}, Arrays.copyOf(buffer.getOffsets(), 4));
+        Assert.assertArrayEquals(new short[]{1, 1, 2, 1}, Arrays.copyOf(buffer.getLengths(), 4));
+        Assert.assertEquals("chong2", DICTIONARY.getSyllable(buffer.getSyllableIds()[0]));
+        Assert.assertEquals("qing4", DICTIONARY.getSyllable(buffer.getSyllableIds()[1]));
+        Assert.assertEquals("ji2", DICTIONARY.getSyllable(buffer.getSyllableIds()[2]));
+        Assert.assertEquals("zhong1", DICTIONARY.getSyllable(buffer.getSyllableIds()[3]));
+        // "重" 由多音字词组 "重庆" 确定拼音，其它汉字使用默认拼音
+        Assert.assertTrue(buffer.isSelected(0));
+        Assert.assertEquals(PinyinTokenBuffer.FLAG_SELECTED, buffer.getFlags()[0]);
+        Assert.assertFalse(buffer.isSelected(1));
+        Assert.assertFalse(buffer.isSelected(2));
+        Assert.assertFalse(buffer.isSelected(3));
+
+        // 复用缓冲区时，写入前将清空已有的分词结果
+        Assert.assertEquals(1, PinyinUtil.getTokens(text, 7, 1, buffer));
+        Assert.assertEquals(7, buffer.getOffsets()[0]);
+        Assert.assertEquals(0, PinyinUtil.getTokens("abc", 0, 3, buffer));
+        Assert.assertEquals(0, buffer.size());
+
+        try {
+            PinyinUtil.getTokens(text, 5, 10, buffer);
+            Assert.fail("PinyinUtil#getTokens(CharSequence, int, int, PinyinTokenBuffer) didn't throw IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException ignored) {}
+        try {
+            buffer.isSelected(0);
+            Assert.fail("PinyinTokenBuffer#isSelected(int) didn't throw IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException ignored) {}
+    }
+
+    @Test
+    public void testLongText() {
+        StringBuilder textBuilder = new StringBuilder();
+        while (textBuilder.length() < 5000) {
+            textBuilder.append("两岁能数数的小孩已数见不鲜了。𠮷重庆");
+        }
+        String text = textBuilder.toString();
+        int[] syllableIds = new int[text.length()];
+        PinyinUtil.getSyllableIds(text, 0, text.length(), syllableIds, 0);
+        PinyinTokenBuffer buffer = new PinyinTokenBuffer();
+        int tokenCount = PinyinUtil.getTokens(text, 0, text.length(), buffer);
+        int expectedCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (syllableIds[i] >= 0) {
+                Assert.assertEquals(i, buffer.getOffsets()[expectedCount]);
+                Assert.assertEquals(Character.isHighSurrogate(text.charAt(i)) ? 2 : 1, buffer.getLengths()[expectedCount]);
+                Assert.assertEquals(syllableIds[i], buffer.getSyllableIds()[expectedCount]);
+                expectedCount++;
+            }
+        }
+        Assert.assertEquals(expectedCount, tokenCount);
+    }
+
+    @Test
+    public void testPhraseDictionary() {
+        PinyinPhraseDictionary phraseDictionary = new PinyinPhraseDictionary(DICTIONARY,
+                Collections.singletonMap("乐亭", new String[]{"lao4", "ting2"}));
+        PinyinConverter converter = new PinyinConverter.Builder().addPhraseDictionary(phraseDictionary).build();
+        PinyinTokenBuffer buffer = new PinyinTokenBuffer();
+        Assert.assertEquals(3, converter.getTokens("乐亭县", 0, 3, buffer));
+        Assert.assertEquals("lao4", DICTIONARY.getSyllable(buffer.getSyllableIds()[0]));
+        Assert.assertTrue(buffer.isSelected(0));
+        Assert.assertTrue(buffer.isSelected(1));
+        Assert.assertFalse(buffer.isSelected(2));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.multi.PinyinPhraseDictionary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PinyinTokenStream} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinTokenStream {
+
+    @Test
+    public void testIncrementToken() {
+        PinyinTokenStream tokenStream = PinyinUtil.createTokenStream();
+        PinyinToken token = tokenStream.getToken();
+        tokenStream.reset("a重庆𠮷b，乐");
+        String[] expectedTokens = new String[] {"chong2,1,2,PHRASE", "qing4,2,3,DEFAULT", "ji2,3,5,DEFAULT", "le4,7,8,DEFAULT"};
+        for (String expectedToken : expectedTokens) {
+            Assert.assertTrue(tokenStream.incrementToken());
+            Assert.assertSame(token, tokenStream.getToken());
+            Assert.assertEquals(expectedToken, token.getSyllable() + "," + token.getStartOffset() + ","
+                    + token.getEndOffset() + "," + token.getSource());
+        }
+        Assert.assertFalse(tokenStream.incrementToken());
+        Assert.assertFalse(tokenStream.incrementToken());
+        Assert.assertEquals("qìng", tokenStream.reset("重庆", 1, 1).incrementToken() ? token.getSyllableWithToneMark() : null);
+
+        char[] characters = "xx两岁能xx".toCharArray();
+        tokenStream.reset(characters, 3, 2);
+        Assert.assertTrue(tokenStream.incrementToken());
+        Assert.assertEquals("sui", token.getSyllableWithoutTone());
+        Assert.assertEquals(3, token.getStartOffset());
+        Assert.assertTrue(tokenStream.incrementToken());
+        Assert.assertFalse(tokenStream.incrementToken());
+
+        PinyinPhraseDictionary phraseDictionary = new PinyinPhraseDictionary(PinyinDictionaryFactory.getDictionary(),
+                Collections.singletonMap("乐亭", new String[] {"lao4", "ting2"}));
+        PinyinTokenStream userTokenStream = new PinyinTokenStream(new PinyinConverter.Builder().addPhraseDictionary(phraseDictionary).build());
+        userTokenStream.reset("乐亭");
+        Assert.assertTrue(userTokenStream.incrementToken());
+        Assert.assertEquals("lao4", userTokenStream.getToken().getSyllable());
+        Assert.assertEquals(PinyinToken.Source.USER_PHRASE, userTokenStream.getToken().getSource());
+    }
+
+    /**
+     * 拼音分词流输出的分词需与 {@link PinyinConverter#getTokens(CharSequence, int, int, PinyinTokenBuffer)} 的结果一致
+     */
+    @Test
+    public void testConsistency() {
+        PinyinConverter converter = new PinyinConverter.Builder().build();
+        String[] pieces = new String[] {"重庆", "数数", " ", "a", "，", "𠮷", "两岁能数数的小孩已数见不鲜了。", "银行行长"};
+        Random random = new Random(20181001L);
+        StringBuilder textBuilder = new StringBuilder();
+        while (textBuilder.length() < 10000) {
+            textBuilder.append(pieces[random.nextInt(pieces.length)]);
+        }
+        String text = textBuilder.toString();
+        PinyinTokenBuffer buffer = new PinyinTokenBuffer();
+        PinyinTokenStream tokenStream = new PinyinTokenStream(converter);
+        int[][] ranges = new int[][] {{0, text.length()}, {1, text.length() - 1}, {37, 3000}};
+        for (int[] range : ranges) {
+            int tokenCount = converter.getTokens(text, range[0], range[1], buffer);
+            tokenStream.reset(text, range[0], range[1]);
+            PinyinToken token = tokenStream.getToken();
+            for (int i = 0; i < tokenCount; i++) {
+                Assert.assertTrue(tokenStream.incrementToken());
+                Assert.assertEquals(buffer.getOffsets()[i], token.getStartOffset());
+                Assert.assertEquals(buffer.getOffsets()[i] + buffer.getLengths()[i], token.getEndOffset());
+                Assert.assertEquals(buffer.getSyllableIds()[i], token.getSyllableId());
+                Assert.assertEquals(buffer.isSelected(i), token.getSource() != PinyinToken.Source.DEFAULT);
+            }
+            Assert.assertFalse(tokenStream.incrementToken());
+        }
+    }
+
+    /**
+     * 拼音转换器在第一次拉取分词时才获取，提前结束拉取时不会对剩余文本进行拼音选择
+     */
+    @Test
+    public void testLazy() {
+        AtomicInteger supplyCount = new AtomicInteger();
+        PinyinConverter converter = new PinyinConverter.Builder().build();
+        PinyinTokenStream tokenStream = new PinyinTokenStream(() -> {
+            supplyCount.incrementAndGet();
+            return converter;
+        });
+        try {
+            tokenStream.incrementToken();
+            Assert.fail("PinyinTokenStream#incrementToken() didn't throw IllegalStateException.");
+        } catch (IllegalStateException ignored) {}
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("中");
+        }
+        tokenStream.reset(text);
+        Assert.assertEquals(0, supplyCount.get());
+        Assert.assertTrue(tokenStream.incrementToken());
+        Assert.assertEquals(1, supplyCount.get());
+        Assert.assertTrue(tokenStream.toString().contains("windowEnd=" + PinyinTokenStream.INITIAL_WINDOW_LENGTH));
+        tokenStream.reset(text, 5, 0);
+        Assert.assertFalse(tokenStream.incrementToken());
+        Assert.assertEquals(1, supplyCount.get());
+
+        try {
+            tokenStream.reset(text, 9999, 2);
+            Assert.fail("PinyinTokenStream#reset() didn't throw IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException ignored) {}
+    }
+}
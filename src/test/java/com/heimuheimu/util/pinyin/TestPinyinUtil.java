@@ -27,6 +27,16 @@ package com.heimuheimu.util.pinyin;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 /**
  * {@link PinyinUtil} 单元测试类。
  *
@@ -132,4 +142,283 @@ public class TestPinyinUtil {
                     expectedPinyinWithoutTone, PinyinUtil.toPinyinWithoutTone(sentence));
         }
     }
+
+    /**
+     * 对 {@link PinyinUtil#toPinyinWithToneNumber(CharSequence, int, int, StringBuilder)}、
+     * {@link PinyinUtil#toPinyinWithToneMark(CharSequence, int, int, Appendable)} 和
+     * {@link PinyinUtil#toPinyinWithoutTone(CharSequence, int, int, StringBuilder)} 三个方法进行测试。
+     */
+    @Test
+    public void testToPinyinWithOutput() throws Exception {
+        StringBuilder output = new StringBuilder();
+        PinyinUtil.toPinyinWithToneNumber("abc他的def", 3, 2, output);
+        Assert.assertEquals("Invalid pinyin for range `[3, 5)`.", "ta1 de5", output.toString());
+
+        output.setLength(0);
+        PinyinUtil.toPinyinWithToneNumber(new StringBuilder("abc他的def"), 2, 4, output);
+        Assert.assertEquals("Invalid pinyin for range `[2, 6)`.", "c ta1 de5 d", output.toString());
+
+        output.setLength(0);
+        PinyinUtil.toPinyinWithToneMark("abc他的def", 3, 0, (Appendable) output);
+        Assert.assertEquals("Invalid pinyin for empty range.", "", output.toString());
+
+        try {
+            PinyinUtil.toPinyinWithoutTone("abc", 2, 2, output);
+            Assert.fail("PinyinUtil#toPinyinWithoutTone(CharSequence, int, int, StringBuilder) didn't throw IndexOutOfBoundsException when i used invalid range.");
+        } catch (IndexOutOfBoundsException ignored) {}
+
+        // 超过分段长度的长文本测试
+        StringBuilder longText = new StringBuilder();
+        StringBuilder expectedPinyinWithToneNumber = new StringBuilder();
+        StringBuilder expectedPinyinWithToneMark = new StringBuilder();
+        StringBuilder expectedPinyinWithoutTone = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < CHINESE_SENTENCE_ARRAY.length; j++) {
+                String separator = longText.length() > 0 ? " " : "";
+                longText.append(CHINESE_SENTENCE_ARRAY[j]);
+                expectedPinyinWithToneNumber.append(separator).append(EXPECTED_PINYIN_WITH_TONE_NUMBER_ARRAY[j]);
+                expectedPinyinWithToneMark.append(separator).append(EXPECTED_PINYIN_WITH_TONE_MARK_ARRAY[j]);
+                expectedPinyinWithoutTone.append(separator).append(EXPECTED_PINYIN_WITHOUT_TONE_ARRAY[j]);
+            }
+        }
+        output.setLength(0);
+        PinyinUtil.toPinyinWithToneNumber(longText, 0, longText.length(), output);
+        Assert.assertEquals("Invalid pinyin for long text.", expectedPinyinWithToneNumber.toString(), output.toString());
+
+        output.setLength(0);
+        PinyinUtil.toPinyinWithToneMark(longText, 0, longText.length(), (Appendable) output);
+        Assert.assertEquals("Invalid pinyin for long text.", expectedPinyinWithToneMark.toString(), output.toString());
+
+        output.setLength(0);
+        PinyinUtil.toPinyinWithoutTone(longText, 0, longText.length(), output);
+        Assert.assertEquals("Invalid pinyin for long text.", expectedPinyinWithoutTone.toString(), output.toString());
+    }
+
+    /**
+     * 对 {@link PinyinUtil#toPinyinWithToneNumber(Reader, java.io.Writer)}、{@link PinyinUtil#toPinyinWithToneMark(Reader, java.io.Writer)} 和
+     * {@link PinyinUtil#toPinyinWithoutTone(Reader, java.io.Writer)} 三个方法进行测试。
+     */
+    @Test
+    public void testToPinyinWithReader() throws Exception {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            for (String sentence : CHINESE_SENTENCE_ARRAY) {
+                longText.append(sentence).append(i % 3 == 0 ? "\n" : "abc");
+            }
+        }
+        longText.append("那里的的的喀喀湖");
+        String[] texts = new String[] {"", "的", "a的", "的的的", longText.toString()};
+        for (String text : texts) {
+            // 每次最多读取 7 个字符，使多音字词组跨越读取边界
+            for (int maxReadLength : new int[]{7, 1024}) {
+                StringWriter writer = new StringWriter();
+                PinyinUtil.toPinyinWithToneNumber(new LimitedReader(text, maxReadLength), writer);
+                Assert.assertEquals("Invalid pinyin for reader.", PinyinUtil.toPinyinWithToneNumber(text), writer.toString());
+
+                writer = new StringWriter();
+                PinyinUtil.toPinyinWithToneMark(new LimitedReader(text, maxReadLength), writer);
+                Assert.assertEquals("Invalid pinyin for reader.", PinyinUtil.toPinyinWithToneMark(text), writer.toString());
+
+                writer = new StringWriter();
+                PinyinUtil.toPinyinWithoutTone(new LimitedReader(text, maxReadLength), writer);
+                Assert.assertEquals("Invalid pinyin for reader.", PinyinUtil.toPinyinWithoutTone(text), writer.toString());
+            }
+        }
+    }
+
+    /**
+     * 对 {@link PinyinUtil#toPinyinInitials(String)}、{@link PinyinUtil#toPinyinInitials(CharSequence, int, int, StringBuilder)} 和
+     * {@link PinyinUtil#toPinyinInitials(CharSequence, int, int, char[], int)} 三个方法进行测试。
+     */
+    @Test
+    public void testToPinyinInitials() {
+        Assert.assertEquals("Invalid pinyin initials.", "zgr", PinyinUtil.toPinyinInitials("中国人"));
+        Assert.assertEquals("Invalid pinyin initials.", "cq", PinyinUtil.toPinyinInitials("重庆"));
+        Assert.assertEquals("Invalid pinyin initials.", "a1 cq!", PinyinUtil.toPinyinInitials("a1 重庆!"));
+        Assert.assertEquals("Invalid pinyin initials.", "", PinyinUtil.toPinyinInitials(""));
+        Assert.assertNull("Null text should return null.", PinyinUtil.toPinyinInitials(null));
+
+        StringBuilder longText = new StringBuilder();
+        StringBuilder expectedLongInitials = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < CHINESE_SENTENCE_ARRAY.length; j++) {
+                longText.append(CHINESE_SENTENCE_ARRAY[j]);
+                for (String pinyin : EXPECTED_PINYIN_WITH_TONE_NUMBER_ARRAY[j].split(" ")) {
+                    expectedLongInitials.append(pinyin.charAt(0));
+                }
+            }
+        }
+        Assert.assertEquals("Invalid pinyin initials for long text.", expectedLongInitials.toString(),
+                PinyinUtil.toPinyinInitials(longText.toString()));
+
+        StringBuilder output = new StringBuilder("prefix:");
+        PinyinUtil.toPinyinInitials(longText, 0, longText.length(), output);
+        Assert.assertEquals("Invalid pinyin initials for StringBuilder.", "prefix:" + expectedLongInitials, output.toString());
+
+        char[] initials = new char[longText.length() + 3];
+        int initialCount = PinyinUtil.toPinyinInitials(longText, 0, longText.length(), initials, 3);
+        Assert.assertEquals("Invalid pinyin initial count.", longText.length(), initialCount);
+        Assert.assertEquals("Invalid pinyin initials for char array.", expectedLongInitials.toString(),
+                new String(initials, 3, initialCount));
+
+        try {
+            PinyinUtil.toPinyinInitials("中国人", 0, 3, new char[2], 0);
+            Assert.fail("PinyinUtil#toPinyinInitials didn't throw IndexOutOfBoundsException when output array is too small.");
+        } catch (IndexOutOfBoundsException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinUtil#toPinyinWithToneNumber(List, ForkJoinPool)}、{@link PinyinUtil#toPinyinWithToneMark(List, ForkJoinPool)} 和
+     * {@link PinyinUtil#toPinyinWithoutTone(List, ForkJoinPool)} 三个方法进行测试。
+     */
+    @Test
+    public void testToPinyinWithBatch() {
+        List<CharSequence> texts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            for (String sentence : CHINESE_SENTENCE_ARRAY) {
+                texts.add(i % 2 == 0 ? sentence : new StringBuilder(sentence).append(i));
+            }
+        }
+        texts.add(null);
+        texts.add("");
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<String> toneNumberResults = PinyinUtil.toPinyinWithToneNumber(texts, pool);
+            List<String> toneMarkResults = PinyinUtil.toPinyinWithToneMark(texts, pool);
+            List<String> withoutToneResults = PinyinUtil.toPinyinWithoutTone(texts, pool);
+            Assert.assertEquals("Invalid batch result size.", texts.size(), toneNumberResults.size());
+            for (int i = 0; i < texts.size(); i++) {
+                String text = texts.get(i) != null ? texts.get(i).toString() : null;
+                Assert.assertEquals("Invalid batch pinyin for text: `" + text + "`.", PinyinUtil.toPinyinWithToneNumber(text),
+                        toneNumberResults.get(i));
+                Assert.assertEquals("Invalid batch pinyin for text: `" + text + "`.", PinyinUtil.toPinyinWithToneMark(text),
+                        toneMarkResults.get(i));
+                Assert.assertEquals("Invalid batch pinyin for text: `" + text + "`.", PinyinUtil.toPinyinWithoutTone(text),
+                        withoutToneResults.get(i));
+            }
+            Assert.assertTrue("Batch result should be empty.", PinyinUtil.toPinyinWithToneNumber(new ArrayList<String>(), pool).isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 对 {@link PinyinUtil#toPinyinWithToneNumber(CharSequence, ForkJoinPool)}、{@link PinyinUtil#toPinyinWithToneMark(CharSequence, ForkJoinPool)} 和
+     * {@link PinyinUtil#toPinyinWithoutTone(CharSequence, ForkJoinPool)} 三个方法进行测试，并行替换结果需与顺序替换结果完全一致。
+     */
+    @Test
+    public void testToPinyinWithParallel() {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; longText.length() < 40 * 1024; i++) {
+            for (String sentence : CHINESE_SENTENCE_ARRAY) {
+                longText.append(sentence).append(i % 3 == 0 ? "\n" : (i % 3 == 1 ? "abc" : " "));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // 在文本前增加不同长度的前缀，使区间边界落在不同的字符上
+            String prefix = "的的的喀喀湖a 那里";
+            for (int i = 0; i <= prefix.length(); i++) {
+                String text = prefix.substring(0, i) + longText + prefix.substring(0, i);
+                Assert.assertEquals("Invalid parallel pinyin.", PinyinUtil.toPinyinWithToneNumber(text),
+                        PinyinUtil.toPinyinWithToneNumber(text, pool));
+                Assert.assertEquals("Invalid parallel pinyin.", PinyinUtil.toPinyinWithToneMark(text),
+                        PinyinUtil.toPinyinWithToneMark(text, pool));
+                Assert.assertEquals("Invalid parallel pinyin.", PinyinUtil.toPinyinWithoutTone(text),
+                        PinyinUtil.toPinyinWithoutTone(text, pool));
+            }
+            Assert.assertEquals("Invalid parallel pinyin.", "liang3 sui4", PinyinUtil.toPinyinWithToneNumber("两岁", pool));
+            Assert.assertNull("Null text should return null.", PinyinUtil.toPinyinWithToneNumber((CharSequence) null, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 对增补平面汉字（代理对）的拼音转换进行测试，顺序、分段、并行以及 {@code Reader} 方式的转换结果需完全一致。
+     */
+    @Test
+    public void testSupplementaryCharacter() throws Exception {
+        Assert.assertEquals("Invalid pinyin for supplementary character.", "ji2 ye3 jia1", PinyinUtil.toPinyinWithToneNumber("𠮷野家"));
+        Assert.assertEquals("Invalid pinyin for supplementary character.", "a ji2 b", PinyinUtil.toPinyinWithToneNumber("a𠮷b"));
+        Assert.assertEquals("Invalid pinyin for supplementary character.", "yǎn jí", PinyinUtil.toPinyinWithToneMark("䶮𠮷"));
+        Assert.assertEquals("Invalid pinyin initials for supplementary character.", "jyj", PinyinUtil.toPinyinInitials("𠮷野家"));
+        // 孤立的代理字符或字典中不存在的增补平面字符原样输出
+        Assert.assertEquals("Invalid pinyin for unpaired surrogate.", "\ud842 ye3", PinyinUtil.toPinyinWithToneNumber("\ud842野"));
+        Assert.assertEquals("Invalid pinyin for unknown supplementary character.", "\ud83d\ude00", PinyinUtil.toPinyinWithToneNumber("\ud83d\ude00"));
+
+        int[] syllableIds = new int[3];
+        Assert.assertEquals("Invalid syllable id count.", 3, PinyinUtil.getSyllableIds("𠮷野", 0, 3, syllableIds, 0));
+        Assert.assertTrue("Invalid syllable id for high surrogate.", syllableIds[0] >= 0);
+        Assert.assertEquals("Invalid syllable id for low surrogate.", -1, syllableIds[1]);
+
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; longText.length() < 40 * 1024; i++) {
+            for (String sentence : CHINESE_SENTENCE_ARRAY) {
+                longText.append(sentence).append(i % 2 == 0 ? "𠮷" : "䶮𠮷野家");
+            }
+        }
+        String expected = PinyinUtil.toPinyinWithToneNumber(longText.toString());
+        Assert.assertFalse("Unconverted supplementary character.", expected.contains("𠮷"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // 在文本前增加不同长度的前缀，使分段边界落在代理对的不同位置上
+            for (int i = 0; i < 3; i++) {
+                String text = "a𠮷".substring(0, i) + longText;
+                String sequential = PinyinUtil.toPinyinWithToneNumber(text);
+                Assert.assertEquals("Invalid parallel pinyin.", sequential, PinyinUtil.toPinyinWithToneNumber(text, pool));
+                StringBuilder output = new StringBuilder();
+                PinyinUtil.toPinyinWithToneNumber(text, 0, text.length(), output);
+                Assert.assertEquals("Invalid segmented pinyin.", sequential, output.toString());
+                for (int maxReadLength : new int[]{1, 7, 1024}) {
+                    StringWriter writer = new StringWriter();
+                    PinyinUtil.toPinyinWithToneNumber(new LimitedReader(text, maxReadLength), writer);
+                    Assert.assertEquals("Invalid pinyin for reader.", sequential, writer.toString());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 对 {@link PinyinUtil#warmUp()} 和 {@link PinyinUtil#getReadyFuture()} 方法进行测试。
+     */
+    @Test
+    public void testWarmUp() throws Exception {
+        CompletableFuture<Void> readyFuture = PinyinUtil.warmUp();
+        readyFuture.get(30, TimeUnit.SECONDS);
+        Assert.assertTrue("Ready future should be done after warm up.", PinyinUtil.getReadyFuture().isDone());
+        Assert.assertTrue("Ready future should be done after warm up.", PinyinUtil.warmUp().isDone());
+        Assert.assertEquals("Invalid pinyin after warm up.", "liang3 sui4", PinyinUtil.toPinyinWithToneNumber("两岁"));
+
+        // 调用方无法修改就绪状态
+        PinyinUtil.getReadyFuture().obtrudeException(new IllegalStateException());
+        Assert.assertFalse("Ready future should not be modified by caller.", PinyinUtil.getReadyFuture().isCompletedExceptionally());
+    }
+
+    /**
+     * 每次读取的字符数量受限的 {@code Reader}
+     */
+    private static class LimitedReader extends Reader {
+
+        private final StringReader reader;
+
+        private final int maxReadLength;
+
+        private LimitedReader(String text, int maxReadLength) {
+            this.reader = new StringReader(text);
+            this.maxReadLength = maxReadLength;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return reader.read(buffer, offset, Math.min(length, maxReadLength));
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
 }
@@ -147,6 +147,43 @@ public class TestPinyinDictionary {
         }
     }
 
+    /**
+     * 对 {@link PinyinDictionary#getDefaultSyllableId(int)}、{@link PinyinDictionary#getSyllableId(int, int)} 和
+     * {@link PinyinDictionary#getSyllable(int)} 方法进行测试
+     */
+    @Test
+    public void testGetSyllableId() {
+        for (int i = 0; i < VALID_CHINESE_CHARACTER_ARRAY.length; i++) {
+            int codePoint = VALID_CHINESE_CHARACTER_ARRAY[i];
+            String[] expectedPinyinArray = EXPECTED_PINYIN_WITH_TONE_NUMBER_TOW_DIMENSIONAL_ARRAY[i];
+            Assert.assertEquals("Invalid pinyin count for chinese character: `" + (char) codePoint + "`.",
+                    expectedPinyinArray.length, DICTIONARY.getPinyinCount(codePoint));
+            Assert.assertEquals("Invalid default syllable id for chinese character: `" + (char) codePoint + "`.",
+                    DICTIONARY.getSyllableId(codePoint, 0), DICTIONARY.getDefaultSyllableId(codePoint));
+            for (int j = 0; j < expectedPinyinArray.length; j++) {
+                int syllableId = DICTIONARY.getSyllableId(codePoint, j);
+                Assert.assertEquals("Invalid syllable id for chinese character: `" + (char) codePoint + "`.",
+                        DICTIONARY.getSyllableId(expectedPinyinArray[j]), syllableId);
+                Assert.assertEquals("Invalid syllable for chinese character: `" + (char) codePoint + "`.",
+                        expectedPinyinArray[j], DICTIONARY.getSyllable(syllableId));
+            }
+            Assert.assertEquals("Syllable id should not exist for chinese character: `" + (char) codePoint + "`.",
+                    -1, DICTIONARY.getSyllableId(codePoint, expectedPinyinArray.length));
+        }
+
+        // 共享音节表测试
+        Assert.assertSame("Pinyin should be shared between chinese characters.",
+                DICTIONARY.getPinyinWithToneNumber('刘')[0], DICTIONARY.getPinyinWithToneNumber('留')[0]);
+
+        for (int invalidChineseCharacter : INVALID_CHINESE_CHARACTER_ARRAY) {
+            Assert.assertEquals("`" + Integer.toString(invalidChineseCharacter, 16) + "` should not have default syllable id.",
+                    -1, DICTIONARY.getDefaultSyllableId(invalidChineseCharacter));
+            Assert.assertEquals("`" + Integer.toString(invalidChineseCharacter, 16) + "` should not have pinyin.",
+                    0, DICTIONARY.getPinyinCount(invalidChineseCharacter));
+        }
+        Assert.assertEquals("`bai` should not have syllable id.", -1, DICTIONARY.getSyllableId("bai"));
+    }
+
     /**
      * 对 {@link PinyinDictionary#removeToneNumber(String)} 方法进行测试
      */
@@ -188,4 +225,32 @@ public class TestPinyinDictionary {
             }
         }
     }
+
+    /**
+     * 对 {@link PinyinDictionary#getSyllableWithToneMark(int)}、{@link PinyinDictionary#getSyllableWithoutTone(int)} 和
+     * {@link PinyinDictionary#getSyllableInitial(int)} 方法进行测试
+     */
+    @Test
+    public void testGetSyllableWithToneMarkAndWithoutTone() {
+        for (int i = 0; i < VALID_CHINESE_CHARACTER_ARRAY.length; i++) {
+            int codePoint = VALID_CHINESE_CHARACTER_ARRAY[i];
+            String[] pinyinWithToneMarkArray = EXPECTED_PINYIN_WITH_TONE_MARK_TOW_DIMENSIONAL_ARRAY[i];
+            String[] pinyinWithoutToneArray = EXPECTED_PINYIN_WITHOUT_TONE_TOW_DIMENSIONAL_ARRAY[i];
+            for (int j = 0; j < pinyinWithToneMarkArray.length; j++) {
+                int syllableId = DICTIONARY.getSyllableId(codePoint, j);
+                Assert.assertEquals("Get syllable with tone mark failed.", pinyinWithToneMarkArray[j],
+                        DICTIONARY.getSyllableWithToneMark(syllableId));
+                Assert.assertEquals("Get syllable without tone failed.", pinyinWithoutToneArray[j],
+                        DICTIONARY.getSyllableWithoutTone(syllableId));
+                Assert.assertEquals("Get syllable initial failed.", pinyinWithoutToneArray[j].charAt(0),
+                        DICTIONARY.getSyllableInitial(syllableId));
+            }
+        }
+
+        // 预先计算结果共享测试
+        Assert.assertSame("Pinyin with tone mark should be cached.",
+                DICTIONARY.toPinyinWithToneMark("lv3"), DICTIONARY.toPinyinWithToneMark("lv3"));
+        Assert.assertSame("Pinyin without tone should be shared between tones.",
+                DICTIONARY.removeToneNumber("di1"), DICTIONARY.removeToneNumber("di4"));
+    }
 }
@@ -80,6 +80,27 @@ public class TestPinyinDictionaryHelper {
         }
     }
 
+    /**
+     * 对 {@link PinyinDictionaryHelper#isCjkIdeograph(int)} 方法进行测试
+     */
+    @Test
+    public void testIsCjkIdeograph() {
+        for (int validChineseCharacter : VALID_CHINESE_CHARACTER_ARRAY) {
+            Assert.assertTrue(PinyinDictionaryHelper.isCjkIdeograph(validChineseCharacter));
+        }
+        int[] extensionCharacters = new int[] {0x3400, 0x4dbf, 0x9fa5 + 1, 0x9fff, 0xf900, 0xfaff, 0x20000, 0x20bb7, 0x2a700, 0x2ee5f, 0x2f800, 0x3134a, 0x323af};
+        for (int extensionCharacter : extensionCharacters) {
+            Assert.assertTrue("`" + Integer.toString(extensionCharacter, 16) + "` is not a valid cjk ideograph.",
+                    PinyinDictionaryHelper.isCjkIdeograph(extensionCharacter));
+            Assert.assertFalse(PinyinDictionaryHelper.isChineseCharacter(extensionCharacter));
+        }
+        int[] invalidCharacters = new int[] {0x3400 - 1, 0x4dc0, 0x4e00 - 1, 0xfb00, 0x1ffff, 0x2a6e0, 0x2ee60, 0x2fa20, 0x323b0, 0x40000, -1, '.', '，', 'a'};
+        for (int invalidCharacter : invalidCharacters) {
+            Assert.assertFalse("`" + Integer.toString(invalidCharacter, 16) + "` is a valid cjk ideograph.",
+                    PinyinDictionaryHelper.isCjkIdeograph(invalidCharacter));
+        }
+    }
+
     /**
      * 对 {@link PinyinDictionaryHelper#isPinyinWithToneNumber(String)} 方法进行测试
      */
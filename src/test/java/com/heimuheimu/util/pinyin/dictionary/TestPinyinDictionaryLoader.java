@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link PinyinDictionaryLoader} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinDictionaryLoader {
+
+    private static final String PINYIN_MAPPING_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt";
+
+    private static final String PINYIN_MAPPING_EXTENSION_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping_extension.txt";
+
+    /**
+     * 基本区以外的汉字 UNICODE 编码值数组，包括扩展 A 区、增补平面扩展区以及兼容汉字
+     */
+    private static final int[] EXTENSION_CODE_POINT_ARRAY = new int[] {
+            0x4dae, 0x20bb7, 0x2cc56, 0xf900, 0xf9a8, 0x2f800, 0x3400 - 1, 0x2ffff
+    };
+
+    /**
+     * 对 {@link PinyinDictionaryLoader#writeBinary(PinyinDictionary, java.io.OutputStream)} 和
+     * {@link PinyinDictionaryLoader#loadBinary(InputStream)} 方法进行测试，二进制文件加载的字典需与文本文件加载的字典一致
+     */
+    @Test
+    public void testBinary() throws Exception {
+        PinyinDictionary textDictionary = loadTextDictionary();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PinyinDictionaryLoader.writeBinary(textDictionary, out);
+        byte[] binary = out.toByteArray();
+        PinyinDictionary binaryDictionary = PinyinDictionaryLoader.loadBinary(new ByteArrayInputStream(binary));
+
+        Assert.assertEquals("Invalid syllable count.", textDictionary.getSyllableCount(), binaryDictionary.getSyllableCount());
+        for (int codePoint = PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+             codePoint <= PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT; codePoint++) {
+            Assert.assertArrayEquals("Invalid pinyin array for chinese character: `" + (char) codePoint + "`.",
+                    textDictionary.getPinyinWithToneNumber(codePoint), binaryDictionary.getPinyinWithToneNumber(codePoint));
+        }
+        for (int codePoint : EXTENSION_CODE_POINT_ARRAY) {
+            Assert.assertArrayEquals("Invalid pinyin array for chinese character: `" + Integer.toString(codePoint, 16) + "`.",
+                    textDictionary.getPinyinWithToneNumber(codePoint), binaryDictionary.getPinyinWithToneNumber(codePoint));
+        }
+
+        // 格式版本不一致测试
+        binary[7]++;
+        try {
+            PinyinDictionaryLoader.loadBinary(new ByteArrayInputStream(binary));
+            Assert.fail("PinyinDictionaryLoader#loadBinary(InputStream) didn't throw IllegalArgumentException when i used invalid version.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinDictionaryLoader#mapBinary(Path)} 方法进行测试，内存映射加载的字典需与文本文件加载的字典一致
+     */
+    @Test
+    public void testMapBinary() throws Exception {
+        PinyinDictionary textDictionary = loadTextDictionary();
+        Path path = Files.createTempFile("pinyin_mapping", ".bin");
+        path.toFile().deleteOnExit();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PinyinDictionaryLoader.writeBinary(textDictionary, out);
+        Files.write(path, out.toByteArray());
+        PinyinDictionary mappedDictionary = PinyinDictionaryLoader.mapBinary(path);
+
+        Assert.assertEquals("Invalid syllable count.", textDictionary.getSyllableCount(), mappedDictionary.getSyllableCount());
+        for (int codePoint = PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+             codePoint <= PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT; codePoint++) {
+            Assert.assertArrayEquals("Invalid pinyin array for chinese character: `" + (char) codePoint + "`.",
+                    textDictionary.getPinyinWithToneNumber(codePoint), mappedDictionary.getPinyinWithToneNumber(codePoint));
+            Assert.assertEquals("Invalid default syllable id for chinese character: `" + (char) codePoint + "`.",
+                    textDictionary.getDefaultSyllableId(codePoint), mappedDictionary.getDefaultSyllableId(codePoint));
+        }
+        for (int codePoint : EXTENSION_CODE_POINT_ARRAY) {
+            Assert.assertEquals("Invalid default syllable id for chinese character: `" + Integer.toString(codePoint, 16) + "`.",
+                    textDictionary.getDefaultSyllableId(codePoint), mappedDictionary.getDefaultSyllableId(codePoint));
+        }
+
+        // 内存映射加载的字典可再次写出相同的二进制内容
+        ByteArrayOutputStream mappedOut = new ByteArrayOutputStream();
+        PinyinDictionaryLoader.writeBinary(mappedDictionary, mappedOut);
+        Assert.assertArrayEquals("Invalid binary content for mapped dictionary.", out.toByteArray(), mappedOut.toByteArray());
+    }
+
+    /**
+     * 对 {@link PinyinDictionaryLoader#loadText(InputStream)} 方法进行测试
+     */
+    @Test
+    public void testLoadText() throws Exception {
+        PinyinDictionary dictionary = PinyinDictionaryLoader.loadText(new ByteArrayInputStream("yi1\nding1,zheng1".getBytes("UTF-8")));
+        Assert.assertArrayEquals("Invalid pinyin array for chinese character: `丁`.", new String[]{"ding1", "zheng1"},
+                dictionary.getPinyinWithToneNumber('丁'));
+        Assert.assertNull("`七` should not have pinyin array.", dictionary.getPinyinWithToneNumber('七'));
+
+        try {
+            PinyinDictionaryLoader.loadText(new ByteArrayInputStream("yi1\nding".getBytes("UTF-8")));
+            Assert.fail("PinyinDictionaryLoader#loadText(InputStream) didn't throw IllegalArgumentException when i used invalid pinyin.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinDictionaryLoader#loadText(InputStream, InputStream)} 方法进行测试
+     */
+    @Test
+    public void testLoadTextWithExtension() throws Exception {
+        PinyinDictionary dictionary = loadTextDictionary();
+        Assert.assertArrayEquals(new String[]{"yan3"}, dictionary.getPinyinWithToneNumber(0x4dae));
+        Assert.assertArrayEquals(new String[]{"ji2"}, dictionary.getPinyinWithToneNumber(0x20bb7));
+        Assert.assertEquals(dictionary.getSyllableId("ji2"), dictionary.getDefaultSyllableId(0x20bb7));
+        Assert.assertEquals(1, dictionary.getPinyinCount(0x20bb7));
+        Assert.assertEquals(-1, dictionary.getSyllableId(0x20bb7, 1));
+        // 兼容汉字 0xf900 规范化后为 "豈"，0xf9a8 规范化后为 "令"
+        Assert.assertArrayEquals(dictionary.getPinyinWithToneNumber('豈'), dictionary.getPinyinWithToneNumber(0xf900));
+        Assert.assertArrayEquals(dictionary.getPinyinWithToneNumber('令'), dictionary.getPinyinWithToneNumber(0xf9a8));
+        Assert.assertNull(dictionary.getPinyinWithToneNumber(0x3400 - 1));
+        Assert.assertNull(dictionary.getPinyinWithToneNumber(0x2ffff));
+        Assert.assertNull(dictionary.getPinyinWithToneNumber(Character.MAX_CODE_POINT + 1));
+        Assert.assertNull(dictionary.getPinyinWithToneNumber(-1));
+
+        String extensionText = "# comment\n\n20bb7=ji2\n2b5af=fu3,fu4\n";
+        dictionary = PinyinDictionaryLoader.loadText(new ByteArrayInputStream("yi1".getBytes("UTF-8")),
+                new ByteArrayInputStream(extensionText.getBytes("UTF-8")));
+        Assert.assertArrayEquals(new String[]{"fu3", "fu4"}, dictionary.getPinyinWithToneNumber(0x2b5af));
+        Assert.assertEquals(4, dictionary.getSyllableCount());
+
+        String[] invalidExtensionTexts = new String[] {"4e00=yi1", "20bb7", "20bb7=ji", "xyz=ji2", "20bb7=ji2\n20bb7=ji2", "41=a1"};
+        for (String invalidExtensionText : invalidExtensionTexts) {
+            try {
+                PinyinDictionaryLoader.loadText(new ByteArrayInputStream("yi1".getBytes("UTF-8")),
+                        new ByteArrayInputStream(invalidExtensionText.getBytes("UTF-8")));
+                Assert.fail("Expected throw IllegalArgumentException: `" + invalidExtensionText + "`.");
+            } catch (IllegalArgumentException ignored) {}
+        }
+    }
+
+    private static PinyinDictionary loadTextDictionary() throws Exception {
+        try (InputStream in = TestPinyinDictionaryLoader.class.getResourceAsStream(PINYIN_MAPPING_FILE_PATH);
+             InputStream extensionIn = TestPinyinDictionaryLoader.class.getResourceAsStream(PINYIN_MAPPING_EXTENSION_FILE_PATH)) {
+            return PinyinDictionaryLoader.loadText(in, extensionIn);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * {@link PinyinExtensionGenerator} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinExtensionGenerator {
+
+    private static final String PINYIN_MAPPING_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/pinyin_mapping.txt";
+
+    /**
+     * Unihan_Readings.txt 文件片段，包含扩展 A 区、基本区、兼容汉字以及增补平面扩展区汉字
+     */
+    private static final String UNIHAN_READINGS = "# Unihan_Readings.txt\n"
+            + "U+344A\tkDefinition\tsick\n"
+            + "U+344A\tkHanyuPinyin\t10180.030:yì,yí\n"
+            + "U+344A\tkMandarin\tyì\n"
+            + "U+4C9F\tkMandarin\tyìn\n"
+            + "U+4E2D\tkMandarin\tzhōng\n"
+            + "U+F900\tkMandarin\tgēng\n"
+            + "U+20BB7\tkMandarin\tjí\n"
+            + "U+20BB7\tkXHC1983\t0525.010:jí\n"
+            + "U+2A6A5\tkHanyuPinyin\t10012.010:lǘ\n"
+            + "U+2A6A6\tkHanyuPinyin\t10012.020:ê̄\n";
+
+    /**
+     * 对 {@link PinyinExtensionGenerator#parseUnihanReadings(InputStream)} 方法进行测试
+     */
+    @Test
+    public void testParseUnihanReadings() throws Exception {
+        Map<Integer, String[]> extensionPinyinMap = PinyinExtensionGenerator.parseUnihanReadings(
+                new ByteArrayInputStream(UNIHAN_READINGS.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(4, extensionPinyinMap.size());
+        Assert.assertArrayEquals(new String[] {"yi4", "yi2"}, extensionPinyinMap.get(0x344a));
+        Assert.assertArrayEquals(new String[] {"yin4"}, extensionPinyinMap.get(0x4c9f));
+        Assert.assertArrayEquals(new String[] {"ji2"}, extensionPinyinMap.get(0x20bb7));
+        Assert.assertArrayEquals(new String[] {"lv2"}, extensionPinyinMap.get(0x2a6a5));
+        Assert.assertFalse("Basic chinese character should be skipped.", extensionPinyinMap.containsKey(0x4e2d));
+        Assert.assertFalse("Compatibility ideograph should be skipped.", extensionPinyinMap.containsKey(0xf900));
+        Assert.assertFalse("Invalid pinyin should be skipped.", extensionPinyinMap.containsKey(0x2a6a6));
+        try {
+            PinyinExtensionGenerator.parseUnihanReadings(new ByteArrayInputStream("U+344A kMandarin yì\n".getBytes(StandardCharsets.UTF_8)));
+            Assert.fail("PinyinExtensionGenerator#parseUnihanReadings didn't throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinExtensionGenerator#writeExtensionText(Map, java.io.OutputStream)} 方法进行测试，生成的文件需能够被
+     * {@link PinyinDictionaryLoader} 加载
+     */
+    @Test
+    public void testWriteExtensionText() throws Exception {
+        Map<Integer, String[]> extensionPinyinMap = PinyinExtensionGenerator.parseUnihanReadings(
+                new ByteArrayInputStream(UNIHAN_READINGS.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PinyinExtensionGenerator.writeExtensionText(extensionPinyinMap, out);
+        PinyinDictionary dictionary;
+        try (InputStream in = TestPinyinExtensionGenerator.class.getResourceAsStream(PINYIN_MAPPING_FILE_PATH)) {
+            dictionary = PinyinDictionaryLoader.loadText(in, new ByteArrayInputStream(out.toByteArray()));
+        }
+        for (Map.Entry<Integer, String[]> entry : extensionPinyinMap.entrySet()) {
+            Assert.assertArrayEquals(entry.getValue(), dictionary.getPinyinWithToneNumber(entry.getKey()));
+        }
+        Assert.assertEquals("zhong1", dictionary.getPinyinWithToneNumber(0x4e2d)[0]);
+    }
+
+    /**
+     * 对 {@link PinyinExtensionGenerator#toPinyinWithToneNumber(String)} 方法进行测试
+     */
+    @Test
+    public void testToPinyinWithToneNumber() {
+        Assert.assertEquals("zhong1", PinyinExtensionGenerator.toPinyinWithToneNumber("zhōng"));
+        Assert.assertEquals("lv3", PinyinExtensionGenerator.toPinyinWithToneNumber("lǚ"));
+        Assert.assertEquals("nv5", PinyinExtensionGenerator.toPinyinWithToneNumber("nü"));
+        Assert.assertEquals("n4", PinyinExtensionGenerator.toPinyinWithToneNumber("ǹ"));
+        Assert.assertEquals("m2", PinyinExtensionGenerator.toPinyinWithToneNumber("ḿ"));
+        Assert.assertEquals("de5", PinyinExtensionGenerator.toPinyinWithToneNumber("de"));
+        Assert.assertNull(PinyinExtensionGenerator.toPinyinWithToneNumber("ê̄"));
+    }
+}
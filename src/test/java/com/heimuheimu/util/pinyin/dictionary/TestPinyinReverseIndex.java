@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.dictionary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * {@link PinyinReverseIndex} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinReverseIndex {
+
+    private static final PinyinDictionary PINYIN_DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    private static final PinyinReverseIndex REVERSE_INDEX = PinyinDictionaryFactory.getReverseIndex();
+
+    @Test
+    public void testGetCharacters() {
+        Assert.assertSame(REVERSE_INDEX, PinyinDictionaryFactory.getReverseIndex());
+        String zhong1 = new String(REVERSE_INDEX.getCharacters("zhong1"));
+        Assert.assertTrue(zhong1.indexOf('中') >= 0);
+        Assert.assertTrue(zhong1.indexOf('钟') >= 0);
+        Assert.assertTrue(zhong1.indexOf('重') < 0);
+        // "中" 的默认拼音为 zhong1，多音字 "种" 的默认拼音不为 zhong1，默认拼音匹配的汉字排在前面
+        String zhong4 = new String(REVERSE_INDEX.getCharacters("zhong4"));
+        Assert.assertTrue(zhong4.indexOf('重') >= 0);
+        Assert.assertTrue(zhong4.indexOf('中') > zhong4.indexOf('众'));
+        Assert.assertNull(REVERSE_INDEX.getCharacters("abc1"));
+
+        int syllableId = PINYIN_DICTIONARY.getSyllableId("shu3");
+        char[] output = new char[REVERSE_INDEX.getCharacterCount(syllableId) + 2];
+        Assert.assertEquals(output.length - 2, REVERSE_INDEX.getCharacters(syllableId, output, 2));
+        Assert.assertArrayEquals(REVERSE_INDEX.getCharacters(syllableId), Arrays.copyOfRange(output, 2, output.length));
+    }
+
+    @Test
+    public void testGetCharactersWithoutTone() {
+        String shu = new String(REVERSE_INDEX.getCharactersWithoutTone("shu"));
+        Assert.assertEquals(shu.indexOf('数'), shu.lastIndexOf('数'));
+        Assert.assertTrue(shu.indexOf('数') >= 0);
+        Assert.assertTrue(shu.indexOf('书') >= 0);
+        Assert.assertNull(REVERSE_INDEX.getCharactersWithoutTone("shu1"));
+        Assert.assertTrue(new String(REVERSE_INDEX.getCharactersWithoutTone("yan")).indexOf('䶮') >= 0);
+        Assert.assertEquals(REVERSE_INDEX.getTonelessId("shu"), REVERSE_INDEX.getTonelessId(PINYIN_DICTIONARY.getSyllableId("shu4")));
+        Assert.assertEquals("shu", REVERSE_INDEX.getSyllableWithoutTone(REVERSE_INDEX.getTonelessId("shu")));
+    }
+
+    @Test
+    public void testTonelessId() {
+        TonelessSyllableTable syllableTable = PINYIN_DICTIONARY.getTonelessSyllableTable();
+        Assert.assertSame(syllableTable, PINYIN_DICTIONARY.getTonelessSyllableTable());
+        Assert.assertEquals(syllableTable.getSyllableCount(), REVERSE_INDEX.getTonelessCount());
+        for (int syllableId = 0; syllableId < PINYIN_DICTIONARY.getSyllableCount(); syllableId++) {
+            Assert.assertEquals(syllableTable.getTonelessIdBySyllableId(syllableId), REVERSE_INDEX.getTonelessId(syllableId));
+        }
+        for (int tonelessId = 0; tonelessId < syllableTable.getSyllableCount(); tonelessId++) {
+            Assert.assertEquals(syllableTable.getSyllable(tonelessId), REVERSE_INDEX.getSyllableWithoutTone(tonelessId));
+            Assert.assertEquals(tonelessId, REVERSE_INDEX.getTonelessId(syllableTable.getSyllable(tonelessId)));
+        }
+    }
+
+    @Test
+    public void testConsistency() {
+        int totalCount = 0;
+        for (int syllableId = 0; syllableId < PINYIN_DICTIONARY.getSyllableCount(); syllableId++) {
+            for (char c : REVERSE_INDEX.getCharacters(syllableId)) {
+                boolean found = false;
+                for (int i = 0; i < PINYIN_DICTIONARY.getPinyinCount(c); i++) {
+                    found |= PINYIN_DICTIONARY.getSyllableId(c, i) == syllableId;
+                }
+                Assert.assertTrue("Invalid character: `" + c + "`. Syllable: `" + PINYIN_DICTIONARY.getSyllable(syllableId) + "`.", found);
+                totalCount++;
+            }
+        }
+        // 索引包含基本平面中的所有汉字，包括扩展 A 区汉字和兼容汉字
+        int expectedCount = 0;
+        for (int codePoint = 0; codePoint <= Character.MAX_VALUE; codePoint++) {
+            expectedCount += PINYIN_DICTIONARY.getPinyinCount(codePoint);
+        }
+        Assert.assertEquals(expectedCount, totalCount);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.metrics;
+
+import com.heimuheimu.util.pinyin.PinyinConverter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link PinyinMetrics} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinMetrics {
+
+    @Test
+    public void testRecord() {
+        PinyinMetrics metrics = new PinyinMetrics();
+        metrics.recordConversion(PinyinConversionType.TONE_NUMBER, 10, 1000);
+        metrics.recordConversion(PinyinConversionType.TONE_NUMBER, 5, 0);
+        metrics.recordConversion(PinyinConversionType.INITIALS, 3, 3000);
+        metrics.recordPolyphone('数', true);
+        metrics.recordPolyphone('数', false);
+        metrics.recordPolyphone('数', false);
+        metrics.recordPolyphone(0x20bb7, true);
+        metrics.recordSelection(2, 3, 1, 7);
+
+        Assert.assertEquals(3, metrics.getConversionCount());
+        Assert.assertEquals(2, metrics.getConversionCount(PinyinConversionType.TONE_NUMBER));
+        Assert.assertEquals(Long.valueOf(1), metrics.getConversionCounts().get("INITIALS"));
+        Assert.assertEquals(18, metrics.getCharacterCount());
+        // 1000 纳秒位于 [512, 1024) 区间，0 纳秒位于第一个区间
+        long[] histogram = metrics.getLatencyHistogram(PinyinConversionType.TONE_NUMBER);
+        Assert.assertEquals(1, histogram[9]);
+        Assert.assertEquals(1, histogram[0]);
+        Assert.assertEquals(1, metrics.getLatencyHistograms().get("INITIALS")[11]);
+
+        Map<String, long[]> polyphoneStatistics = metrics.getPolyphoneStatistics();
+        Assert.assertEquals(1, polyphoneStatistics.size());
+        Assert.assertArrayEquals(new long[]{1, 2}, polyphoneStatistics.get("数"));
+        Assert.assertEquals(2, metrics.getPolyphoneMatchedCount());
+        Assert.assertEquals(3, metrics.getPolyphoneDefaultCount());
+        Assert.assertEquals(5, metrics.getPolyphoneLookupCount());
+        Assert.assertEquals(1, metrics.getDictionaryMissCount());
+        Assert.assertEquals(7, metrics.getMatcherComparisonCount());
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getConversionCount());
+        Assert.assertEquals(0, metrics.getCharacterCount());
+        Assert.assertEquals(0, metrics.getPolyphoneLookupCount());
+        Assert.assertEquals(0, metrics.getLatencyHistogram(PinyinConversionType.TONE_NUMBER)[9]);
+        Assert.assertTrue(metrics.getPolyphoneStatistics().isEmpty());
+    }
+
+    @Test
+    public void testListener() {
+        PinyinMetrics metrics = new PinyinMetrics();
+        AtomicLong characterCount = new AtomicLong();
+        AtomicInteger matchedCount = new AtomicInteger();
+        PinyinMetricsListener listener = new PinyinMetricsListener() {
+
+            @Override
+            public void onConversion(PinyinConversionType type, int count, long elapsedNanos) {
+                characterCount.addAndGet(count);
+            }
+
+            @Override
+            public void onPolyphone(int codePoint, boolean matched) {
+                if (matched) {
+                    matchedCount.incrementAndGet();
+                }
+            }
+        };
+        metrics.addListener(listener);
+        metrics.recordConversion(PinyinConversionType.TONE_MARK, 4, 100);
+        metrics.recordPolyphone('数', true);
+        Assert.assertEquals(4, characterCount.get());
+        Assert.assertEquals(1, matchedCount.get());
+
+        metrics.removeListener(listener);
+        metrics.recordConversion(PinyinConversionType.TONE_MARK, 4, 100);
+        Assert.assertEquals(4, characterCount.get());
+
+        try {
+            metrics.addListener(null);
+            Assert.fail("PinyinMetrics#addListener(PinyinMetricsListener) didn't throw NullPointerException when i used null.");
+        } catch (NullPointerException ignored) {}
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        PinyinMetrics metrics = new PinyinMetrics();
+        ObjectName objectName = metrics.register(new ObjectName("com.heimuheimu.util.pinyin:type=PinyinMetrics,name=test"));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            metrics.recordConversion(PinyinConversionType.WITHOUT_TONE, 8, 100);
+            Assert.assertEquals(1L, server.getAttribute(objectName, "ConversionCount"));
+            Assert.assertEquals(8L, server.getAttribute(objectName, "CharacterCount"));
+            server.invoke(objectName, "reset", null, null);
+            Assert.assertEquals(0L, server.getAttribute(objectName, "ConversionCount"));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    public void testConverter() throws Exception {
+        PinyinMetrics metrics = new PinyinMetrics();
+        PinyinConverter converter = new PinyinConverter.Builder().setMetrics(metrics).build();
+        Assert.assertSame(metrics, converter.getMetrics());
+        Assert.assertNull(new PinyinConverter.Builder().build().getMetrics());
+
+        String text = "两岁能数数的小孩已数见不鲜了。";
+        Assert.assertEquals("liang3 sui4 neng2 shu3 shu4 de5 xiao3 hai2 yi3 shuo4 jian4 bu4 xian1 le5 。",
+                converter.toPinyinWithToneNumber(text));
+        Assert.assertEquals(1, metrics.getConversionCount(PinyinConversionType.TONE_NUMBER));
+        Assert.assertEquals(text.length(), metrics.getCharacterCount());
+        long[] statistics = metrics.getPolyphoneStatistics().get("数");
+        Assert.assertEquals(3, statistics[0] + statistics[1]);
+        Assert.assertTrue(statistics[0] > 0);
+        Assert.assertEquals(metrics.getPolyphoneMatchedCount() + metrics.getPolyphoneDefaultCount(), metrics.getPolyphoneLookupCount());
+        Assert.assertTrue(metrics.getMatcherComparisonCount() > 0);
+        Assert.assertEquals(0, metrics.getDictionaryMissCount());
+
+        // 基本区末尾以及增补平面中没有拼音的汉字计为字典未命中
+        metrics.reset();
+        converter.toPinyinInitials("鿿中𪚥");
+        Assert.assertEquals(1, metrics.getConversionCount(PinyinConversionType.INITIALS));
+        Assert.assertEquals(2, metrics.getDictionaryMissCount());
+
+        metrics.reset();
+        StringWriter writer = new StringWriter();
+        converter.toPinyinWithToneMark(new StringReader(text), writer);
+        Assert.assertEquals(converter.toPinyinWithToneMark(text), writer.toString());
+        Assert.assertEquals(2, metrics.getConversionCount(PinyinConversionType.TONE_MARK));
+        Assert.assertEquals(2 * text.length(), metrics.getCharacterCount());
+        Assert.assertEquals(6, metrics.getPolyphoneStatistics().get("数")[0] + metrics.getPolyphoneStatistics().get("数")[1]);
+
+        metrics.reset();
+        int[] syllableIds = new int[text.length()];
+        converter.getSyllableIds(text, 0, text.length(), syllableIds, 0);
+        Assert.assertEquals(1, metrics.getConversionCount(PinyinConversionType.SYLLABLE_IDS));
+    }
+}
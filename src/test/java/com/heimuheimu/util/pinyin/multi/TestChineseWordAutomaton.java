@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ChineseWordAutomaton} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestChineseWordAutomaton {
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    private static final ChineseWordAutomaton AUTOMATON = PinyinSelectorFactory.getAutomaton();
+
+    /**
+     * 对 {@link ChineseWordAutomaton#select(CharSequence, int, int, int[])} 方法进行测试，选择结果需与
+     * {@link PinyinSelector#getPinyin(char[], int)} 方法保持一致
+     */
+    @Test
+    public void testSelect() throws Exception {
+        assertSameAsSelector("那里的的的喀喀湖的景色很漂亮");
+        assertSameAsSelector("独乐乐不如众乐乐，音乐使人快乐。");
+        assertSameAsSelector("铁板钉钉，万俟卨");
+        assertSameAsSelector("abc长行，行长abc");
+
+        // 将多音字词库中的所有词组拼接为一个文本进行测试，覆盖所有词组以及跨词组命中的情况
+        StringBuilder buffer = new StringBuilder();
+        try (InputStream in = TestChineseWordAutomaton.class.getResourceAsStream("/com/heimuheimu/util/pinyin/dictionary/multi_pinyin_mapping.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                for (int i = 1; i < parts.length; i++) {
+                    buffer.append(parts[i].trim().split("_")[0]);
+                }
+            }
+        }
+        assertSameAsSelector(buffer.toString());
+    }
+
+    /**
+     * 对 {@link ChineseWordAutomaton#select(CharSequence, int, int, int[])} 方法的区间参数进行测试
+     */
+    @Test
+    public void testSelectRange() {
+        String text = "那里的的的喀喀湖";
+        int[] syllableIds = new int[text.length()];
+        // 区间外的字符不参与词组匹配
+        AUTOMATON.select(text, 3, 5, syllableIds);
+        Assert.assertEquals("Select wrong pinyin for chinese character `的`.", "de5", DICTIONARY.getSyllable(syllableIds[0]));
+        Assert.assertEquals("Select wrong pinyin for chinese character `的`.", "de5", DICTIONARY.getSyllable(syllableIds[1]));
+
+        AUTOMATON.select(text, 0, text.length(), syllableIds);
+        Assert.assertEquals("Select wrong pinyin for chinese character `的`.", "di2", DICTIONARY.getSyllable(syllableIds[3]));
+        Assert.assertEquals("`湖` is not a multi pinyin character.", -1, syllableIds[7]);
+    }
+
+    private static void assertSameAsSelector(String text) {
+        char[] targetCharacters = text.toCharArray();
+        int[] syllableIds = new int[targetCharacters.length];
+        AUTOMATON.select(text, 0, targetCharacters.length, syllableIds);
+        for (int i = 0; i < targetCharacters.length; i++) {
+            PinyinSelector selector = PinyinSelectorFactory.getSelector(targetCharacters[i]);
+            if (selector != null) {
+                String expectedPinyin = selector.getPinyin(targetCharacters, i);
+                Assert.assertEquals("Select wrong pinyin for chinese character `" + targetCharacters[i] + "`. Index: `" + i + "`.",
+                        expectedPinyin, DICTIONARY.getSyllable(syllableIds[i]));
+            } else {
+                Assert.assertEquals("`" + targetCharacters[i] + "` is not a multi pinyin character.", -1, syllableIds[i]);
+            }
+        }
+    }
+}
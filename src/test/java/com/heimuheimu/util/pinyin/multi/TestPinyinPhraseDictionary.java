@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link PinyinPhraseDictionary} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinPhraseDictionary {
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    /**
+     * 用于验证未命中字符的选择结果保持不变的初始选择结果
+     */
+    private static final int UNCHANGED = Integer.MAX_VALUE;
+
+    /**
+     * 对 {@link PinyinPhraseDictionary#select(CharSequence, int, int, int[])} 方法进行测试
+     */
+    @Test
+    public void testSelect() {
+        Map<String, String[]> phraseMap = new LinkedHashMap<>();
+        phraseMap.put("音乐", new String[]{"yin1", "yue4"});
+        phraseMap.put("乐亭", new String[]{"lao4", "ting2"});
+        phraseMap.put("乐亭县", new String[]{"le4", "ting2", "xian4"});
+        PinyinPhraseDictionary phraseDictionary = new PinyinPhraseDictionary(DICTIONARY, phraseMap);
+        Assert.assertEquals(3, phraseDictionary.getPhraseCount());
+        Assert.assertEquals(3, phraseDictionary.getMaxPhraseLength());
+
+        // 未命中的字符保持原有的选择结果，同一个字符被多个词组命中时，选择在词典中位置最靠前的词组
+        Assert.assertEquals("a 1 lao4 ting2 xian4 b", select(phraseDictionary, "a一乐亭县b"));
+        Assert.assertEquals("yin1 yue4 ting2", select(phraseDictionary, "音乐亭"));
+        Assert.assertEquals("1 1 1", select(phraseDictionary, "一二三"));
+
+        // 只有完整位于区间内的词组才会参与匹配
+        String text = "乐亭乐亭";
+        int[] syllableIds = new int[]{-1, -1, -1};
+        phraseDictionary.select(text, 1, 4, syllableIds);
+        Assert.assertEquals(-1, syllableIds[0]);
+        Assert.assertEquals(DICTIONARY.getSyllableId("lao4"), syllableIds[1]);
+        Assert.assertEquals(DICTIONARY.getSyllableId("ting2"), syllableIds[2]);
+
+        PinyinPhraseDictionary emptyDictionary = new PinyinPhraseDictionary(DICTIONARY, new LinkedHashMap<>());
+        Assert.assertEquals("a 1", select(emptyDictionary, "a一"));
+    }
+
+    /**
+     * 对 {@link PinyinPhraseDictionary} 构造函数的参数校验进行测试
+     */
+    @Test
+    public void testInvalidPhrase() {
+        String[][] invalidPhrases = new String[][] {
+                {"", "yi1"}, {"乐亭", "lao4"}, {"乐a", "lao4", "a1"}, {"乐亭", "lao4", "tttt2"}
+        };
+        for (String[] invalidPhrase : invalidPhrases) {
+            Map<String, String[]> phraseMap = new LinkedHashMap<>();
+            phraseMap.put(invalidPhrase[0], Arrays.copyOfRange(invalidPhrase, 1, invalidPhrase.length));
+            try {
+                new PinyinPhraseDictionary(DICTIONARY, phraseMap);
+                Assert.fail("Expected throw IllegalArgumentException: `" + Arrays.toString(invalidPhrase) + "`.");
+            } catch (IllegalArgumentException ignored) {}
+        }
+    }
+
+    /**
+     * 使用词典对文本进行拼音选择，中文字符的初始选择结果为 {@link #UNCHANGED}，非中文字符的初始选择结果为 -1，
+     * 返回以空格分隔的选择结果，选择结果未改变的中文字符输出 "1"，其它中文字符输出拼音，非中文字符原样输出。
+     */
+    private static String select(PinyinPhraseDictionary phraseDictionary, String text) {
+        int[] syllableIds = new int[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            syllableIds[i] = DICTIONARY.getDefaultSyllableId(text.charAt(i)) >= 0 ? UNCHANGED : -1;
+        }
+        phraseDictionary.select(text, 0, text.length(), syllableIds);
+        StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.length() > 0) {
+                buffer.append(' ');
+            }
+            if (syllableIds[i] == UNCHANGED) {
+                buffer.append('1');
+            } else if (syllableIds[i] < 0) {
+                buffer.append(text.charAt(i));
+            } else {
+                buffer.append(DICTIONARY.getSyllable(syllableIds[i]));
+            }
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.multi;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PinyinSelectorLoader} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinSelectorLoader {
+
+    private static final String MULTI_PINYIN_MAPPING_FILE_PATH = "/com/heimuheimu/util/pinyin/dictionary/multi_pinyin_mapping.txt";
+
+    private static final PinyinDictionary DICTIONARY = PinyinDictionaryFactory.getDictionary();
+
+    /**
+     * 对 {@link PinyinSelectorLoader#writeBinary(ChineseWordAutomaton, PinyinDictionary, java.io.OutputStream)} 和
+     * {@link PinyinSelectorLoader#loadBinary(InputStream, PinyinDictionary)} 方法进行测试，二进制文件加载的自动机需与文本文件加载的自动机一致
+     */
+    @Test
+    public void testBinary() throws Exception {
+        ChineseWordAutomaton textAutomaton;
+        try (InputStream in = TestPinyinSelectorLoader.class.getResourceAsStream(MULTI_PINYIN_MAPPING_FILE_PATH)) {
+            textAutomaton = PinyinSelectorLoader.loadText(in, DICTIONARY);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PinyinSelectorLoader.writeBinary(textAutomaton, DICTIONARY, out);
+        ChineseWordAutomaton binaryAutomaton = PinyinSelectorLoader.loadBinary(new ByteArrayInputStream(out.toByteArray()), DICTIONARY);
+        Assert.assertTrue(PinyinSelectorLoader.isSyllableTableMatched(ByteBuffer.wrap(out.toByteArray()), DICTIONARY));
+        Assert.assertFalse(PinyinSelectorLoader.isSyllableTableMatched(ByteBuffer.wrap(out.toByteArray()),
+                new PinyinDictionary(Collections.singletonMap(0x4e00, new String[] {"yi1"}))));
+
+        String text = "那里的的的喀喀湖的景色很漂亮，独乐乐不如众乐乐，铁板钉钉，万俟卨，两岁能数数的小孩已数见不鲜了。";
+        int[] expectedSyllableIds = new int[text.length()];
+        int[] actualSyllableIds = new int[text.length()];
+        textAutomaton.select(text, 0, text.length(), expectedSyllableIds);
+        binaryAutomaton.select(text, 0, text.length(), actualSyllableIds);
+        Assert.assertArrayEquals("Invalid select result for binary automaton.", expectedSyllableIds, actualSyllableIds);
+        Assert.assertEquals("Invalid max word length for binary automaton.", textAutomaton.getMaxWordLength(),
+                binaryAutomaton.getMaxWordLength());
+
+        PinyinSelector selector = binaryAutomaton.getSelector('万');
+        Assert.assertNotNull("There is no PinyinSelector for chinese character `万`.", selector);
+        Assert.assertEquals("Select wrong pinyin for chinese character `万`.", "mo4", selector.getPinyin("万俟卨".toCharArray(), 0));
+        // 多音字拼音选择器在首次使用时创建，之后返回同一个实例
+        Assert.assertSame(selector, binaryAutomaton.getSelector('万'));
+        Assert.assertEquals(textAutomaton.getSelectorMap().keySet(), binaryAutomaton.getSelectorMap().keySet());
+    }
+
+    /**
+     * 对 {@link PinyinSelectorLoader#mapBinary(Path, PinyinDictionary)} 方法进行测试，内存映射加载的自动机需与文本文件加载的自动机一致
+     */
+    @Test
+    public void testMapBinary() throws Exception {
+        ChineseWordAutomaton textAutomaton;
+        try (InputStream in = TestPinyinSelectorLoader.class.getResourceAsStream(MULTI_PINYIN_MAPPING_FILE_PATH)) {
+            textAutomaton = PinyinSelectorLoader.loadText(in, DICTIONARY);
+        }
+        Path path = Files.createTempFile("multi_pinyin_mapping", ".bin");
+        path.toFile().deleteOnExit();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PinyinSelectorLoader.writeBinary(textAutomaton, DICTIONARY, out);
+        Files.write(path, out.toByteArray());
+        ChineseWordAutomaton mappedAutomaton = PinyinSelectorLoader.mapBinary(path, DICTIONARY);
+
+        String text = "那里的的的喀喀湖的景色很漂亮，独乐乐不如众乐乐，铁板钉钉，万俟卨，两岁能数数的小孩已数见不鲜了。";
+        int[] expectedSyllableIds = new int[text.length()];
+        int[] actualSyllableIds = new int[text.length()];
+        textAutomaton.select(text, 0, text.length(), expectedSyllableIds);
+        mappedAutomaton.select(text, 0, text.length(), actualSyllableIds);
+        Assert.assertArrayEquals("Invalid select result for mapped automaton.", expectedSyllableIds, actualSyllableIds);
+        for (int i = 0; i < text.length(); i++) {
+            Assert.assertEquals("Invalid default syllable id for character: `" + text.charAt(i) + "`.",
+                    textAutomaton.getDefaultSyllableId(text.charAt(i)), mappedAutomaton.getDefaultSyllableId(text.charAt(i)));
+        }
+
+        PinyinSelector selector = mappedAutomaton.getSelector('万');
+        Assert.assertNotNull("There is no PinyinSelector for chinese character `万`.", selector);
+        Assert.assertSame("PinyinSelector for mapped automaton should be cached.", selector, mappedAutomaton.getSelector('万'));
+        Assert.assertEquals("Select wrong pinyin for chinese character `万`.", "mo4", selector.getPinyin("万俟卨".toCharArray(), 0));
+        Assert.assertNull("`a` should not have PinyinSelector.", mappedAutomaton.getSelector('a'));
+
+        // 内存映射加载的自动机可再次写出相同的二进制内容
+        ByteArrayOutputStream mappedOut = new ByteArrayOutputStream();
+        PinyinSelectorLoader.writeBinary(mappedAutomaton, DICTIONARY, mappedOut);
+        Assert.assertArrayEquals("Invalid binary content for mapped automaton.", out.toByteArray(), mappedOut.toByteArray());
+    }
+
+    /**
+     * 对 {@link MappedChineseWordAutomaton} 的数据长度校验进行测试，根节点状态转移和多音字默认拼音长度不足时应在加载阶段拒绝
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapTruncatedAutomaton() {
+        // 各数组依次为：根节点状态转移、子节点偏移、子节点字符、子节点状态、失败状态、输出链接、输出偏移、输出回退距离、输出值、多音字默认拼音
+        int[] lengths = {1, 2, 0, 0, 1, 1, 2, 0, 0, 1};
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        for (int i = 0; i < lengths.length; i++) {
+            buffer.putInt(lengths[i]);
+            for (int j = 0; j < lengths[i]; j++) {
+                if (i == 2 || i == 9) {
+                    buffer.putShort((short) 0);
+                } else {
+                    buffer.putInt(0);
+                }
+            }
+        }
+        buffer.putInt(1);
+        buffer.flip();
+        new MappedChineseWordAutomaton(null, buffer, DICTIONARY);
+    }
+
+    /**
+     * 对 {@link MappedChineseWordAutomaton} 的数据范围校验进行测试，越界的状态、偏移和音节 ID 应在加载阶段拒绝
+     */
+    @Test
+    public void testMapInvalidAutomaton() {
+        int characterCount = PinyinDictionaryHelper.CHINESE_CHAR_MAX_CODE_POINT - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT + 1;
+        int rootIndex = '万' - PinyinDictionaryHelper.CHINESE_CHAR_MIN_CODE_POINT;
+        int syllableId = DICTIONARY.getSyllableId("wan4");
+        // 仅包含词组 "万" 的自动机：根节点通过 "万" 转移至状态 1，状态 1 输出 "wan4"
+        int[] rootTransitions = new int[characterCount];
+        rootTransitions[rootIndex] = 1;
+        short[] defaultSyllableIds = new short[characterCount];
+        Arrays.fill(defaultSyllableIds, (short) -1);
+        defaultSyllableIds[rootIndex] = (short) syllableId;
+        ChineseWordAutomaton automaton = new MappedChineseWordAutomaton(null, toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0},
+                new int[] {0, 0}, new int[] {0, 0}, new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1), DICTIONARY);
+        int[] syllableIds = new int[1];
+        automaton.select("万", 0, 1, syllableIds);
+        Assert.assertEquals("Invalid select result for mapped automaton.", syllableId, syllableIds[0]);
+
+        int[] invalidRootTransitions = rootTransitions.clone();
+        invalidRootTransitions[rootIndex] = 2;
+        short[] invalidDefaultSyllableIds = defaultSyllableIds.clone();
+        invalidDefaultSyllableIds[rootIndex] = (short) DICTIONARY.getSyllableCount();
+        List<ByteBuffer> invalidBufferList = Arrays.asList(
+                // 根节点状态转移越界
+                toAutomatonBuffer(invalidRootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 失败状态越界
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, -1}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 输出链接越界
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 2},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 子节点偏移超出子节点数组
+                toAutomatonBuffer(rootTransitions, new int[] {0, 1, 1}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 输出偏移非单调递增
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 1, 0}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 输出偏移未覆盖全部输出
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 0}, new int[] {0}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 输出回退距离超过最长词组长度
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {1}, new int[] {syllableId}, defaultSyllableIds, 1),
+                // 输出音节 ID 超出音节表
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {DICTIONARY.getSyllableCount()}, defaultSyllableIds, 1),
+                // 多音字默认拼音音节 ID 超出音节表
+                toAutomatonBuffer(rootTransitions, new int[] {0, 0, 0}, new int[] {0, 0}, new int[] {0, 0},
+                        new int[] {0, 0, 1}, new int[] {0}, new int[] {syllableId}, invalidDefaultSyllableIds, 1));
+        for (int i = 0; i < invalidBufferList.size(); i++) {
+            try {
+                new MappedChineseWordAutomaton(null, invalidBufferList.get(i), DICTIONARY);
+                Assert.fail("MappedChineseWordAutomaton didn't throw IllegalArgumentException. Invalid buffer index: `" + i + "`.");
+            } catch (IllegalArgumentException ignored) {}
+        }
+    }
+
+    /**
+     * 对 {@link PinyinSelectorLoader#parseSelectors(InputStream)} 方法进行测试
+     */
+    @Test
+    public void testParseSelectors() throws Exception {
+        List<PinyinSelector> selectorList = PinyinSelectorLoader.parseSelectors(new ByteArrayInputStream(
+                "万,wan4\nmo4,万俟\n\n上,shang4\nshang3,平上去入".getBytes("UTF-8")));
+        Assert.assertEquals("Invalid selector count.", 2, selectorList.size());
+
+        for (String invalidText : Arrays.asList("mo4,万俟", "万,wan4\nmo4,万俟\nmo4,万俟", "万,wan4\nmo4,万a")) {
+            try {
+                PinyinSelectorLoader.parseSelectors(new ByteArrayInputStream(invalidText.getBytes("UTF-8")));
+                Assert.fail("PinyinSelectorLoader#parseSelectors(InputStream) didn't throw IllegalArgumentException when i used invalid text: `"
+                        + invalidText + "`.");
+            } catch (IllegalArgumentException ignored) {}
+        }
+    }
+
+    /**
+     * 对 {@link PinyinSelectorLoader#parsePhrases(InputStream)} 和
+     * {@link PinyinSelectorLoader#loadPhraseDictionary(InputStream, PinyinDictionary)} 方法进行测试
+     */
+    @Test
+    public void testParsePhrases() throws Exception {
+        String text = "# 地名\n乐亭 , lao4  ting2\n\n单于,chan2 yu2\n";
+        Map<String, String[]> phraseMap = PinyinSelectorLoader.parsePhrases(new ByteArrayInputStream(text.getBytes("UTF-8")));
+        Assert.assertEquals(Arrays.asList("乐亭", "单于"), new ArrayList<>(phraseMap.keySet()));
+        Assert.assertArrayEquals(new String[]{"lao4", "ting2"}, phraseMap.get("乐亭"));
+
+        PinyinPhraseDictionary phraseDictionary = PinyinSelectorLoader.loadPhraseDictionary(
+                new ByteArrayInputStream(text.getBytes("UTF-8")), DICTIONARY);
+        Assert.assertEquals(2, phraseDictionary.getPhraseCount());
+
+        String[] invalidTexts = new String[] {"乐亭", "乐亭,lao ting2", "乐亭,lao4 ting2\n乐亭,le4 ting2"};
+        for (String invalidText : invalidTexts) {
+            try {
+                PinyinSelectorLoader.parsePhrases(new ByteArrayInputStream(invalidText.getBytes("UTF-8")));
+                Assert.fail("PinyinSelectorLoader#parsePhrases(InputStream) didn't throw IllegalArgumentException: `"
+                        + invalidText + "`.");
+            } catch (IllegalArgumentException ignored) {}
+        }
+    }
+    /**
+     * 按 {@link MappedChineseWordAutomaton} 的二进制格式写入自动机数据，不包含子节点，子节点字符和子节点状态数组长度为 0。
+     */
+    private static ByteBuffer toAutomatonBuffer(int[] rootTransitions, int[] childOffsets, int[] failureStates, int[] outputLinks,
+                                                int[] outputOffsets, int[] outputBackDistances, int[] outputValues,
+                                                short[] defaultSyllableIds, int maxWordLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024 + rootTransitions.length * 4 + defaultSyllableIds.length * 2);
+        for (int[] array : new int[][] {rootTransitions, childOffsets, {}, {}, failureStates, outputLinks, outputOffsets,
+                outputBackDistances, outputValues}) {
+            buffer.putInt(array.length);
+            for (int value : array) {
+                buffer.putInt(value);
+            }
+        }
+        buffer.putInt(defaultSyllableIds.length);
+        for (short value : defaultSyllableIds) {
+            buffer.putShort(value);
+        }
+        buffer.putInt(maxWordLength);
+        buffer.flip();
+        return buffer;
+    }
+}
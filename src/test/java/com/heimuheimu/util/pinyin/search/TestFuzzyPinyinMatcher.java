@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.dictionary.TonelessSyllableTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+/**
+ * {@link FuzzyPinyinMatcher} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestFuzzyPinyinMatcher {
+
+    private static final TonelessSyllableTable SYLLABLE_TABLE = PinyinDictionaryFactory.getDictionary().getTonelessSyllableTable();
+
+    @Test
+    public void testExactMatch() {
+        FuzzyPinyinMatcher matcher = new FuzzyPinyinMatcher(SYLLABLE_TABLE, EnumSet.noneOf(FuzzyPinyinRule.class));
+        assertMatches(matcher, "zhang", "z", "zh", "zha", "zhan", "zhang");
+        assertNotMatches(matcher, "zhang", "", "zang", "zhangg", "a", "zhong");
+        assertNotMatches(matcher, "jin", "jing");
+        assertNotMatches(matcher, "nan", "lan");
+    }
+
+    @Test
+    public void testFuzzyMatch() {
+        FuzzyPinyinMatcher matcher = new FuzzyPinyinMatcher(SYLLABLE_TABLE, EnumSet.allOf(FuzzyPinyinRule.class));
+        assertMatches(matcher, "zhang", "z", "zh", "zang", "zhang");
+        assertMatches(matcher, "zang", "zhang", "zh");
+        assertMatches(matcher, "chi", "ci");
+        assertMatches(matcher, "si", "shi");
+        assertMatches(matcher, "nan", "lan", "l");
+        assertMatches(matcher, "lv", "nv");
+        assertMatches(matcher, "jin", "jing");
+        assertMatches(matcher, "jing", "jin");
+        assertMatches(matcher, "sheng", "sen", "shen", "seng");
+        assertMatches(matcher, "ling", "nin", "ning", "lin");
+        assertNotMatches(matcher, "zhang", "zhong", "c", "zangg");
+        assertNotMatches(matcher, "an", "ang");
+
+        FuzzyPinyinMatcher zMatcher = new FuzzyPinyinMatcher(SYLLABLE_TABLE, EnumSet.of(FuzzyPinyinRule.Z_ZH));
+        assertMatches(zMatcher, "zhi", "zi");
+        assertNotMatches(zMatcher, "shi", "si");
+        assertNotMatches(zMatcher, "jin", "jing");
+    }
+
+    @Test
+    public void testApply() {
+        Assert.assertEquals("zang", FuzzyPinyinRule.Z_ZH.apply("zhang"));
+        Assert.assertEquals("zhang", FuzzyPinyinRule.Z_ZH.apply("zang"));
+        Assert.assertNull(FuzzyPinyinRule.Z_ZH.apply("ma"));
+        Assert.assertEquals("lan", FuzzyPinyinRule.N_L.apply("nan"));
+        Assert.assertEquals("nan", FuzzyPinyinRule.N_L.apply("lan"));
+        Assert.assertEquals("ping", FuzzyPinyinRule.IN_ING.apply("pin"));
+        Assert.assertEquals("pin", FuzzyPinyinRule.IN_ING.apply("ping"));
+        Assert.assertEquals("sheng", FuzzyPinyinRule.EN_ENG.apply("shen"));
+        Assert.assertNull(FuzzyPinyinRule.EN_ENG.apply("en"));
+    }
+
+    private static void assertMatches(FuzzyPinyinMatcher matcher, String syllable, String... prefixes) {
+        int tonelessId = SYLLABLE_TABLE.getTonelessId(syllable);
+        Assert.assertTrue("Unknown syllable: " + syllable, tonelessId >= 0);
+        for (String prefix : prefixes) {
+            Assert.assertTrue("`" + prefix + "` should match `" + syllable + "`", matcher.matchesPrefix(prefix, tonelessId));
+        }
+    }
+
+    private static void assertNotMatches(FuzzyPinyinMatcher matcher, String syllable, String... prefixes) {
+        int tonelessId = SYLLABLE_TABLE.getTonelessId(syllable);
+        Assert.assertTrue("Unknown syllable: " + syllable, tonelessId >= 0);
+        for (String prefix : prefixes) {
+            Assert.assertFalse("`" + prefix + "` should not match `" + syllable + "`", matcher.matchesPrefix(prefix, tonelessId));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.PinyinConverter;
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionary;
+import com.heimuheimu.util.pinyin.multi.ChineseWordAutomaton;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PinyinSearchIndex} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinSearchIndex {
+
+    /**
+     * 音节表和条目音节 ID 需来自同一个拼音转换器，与默认字典的音节 ID 不一致时搜索结果仍然正确
+     */
+    @Test
+    public void testConverter() {
+        Map<Integer, String[]> pinyinMap = new HashMap<>();
+        pinyinMap.put((int) '张', new String[] {"zhang1"});
+        pinyinMap.put((int) '三', new String[] {"san1"});
+        PinyinDictionary dictionary = new PinyinDictionary(pinyinMap);
+        PinyinConverter converter = new PinyinConverter.Builder()
+                .setDictionary(dictionary, new ChineseWordAutomaton(dictionary, Collections.emptyList())).build();
+        PinyinSearchIndex index = new PinyinSearchIndex(converter, EnumSet.noneOf(FuzzyPinyinRule.class));
+        Assert.assertSame(dictionary.getTonelessSyllableTable(), index.getSyllableTable());
+        index.add(1, "张三", 10);
+        index.add(2, "李四", 5);
+        assertIds(index.search("zs", 10), 1);
+        assertIds(index.search("zhangsan", 10), 1);
+        assertIds(index.search("", 10), 1, 2);
+        try {
+            new PinyinSearchIndex(null, EnumSet.noneOf(FuzzyPinyinRule.class));
+            Assert.fail("PinyinSearchIndex didn't throw NullPointerException.");
+        } catch (NullPointerException ignored) {}
+    }
+
+    @Test
+    public void testSearch() {
+        PinyinSearchIndex index = new PinyinSearchIndex();
+        index.add(1, "张三", 10);
+        index.add(2, "张三丰", 30);
+        index.add(3, "赵四", 20);
+        index.add(4, "张三石", 5);
+        index.add(5, "李四", 1);
+        Assert.assertEquals(5, index.size());
+
+        assertIds(index.search("zhangsan", 10), 2, 1, 4);
+        assertIds(index.search("zs", 10), 2, 3, 1, 4);
+        assertIds(index.search("zhangs", 10), 2, 1, 4);
+        assertIds(index.search("ZhangSanF", 10), 2);
+        assertIds(index.search("zsf", 10), 2);
+        assertIds(index.search("zhaos", 10), 3);
+        assertIds(index.search("ls", 10), 5);
+        assertIds(index.search("zhangsanfengx", 10));
+        assertIds(index.search("s", 10));
+        assertIds(index.search("", 3), 2, 3, 1);
+        assertIds(index.search("zs", 2), 2, 3);
+        assertIds(index.search("zs", 0));
+
+        // 多音字按词组选择："重庆" 读作 "chong qing"
+        index.add(6, "重庆", 8);
+        assertIds(index.search("chongq", 10), 6);
+        assertIds(index.search("zhongq", 10));
+        assertIds(index.search("cq", 10), 6);
+    }
+
+    @Test
+    public void testUpdate() {
+        PinyinSearchIndex index = new PinyinSearchIndex();
+        index.add(1, "张三", 10);
+        index.add(2, "李四", 20);
+        index.add(1, "王五", 30);
+        Assert.assertEquals(2, index.size());
+        assertIds(index.search("zs", 10));
+        assertIds(index.search("ww", 10), 1);
+        Assert.assertEquals("王五", index.search("wangwu", 1).get(0).getText());
+        assertIds(index.search("", 10), 1, 2);
+
+        Assert.assertTrue(index.remove(1));
+        Assert.assertFalse(index.remove(1));
+        Assert.assertEquals(1, index.size());
+        assertIds(index.search("ww", 10));
+        assertIds(index.search("", 10), 2);
+
+        // 没有拼音的条目仅在查询文本为空时返回
+        index.add(3, "abc", 40);
+        assertIds(index.search("a", 10));
+        assertIds(index.search("", 10), 3, 2);
+
+        try {
+            index.add(4, "张三", Double.NaN);
+            Assert.fail("Expected throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * 对 {@link PinyinSearchIndex#addAll(long[], CharSequence[], double[])} 方法进行测试，批量添加的结果需与逐个添加一致
+     */
+    @Test
+    public void testAddAll() {
+        PinyinSearchIndex index = new PinyinSearchIndex();
+        PinyinSearchIndex expectedIndex = new PinyinSearchIndex();
+        index.add(1, "张三", 10);
+        expectedIndex.add(1, "张三", 10);
+        index.add(2, "李四", 20);
+        expectedIndex.add(2, "李四", 20);
+
+        long[] ids = {3, 4, 1, 5, 6, 4, 7, 8};
+        String[] texts = {"张三丰", "赵四", "王五", "张三", "重庆", "赵思", "abc", "张山"};
+        double[] weights = {30, 5, 25, 10, 8, 15, 40, 10};
+        index.addAll(ids, texts, weights);
+        for (int i = 0; i < ids.length; i++) {
+            expectedIndex.add(ids[i], texts[i], weights[i]);
+        }
+        Assert.assertEquals(expectedIndex.size(), index.size());
+        String[] queries = {"", "zs", "zhangsan", "zhangs", "ww", "ls", "cq", "zhaos", "a", "z"};
+        for (String query : queries) {
+            assertSameResults(query, expectedIndex.search(query, 10), index.search(query, 10));
+        }
+
+        // 批量添加后仍可逐个更新
+        Assert.assertTrue(index.remove(5));
+        index.add(9, "张三", 50);
+        assertIds(index.search("zs", 10), 9, 3, 4, 8);
+
+        index.addAll(new long[0], new CharSequence[0], new double[0]);
+        Assert.assertEquals(8, index.size());
+        try {
+            index.addAll(new long[] {10, 11}, new CharSequence[] {"张三", "李四"}, new double[] {1, Double.NaN});
+            Assert.fail("Expected throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+        try {
+            index.addAll(new long[] {10}, new CharSequence[] {"张三", "李四"}, new double[] {1});
+            Assert.fail("Expected throw IllegalArgumentException.");
+        } catch (IllegalArgumentException ignored) {}
+        Assert.assertEquals(8, index.size());
+    }
+
+    @Test
+    public void testFuzzySearch() {
+        PinyinSearchIndex index = new PinyinSearchIndex(EnumSet.of(FuzzyPinyinRule.Z_ZH, FuzzyPinyinRule.S_SH,
+                FuzzyPinyinRule.N_L, FuzzyPinyinRule.IN_ING));
+        index.add(1, "张三", 10);
+        index.add(2, "臧山", 20);
+        index.add(3, "刘星", 30);
+        index.add(4, "牛欣", 40);
+        assertIds(index.search("zangsan", 10), 2, 1);
+        assertIds(index.search("zhangshan", 10), 2, 1);
+        assertIds(index.search("zhs", 10), 2, 1);
+        assertIds(index.search("liux", 10), 4, 3);
+        assertIds(index.search("niuxing", 10), 4, 3);
+        assertIds(index.search("niuxg", 10));
+        assertIds(index.search("lx", 10), 4, 3);
+        assertIds(index.search("nx", 10), 4, 3);
+
+        PinyinSearchIndex exactIndex = new PinyinSearchIndex();
+        exactIndex.add(1, "张三", 10);
+        exactIndex.add(2, "臧山", 20);
+        assertIds(exactIndex.search("zangsan", 10));
+        assertIds(exactIndex.search("zs", 10), 2, 1);
+    }
+
+    private static void assertSameResults(String query, List<PinyinSearchResult> expectedList, List<PinyinSearchResult> actualList) {
+        Assert.assertEquals("Invalid result size for query: `" + query + "`.", expectedList.size(), actualList.size());
+        for (int i = 0; i < expectedList.size(); i++) {
+            Assert.assertEquals("Invalid result id for query: `" + query + "`.", expectedList.get(i).getId(), actualList.get(i).getId());
+            Assert.assertEquals("Invalid result text for query: `" + query + "`.", expectedList.get(i).getText(), actualList.get(i).getText());
+            Assert.assertEquals("Invalid result weight for query: `" + query + "`.", expectedList.get(i).getWeight(),
+                    actualList.get(i).getWeight(), 0);
+        }
+    }
+
+    private static void assertIds(List<PinyinSearchResult> resultList, long... expectedIds) {
+        long[] actualIds = new long[resultList.size()];
+        for (int i = 0; i < actualIds.length; i++) {
+            actualIds[i] = resultList.get(i).getId();
+        }
+        Assert.assertArrayEquals("Search result: " + resultList, expectedIds, actualIds);
+    }
+}
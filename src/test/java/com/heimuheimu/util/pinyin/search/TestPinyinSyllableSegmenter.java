@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2018 heimuheimu
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.heimuheimu.util.pinyin.search;
+
+import com.heimuheimu.util.pinyin.dictionary.PinyinDictionaryFactory;
+import com.heimuheimu.util.pinyin.dictionary.TonelessSyllableTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * {@link PinyinSyllableSegmenter} 单元测试类。
+ *
+ * @author heimuheimu
+ */
+public class TestPinyinSyllableSegmenter {
+
+    private static final TonelessSyllableTable SYLLABLE_TABLE = PinyinDictionaryFactory.getDictionary().getTonelessSyllableTable();
+
+    private static final PinyinSyllableSegmenter SEGMENTER = new PinyinSyllableSegmenter(SYLLABLE_TABLE);
+
+    @Test
+    public void testBestSegmentation() {
+        PinyinSyllableLattice lattice = new PinyinSyllableLattice();
+        Assert.assertEquals("xiang gang", getBest(SEGMENTER.segment("xianggang", lattice)));
+        Assert.assertEquals("zhong guo ren", getBest(SEGMENTER.segment("zhongguoren", lattice)));
+        Assert.assertEquals("xian", getBest(SEGMENTER.segment("xian", lattice)));
+        Assert.assertEquals("xi an", getBest(SEGMENTER.segment("xi'an", lattice)));
+        Assert.assertEquals("fang an", getBest(SEGMENTER.segment("fangan", lattice)));
+        Assert.assertEquals("zhong guo", getBest(SEGMENTER.segment("Zhong Guo", lattice)));
+        Assert.assertEquals("lv se", getBest(SEGMENTER.segment("lüse", lattice)));
+        Assert.assertEquals(SYLLABLE_TABLE.getTonelessId("lv"), lattice.getEdgeTonelessId(0, 0));
+
+        Assert.assertFalse(SEGMENTER.segment("zhongv", lattice).isSegmentable());
+        Assert.assertEquals(0, lattice.getSegmentationCount());
+        Assert.assertEquals(0, lattice.getEdgeCount(0));
+        Assert.assertEquals(0, lattice.getBestSegmentation(new int[8]));
+
+        Assert.assertTrue(SEGMENTER.segment("", lattice).isSegmentable());
+        Assert.assertEquals(1, lattice.getSegmentationCount());
+        Assert.assertEquals(0, lattice.getBestSyllableCount());
+    }
+
+    @Test
+    public void testAmbiguity() {
+        PinyinSyllableLattice lattice = SEGMENTER.segment("xian", new PinyinSyllableLattice());
+        Assert.assertTrue(lattice.isAmbiguous());
+        Assert.assertEquals(2, lattice.getSegmentationCount());
+        Assert.assertEquals(2, lattice.getEdgeCount(0));
+        Assert.assertEquals(4, lattice.getEdgeEnd(0, 0));
+        Assert.assertEquals(SYLLABLE_TABLE.getTonelessId("xian"), lattice.getEdgeTonelessId(0, 0));
+        Assert.assertEquals(2, lattice.getEdgeEnd(0, 1));
+        Assert.assertEquals(SYLLABLE_TABLE.getTonelessId("an"), lattice.getEdgeTonelessId(2, 0));
+        // "xia" + "n" 无法完整切分，不应出现在网格中
+        Assert.assertEquals(0, lattice.getEdgeCount(3));
+        List<int[]> segmentationList = lattice.getSegmentations(10);
+        Assert.assertEquals(2, segmentationList.size());
+        Assert.assertArrayEquals(new int[] {4}, segmentationList.get(0));
+        Assert.assertArrayEquals(new int[] {2, 4}, segmentationList.get(1));
+        Assert.assertEquals(1, lattice.getSegmentations(1).size());
+
+        Assert.assertFalse(SEGMENTER.segment("xi'an", lattice).isAmbiguous());
+        Assert.assertFalse(SEGMENTER.segment("zhong", lattice).isAmbiguous());
+    }
+
+    @Test
+    public void testPartialLast() {
+        PinyinSyllableLattice lattice = new PinyinSyllableLattice();
+        Assert.assertFalse(SEGMENTER.segment("zhongg", lattice).isSegmentable());
+        Assert.assertTrue(SEGMENTER.segment("zhongg", true, lattice).isSegmentable());
+        Assert.assertEquals("zhong g", getBest(lattice));
+        Assert.assertEquals(-1, lattice.getEdgeTonelessId(5, 0));
+        Assert.assertEquals("zhong guo", getBest(SEGMENTER.segment("zhongguo", true, lattice)));
+    }
+
+    @Test
+    public void testLongInput() {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            input.append("zhongguoren");
+            expected.append(i > 0 ? " " : "").append("zhong guo ren");
+        }
+        PinyinSyllableLattice lattice = new PinyinSyllableLattice();
+        Assert.assertEquals(expected.toString(), getBest(SEGMENTER.segment(input, lattice)));
+        Assert.assertEquals("xian", getBest(SEGMENTER.segment("xian", lattice)));
+    }
+
+    private static String getBest(PinyinSyllableLattice lattice) {
+        int[] ends = new int[lattice.getLength()];
+        int count = lattice.getBestSegmentation(ends);
+        StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            buffer.append(i > 0 ? " " : "").append(lattice.substring(i > 0 ? ends[i - 1] : 0, ends[i]));
+        }
+        return buffer.toString();
+    }
+}